@@ -22,15 +22,27 @@ import io.requery.sql.ConfigurationBuilder;
 import io.requery.sql.EntityDataStore;
 import io.requery.sql.SchemaModifier;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.core.admission.AdmissionController;
+import org.springframework.data.requery.core.admission.AdmissionLimitType;
+import org.springframework.data.requery.core.admission.AdmissionListener;
+import org.springframework.data.requery.core.admission.AdmissionPolicy;
+import org.springframework.data.requery.core.export.FetchSizeListener;
+import org.springframework.data.requery.core.timeout.QueryTimeoutListener;
 import org.springframework.data.requery.listeners.LogbackListener;
+import org.springframework.data.requery.listeners.feed.EntityChangeFeed;
+import org.springframework.data.requery.listeners.feed.EntityChangeSubscriber;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.util.ClassUtils;
@@ -40,6 +52,9 @@ import javax.annotation.Nonnull;
 import javax.annotation.PostConstruct;
 import javax.sql.DataSource;
 import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * org.springframework.boot.autoconfigure.data.requery.RequeryAutoConfiguration
@@ -86,13 +101,59 @@ public class RequeryAutoConfiguration {
     @ConditionalOnMissingBean
     @ConditionalOnBean({ DataSource.class, EntityModel.class })
     public io.requery.sql.Configuration requeryConfiguration(@Nonnull final DataSource dataSource,
-                                                             @Nonnull final EntityModel entityModel) {
-        return new ConfigurationBuilder(dataSource, entityModel)
+                                                             @Nonnull final EntityModel entityModel,
+                                                             @Nonnull final ObjectProvider<EntityChangeFeed> changeFeed) {
+        ConfigurationBuilder builder = new ConfigurationBuilder(dataSource, entityModel)
             .setStatementCacheSize(properties.getStatementCacheSize())
             .setBatchUpdateSize(properties.getBatchUpdateSize())
             .setEntityCache(new WeakEntityCache())
             .addStatementListener(new LogbackListener<>())
-            .build();
+            .addStatementListener(queryTimeoutListener())
+            .addStatementListener(new FetchSizeListener());
+
+        EntityChangeFeed feed = changeFeed.getIfAvailable();
+        if (feed != null) {
+            log.info("Install entity change feed. capacity={}", feed.getCapacity());
+            feed.install(builder);
+        }
+        return builder.build();
+    }
+
+    @Nonnull
+    private QueryTimeoutListener queryTimeoutListener() {
+        Duration queryTimeout = properties.getQueryTimeout();
+        if (queryTimeout == null || queryTimeout.isZero() || queryTimeout.isNegative()) {
+            return new QueryTimeoutListener();
+        }
+        log.info("Apply default query timeout. timeout={}", queryTimeout);
+        return new QueryTimeoutListener(queryTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * {@code spring.data.requery.change-feed.enabled=true} 이면 commit 된 엔티티 변경 내역을 비동기로 전달하는 {@link EntityChangeFeed}를 생성합니다.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "spring.data.requery.change-feed", name = "enabled", havingValue = "true")
+    public EntityChangeFeed entityChangeFeed(@Nonnull final EntityModel entityModel) {
+        RequeryProperties.ChangeFeed settings = properties.getChangeFeed();
+        return new EntityChangeFeed(entityModel, settings.getCapacity())
+            .maxBatchSize(settings.getMaxBatchSize())
+            .overflowStrategy(settings.getOverflowStrategy(), settings.getBlockTimeout().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 모든 singleton bean 이 생성된 후 {@link EntityChangeSubscriber} bean 들을 {@link EntityChangeFeed}에 등록합니다.
+     * subscriber 가 repository 등을 참조해도 순환 참조가 생기지 않도록 requery 설정과 분리합니다.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "spring.data.requery.change-feed", name = "enabled", havingValue = "true")
+    public SmartInitializingSingleton entityChangeSubscriberRegistrar(@Nonnull final ObjectProvider<EntityChangeFeed> changeFeed,
+                                                                      @Nonnull final ObjectProvider<List<EntityChangeSubscriber>> subscribers) {
+        return () -> changeFeed.ifAvailable(feed -> subscribers.ifAvailable(it -> it.forEach(subscriber -> {
+            log.info("Subscribe entity change feed. subscriber={}", subscriber);
+            feed.subscribe(subscriber);
+        })));
     }
 
     @Bean
@@ -109,6 +170,61 @@ public class RequeryAutoConfiguration {
         return new DataSourceTransactionManager(dataSource);
     }
 
+    /**
+     * {@code spring.data.requery.warmup.enabled=true} 이면 context refresh 후 SQL 생성과 statement 준비를 미리 수행합니다.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "spring.data.requery.warmup", name = "enabled", havingValue = "true")
+    public RequeryWarmupListener requeryWarmupListener(@Nonnull final ObjectProvider<RequeryOperations> operations) {
+        return new RequeryWarmupListener(operations, properties.getWarmup());
+    }
+
+    /**
+     * {@code spring.data.requery.admission.enabled=true} 이면 repository method 의 동시 실행 수를 제한하는 {@link AdmissionController}를 생성합니다.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "spring.data.requery.admission", name = "enabled", havingValue = "true")
+    public AdmissionController admissionController() {
+        RequeryProperties.Admission settings = properties.getAdmission();
+        AdmissionController controller = new AdmissionController(toPolicy(settings, settings));
+        settings.getLimits().forEach((name, limit) -> controller.policy(name, toPolicy(limit, settings)));
+        return controller;
+    }
+
+    /**
+     * 모든 singleton bean 이 생성된 후 {@link AdmissionListener} bean 들을 {@link AdmissionController}에 등록합니다.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "spring.data.requery.admission", name = "enabled", havingValue = "true")
+    public SmartInitializingSingleton admissionListenerRegistrar(@Nonnull final ObjectProvider<AdmissionController> admissionController,
+                                                                 @Nonnull final ObjectProvider<List<AdmissionListener>> listeners) {
+        return () -> admissionController.ifAvailable(controller -> listeners.ifAvailable(it -> it.forEach(controller::addListener)));
+    }
+
+    @Nonnull
+    private static AdmissionPolicy toPolicy(@Nonnull final RequeryProperties.AdmissionLimit limit,
+                                            @Nonnull final RequeryProperties.AdmissionLimit defaults) {
+        AdmissionLimitType limitType = limit.getLimitType() != null ? limit.getLimitType() : defaults.getLimitType();
+        int initialLimit = limit.getInitialLimit() != null ? limit.getInitialLimit() : defaults.getInitialLimit();
+        Duration maxWait = limit.getMaxWait() != null ? limit.getMaxWait() : defaults.getMaxWait();
+        Duration latencyThreshold = limit.getLatencyThreshold() != null ? limit.getLatencyThreshold() : defaults.getLatencyThreshold();
+
+        AdmissionPolicy policy = new AdmissionPolicy()
+            .maxWait(maxWait.toMillis(), TimeUnit.MILLISECONDS)
+            .maxQueueSize(limit.getMaxQueueSize() != null ? limit.getMaxQueueSize() : defaults.getMaxQueueSize())
+            .latencyThreshold(latencyThreshold.toMillis(), TimeUnit.MILLISECONDS);
+
+        if (limitType == AdmissionLimitType.FIXED) {
+            return policy.fixed(initialLimit);
+        }
+        return policy.limitType(limitType)
+                     .limits(initialLimit,
+                             limit.getMinLimit() != null ? limit.getMinLimit() : defaults.getMinLimit(),
+                             limit.getMaxLimit() != null ? limit.getMaxLimit() : defaults.getMaxLimit());
+    }
+
     @Autowired io.requery.sql.Configuration configuration;
 
     /**
@@ -18,6 +18,7 @@ package org.springframework.boot.autoconfigure.data.requery;
 
 import io.requery.sql.EntityDataStore;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -26,10 +27,14 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.requery.core.RequeryOperations;
 import org.springframework.data.requery.core.RequeryTemplate;
+import org.springframework.data.requery.core.tenant.TenantDataSourceProvider;
+import org.springframework.data.requery.core.tenant.TenantResolver;
+import org.springframework.data.requery.core.tenant.TenantRoutingRequeryOperations;
 import org.springframework.data.requery.mapping.RequeryMappingContext;
 
 import javax.annotation.Nonnull;
 import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
 
 /**
  * org.springframework.boot.autoconfigure.data.requery.RequeryAutoConfiguration
@@ -46,7 +51,16 @@ public class RequeryDataAutoConfiguration {
     @ConditionalOnMissingBean
     @ConditionalOnBean(EntityDataStore.class)
     public RequeryOperations requeryOperations(@Nonnull final EntityDataStore<Object> entityDataStore,
-                                               @Nonnull final RequeryMappingContext mappingContext) {
+                                               @Nonnull final RequeryMappingContext mappingContext,
+                                               @Nonnull final RequeryProperties properties,
+                                               @Nonnull final ObjectProvider<TenantDataSourceProvider> tenantDataSourceProvider,
+                                               @Nonnull final ObjectProvider<TenantResolver> tenantResolver) {
+
+        TenantDataSourceProvider dataSourceProvider = tenantDataSourceProvider.getIfAvailable();
+        if (dataSourceProvider != null) {
+            log.info("Create TenantRoutingRequeryOperations ...");
+            return createTenantRoutingOperations(entityDataStore, mappingContext, properties, dataSourceProvider, tenantResolver);
+        }
 
         log.info("Create RequeryOperations ...");
         try {
@@ -56,6 +70,29 @@ public class RequeryDataAutoConfiguration {
         }
     }
 
+    /**
+     * 기본 {@link EntityDataStore}의 설정으로 tenant 별 store 를 생성하는 {@link TenantRoutingRequeryOperations}를 만듭니다.
+     * tenant 를 결정할 수 없는 호출은 기본 {@link EntityDataStore}를 사용하고, tenant 의 schema 는 기본 store 와 같은 table creation mode 로 생성합니다.
+     */
+    private RequeryOperations createTenantRoutingOperations(@Nonnull final EntityDataStore<Object> entityDataStore,
+                                                            @Nonnull final RequeryMappingContext mappingContext,
+                                                            @Nonnull final RequeryProperties properties,
+                                                            @Nonnull final TenantDataSourceProvider dataSourceProvider,
+                                                            @Nonnull final ObjectProvider<TenantResolver> tenantResolver) {
+        RequeryProperties.Tenant tenant = properties.getTenant();
+        TenantRoutingRequeryOperations operations =
+            new TenantRoutingRequeryOperations(entityDataStore, mappingContext, dataSourceProvider)
+                .tenantResolver(tenantResolver.getIfAvailable(() -> TenantResolver.CONTEXT_HOLDER))
+                .idleTimeout(tenant.getIdleTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .evictionGrace(tenant.getEvictionGrace().toMillis(), TimeUnit.MILLISECONDS)
+                .tableCreationMode(properties.getTableCreationMode());
+
+        if (tenant.getMaxTenants() != null) {
+            operations.maxTenants(tenant.getMaxTenants());
+        }
+        return operations;
+    }
+
     @Bean
     @ConditionalOnMissingBean
     public RequeryMappingContext mappingContext(@Nonnull final ApplicationContext applicationContext) {
@@ -20,6 +20,15 @@ import io.requery.sql.TableCreationMode;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.data.requery.core.admission.AdmissionLimitType;
+import org.springframework.data.requery.core.admission.AdmissionPolicy;
+import org.springframework.data.requery.listeners.feed.EntityChangeFeed;
+import org.springframework.data.requery.listeners.feed.OverflowStrategy;
+import org.springframework.data.requery.repository.query.QueryBootstrapMode;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Spring Boot AutoConfiguration 사용 시 Requery와 관련된 환경설정 값을 읽어옵니다.
@@ -42,13 +51,173 @@ public class RequeryProperties {
     private Integer batchUpdateSize = 100;
 
     /**
-     * Statement cache size
+     * Statement cache size.
+     * requery 의 statement cache 는 모든 connection 이 공유하므로 동시 요청이 있는 환경에서는 0 (사용 안함) 이어야 합니다.
+     */
+    private Integer statementCacheSize = 0;
+
+    /**
+     * 모든 statement 에 적용할 기본 query timeout. 지정하지 않으면 {@code @QueryTimeout}, {@code QueryDeadline}으로 지정한 제한만 적용합니다.
+     * JDBC 의 query timeout 은 초 단위이므로 1초 미만은 올림해서 적용합니다.
      */
-    private Integer statementCacheSize = 1024;
+    private Duration queryTimeout;
 
     /**
      * Table creation mode
      */
     private TableCreationMode tableCreationMode; // = TableCreationMode.CREATE_NOT_EXISTS;
 
+    /**
+     * Repository query method 생성 시점 (DEFAULT, LAZY, PARALLEL).
+     * {@code @EnableRequeryRepositories(bootstrapMode = ...)}를 지정하지 않은 repository 에 적용됩니다.
+     */
+    private QueryBootstrapMode bootstrapMode = QueryBootstrapMode.DEFAULT;
+
+    /**
+     * 시작 시 SQL 생성과 statement 준비를 미리 수행하는 warmup 설정
+     */
+    private final Warmup warmup = new Warmup();
+
+    @Getter
+    @Setter
+    public static class Warmup {
+
+        /**
+         * true 이면 context refresh 후 entity model 과 repository query method 의 SQL 을 미리 생성합니다.
+         */
+        private boolean enabled = false;
+
+        /**
+         * true 이면 생성한 SQL 을 connection 마다 prepare 합니다.
+         */
+        private boolean prepareStatements = false;
+
+        /**
+         * Statement 를 prepare 할 connection 수. connection pool 크기를 넘지 않아야 합니다.
+         */
+        private int connections = 1;
+    }
+
+    /**
+     * {@link org.springframework.data.requery.core.tenant.TenantDataSourceProvider} bean 이 있을 때 사용하는 tenant 별 store 설정
+     */
+    private final Tenant tenant = new Tenant();
+
+    @Getter
+    @Setter
+    public static class Tenant {
+
+        /**
+         * 이 시간 동안 사용하지 않은 tenant 의 EntityDataStore 를 정리합니다.
+         */
+        private Duration idleTimeout = Duration.ofMinutes(30);
+
+        /**
+         * 동시에 유지할 tenant EntityDataStore 의 최대 수. 지정하지 않으면 제한하지 않습니다.
+         */
+        private Integer maxTenants;
+
+        /**
+         * 마지막으로 사용한 뒤 이 시간이 지나지 않은 tenant 의 EntityDataStore 는 max-tenants 를 넘어도 정리하지 않습니다.
+         */
+        private Duration evictionGrace = Duration.ofSeconds(1);
+    }
+
+    /**
+     * commit 된 엔티티 변경 내역을 {@link org.springframework.data.requery.listeners.feed.EntityChangeSubscriber} bean 들에게 비동기로 전달하는 설정
+     */
+    private final ChangeFeed changeFeed = new ChangeFeed();
+
+    @Getter
+    @Setter
+    public static class ChangeFeed {
+
+        /**
+         * true 이면 {@link org.springframework.data.requery.listeners.feed.EntityChangeFeed}를 requery 설정에 등록합니다.
+         */
+        private boolean enabled = false;
+
+        /**
+         * 전달을 기다리는 변경 내역을 보관하는 ring buffer 크기
+         */
+        private int capacity = EntityChangeFeed.DEFAULT_CAPACITY;
+
+        /**
+         * subscriber 에 한번에 전달할 최대 변경 내역 수
+         */
+        private int maxBatchSize = EntityChangeFeed.DEFAULT_MAX_BATCH_SIZE;
+
+        /**
+         * ring buffer 가 가득 찼을 때의 처리 방법 (DROP, BLOCK)
+         */
+        private OverflowStrategy overflowStrategy = OverflowStrategy.DROP;
+
+        /**
+         * BLOCK 일 때 commit 한 thread 가 기다리는 최대 시간
+         */
+        private Duration blockTimeout = Duration.ofMillis(EntityChangeFeed.DEFAULT_BLOCK_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Repository method 의 동시 실행 수를 제한하는 admission control 설정.
+     * 동시 실행 수를 connection pool 크기보다 작게 제한하면 pool 을 기다리는 요청이 쌓이지 않고 바로 거절되거나 제한된 시간만 기다립니다.
+     */
+    private final Admission admission = new Admission();
+
+    @Getter
+    @Setter
+    public static class Admission extends AdmissionLimit {
+
+        /**
+         * true 이면 {@link org.springframework.data.requery.core.admission.AdmissionController}를 생성해 repository 에 적용합니다.
+         */
+        private boolean enabled = false;
+
+        /**
+         * repository 이름(예: {@code UserRepository}) 또는 method 이름(예: {@code UserRepository.findByName})별 설정.
+         * 지정하지 않은 값은 기본 설정을 따릅니다.
+         */
+        private Map<String, AdmissionLimit> limits = new LinkedHashMap<>();
+
+        public Admission() {
+            setLimitType(AdmissionLimitType.AIMD);
+            setInitialLimit(AdmissionPolicy.DEFAULT_INITIAL_LIMIT);
+            setMinLimit(AdmissionPolicy.DEFAULT_MIN_LIMIT);
+            setMaxLimit(AdmissionPolicy.DEFAULT_MAX_LIMIT);
+            setMaxWait(Duration.ZERO);
+            setMaxQueueSize(AdmissionPolicy.DEFAULT_MAX_QUEUE_SIZE);
+            setLatencyThreshold(Duration.ofMillis(AdmissionPolicy.DEFAULT_LATENCY_THRESHOLD_MILLIS));
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class AdmissionLimit {
+
+        /**
+         * limit 조정 방식 (FIXED, AIMD, VEGAS). FIXED 이면 initial-limit 을 그대로 사용합니다.
+         */
+        private AdmissionLimitType limitType;
+
+        private Integer initialLimit;
+
+        private Integer minLimit;
+
+        private Integer maxLimit;
+
+        /**
+         * limit 을 넘은 요청이 기다리는 최대 시간. 0 이면 기다리지 않고 바로 거절합니다.
+         */
+        private Duration maxWait;
+
+        /**
+         * 기다리는 요청의 최대 수
+         */
+        private Integer maxQueueSize;
+
+        /**
+         * AIMD 에서 이 시간보다 오래 걸린 실행은 과부하로 보고 limit 을 줄입니다.
+         */
+        private Duration latencyThreshold;
+    }
 }
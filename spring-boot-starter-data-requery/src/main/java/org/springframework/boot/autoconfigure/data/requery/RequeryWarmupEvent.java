@@ -0,0 +1,46 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.autoconfigure.data.requery;
+
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.data.requery.repository.support.RequeryWarmupResult;
+
+import javax.annotation.Nonnull;
+
+/**
+ * {@link RequeryWarmupListener}가 warmup 을 마친 후 발행하는 event. 단계별 소요 시간을 startup metric 으로 기록할 때 사용합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+public class RequeryWarmupEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 7756430977368407963L;
+
+    private final RequeryWarmupResult result;
+
+    public RequeryWarmupEvent(@Nonnull final ApplicationContext source, @Nonnull final RequeryWarmupResult result) {
+        super(source);
+        this.result = result;
+    }
+
+    @Nonnull
+    public RequeryWarmupResult getResult() {
+        return result;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.autoconfigure.data.requery;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.data.repository.query.RepositoryQuery;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.repository.support.RequeryRepositoryFactoryBean;
+import org.springframework.data.requery.repository.support.RequeryWarmup;
+import org.springframework.data.requery.repository.support.RequeryWarmupResult;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Context refresh 후 한 번 {@link RequeryWarmup}을 실행하고, 소요 시간을 {@link RequeryWarmupEvent}로 발행합니다.
+ * <p>
+ * 내장 web server 는 refresh event 이후에 시작되므로, warmup 이 끝난 후에 요청을 받습니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+public class RequeryWarmupListener implements ApplicationListener<ContextRefreshedEvent>, ApplicationContextAware {
+
+    private final ObjectProvider<RequeryOperations> operations;
+    private final RequeryProperties.Warmup properties;
+    private final AtomicBoolean executed = new AtomicBoolean();
+
+    @Nullable private ApplicationContext applicationContext;
+    @Nullable private volatile RequeryWarmupResult result;
+
+    public RequeryWarmupListener(@Nonnull final ObjectProvider<RequeryOperations> operations,
+                                 @Nonnull final RequeryProperties.Warmup properties) {
+        this.operations = operations;
+        this.properties = properties;
+    }
+
+    @Override
+    public void setApplicationContext(@Nonnull final ApplicationContext applicationContext) {
+        this.applicationContext = applicationContext;
+    }
+
+    /**
+     * 마지막 warmup 결과. 아직 실행하지 않았으면 null 입니다.
+     */
+    @Nullable
+    public RequeryWarmupResult getResult() {
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void onApplicationEvent(@Nonnull final ContextRefreshedEvent event) {
+        final ApplicationContext context = event.getApplicationContext();
+        if (context != applicationContext || !executed.compareAndSet(false, true)) {
+            return;
+        }
+
+        RequeryOperations requeryOperations = operations.getIfAvailable();
+        if (requeryOperations == null) {
+            log.info("Skip requery warmup. No RequeryOperations bean.");
+            return;
+        }
+
+        List<RepositoryQuery> queries = new ArrayList<>();
+        for (RequeryRepositoryFactoryBean<?, ?, ?> factoryBean : context.getBeansOfType(RequeryRepositoryFactoryBean.class, false, false).values()) {
+            queries.addAll(factoryBean.getRepositoryQueries());
+        }
+
+        RequeryWarmupResult warmupResult = new RequeryWarmup(requeryOperations)
+            .queries(queries)
+            .prepareStatements(properties.isPrepareStatements())
+            .connections(properties.getConnections())
+            .run();
+
+        this.result = warmupResult;
+        log.info("Requery warmup finished in {} ms. result={}", warmupResult.getElapsedMillis(), warmupResult);
+
+        context.publishEvent(new RequeryWarmupEvent(context, warmupResult));
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.boot.autoconfigure.data.requery;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.data.requery.configs.TestRequeryConfiguration;
+import org.springframework.boot.autoconfigure.data.requery.domain.CityRepository;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.requery.core.admission.AdmissionController;
+import org.springframework.data.requery.core.admission.AdmissionListener;
+import org.springframework.data.requery.core.admission.AdmissionMetrics;
+import org.springframework.data.requery.repository.config.EnableRequeryRepositories;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test for {@link AdmissionController} auto configuration
+ *
+ * @author debop
+ */
+@Slf4j
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = { TestRequeryConfiguration.class, RequeryAdmissionTest.ListenerConfiguration.class },
+                properties = { "spring.data.requery.admission.enabled=true",
+                               "spring.data.requery.admission.initial-limit=8",
+                               "spring.data.requery.admission.max-wait=200ms",
+                               "spring.data.requery.admission.limits.CityRepository.limit-type=FIXED",
+                               "spring.data.requery.admission.limits.CityRepository.initial-limit=3" })
+@EnableRequeryRepositories(basePackageClasses = { CityRepository.class })
+public class RequeryAdmissionTest {
+
+    @TestConfiguration
+    static class ListenerConfiguration {
+
+        @Bean
+        public CountingListener countingListener() {
+            return new CountingListener();
+        }
+    }
+
+    static class CountingListener implements AdmissionListener {
+
+        private final AtomicInteger completed = new AtomicInteger();
+
+        @Override
+        public void onCompleted(String name, long waitNanos, long latencyNanos, boolean dropped) {
+            completed.incrementAndGet();
+        }
+    }
+
+    @Autowired
+    private AdmissionController admissionController;
+
+    @Autowired
+    private CountingListener listener;
+
+    @Autowired
+    private CityRepository repository;
+
+    @Test
+    public void applyAdmissionPoliciesToRepositories() {
+        repository.count();
+        repository.findAll();
+
+        AdmissionMetrics metrics = admissionController.getMetrics("CityRepository");
+        log.debug("metrics={}", metrics);
+
+        assertThat(metrics).isNotNull();
+        assertThat(metrics.getLimit()).isEqualTo(3);
+        assertThat(metrics.getCompleted()).isEqualTo(2L);
+        assertThat(listener.completed.get()).isEqualTo(2);
+
+        assertThat(admissionController.getLimiter("OtherRepository").getLimit()).isEqualTo(8);
+        assertThat(admissionController.getLimiter("OtherRepository").getPolicy().getMaxWaitNanos()).isEqualTo(200_000_000L);
+    }
+}
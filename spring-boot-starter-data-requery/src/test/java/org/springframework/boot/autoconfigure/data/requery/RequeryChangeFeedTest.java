@@ -0,0 +1,101 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.boot.autoconfigure.data.requery;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.data.requery.configs.TestRequeryConfiguration;
+import org.springframework.boot.autoconfigure.data.requery.domain.City;
+import org.springframework.boot.autoconfigure.data.requery.domain.CityRepository;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.requery.listeners.feed.EntityChange;
+import org.springframework.data.requery.listeners.feed.EntityChangeFeed;
+import org.springframework.data.requery.listeners.feed.EntityChangeSubscriber;
+import org.springframework.data.requery.listeners.feed.EntityChangeType;
+import org.springframework.data.requery.repository.config.EnableRequeryRepositories;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test for {@link EntityChangeFeed} auto configuration
+ *
+ * @author debop
+ */
+@Slf4j
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = { TestRequeryConfiguration.class, RequeryChangeFeedTest.SubscriberConfiguration.class },
+                properties = { "spring.data.requery.change-feed.enabled=true",
+                               "spring.data.requery.change-feed.capacity=1024",
+                               "spring.data.requery.change-feed.max-batch-size=16" })
+@EnableRequeryRepositories(basePackageClasses = { CityRepository.class })
+public class RequeryChangeFeedTest {
+
+    @TestConfiguration
+    static class SubscriberConfiguration {
+
+        @Bean
+        public CollectingSubscriber collectingSubscriber() {
+            return new CollectingSubscriber();
+        }
+    }
+
+    static class CollectingSubscriber implements EntityChangeSubscriber {
+
+        private final List<EntityChange> changes = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onChanges(List<EntityChange> changes) {
+            this.changes.addAll(changes);
+        }
+    }
+
+    @Autowired
+    private EntityChangeFeed changeFeed;
+
+    @Autowired
+    private CollectingSubscriber subscriber;
+
+    @Autowired
+    private CityRepository repository;
+
+    @Test
+    public void deliverRepositoryChangesToSubscriberBeans() {
+        City city = new City();
+        city.setName("Busan");
+        city.setCountry("Korea");
+        repository.save(city);
+        repository.delete(city);
+
+        assertThat(changeFeed.getCapacity()).isEqualTo(1024);
+        assertThat(changeFeed.flush(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(subscriber.changes)
+            .filteredOn(change -> city.getId().equals(change.getKey()))
+            .extracting(EntityChange::getChangeType)
+            .containsExactly(EntityChangeType.INSERT, EntityChangeType.DELETE);
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.autoconfigure.data.requery;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.data.requery.configs.TestRequeryConfiguration;
+import org.springframework.boot.autoconfigure.data.requery.domain.City;
+import org.springframework.boot.autoconfigure.data.requery.domain.CityRepository;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.core.tenant.TenantContextHolder;
+import org.springframework.data.requery.core.tenant.TenantDataSourceProvider;
+import org.springframework.data.requery.core.tenant.TenantRoutingRequeryOperations;
+import org.springframework.data.requery.repository.config.EnableRequeryRepositories;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.annotation.Nonnull;
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link TenantDataSourceProvider} bean 이 있으면 {@link TenantRoutingRequeryOperations}를 사용하는지 테스트합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = { RequeryTenantRoutingTest.TenantConfiguration.class },
+                properties = { "spring.data.requery.tenant.idle-timeout=10m",
+                               "spring.data.requery.tenant.max-tenants=4" })
+@EnableRequeryRepositories(basePackageClasses = { CityRepository.class })
+public class RequeryTenantRoutingTest {
+
+    @Configuration
+    @Import(TestRequeryConfiguration.class)
+    static class TenantConfiguration {
+
+        @Bean
+        public TenantDataSourceProvider tenantDataSourceProvider() {
+            return new TenantDataSourceProvider() {
+                @Override
+                public DataSource getDataSource(@Nonnull String tenant) {
+                    HikariConfig config = new HikariConfig();
+                    config.setDriverClassName("org.h2.Driver");
+                    config.setJdbcUrl("jdbc:h2:mem:starter_" + tenant + ";DB_CLOSE_DELAY=-1");
+                    config.setUsername("sa");
+                    return new HikariDataSource(config);
+                }
+
+                @Override
+                public void release(@Nonnull String tenant, @Nonnull DataSource dataSource) {
+                    ((HikariDataSource) dataSource).close();
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private RequeryOperations operations;
+
+    @Autowired
+    private CityRepository repository;
+
+    @Test
+    public void routeRepositoryByTenant() {
+        assertThat(operations).isInstanceOf(TenantRoutingRequeryOperations.class);
+
+        TenantContextHolder.runAs("seoul", () -> repository.save(newCity("Seoul", "Korea")));
+        TenantContextHolder.runAs("tokyo", () -> repository.save(newCity("Tokyo", "Japan")));
+
+        City seoul = TenantContextHolder.callAs("seoul", () -> repository.findFirstByName("Seoul"));
+        City tokyo = TenantContextHolder.callAs("seoul", () -> repository.findFirstByName("Tokyo"));
+        assertThat(seoul).isNotNull();
+        assertThat(tokyo).isNull();
+
+        TenantRoutingRequeryOperations routing = (TenantRoutingRequeryOperations) operations;
+        assertThat(routing.getActiveTenants()).containsOnly("seoul", "tokyo");
+        assertThat(routing.getTenantStats("seoul").getRequests()).isGreaterThan(0);
+    }
+
+    private static City newCity(String name, String country) {
+        City city = new City();
+        city.setName(name);
+        city.setCountry(country);
+        return city;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.autoconfigure.data.requery;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.data.requery.configs.TestRequeryConfiguration;
+import org.springframework.boot.autoconfigure.data.requery.domain.CityRepository;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.requery.repository.config.EnableRequeryRepositories;
+import org.springframework.data.requery.repository.support.RequeryWarmupResult;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test for {@link RequeryWarmupListener}
+ *
+ * @author debop
+ */
+@Slf4j
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = { TestRequeryConfiguration.class },
+                properties = { "spring.data.requery.warmup.enabled=true",
+                               "spring.data.requery.warmup.prepare-statements=true",
+                               "spring.data.requery.warmup.connections=2" })
+@EnableRequeryRepositories(basePackageClasses = { CityRepository.class })
+public class RequeryWarmupListenerTest {
+
+    @Autowired
+    private RequeryWarmupListener warmupListener;
+
+    @Test
+    public void warmupOnContextRefresh() {
+        RequeryWarmupResult result = warmupListener.getResult();
+        log.debug("warmup result={}", result);
+
+        assertThat(result).isNotNull();
+        assertThat(result.getEntityTypes()).isGreaterThan(0);
+        assertThat(result.getQueryMethods()).isGreaterThanOrEqualTo(4);
+        assertThat(result.getPreparedStatements()).isEqualTo(result.getStatements() * 2);
+        assertThat(result.hasFailures()).isFalse();
+    }
+}
@@ -4,6 +4,11 @@ import io.requery.sql.EntityDataStore;
 import org.openjdk.jmh.annotations.*;
 import org.springframework.data.requery.benchmark.RequerySetupUtils;
 import org.springframework.data.requery.benchmark.model.FullLog;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.core.RequeryTemplate;
+import org.springframework.data.requery.mapping.RequeryMappingContext;
+import org.springframework.data.requery.repository.RequeryRepository;
+import org.springframework.data.requery.repository.support.RequeryRepositoryFactory;
 
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -14,6 +19,16 @@ import static org.springframework.data.requery.benchmark.model.FullLogHelper.ran
 Benchmark                               Mode  Cnt   Score   Error  Units
 RequeryBulkDeleteBenchmark.delete10     avgt   10   0.610 ± 0.033  ms/op
 RequeryBulkDeleteBenchmark.delete1_000  avgt   10  15.380 ± 1.664  ms/op
+
+-t 1, embedded H2, 1 vCPU
+Benchmark                                      Mode  Cnt  Score   Error  Units
+RequeryBulkDeleteBenchmark.delete10            avgt   10  0.092 ± 0.056  ms/op
+RequeryBulkDeleteBenchmark.delete1_000         avgt   10  9.032 ± 6.420  ms/op
+RequeryBulkDeleteBenchmark.deleteInBatch10     avgt   10  0.092 ± 0.034  ms/op
+RequeryBulkDeleteBenchmark.deleteInBatch1_000  avgt   10  6.829 ± 3.561  ms/op
+
+embedded H2 는 statement 왕복 비용이 없고 EmptyEntityCache 를 사용하므로 차이가 오차 범위 안에 있습니다.
+deleteInBatch 의 이득은 네트워크 왕복이 있는 DB 와 분산 캐시 (RedisEntityCache) 에서 측정해야 합니다.
  */
 @BenchmarkMode(Mode.AverageTime)
 @Threads(Threads.MAX)
@@ -25,10 +40,17 @@ RequeryBulkDeleteBenchmark.delete1_000  avgt   10  15.380 ± 1.664  ms/op
 public class RequeryBulkDeleteBenchmark {
 
     private EntityDataStore<Object> dataStore;
+    private FullLogRepository repository;
     @Setup
     public void setup() {
         dataStore = RequerySetupUtils.dataStore;
+        RequeryOperations operations = new RequeryTemplate(dataStore, new RequeryMappingContext());
+        repository = new RequeryRepositoryFactory(operations).getRepository(FullLogRepository.class);
     }
+
+    public interface FullLogRepository extends RequeryRepository<FullLog, Long> {
+    }
+
     @State(Scope.Thread)
     public static class FullLog10 {
         private List<FullLog> insertedFullLogs;
@@ -55,4 +77,12 @@ public class RequeryBulkDeleteBenchmark {
     public void delete1_000(FullLog1_000 fullLogId1_000) {
         dataStore.delete(fullLogId1_000.insertedFullLogs);
     }
+    @Benchmark
+    public void deleteInBatch10(FullLog10 fullLog10) {
+        repository.deleteInBatch(fullLog10.insertedFullLogs);
+    }
+    @Benchmark
+    public void deleteInBatch1_000(FullLog1_000 fullLogId1_000) {
+        repository.deleteInBatch(fullLogId1_000.insertedFullLogs);
+    }
 }
@@ -0,0 +1,77 @@
+package org.springframework.data.requery.benchmark.simple;
+
+import io.requery.sql.EntityDataStore;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.requery.benchmark.RequerySetupUtils;
+import org.springframework.data.requery.benchmark.model.FullLog;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.core.RequeryTemplate;
+import org.springframework.data.requery.core.bulk.BulkLoadResult;
+import org.springframework.data.requery.mapping.RequeryMappingContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.requery.benchmark.model.FullLogHelper.randomFullLogStream;
+import static org.springframework.data.requery.benchmark.model.FullLogHelper.randomFullLogs;
+
+/*
+Benchmark                                                      Mode  Cnt         Score         Error  Units
+RequeryBulkLoaderBenchmark.bulkLoad10_000                      avgt    5        93.142 ±      52.748  ms/op
+RequeryBulkLoaderBenchmark.bulkLoad10_000:·gc.alloc.rate.norm  avgt    5  83364146.107 ± 1463098.780   B/op
+RequeryBulkLoaderBenchmark.bulkLoadParallel10_000              avgt    5       183.312 ±     285.214  ms/op
+RequeryBulkLoaderBenchmark.insertAll10_000                     avgt    5       120.194 ±     146.748  ms/op
+RequeryBulkLoaderBenchmark.insertAll10_000:·gc.alloc.rate.norm avgt    5  85854109.789 ± 2778779.293   B/op
+
+insertAll 은 RequeryBulkInsertBenchmark 와 같은 방식 (전체 List 를 한 transaction 으로 insert) 입니다.
+위 결과는 1 vCPU 환경의 embedded H2 로 측정한 것이라 parallel 의 이득이 없습니다. core 수와 connection pool 크기에 맞춰 다시 측정해야 합니다.
+(parallel 의 gc.alloc.rate.norm 은 worker thread 의 할당이 빠지므로 비교 대상이 아닙니다)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RequeryBulkLoaderBenchmark {
+
+    private static final int ROW_COUNT = 10_000;
+
+    private EntityDataStore<Object> dataStore;
+    private RequeryOperations operations;
+
+    @Setup
+    public void setup() {
+        dataStore = RequerySetupUtils.dataStore;
+        operations = new RequeryTemplate(dataStore, new RequeryMappingContext());
+    }
+
+    @TearDown(Level.Iteration)
+    public void cleanup() {
+        dataStore.delete(FullLog.class).get().value();
+    }
+
+    @Benchmark
+    public int insertAll10_000() {
+        List<FullLog> fullLogs = randomFullLogs(ROW_COUNT);
+        dataStore.insert(fullLogs);
+        return fullLogs.size();
+    }
+
+    @Benchmark
+    public long bulkLoad10_000() {
+        BulkLoadResult result = operations.bulkLoader()
+            .chunkSize(1000)
+            .load(randomFullLogStream(ROW_COUNT));
+        return result.getLoadedRows();
+    }
+
+    @Benchmark
+    public long bulkLoadParallel10_000() {
+        BulkLoadResult result = operations.bulkLoader()
+            .chunkSize(1000)
+            .parallelism(4)
+            .load(randomFullLogStream(ROW_COUNT));
+        return result.getLoadedRows();
+    }
+}
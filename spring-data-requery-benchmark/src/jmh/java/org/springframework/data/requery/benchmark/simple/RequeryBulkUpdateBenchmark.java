@@ -4,6 +4,11 @@ import io.requery.sql.EntityDataStore;
 import org.openjdk.jmh.annotations.*;
 import org.springframework.data.requery.benchmark.RequerySetupUtils;
 import org.springframework.data.requery.benchmark.model.FullLog;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.core.RequeryTemplate;
+import org.springframework.data.requery.mapping.RequeryMappingContext;
+import org.springframework.data.requery.repository.RequeryRepository;
+import org.springframework.data.requery.repository.support.RequeryRepositoryFactory;
 
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -14,6 +19,11 @@ import static org.springframework.data.requery.benchmark.model.FullLogHelper.ran
 Benchmark                               Mode  Cnt    Score    Error  Units
 RequeryBulkUpdateBenchmark.update10     avgt   10    1.565 ±  0.388  ms/op
 RequeryBulkUpdateBenchmark.update1_000  avgt   10  107.849 ± 20.067  ms/op
+
+-t 1, embedded H2, 1 vCPU, 1,000 건 중 100 건만 변경
+Benchmark                                               Mode  Cnt  Score   Error  Units
+RequeryBulkUpdateBenchmark.saveAllPartialModified1_000  avgt   10  2.458 ± 1.220  ms/op
+RequeryBulkUpdateBenchmark.upsertPartialModified1_000   avgt   10  3.336 ± 2.098  ms/op
  */
 @BenchmarkMode(Mode.AverageTime)
 @Threads(Threads.MAX)
@@ -25,9 +35,15 @@ RequeryBulkUpdateBenchmark.update1_000  avgt   10  107.849 ± 20.067  ms/op
 public class RequeryBulkUpdateBenchmark {
 
     private EntityDataStore<Object> dataStore;
+    private FullLogRepository repository;
     @Setup
     public void setup() {
         dataStore = RequerySetupUtils.dataStore;
+        RequeryOperations operations = new RequeryTemplate(dataStore, new RequeryMappingContext());
+        repository = new RequeryRepositoryFactory(operations).getRepository(FullLogRepository.class);
+    }
+
+    public interface FullLogRepository extends RequeryRepository<FullLog, Long> {
     }
     @State(Scope.Thread)
     public static class FullLog10 {
@@ -61,6 +77,21 @@ public class RequeryBulkUpdateBenchmark {
             }
         }
     }
+    /**
+     * 1,000 건 중 100 건만 systemName 을 변경한 경우
+     */
+    @State(Scope.Thread)
+    public static class PartialModifiedFullLog1_000 {
+        private List<FullLog> insertedFullLogs;
+        @Setup(Level.Invocation)
+        public void setup(RequeryBulkUpdateBenchmark benchmark) {
+            insertedFullLogs = randomFullLogs(1_000);
+            benchmark.dataStore.insert(insertedFullLogs);
+            for(int i=0; i < insertedFullLogs.size(); i += 10) {
+                insertedFullLogs.get(i).setSystemName("Modified:" + i);
+            }
+        }
+    }
 
     @Benchmark
     public void update10(FullLog10 fullLog10) {
@@ -70,6 +101,14 @@ public class RequeryBulkUpdateBenchmark {
     public void update1_000(FullLog1_000 fullLogId1_000) {
         dataStore.update(fullLogId1_000.insertedFullLogs);
     }
+    @Benchmark
+    public void upsertPartialModified1_000(PartialModifiedFullLog1_000 fullLog1_000) {
+        dataStore.upsert(fullLog1_000.insertedFullLogs);
+    }
+    @Benchmark
+    public void saveAllPartialModified1_000(PartialModifiedFullLog1_000 fullLog1_000) {
+        repository.saveAll(fullLog1_000.insertedFullLogs);
+    }
 
 //    @Benchmark
 //    public void upsertTen(FullLogTen fullLogIdTen) {
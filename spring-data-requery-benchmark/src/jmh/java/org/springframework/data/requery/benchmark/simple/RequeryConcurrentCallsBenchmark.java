@@ -0,0 +1,92 @@
+package org.springframework.data.requery.benchmark.simple;
+
+import io.requery.cache.EmptyEntityCache;
+import io.requery.sql.ConfigurationBuilder;
+import io.requery.sql.EntityDataStore;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.requery.benchmark.RequerySetupUtils;
+import org.springframework.data.requery.benchmark.model.FullLog;
+import org.springframework.data.requery.benchmark.model.Models;
+import org.springframework.data.requery.core.RequeryExecutors;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.core.RequeryTemplate;
+import org.springframework.data.requery.mapping.RequeryMappingContext;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.requery.benchmark.model.FullLogHelper.randomFullLogs;
+
+/*
+동시에 2,000 건의 findById 를 각각의 transaction 으로 실행하는데 걸리는 시간 (embedded H2, 1 vCPU)
+defaultExecutor 는 RequeryExecutors 의 기본 executor 로, JDK 8 에서는 64 개의 platform thread pool, JDK 21 에서는 virtual thread 입니다.
+
+JDK 8
+Benchmark                                             Mode  Cnt    Score    Error  Units
+RequeryConcurrentCallsBenchmark.defaultExecutor       avgt   10  100.156 ± 41.318  ms/op
+RequeryConcurrentCallsBenchmark.platformThreadPool64  avgt   10   97.991 ± 28.528  ms/op
+
+JDK 21
+Benchmark                                             Mode  Cnt    Score    Error  Units
+RequeryConcurrentCallsBenchmark.defaultExecutor       avgt   10   71.719 ± 40.230  ms/op
+RequeryConcurrentCallsBenchmark.platformThreadPool64  avgt   10  111.154 ± 33.805  ms/op
+
+작업마다 platform thread 를 만드는 cached thread pool 은 JDK 8 에서 203.598 ± 81.880 ms/op 로 고정 크기 pool 보다 느렸습니다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RequeryConcurrentCallsBenchmark {
+
+    private static final int CONCURRENT_CALLS = 2_000;
+    private static final int PLATFORM_POOL_SIZE = 64;
+
+    private RequeryOperations operations;
+    private ExecutorService platformThreadPool;
+    private Long id;
+
+    @Setup
+    public void setup() {
+        // requery 의 statement cache 는 connection 간에 공유되므로 동시 호출 시에는 사용하지 않습니다.
+        EntityDataStore<Object> dataStore =
+            new EntityDataStore<>(new ConfigurationBuilder(RequerySetupUtils.getDataSource(), Models.DEFAULT)
+                                      .setStatementCacheSize(0)
+                                      .setEntityCache(new EmptyEntityCache())
+                                      .build());
+
+        operations = new RequeryTemplate(dataStore, new RequeryMappingContext());
+        platformThreadPool = Executors.newFixedThreadPool(PLATFORM_POOL_SIZE);
+
+        FullLog fullLog = randomFullLogs(1).get(0);
+        operations.insert(fullLog);
+        id = fullLog.getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        platformThreadPool.shutdownNow();
+    }
+
+    @Benchmark
+    public void platformThreadPool64() {
+        run(platformThreadPool);
+    }
+
+    @Benchmark
+    public void defaultExecutor() {
+        run(RequeryExecutors.getDefaultExecutor());
+    }
+
+    private void run(ExecutorService executor) {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[CONCURRENT_CALLS];
+        for (int i = 0; i < CONCURRENT_CALLS; i++) {
+            futures[i] = operations.runInTransactionAsync(() -> operations.findById(FullLog.class, id), null, executor);
+        }
+        CompletableFuture.allOf(futures).join();
+    }
+}
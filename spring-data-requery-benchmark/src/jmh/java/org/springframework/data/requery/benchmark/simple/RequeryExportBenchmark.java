@@ -0,0 +1,84 @@
+package org.springframework.data.requery.benchmark.simple;
+
+import io.requery.sql.EntityDataStore;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.requery.benchmark.RequerySetupUtils;
+import org.springframework.data.requery.benchmark.model.FullLog;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.core.RequeryTemplate;
+import org.springframework.data.requery.core.export.CsvRowWriter;
+import org.springframework.data.requery.core.export.ResultExporter;
+import org.springframework.data.requery.mapping.RequeryMappingContext;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.requery.benchmark.model.FullLogHelper.randomFullLogs;
+
+/*
+Benchmark                                                (rowCount)  Mode  Cnt        Score         Error  Units
+RequeryExportBenchmark.exportAfterToList                       1000  avgt    5        4.132 ±       2.422  ms/op
+RequeryExportBenchmark.exportAfterToList:·gc.alloc.rate.norm   1000  avgt    5   821502.618 ±   12940.575   B/op
+RequeryExportBenchmark.exportAfterToList                      10000  avgt    5       32.030 ±      20.461  ms/op
+RequeryExportBenchmark.exportAfterToList:·gc.alloc.rate.norm  10000  avgt    5  6949599.414 ± 1881744.408   B/op
+RequeryExportBenchmark.exportStreaming                         1000  avgt    5        4.190 ±       3.226  ms/op
+RequeryExportBenchmark.exportStreaming:·gc.alloc.rate.norm     1000  avgt    5   804145.830 ±   12755.930   B/op
+RequeryExportBenchmark.exportStreaming                        10000  avgt    5       38.812 ±      33.881  ms/op
+RequeryExportBenchmark.exportStreaming:·gc.alloc.rate.norm    10000  avgt    5  6834132.736 ± 2343182.411   B/op
+
+총 할당량은 비슷하지만, streaming 방식은 전체 List 를 유지하지 않으므로 행 수와 무관하게 buffer 크기만큼만 힙에 남는다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RequeryExportBenchmark {
+
+    @Param({ "1000", "10000" })
+    private int rowCount;
+
+    private EntityDataStore<Object> dataStore;
+    private RequeryOperations operations;
+    private CsvRowWriter<FullLog> rowWriter;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        dataStore = RequerySetupUtils.dataStore;
+        operations = new RequeryTemplate(dataStore, new RequeryMappingContext());
+        rowWriter = CsvRowWriter.of(FullLog.$TYPE);
+
+        dataStore.delete(FullLog.class).get().value();
+        dataStore.insert(randomFullLogs(rowCount));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataStore.delete(FullLog.class).get().value();
+    }
+
+    @Benchmark
+    public long exportAfterToList() {
+        List<FullLog> logs = dataStore.select(FullLog.class).get().toList();
+        return ResultExporter.export(logs.iterator(), rowWriter, NullOutputStream.INSTANCE);
+    }
+
+    @Benchmark
+    public long exportStreaming() {
+        return operations.export(operations.select(FullLog.class), rowWriter, NullOutputStream.INSTANCE);
+    }
+
+    private static final class NullOutputStream extends OutputStream {
+        static final NullOutputStream INSTANCE = new NullOutputStream();
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
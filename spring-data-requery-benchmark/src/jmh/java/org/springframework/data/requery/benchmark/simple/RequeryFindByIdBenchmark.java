@@ -0,0 +1,100 @@
+package org.springframework.data.requery.benchmark.simple;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.data.requery.benchmark.RequerySetupUtils;
+import org.springframework.data.requery.benchmark.model.FullLog;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.core.RequeryTemplate;
+import org.springframework.data.requery.mapping.RequeryMappingContext;
+import org.springframework.data.requery.repository.RequeryRepository;
+import org.springframework.data.requery.repository.support.RequeryRepositoryFactoryBean;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.requery.benchmark.model.FullLogHelper.randomFullLogs;
+
+/*
+transaction 이 진행 중일 때 repository proxy 를 통한 findById 한 건의 시간과 할당량 (embedded H2, 1 vCPU, JDK 8, -prof gc)
+repositoryFindById 는 RequeryRepositoryFactoryBean 으로 만든 (예외 변환, transaction interceptor 가 붙은) repository 로 호출합니다.
+
+이전 (transaction 이 진행 중이어도 TransactionInterceptor 등 repository interceptor 를 모두 거침)
+Benchmark                                                         Mode  Cnt      Score     Error  Units
+RequeryFindByIdBenchmark.operationsFindById                       avgt   10     42.277 ±  30.487  us/op
+RequeryFindByIdBenchmark.operationsFindById:·gc.alloc.rate.norm   avgt   10  25364.039 ± 293.455   B/op
+RequeryFindByIdBenchmark.repositoryFindById                       avgt   10     60.822 ±  47.291  us/op
+RequeryFindByIdBenchmark.repositoryFindById:·gc.alloc.rate.norm   avgt   10  26580.240 ± 528.492   B/op
+
+이후 (DirectCrudMethodPostProcessor 로 repository 구현체를 직접 호출)
+Benchmark                                                         Mode  Cnt      Score     Error  Units
+RequeryFindByIdBenchmark.operationsFindById                       avgt   10     49.382 ±  37.022  us/op
+RequeryFindByIdBenchmark.operationsFindById:·gc.alloc.rate.norm   avgt   10  25472.707 ± 375.782   B/op
+RequeryFindByIdBenchmark.repositoryFindById                       avgt   10     53.258 ±  38.019  us/op
+RequeryFindByIdBenchmark.repositoryFindById:·gc.alloc.rate.norm   avgt   10  25568.302 ± 389.130   B/op
+
+operationsFindById 대비 repository proxy 의 추가 할당량이 약 1,200 B/op 에서 약 100 B/op 로 줄었습니다.
+시간은 오차 범위가 커서 차이를 판단할 수 없습니다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RequeryFindByIdBenchmark {
+
+    public interface FullLogRepository extends RequeryRepository<FullLog, Long> {
+    }
+
+    private RequeryOperations operations;
+    private FullLogRepository repository;
+    private PlatformTransactionManager transactionManager;
+    private TransactionStatus transaction;
+    private Long id;
+
+    @Setup
+    public void setup() {
+        operations = new RequeryTemplate(RequerySetupUtils.dataStore, new RequeryMappingContext());
+        transactionManager = new DataSourceTransactionManager(RequerySetupUtils.getDataSource());
+
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("transactionManager", transactionManager);
+
+        RequeryRepositoryFactoryBean<FullLogRepository, FullLog, Long> factoryBean =
+            new RequeryRepositoryFactoryBean<>(FullLogRepository.class);
+        factoryBean.setOperations(operations);
+        factoryBean.setBeanClassLoader(getClass().getClassLoader());
+        factoryBean.setBeanFactory(beanFactory);
+        factoryBean.afterPropertiesSet();
+        repository = factoryBean.getObject();
+
+        FullLog fullLog = randomFullLogs(1).get(0);
+        operations.insert(fullLog);
+        id = fullLog.getId();
+    }
+
+    @Setup(Level.Iteration)
+    public void beginTransaction() {
+        transaction = transactionManager.getTransaction(new DefaultTransactionDefinition());
+    }
+
+    @TearDown(Level.Iteration)
+    public void commitTransaction() {
+        transactionManager.commit(transaction);
+    }
+
+    @Benchmark
+    public Optional<FullLog> repositoryFindById() {
+        return repository.findById(id);
+    }
+
+    @Benchmark
+    public FullLog operationsFindById() {
+        return operations.findById(FullLog.class, id);
+    }
+}
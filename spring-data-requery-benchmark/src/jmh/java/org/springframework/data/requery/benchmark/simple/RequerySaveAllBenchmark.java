@@ -0,0 +1,92 @@
+package org.springframework.data.requery.benchmark.simple;
+
+import io.requery.sql.EntityDataStore;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.data.requery.benchmark.RequerySetupUtils;
+import org.springframework.data.requery.benchmark.model.FullLog;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.core.RequeryTemplate;
+import org.springframework.data.requery.mapping.RequeryMappingContext;
+import org.springframework.data.requery.repository.RequeryRepository;
+import org.springframework.data.requery.repository.support.RequeryEntityInformation;
+import org.springframework.data.requery.repository.support.RequeryEntityInformationSupport;
+import org.springframework.data.requery.repository.support.RequeryRepositoryFactory;
+import org.springframework.data.util.DirectFieldAccessFallbackBeanWrapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.requery.benchmark.model.FullLogHelper.randomFullLogs;
+
+/*
+10,000 건 저장 시 repository 가 사용하는 id / isNew 판단 비용과 saveAll 전체 비용
+beanWrapper* 는 엔티티마다 DirectFieldAccessFallbackBeanWrapper 를 만들던 이전 방식입니다.
+
+-t 1, embedded H2, 1 vCPU
+Benchmark                                                  Mode  Cnt   Score     Error  Units
+RequerySaveAllBenchmark.beanWrapperIdAndIsNew10_000        avgt    5   0.664 ±   0.126  ms/op
+RequerySaveAllBenchmark.entityInformationIdAndIsNew10_000  avgt    5   0.104 ±   0.016  ms/op
+RequerySaveAllBenchmark.saveAll10_000                      avgt    5  99.395 ± 101.174  ms/op
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Threads(Threads.MAX)
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RequerySaveAllBenchmark {
+
+    private EntityDataStore<Object> dataStore;
+    private FullLogRepository repository;
+    private RequeryEntityInformation<FullLog, ?> entityInformation;
+    private List<FullLog> savedFullLogs;
+
+    @Setup
+    public void setup() {
+        dataStore = RequerySetupUtils.dataStore;
+        RequeryOperations operations = new RequeryTemplate(dataStore, new RequeryMappingContext());
+        repository = new RequeryRepositoryFactory(operations).getRepository(FullLogRepository.class);
+        entityInformation = RequeryEntityInformationSupport.getEntityInformation(FullLog.class, operations);
+
+        savedFullLogs = randomFullLogs(10_000);
+        dataStore.insert(savedFullLogs);
+    }
+
+    public interface FullLogRepository extends RequeryRepository<FullLog, Long> {
+    }
+
+    @State(Scope.Thread)
+    public static class NewFullLog10_000 {
+        private List<FullLog> fullLogs;
+        @Setup(Level.Invocation)
+        public void setup() {
+            fullLogs = randomFullLogs(10_000);
+        }
+    }
+
+    @Benchmark
+    public void saveAll10_000(NewFullLog10_000 newFullLogs) {
+        repository.saveAll(newFullLogs.fullLogs);
+    }
+
+    @Benchmark
+    public void entityInformationIdAndIsNew10_000(Blackhole bh) {
+        for (FullLog fullLog : savedFullLogs) {
+            bh.consume(entityInformation.getId(fullLog));
+            bh.consume(entityInformation.isNew(fullLog));
+        }
+    }
+
+    @Benchmark
+    public void beanWrapperIdAndIsNew10_000(Blackhole bh) {
+        for (FullLog fullLog : savedFullLogs) {
+            BeanWrapper idWrapper = new DirectFieldAccessFallbackBeanWrapper(fullLog);
+            bh.consume(idWrapper.getPropertyValue("id"));
+            BeanWrapper isNewWrapper = new DirectFieldAccessFallbackBeanWrapper(fullLog);
+            bh.consume(isNewWrapper.getPropertyValue("id") == null);
+        }
+    }
+}
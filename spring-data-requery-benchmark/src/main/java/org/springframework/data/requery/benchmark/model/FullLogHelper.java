@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Random;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * @author Diego on 28/10/2018.
@@ -33,4 +34,10 @@ public class FullLogHelper {
             .mapToObj(it -> randomFullLog())
             .collect(Collectors.toList());
     }
+
+    public static Stream<FullLog> randomFullLogStream(int count) {
+        return IntStream
+            .range(0, count)
+            .mapToObj(it -> randomFullLog());
+    }
 }
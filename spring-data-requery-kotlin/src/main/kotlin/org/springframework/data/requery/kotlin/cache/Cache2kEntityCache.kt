@@ -23,6 +23,8 @@ import org.cache2k.Cache
 import org.cache2k.Cache2kBuilder
 import org.cache2k.configuration.Cache2kConfiguration
 import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.locks.ReentrantLock
+import kotlin.concurrent.withLock
 
 /**
  * Cache2k를 이용하여 Requery entity를 cache 합니다.
@@ -48,7 +50,8 @@ class Cache2kEntityCache @JvmOverloads constructor(
                 }
 
         private val cacheManager: MutableMap<Class<*>, Cache<Any, Any?>> = ConcurrentHashMap()
-        private val syncObj: Any = Any()
+        // synchronized 는 virtual thread 를 carrier thread 에 고정(pinning)시키므로 ReentrantLock 을 사용합니다.
+        private val lock = ReentrantLock()
     }
 
     var dataStore: EntityDataStore<Any>? = null
@@ -56,15 +59,13 @@ class Cache2kEntityCache @JvmOverloads constructor(
     val Class<*>.cache: Cache<Any, Any?>
         get() {
             return cacheManager.computeIfAbsent(this) { clazz ->
-                synchronized(syncObj) {
-                    logger.debug { "Create Cache2k cache for type [${this.name}]" }
-
-                    Cache2kBuilder.of(configuration).name(clazz.name).run {
-                        if(dataStore != null) {
-                            loader { dataStore!!.findByKey(clazz, it) }
-                        }
-                        build()
+                logger.debug { "Create Cache2k cache for type [${this.name}]" }
+
+                Cache2kBuilder.of(configuration).name(clazz.name).run {
+                    if(dataStore != null) {
+                        loader { dataStore!!.findByKey(clazz, it) }
                     }
+                    build()
                 }
             }
         }
@@ -82,7 +83,7 @@ class Cache2kEntityCache @JvmOverloads constructor(
     }
 
     override fun clear() {
-        synchronized(syncObj) {
+        lock.withLock {
             cacheManager.forEach { _, cache ->
                 cache.clearAndClose()
             }
@@ -30,6 +30,7 @@ import org.springframework.context.annotation.Configuration
 import org.springframework.data.requery.kotlin.core.RequeryOperations
 import org.springframework.data.requery.kotlin.core.RequeryTemplate
 import org.springframework.data.requery.kotlin.core.RequeryTransactionManager
+import org.springframework.data.requery.kotlin.core.timeout.QueryTimeoutListener
 import org.springframework.data.requery.kotlin.coroutines.CoroutineEntityStore
 import org.springframework.data.requery.kotlin.listeners.LogbackListener
 import org.springframework.data.requery.kotlin.mapping.RequeryMappingContext
@@ -61,9 +62,12 @@ abstract class AbstractRequeryConfiguration {
     fun requeryConfiguration(dataSource: DataSource, entityModel: EntityModel): io.requery.sql.Configuration {
         return ConfigurationBuilder(dataSource, entityModel)
             .setEntityCache(EmptyEntityCache())
-            .setStatementCacheSize(1024)
+            // requery 의 statement cache 는 connection 에 상관없이 공유되므로, 여러 thread 가 동시에 사용하면
+            // 다른 connection 의 PreparedStatement 를 재사용하게 됩니다. statement cache 는 JDBC driver/pool 에서 설정하세요.
+            .setStatementCacheSize(0)
             .setBatchUpdateSize(100)
             .addStatementListener(LogbackListener<Any>())
+            .addStatementListener(QueryTimeoutListener())
             .build()
     }
 
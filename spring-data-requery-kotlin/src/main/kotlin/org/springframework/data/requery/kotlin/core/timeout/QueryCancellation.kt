@@ -0,0 +1,139 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.kotlin.core.timeout
+
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.CoroutineStart
+import kotlinx.coroutines.asContextElement
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.suspendCancellableCoroutine
+import mu.KLogging
+import java.sql.Statement
+import java.util.concurrent.CancellationException
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicBoolean
+import kotlin.coroutines.CoroutineContext
+
+/**
+ * 작업이 실행 중인 statement 를 추적하고, 작업을 취소하면 [Statement.cancel]로 DB 에서 실행 중인 query 도 중단합니다.
+ *
+ * [run] 또는 [asContextElement]를 적용한 coroutine 에서 [QueryTimeoutListener]가 실행하는 statement 를 등록합니다.
+ * 취소한 후에 실행하려는 statement 는 [CancellationException]으로 실패하므로, 취소된 작업이 connection 을 계속 사용하지 않습니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+class QueryCancellation {
+
+    companion object : KLogging() {
+
+        private val current = ThreadLocal<QueryCancellation>()
+
+        /**
+         * 현재 thread 에서 실행 중인 작업의 [QueryCancellation]. 없으면 null
+         */
+        @JvmStatic
+        fun current(): QueryCancellation? = current.get()
+    }
+
+    private val statements: MutableSet<Statement> = ConcurrentHashMap.newKeySet()
+
+    @Volatile
+    var isCancelled: Boolean = false
+        private set
+
+    /**
+     * 작업을 취소하고 실행 중인 statement 들을 취소합니다. 이후 실행하려는 statement 는 실패합니다.
+     */
+    fun cancel() {
+        isCancelled = true
+        statements.forEach { statement ->
+            try {
+                statement.cancel()
+                logger.debug { "Cancel running statement. statement=$statement" }
+            } catch(e: Exception) {
+                // 이미 끝났거나 닫힌 statement 입니다. driver 가 unchecked 예외를 던져도 취소를 호출한 쪽으로 전파하지 않습니다.
+                logger.trace(e) { "Fail to cancel statement. statement=$statement" }
+            }
+        }
+    }
+
+    /**
+     * 현재 thread 에서 실행하는 statement 들을 이 [QueryCancellation]으로 취소할 수 있도록 [block]을 실행합니다.
+     */
+    fun <T> run(block: () -> T): T {
+        checkCancelled()
+        val previous = current.get()
+        current.set(this)
+        try {
+            return block()
+        } finally {
+            statements.clear()
+            if(previous != null) current.set(previous) else current.remove()
+        }
+    }
+
+    /**
+     * coroutine 이 어느 thread 에서 실행되든 이 [QueryCancellation]에 statement 를 등록하도록 하는 [CoroutineContext]
+     */
+    fun asContextElement(): CoroutineContext = current.asContextElement(this)
+
+    /**
+     * [block]을 실행하는 동안 coroutine 이 취소되면 실행 중인 statement 를 취소합니다.
+     *
+     * JDBC 호출은 thread 를 막고 있으므로 coroutine 의 취소를 알 수 없습니다. 취소를 기다리는 자식 coroutine 이 다른 thread 에서 [cancel]을 호출합니다.
+     */
+    suspend fun <V> cancelOnCancellation(scope: CoroutineScope, block: suspend () -> V): V {
+        val completed = AtomicBoolean(false)
+        val watcher = scope.launch(start = CoroutineStart.UNDISPATCHED) {
+            try {
+                suspendCancellableCoroutine<Unit> { }
+            } finally {
+                if(!completed.get()) {
+                    this@QueryCancellation.cancel()
+                }
+            }
+        }
+        try {
+            return block()
+        } finally {
+            completed.set(true)
+            watcher.cancel()
+        }
+    }
+
+    internal fun register(statement: Statement) {
+        checkCancelled()
+        statements.add(statement)
+        // register 와 cancel 이 동시에 실행되면 cancel 이 이 statement 를 보지 못했을 수 있습니다.
+        if(isCancelled) {
+            statements.remove(statement)
+            throw CancellationException("Query is cancelled.")
+        }
+    }
+
+    internal fun unregister(statement: Statement) {
+        statements.remove(statement)
+    }
+
+    private fun checkCancelled() {
+        if(isCancelled) {
+            throw CancellationException("Query is cancelled.")
+        }
+    }
+}
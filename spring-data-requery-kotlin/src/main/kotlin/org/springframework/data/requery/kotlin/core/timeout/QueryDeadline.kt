@@ -0,0 +1,102 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.kotlin.core.timeout
+
+import kotlinx.coroutines.asContextElement
+import org.springframework.dao.QueryTimeoutException
+import java.util.concurrent.TimeUnit
+import kotlin.coroutines.CoroutineContext
+import kotlin.coroutines.EmptyCoroutineContext
+
+/**
+ * 현재 thread 에서 실행하는 query 들이 지켜야 할 deadline 을 관리합니다.
+ *
+ * deadline 은 [System.nanoTime] 기준의 절대 시각이므로 중첩해서 지정하면 가장 이른 deadline 을 따르고,
+ * 작업이 끝나면 이전 deadline 으로 돌아갑니다. [QueryTimeoutListener]가 statement 를 실행하기 전에 남은 시간을
+ * [java.sql.Statement.setQueryTimeout]으로 적용하고, 이미 지났으면 실행하지 않고 [QueryTimeoutException]을 던집니다.
+ *
+ * ```
+ * val users = QueryDeadline.withTimeout(500, TimeUnit.MILLISECONDS) { userRepository.findByName(name) }
+ * ```
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+object QueryDeadline {
+
+    /**
+     * deadline 이 없음을 나타내는 남은 시간
+     */
+    const val NO_DEADLINE = Long.MAX_VALUE
+
+    private val deadline = ThreadLocal<Long>()
+
+    /**
+     * 현재 thread 의 deadline ([System.nanoTime] 기준). 없으면 null
+     */
+    @JvmStatic
+    val deadlineNanos: Long?
+        get() = deadline.get()
+
+    /**
+     * deadline 까지 남은 시간(nanoseconds). deadline 이 없으면 [NO_DEADLINE]
+     */
+    @JvmStatic
+    fun remainingNanos(): Long = deadline.get()?.let { it - System.nanoTime() } ?: NO_DEADLINE
+
+    /**
+     * deadline 이 지났으면 [QueryTimeoutException]을 던집니다.
+     */
+    @JvmStatic
+    fun checkDeadline() {
+        val remaining = remainingNanos()
+        if(remaining <= 0) {
+            throw QueryTimeoutException("Query deadline exceeded by ${TimeUnit.NANOSECONDS.toMillis(-remaining)} msec")
+        }
+    }
+
+    /**
+     * 지금부터 [timeout] 안에 끝나야 하는 deadline 으로 [block]을 실행합니다.
+     */
+    @JvmStatic
+    fun <T> withTimeout(timeout: Long, unit: TimeUnit, block: () -> T): T {
+        require(timeout > 0) { "timeout must be greater than 0." }
+        return withDeadline(System.nanoTime() + unit.toNanos(timeout), block)
+    }
+
+    /**
+     * [deadlineNanos]([System.nanoTime] 기준)를 deadline 으로 [block]을 실행합니다. 이미 더 이른 deadline 이 있으면 그 deadline 을 유지합니다.
+     */
+    @JvmStatic
+    fun <T> withDeadline(deadlineNanos: Long, block: () -> T): T {
+        val previous = deadline.get()
+        deadline.set(if(previous != null && previous - deadlineNanos < 0) previous else deadlineNanos)
+        try {
+            return block()
+        } finally {
+            if(previous != null) deadline.set(previous) else deadline.remove()
+        }
+    }
+
+    /**
+     * 현재 thread 의 deadline 을 coroutine 이 실행되는 thread 에도 적용하는 [CoroutineContext]
+     */
+    @JvmStatic
+    fun asContextElement(): CoroutineContext =
+        deadline.get()?.let { deadline.asContextElement(it) } ?: EmptyCoroutineContext
+}
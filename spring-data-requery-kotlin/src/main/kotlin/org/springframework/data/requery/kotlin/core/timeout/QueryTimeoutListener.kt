@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.kotlin.core.timeout
+
+import io.requery.sql.BoundParameters
+import io.requery.sql.StatementListener
+import mu.KLogging
+import java.sql.SQLException
+import java.sql.Statement
+import java.util.concurrent.TimeUnit
+
+/**
+ * Statement 를 실행하기 전에 query timeout 을 적용하고, 취소할 수 있도록 현재 [QueryCancellation]에 등록하는 [StatementListener] 입니다.
+ *
+ * timeout 은 기본 timeout([defaultTimeoutNanos])과 현재 [QueryDeadline]까지 남은 시간 중 짧은 값입니다.
+ * JDBC 의 query timeout 은 초 단위이므로 올림해서 적용합니다.
+ * requery 설정에 등록해야 [QueryDeadline], [QueryCancellation]이 동작합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+class QueryTimeoutListener private constructor(val defaultTimeoutNanos: Long) : StatementListener {
+
+    companion object : KLogging() {
+        private val NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1)
+    }
+
+    /**
+     * 기본 timeout 없이 [QueryDeadline], [QueryCancellation]만 적용합니다.
+     */
+    constructor() : this(QueryDeadline.NO_DEADLINE)
+
+    /**
+     * 모든 statement 에 [timeout]을 적용합니다.
+     */
+    constructor(timeout: Long, unit: TimeUnit) : this(unit.toNanos(timeout)) {
+        require(timeout > 0) { "timeout must be greater than 0." }
+    }
+
+    override fun beforeExecuteUpdate(statement: Statement, sql: String?, parameters: BoundParameters?) =
+        beforeExecute(statement)
+
+    override fun afterExecuteUpdate(statement: Statement, count: Int) = afterExecute(statement)
+
+    override fun beforeExecuteBatchUpdate(statement: Statement, sql: String?) = beforeExecute(statement)
+
+    override fun afterExecuteBatchUpdate(statement: Statement, count: IntArray?) = afterExecute(statement)
+
+    override fun beforeExecuteQuery(statement: Statement, sql: String?, parameters: BoundParameters?) =
+        beforeExecute(statement)
+
+    override fun afterExecuteQuery(statement: Statement) = afterExecute(statement)
+
+    private fun beforeExecute(statement: Statement) {
+        // 실행하지 않을 statement 가 취소 대상으로 남지 않도록 deadline 을 먼저 확인한 후 등록합니다.
+        val timeoutNanos = minOf(defaultTimeoutNanos, QueryDeadline.remainingNanos())
+        if(timeoutNanos != QueryDeadline.NO_DEADLINE) {
+            QueryDeadline.checkDeadline()
+        }
+
+        QueryCancellation.current()?.register(statement)
+        if(timeoutNanos == QueryDeadline.NO_DEADLINE) {
+            return
+        }
+
+        val seconds = minOf(Int.MAX_VALUE.toLong(), (timeoutNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND).toInt()
+        try {
+            statement.setQueryTimeout(seconds)
+        } catch(e: SQLException) {
+            logger.warn(e) { "Fail to set query timeout. timeout=$seconds sec" }
+        }
+    }
+
+    private fun afterExecute(statement: Statement) {
+        QueryCancellation.current()?.unregister(statement)
+    }
+}
@@ -34,9 +34,11 @@ import io.requery.query.Scalar
 import io.requery.query.Tuple
 import io.requery.sql.KotlinEntityDataStore
 import kotlinx.coroutines.Deferred
-import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.async
 import mu.KLogging
+import org.springframework.data.requery.kotlin.core.timeout.QueryCancellation
+import org.springframework.data.requery.kotlin.core.timeout.QueryDeadline
+import org.springframework.data.requery.kotlin.core.timeout.QueryTimeoutListener
 import kotlin.reflect.KClass
 
 /**
@@ -44,7 +46,7 @@ import kotlin.reflect.KClass
  * 이 클래스는 Requery의 [io.requery.async.CompletableEntityStore]를 대체할 수 있는 기능을 제공합니다.
  *
  * 비동기 방식이지만, Coroutine은 Lightweight thread이므로 Transaction에 안정하게 구현됩니다.
- * 다만 Dispatchers.Default를 쓰면 안되고, caller thread에 속해서 작동해야 하므로 [Dispatchers.Main]를 사용해야 합니다.
+ * JDBC blocking I/O 를 실행하므로 [RequeryDispatchers.IO]를 사용합니다. (JDK 21 이상에서는 virtual thread)
  *
  * @author debop
  * @since 18. 5. 16
@@ -178,12 +180,20 @@ class CoroutineEntityStore<T : Any>(val delegate: KotlinEntityDataStore<T>) : En
     /**
      * [CoroutineEntityStore]에서 제공하는 모든 메소드는 이 함수를 통해서 실행됩니다.
      *
+     * 호출한 thread 의 [QueryDeadline]을 따르고, 반환한 [Deferred]를 취소하면 실행 중인 statement 를 취소해서 connection 을 바로 반환합니다.
+     * ([QueryTimeoutListener]가 requery 설정에 등록되어 있어야 합니다)
+     *
      * @param V return value type
      * @param block code block of requery operations
      */
     inline fun <V> execute(crossinline block: suspend CoroutineEntityStore<T>.() -> V): Deferred<V> {
-        return RequeryScope.async(Dispatchers.Default) {
-            block.invoke(this@CoroutineEntityStore)
+        val cancellation = QueryCancellation()
+        val context = RequeryDispatchers.IO + cancellation.asContextElement() + QueryDeadline.asContextElement()
+
+        return RequeryScope.async(context) {
+            cancellation.cancelOnCancellation(this) {
+                block.invoke(this@CoroutineEntityStore)
+            }
         }
     }
 
@@ -18,7 +18,6 @@ package org.springframework.data.requery.kotlin.coroutines
 
 import kotlinx.coroutines.CoroutineDispatcher
 import kotlinx.coroutines.Deferred
-import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.async
 import kotlinx.coroutines.coroutineScope
 import kotlinx.coroutines.runBlocking
@@ -31,9 +30,9 @@ import java.util.stream.Stream
 
 /**
  * Requery 사용 시 사용하는 기본 [CoroutineDispatcher]입니다.
- * Transaction이 thread bound 이므로 [Dispatchers.Unconfined] 를 사용합니다.
+ * JDBC blocking I/O 를 실행하므로 [RequeryDispatchers.IO]를 사용합니다.
  */
-internal val defaultCoroutineDispatcher: CoroutineDispatcher = Dispatchers.Default
+internal val defaultCoroutineDispatcher: CoroutineDispatcher get() = RequeryDispatchers.IO
 
 suspend fun <T> CompletionStage<T>.asDeferred(): Deferred<T> {
     return coroutineScope {
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.kotlin.coroutines
+
+import kotlinx.coroutines.CoroutineDispatcher
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.asCoroutineDispatcher
+import mu.KLogging
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+
+/**
+ * Requery 작업을 실행할 [CoroutineDispatcher]를 제공합니다.
+ *
+ * Requery 작업은 JDBC blocking I/O 이므로 [Dispatchers.Default] 대신 이 dispatcher 를 사용해야 합니다.
+ * JDK 21 이상에서는 작업마다 virtual thread 를 사용하고, 그 이전 JDK 에서는 [Dispatchers.IO]를 사용합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+object RequeryDispatchers : KLogging() {
+
+    private val virtualThreadExecutor: ExecutorService? by lazy {
+        try {
+            Executors::class.java.getMethod("newVirtualThreadPerTaskExecutor").invoke(null) as ExecutorService
+        } catch(e: NoSuchMethodException) {
+            null
+        } catch(e: Exception) {
+            logger.warn(e) { "Fail to create virtual thread executor. use Dispatchers.IO instead." }
+            null
+        }
+    }
+
+    /**
+     * 현재 JVM 에서 virtual thread 를 사용할 수 있는지 여부
+     */
+    val isVirtualThreadSupported: Boolean
+        get() = virtualThreadExecutor != null
+
+    /**
+     * Blocking I/O 용 dispatcher
+     */
+    val IO: CoroutineDispatcher by lazy {
+        val dispatcher = virtualThreadExecutor?.asCoroutineDispatcher() ?: Dispatchers.IO
+        logger.info { "Use requery coroutine dispatcher. virtualThread=$isVirtualThreadSupported" }
+        dispatcher
+    }
+}
@@ -17,7 +17,6 @@
 package org.springframework.data.requery.kotlin.coroutines
 
 import kotlinx.coroutines.CoroutineScope
-import kotlinx.coroutines.Dispatchers
 import kotlin.coroutines.CoroutineContext
 
 /**
@@ -27,9 +26,9 @@ import kotlin.coroutines.CoroutineContext
 object RequeryScope : CoroutineScope {
 
     /**
-     * 기본 CoroutineContext는 [Dispatchers.Default] 입니다.
+     * 기본 CoroutineContext는 [RequeryDispatchers.IO] 입니다.
      * 기본적으로 Tx 를 고려하지 않는다. 꼭 Tx를 고려해야 하는 상황에서는 Dispatchers.Main을 써야 합니다.
      */
     override val coroutineContext: CoroutineContext
-        get() = Dispatchers.Default
+        get() = RequeryDispatchers.IO
 }
\ No newline at end of file
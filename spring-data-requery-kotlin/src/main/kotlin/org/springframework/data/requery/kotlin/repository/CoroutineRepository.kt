@@ -17,7 +17,7 @@
 package org.springframework.data.requery.kotlin.repository
 
 import kotlinx.coroutines.CoroutineDispatcher
-import kotlinx.coroutines.Dispatchers
+import org.springframework.data.requery.kotlin.coroutines.RequeryDispatchers
 import org.springframework.data.repository.NoRepositoryBean
 import org.springframework.data.repository.Repository
 
@@ -31,9 +31,9 @@ import org.springframework.data.repository.Repository
 interface CoroutineRepository<E : Any, ID : Any> : Repository<E, ID> {
 
     /**
-     * Default [CoroutineDispatcher]
+     * Default [CoroutineDispatcher] (JDK 21 이상에서는 virtual thread 를 사용합니다)
      */
     @JvmDefault
     val coroutineDispatcher: CoroutineDispatcher
-        get() = Dispatchers.IO
+        get() = RequeryDispatchers.IO
 }
\ No newline at end of file
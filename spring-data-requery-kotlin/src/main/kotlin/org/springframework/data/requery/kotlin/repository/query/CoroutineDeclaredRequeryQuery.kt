@@ -18,7 +18,6 @@ package org.springframework.data.requery.kotlin.repository.query
 
 import io.requery.query.Result
 import io.requery.query.element.QueryElement
-import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.runBlocking
 import kotlinx.coroutines.withContext
 import mu.KLogging
@@ -29,6 +28,7 @@ import org.springframework.data.repository.query.ReturnedType
 import org.springframework.data.requery.kotlin.NotSupportedException
 import org.springframework.data.requery.kotlin.coroutines.CoroutineRequeryOperations
 import org.springframework.data.requery.kotlin.coroutines.DeferredResult
+import org.springframework.data.requery.kotlin.coroutines.RequeryDispatchers
 
 /**
  * Coroutine을 이용하여 RAW Query를 실행하는 [AbstractCoroutineRequeryQuery]의 구현체입니다.
@@ -66,19 +66,19 @@ class CoroutineDeclaredRequeryQuery(queryMethod: RequeryQueryMethod,
                     val values = removePageable(accessor, parameters)
 
                     val countQuery = "select count(cnt_tbl.*) from ($query) as cnt_tbl"
-                    val totals = withContext(Dispatchers.Default) {
+                    val totals = withContext(RequeryDispatchers.IO) {
                         operations.raw(countQuery, *values).first().get<Long>(0)
                     }
 
                     val contentQuery = "$query offset ${pageable.offset} limit ${pageable.pageSize}"
-                    val contents = withContext(Dispatchers.Default) {
+                    val contents = withContext(RequeryDispatchers.IO) {
                         runNativeQuery(contentQuery, values)
                     }
                     contents.castResult(pageable, totals)
                 }
             }
             else -> runBlocking {
-                withContext(Dispatchers.Default) {
+                withContext(RequeryDispatchers.IO) {
                     runNativeQuery(query, parameters).castResult()
                 }
             }
@@ -20,7 +20,6 @@ import io.requery.PersistenceException
 import io.requery.query.Result
 import io.requery.query.element.QueryElement
 import io.requery.query.function.Count
-import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.withContext
 import mu.KLogging
 import org.springframework.core.convert.ConversionService
@@ -35,6 +34,7 @@ import org.springframework.data.repository.query.ParametersParameterAccessor
 import org.springframework.data.requery.kotlin.applyPageable
 import org.springframework.data.requery.kotlin.applyWhereConditions
 import org.springframework.data.requery.kotlin.coroutines.CoroutineRequeryOperations
+import org.springframework.data.requery.kotlin.coroutines.RequeryDispatchers
 import org.springframework.data.requery.kotlin.getAsResult
 import org.springframework.data.requery.kotlin.getAsScalarInt
 import org.springframework.data.requery.kotlin.unwrap
@@ -183,8 +183,8 @@ internal class CoroutinePagedExecution(val parameters: RequeryParameters) : Abst
             queryElement = adjustPage(queryElement, query.domainClass, pageable)
             logger.trace { "offset=${queryElement.offset}, limit=${queryElement.limit}, pageable=$pageable" }
 
-            val result = withContext(Dispatchers.Default) { queryElement.getAsResult().toList() }
-            val totals = withContext(Dispatchers.Default) { doExecuteTotals(query, values) }
+            val result = withContext(RequeryDispatchers.IO) { queryElement.getAsResult().toList() }
+            val totals = withContext(RequeryDispatchers.IO) { doExecuteTotals(query, values) }
 
             PageImpl(result, pageable, totals)
         } else {
@@ -17,17 +17,29 @@
 package org.springframework.data.requery.kotlin.domain.basic
 
 import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.delay
 import kotlinx.coroutines.runBlocking
 import org.junit.Before
 import org.junit.Test
+import org.springframework.data.requery.kotlin.core.timeout.QueryDeadline
 import org.springframework.data.requery.kotlin.coroutines.CoroutineEntityStore
 import org.springframework.data.requery.kotlin.domain.AbstractDomainTest
 import org.springframework.data.requery.kotlin.domain.RandomData
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
 import kotlin.test.assertEquals
+import kotlin.test.assertFails
 import kotlin.test.assertTrue
 
 class CoroutineEntityStoreTest : AbstractDomainTest() {
 
+    companion object {
+        /**
+         * H2 에서 수 분이 걸리는 query
+         */
+        private const val SLOW_QUERY = "select sum(x) from system_range(1, 100000000000)"
+    }
+
     private val corStore: CoroutineEntityStore<Any> by lazy {
         CoroutineEntityStore(kotlinDataStore)
     }
@@ -138,4 +150,38 @@ class CoroutineEntityStoreTest : AbstractDomainTest() {
             assertEquals(10, userStream.count())
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    fun `cancel deferred cancels running statement`() {
+        runBlocking {
+            val finished = CountDownLatch(1)
+            val deferred = corStore.execute {
+                try {
+                    toBlocking().raw(SLOW_QUERY).toList()
+                } finally {
+                    finished.countDown()
+                }
+            }
+
+            delay(500)
+            deferred.cancel()
+
+            assertTrue("취소한 query 는 바로 중단되어야 합니다") { finished.await(10, TimeUnit.SECONDS) }
+            assertTrue { deferred.isCancelled }
+
+            // connection 을 정상적으로 반환했는지 확인
+            assertEquals(0, corStore.count(BasicUserEntity::class).get().await())
+        }
+    }
+
+    @Test
+    fun `deferred follows caller deadline`() {
+        val start = System.currentTimeMillis()
+        val deferred = QueryDeadline.withTimeout(1, TimeUnit.SECONDS) {
+            corStore.execute { toBlocking().raw(SLOW_QUERY).toList() }
+        }
+
+        assertFails { runBlocking { deferred.await() } }
+        assertTrue { System.currentTimeMillis() - start < 10_000L }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repository method 의 실행 제한 시간을 지정합니다. Repository interface 에 지정하면 모든 method 에 적용되고, method 에 지정한 값이 우선합니다.
+ * 호출한 쪽에 더 짧은 deadline 이 있으면 그 deadline 을 따릅니다.
+ * 제한 시간은 {@link org.springframework.data.requery.core.timeout.QueryTimeoutListener}가 statement 에 적용하므로 requery 설정에 등록되어 있어야 합니다.
+ * ({@link org.springframework.data.requery.core.timeout.QueryDeadline} 참고)
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Target({ ElementType.METHOD, ElementType.TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface QueryTimeout {
+
+    /**
+     * 제한 시간. JDBC 의 query timeout 은 초 단위이므로 1초 미만은 올림해서 적용합니다.
+     */
+    long value();
+
+    TimeUnit unit() default TimeUnit.SECONDS;
+}
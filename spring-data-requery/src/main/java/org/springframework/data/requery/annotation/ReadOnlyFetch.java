@@ -0,0 +1,38 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Repository 의 query method 가 반환하는 엔티티를 속성 상태 추적, 엔티티 캐시 등록 없이 속성 값만 채워서 만들도록 지정합니다.
+ * Repository interface 에 지정하면 모든 조회 method 에 적용됩니다. 조회한 엔티티는 수정해서 저장하면 안 됩니다.
+ * ({@link org.springframework.data.requery.core.RequeryOperations#selectReadOnly(Class, io.requery.meta.QueryAttribute[])} 참고)
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Target({ ElementType.METHOD, ElementType.TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReadOnlyFetch {
+}
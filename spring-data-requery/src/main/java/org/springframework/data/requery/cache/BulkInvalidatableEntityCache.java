@@ -0,0 +1,57 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.cache;
+
+import io.requery.EntityCache;
+
+import javax.annotation.Nonnull;
+import java.util.Collection;
+
+/**
+ * 여러 key 를 한번에 무효화할 수 있는 {@link EntityCache}
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+public interface BulkInvalidatableEntityCache extends EntityCache {
+
+    /**
+     * 지정한 key 들에 해당하는 캐시 항목을 한번에 무효화합니다.
+     *
+     * @param type entity type
+     * @param keys entity keys
+     */
+    void invalidateAll(@Nonnull final Class<?> type, @Nonnull final Collection<?> keys);
+
+    /**
+     * {@code cache}가 {@link BulkInvalidatableEntityCache}이면 한번에, 아니면 key 마다 무효화합니다.
+     */
+    static void invalidateAll(@Nonnull final EntityCache cache,
+                              @Nonnull final Class<?> type,
+                              @Nonnull final Collection<?> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        if (cache instanceof BulkInvalidatableEntityCache) {
+            ((BulkInvalidatableEntityCache) cache).invalidateAll(type, keys);
+        } else {
+            for (Object key : keys) {
+                cache.invalidate(type, key);
+            }
+        }
+    }
+}
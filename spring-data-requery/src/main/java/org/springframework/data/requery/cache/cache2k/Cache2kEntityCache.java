@@ -1,6 +1,5 @@
 package org.springframework.data.requery.cache.cache2k;
 
-import io.requery.EntityCache;
 import io.requery.sql.EntityDataStore;
 import lombok.AccessLevel;
 import lombok.Getter;
@@ -9,10 +8,14 @@ import lombok.extern.slf4j.Slf4j;
 import org.cache2k.Cache;
 import org.cache2k.Cache2kBuilder;
 import org.cache2k.configuration.Cache2kConfiguration;
+import org.springframework.data.requery.cache.BulkInvalidatableEntityCache;
 
 import javax.annotation.Nonnull;
+import java.util.Collection;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Cache2kEntityCache
@@ -22,12 +25,12 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 @SuppressWarnings("unchecked")
 @Slf4j
-public class Cache2kEntityCache implements EntityCache {
+public class Cache2kEntityCache implements BulkInvalidatableEntityCache {
 
     private static final Cache2kConfiguration<Object, Object> defaultConfiguration;
 
     private static final Map<Class<?>, Cache<Object, Object>> cacheManagers = new ConcurrentHashMap<>();
-    private static final Object syncObj = new Object();
+    private static final Lock lock = new ReentrantLock();
 
     static {
         defaultConfiguration = Cache2kConfiguration.of(Object.class, Object.class);
@@ -97,11 +100,20 @@ public class Cache2kEntityCache implements EntityCache {
         getCache(type).remove(key);
     }
 
+    @Override
+    public void invalidateAll(@Nonnull final Class<?> type, @Nonnull final Collection<?> keys) {
+        getCache(type).removeAll(keys);
+    }
+
     @Override
     public void clear() {
-        synchronized (syncObj) {
+        // synchronized 는 virtual thread 를 carrier thread 에 고정(pinning)시키므로 ReentrantLock 을 사용합니다.
+        lock.lock();
+        try {
             cacheManagers.forEach((type, cache) -> cache.clearAndClose());
             cacheManagers.clear();
+        } finally {
+            lock.unlock();
         }
     }
 }
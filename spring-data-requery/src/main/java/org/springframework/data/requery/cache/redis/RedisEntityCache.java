@@ -5,13 +5,19 @@ import io.requery.meta.Attribute;
 import io.requery.meta.EntityModel;
 import io.requery.meta.Type;
 import io.requery.proxy.CompositeKey;
-import io.requery.util.ClassMap;
 import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RMapCache;
 import org.redisson.api.RedissonClient;
+import org.springframework.data.requery.cache.BulkInvalidatableEntityCache;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Redis 를 분산캐시로 사용하는 {@link EntityCache}
@@ -20,12 +26,12 @@ import java.util.Set;
  * @since 19. 3. 11
  */
 @Slf4j
-public class RedisEntityCache implements EntityCache {
+public class RedisEntityCache implements BulkInvalidatableEntityCache {
 
     private final EntityModel model;
     private final RedissonClient redisson;
-    private final ClassMap<RMapCache<Object, RedisSerializedEntity<?>>> caches = new ClassMap<>();
-    private final Object syncObj = new Object();
+    private final Map<Class<?>, RMapCache<Object, RedisSerializedEntity<?>>> caches = new ConcurrentHashMap<>();
+    private final Lock lock = new ReentrantLock();
 
     public RedisEntityCache(@Nonnull final EntityModel model, @Nonnull final RedissonClient redisson) {
         this.model = model;
@@ -102,9 +108,11 @@ public class RedisEntityCache implements EntityCache {
         RMapCache cache = getCache(type);
         if (cache != null) {
             cache.clear();
-            String cacheName = getCacheName(model.typeOf(type));
-            synchronized (syncObj) {
+            lock.lock();
+            try {
                 caches.remove(type);
+            } finally {
+                lock.unlock();
             }
         }
     }
@@ -114,13 +122,24 @@ public class RedisEntityCache implements EntityCache {
         getCache(type).remove(key);
     }
 
+    @Override
+    public void invalidateAll(@Nonnull final Class<?> type, @Nonnull final Collection<?> keys) {
+        @SuppressWarnings("unchecked")
+        RMapCache<Object, Object> cache = getCache(type);
+        cache.fastRemove(keys.toArray());
+    }
+
     @Override
     public void clear() {
         log.info("Clear all cache entities");
 
-        synchronized (syncObj) {
-            caches.forEach((key, cache) -> invalidate(key));
+        // synchronized 는 virtual thread 를 carrier thread 에 고정(pinning)시키므로 ReentrantLock 을 사용합니다.
+        lock.lock();
+        try {
+            new ArrayList<>(caches.keySet()).forEach(this::invalidate);
             caches.clear();
+        } finally {
+            lock.unlock();
         }
     }
 }
@@ -30,6 +30,8 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.requery.core.RequeryOperations;
 import org.springframework.data.requery.core.RequeryTemplate;
+import org.springframework.data.requery.core.export.FetchSizeListener;
+import org.springframework.data.requery.core.timeout.QueryTimeoutListener;
 import org.springframework.data.requery.listeners.LogbackListener;
 import org.springframework.data.requery.mapping.RequeryMappingContext;
 import org.springframework.jdbc.datasource.DataSourceTransactionManager;
@@ -81,9 +83,13 @@ public abstract class AbstractRequeryConfiguration {
         return new ConfigurationBuilder(dataSource, entityModel)
             // .useDefaultLogging()
             .setEntityCache(new EmptyEntityCache())
-            .setStatementCacheSize(1024)
+            // requery 의 statement cache 는 connection 에 상관없이 공유되므로, 여러 thread 가 동시에 사용하면
+            // 다른 connection 의 PreparedStatement 를 재사용하게 됩니다. statement cache 는 JDBC driver/pool 에서 설정하세요.
+            .setStatementCacheSize(0)
             .setBatchUpdateSize(100)
             .addStatementListener(new LogbackListener<>())
+            .addStatementListener(new QueryTimeoutListener())
+            .addStatementListener(new FetchSizeListener())
             .setTransactionIsolation(TransactionIsolation.READ_COMMITTED)
             .build();
     }
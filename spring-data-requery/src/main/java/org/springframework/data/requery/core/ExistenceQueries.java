@@ -0,0 +1,154 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core;
+
+import io.requery.EntityCache;
+import io.requery.meta.Attribute;
+import io.requery.meta.QueryAttribute;
+import io.requery.meta.Type;
+import io.requery.query.Condition;
+import io.requery.query.Expression;
+import io.requery.query.Result;
+import io.requery.query.Tuple;
+import io.requery.query.element.QueryElement;
+import io.requery.query.element.QueryType;
+import io.requery.query.element.WhereConditionElement;
+import io.requery.sql.EntityContext;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.requery.utils.RequeryUtils;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Set;
+
+import static org.springframework.data.requery.utils.RequeryUtils.unwrap;
+
+/**
+ * 엔티티 존재 여부를 {@code SELECT id FROM ... WHERE ... LIMIT 1} 로 확인합니다.
+ * <p>
+ * {@code COUNT(*)} 는 조건에 맞는 행을 모두 세어야 하고, 엔티티 조회에 {@code limit(1)} 을 붙이면 모든 컬럼을 읽어 엔티티를 만듭니다.
+ * 여기서는 key 컬럼 하나만 선택하고 첫 행을 찾으면 멈추므로 key index 만으로 처리될 수 있습니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+@UtilityClass
+public class ExistenceQueries {
+
+    /**
+     * {@code entityType}에 대해 {@code condition}을 만족하는 행이 있는지 확인합니다.
+     */
+    public static <E> boolean exists(@Nonnull final RequeryOperations operations,
+                                     @Nonnull final Class<E> entityType,
+                                     @Nullable final Condition<?, ?> condition) {
+        Assert.notNull(operations, "operations must not be null!");
+        Assert.notNull(entityType, "entityType must not be null!");
+
+        QueryElement<? extends Result<Tuple>> query = selectKey(operations, entityType);
+        if (condition != null) {
+            query.where(condition);
+        }
+        return query.limit(1).get().firstOrNull() != null;
+    }
+
+    /**
+     * 엔티티 조회 쿼리 {@code whereClause} 의 조건을 만족하는 행이 있는지 확인합니다.
+     * join, sub query, group by 등이 있어 조건만 옮길 수 없는 쿼리는 원래 쿼리에 {@code limit(1)} 을 적용합니다.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> boolean exists(@Nonnull final RequeryOperations operations,
+                                     @Nonnull final Class<E> entityType,
+                                     @Nonnull final QueryElement<?> whereClause) {
+        Assert.notNull(operations, "operations must not be null!");
+        Assert.notNull(entityType, "entityType must not be null!");
+        Assert.notNull(whereClause, "whereClause must not be null!");
+
+        if (!isRewritable(whereClause)) {
+            log.trace("Check existence with original query. entityType={}", entityType.getSimpleName());
+            return ((Result<?>) whereClause.limit(1).get()).firstOrNull() != null;
+        }
+
+        QueryElement<? extends Result<Tuple>> query = selectKey(operations, entityType);
+        ((Set) query.getWhereElements()).addAll((Set<WhereConditionElement<?>>) whereClause.getWhereElements());
+
+        return query.limit(1).get().firstOrNull() != null;
+    }
+
+    /**
+     * 엔티티 캐시에 있으면 DB 를 조회하지 않고 true 를 반환합니다.
+     */
+    public static <E> boolean existsById(@Nonnull final RequeryOperations operations,
+                                         @Nonnull final Class<E> entityType,
+                                         @Nonnull final Object id) {
+        Assert.notNull(id, "id must not be null!");
+
+        EntityContext<?> context = RequeryUtils.getEntityContext(operations.getDataStore());
+        Type<E> type = context.getModel().typeOf(entityType);
+        EntityCache cache = context.getCache();
+        if (type.isCacheable() && cache != null && cache.contains(entityType, id)) {
+            return true;
+        }
+
+        QueryAttribute<E, Object> keyAttribute = getKeyAttribute(type);
+        return exists(operations, entityType, keyAttribute.eq(id));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> QueryElement<? extends Result<Tuple>> selectKey(@Nonnull final RequeryOperations operations,
+                                                                      @Nonnull final Class<E> entityType) {
+        Type<E> type = RequeryUtils.getEntityModel(operations.getDataStore()).typeOf(entityType);
+        Expression<?> selection = getKeyAttribute(type);
+
+        return (QueryElement<? extends Result<Tuple>>) unwrap(operations.select(selection).from(entityType));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> QueryAttribute<E, Object> getKeyAttribute(@Nonnull final Type<E> type) {
+        Set<Attribute<E, ?>> keys = type.getKeyAttributes();
+        if (!keys.isEmpty()) {
+            return (QueryAttribute<E, Object>) keys.iterator().next();
+        }
+        for (Attribute<E, ?> attribute : type.getAttributes()) {
+            if (!attribute.isAssociation()) {
+                return (QueryAttribute<E, Object>) attribute;
+            }
+        }
+        throw new IllegalStateException("No selectable attribute. type=" + type.getName());
+    }
+
+    /**
+     * where 조건만으로 결과 행이 결정되는 단순한 SELECT 쿼리인지 확인합니다.
+     */
+    private static boolean isRewritable(@Nonnull final QueryElement<?> query) {
+        return query.queryType() == QueryType.SELECT &&
+               query.getWhereExistsElement() == null &&
+               isEmpty(query.joinElements()) &&
+               isEmpty(query.getGroupByExpressions()) &&
+               isEmpty(query.getHavingElements()) &&
+               query.getInnerSetQuery() == null &&
+               !query.isDistinct() &&
+               (query.fromExpressions() == null || query.fromExpressions().size() <= 1);
+    }
+
+    private static boolean isEmpty(@Nullable final Set<?> set) {
+        return set == null || set.isEmpty();
+    }
+}
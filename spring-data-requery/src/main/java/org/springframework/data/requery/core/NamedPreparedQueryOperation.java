@@ -1,22 +1,703 @@
 package org.springframework.data.requery.core;
 
-import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import io.requery.meta.Attribute;
+import io.requery.meta.EntityModel;
+import io.requery.query.BaseResult;
+import io.requery.query.Expression;
+import io.requery.query.NamedExpression;
+import io.requery.query.Result;
+import io.requery.sql.BoundParameters;
+import io.requery.sql.EntityContext;
+import io.requery.sql.Mapping;
+import io.requery.sql.Platform;
+import io.requery.sql.StatementListener;
+import io.requery.util.CloseableIterator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.requery.RequeryExecutionException;
+import org.springframework.data.requery.utils.IdBatches;
+import org.springframework.data.requery.utils.SqlParameterLimits;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.reflect.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * NamedPreparedQueryOperation
  * <p>
  * {@link io.requery.sql.PreparedQueryOperation}를 참고하여 raw 메소드에서도 Named parameter를 사용할 수 있도록 합니다.
  * <p>
+ * SQL 문자열은 한 번만 파싱해서 ({@link ParsedSql}) LRU 캐시에 보관합니다. 파싱 시에 문자열 상수, 주석, {@code ::} cast 는 건너뛰고
+ * {@code :name} (named), {@code ?} (순서대로), {@code ?1} (1부터 시작하는 위치) parameter 를 인식합니다.
+ * <p>
+ * {@link Iterable} 이나 배열 parameter 는 {@code IN (?, ?, ...)} 으로 펼치는데, 목록 크기를 {@link IdBatches#bucketSize(int, int)} 로 올려서
+ * 마지막 값을 반복합니다. 최대 크기는 DB 별 제한({@link SqlParameterLimits#getMaxInListSize(Platform, int)})을 따르고,
+ * 그보다 큰 목록은 올리지 않습니다. 목록 크기가 달라도 같은 SQL 문장이 만들어지므로 DB 의 statement 캐시를 재사용할 수 있습니다.
+ * <p>
+ * 조회는 requery 의 {@code Result} 처럼 결과를 순회할 때 connection 을 얻어 실행하고, 다 읽거나 닫을 때 statement 와 함께 반환합니다.
+ * connection 은 {@link EntityContext#getConnection()} 으로 얻은 것을 닫으므로, transaction 중에는 transaction 의 connection 이 닫히지 않습니다.
+ * <p>
+ * 조회 결과의 컬럼 → 엔티티 속성/Tuple 컬럼 매핑({@link RowMapper})은 처음 실행할 때 {@link ResultSetMetaData}로 만들어서
+ * {@link ParsedSql}에 보관하므로 이후에는 컬럼 이름을 비교하지 않습니다.
+ * <p>
  * ref: https://github.com/axiom-data-science/jdbc-named-parameters
  * ref: https://www.codemeright.com/blog/post/named-parameterized-query-java
- * <p>
- * 차라리 Spring 에서 제공하는 NamedParameterJdbcTemplate 를 사용하는 것이 나을 수 있다.
- * https://www.devglan.com/spring-jdbc/working-with-springboot-namedparameter-jdbctemplate
  *
  * @author debop
  * @since 18. 12. 5
  */
-public abstract class NamedPreparedQueryOperation {
+@Slf4j
+public abstract class NamedPreparedQueryOperation<T> {
+
+    public static final int DEFAULT_CACHE_SIZE = 512;
+
+    private static final ParsedSqlCache PARSED_SQL_CACHE = new ParsedSqlCache(DEFAULT_CACHE_SIZE);
+
+    /**
+     * {@code sql}을 파싱한 결과를 반환합니다. 같은 SQL 문자열은 캐시된 결과를 사용합니다.
+     */
+    @Nonnull
+    public static ParsedSql parse(@Nonnull final String sql) {
+        Assert.hasText(sql, "sql must not be empty!");
+        return PARSED_SQL_CACHE.get(sql);
+    }
+
+    /**
+     * 파싱한 SQL 을 보관하는 LRU 캐시의 최대 크기를 변경합니다.
+     */
+    public static void setCacheSize(int cacheSize) {
+        Assert.isTrue(cacheSize > 0, "cacheSize must be positive!");
+        PARSED_SQL_CACHE.resize(cacheSize);
+    }
+
+    public static int getCachedSqlCount() {
+        return PARSED_SQL_CACHE.size();
+    }
+
+    public static long getCacheHits() {
+        return PARSED_SQL_CACHE.hits.sum();
+    }
+
+    public static long getCacheMisses() {
+        return PARSED_SQL_CACHE.misses.sum();
+    }
+
+    public static void clearCache() {
+        PARSED_SQL_CACHE.clear();
+    }
+
+    protected final EntityContext<Object> context;
+    protected final ParsedSql parsedSql;
+    private final Map<String, ?> namedParameters;
+    private final Object[] positionalParameters;
+    @Nullable private Expression<?>[] parameterExpressions;
+
+    protected NamedPreparedQueryOperation(@Nonnull final EntityContext<Object> context,
+                                          @Nonnull final String sql,
+                                          @Nullable final Map<String, ?> namedParameters,
+                                          @Nullable final Object[] positionalParameters) {
+        Assert.notNull(context, "context must not be null!");
+
+        this.context = context;
+        this.parsedSql = parse(sql);
+        this.namedParameters = (namedParameters != null) ? namedParameters : Collections.emptyMap();
+        this.positionalParameters = (positionalParameters != null) ? positionalParameters : new Object[0];
+    }
+
+    /**
+     * 결과 행을 읽을 때 사용할 {@link RowMapper}를 구분하는 키
+     */
+    @Nonnull
+    protected abstract Object getRowMapperKey();
+
+    /**
+     * {@code metadata}의 컬럼 정보로 {@link RowMapper}를 만듭니다. 같은 SQL 과 결과 타입에 대해서는 한 번만 호출됩니다.
+     */
+    @Nonnull
+    protected abstract RowMapper<T> createRowMapper(@Nonnull final ResultSetMetaData metadata) throws SQLException;
+
+    /**
+     * 조회 결과마다 {@link RowMapper}에 전달할 상태를 만듭니다.
+     */
+    @Nullable
+    protected Object createReadContext() {
+        return null;
+    }
+
+    /**
+     * requery 가 생성한 SQL 처럼 {@code ?} 마다 바인딩할 {@link Expression}이 정해져 있는 경우에 지정합니다.
+     * 지정하면 값의 타입 대신 {@link Expression}의 converter 로 바인딩하고, IN 목록을 펼치지 않습니다.
+     */
+    void bindWith(@Nonnull final Expression<?>[] parameterExpressions) {
+        this.parameterExpressions = parameterExpressions;
+    }
+
+    /**
+     * named parameter 를 바인딩해서 query 를 실행합니다. 조회는 결과를 순회할 때 실행됩니다.
+     */
+    @Nonnull
+    public Result<T> get() {
+        return execute(bind());
+    }
+
+    /**
+     * 조회 query 를 실행하는 {@link Result}를 반환합니다. 조회 외의 문장을 지원하려면 재정의합니다.
+     */
+    @Nonnull
+    Result<T> execute(@Nonnull final BoundSql bound) {
+        return new StatementResult(bound);
+    }
+
+    /**
+     * INSERT, UPDATE, DELETE 등을 바로 실행하고 영향받은 행 수를 반환합니다.
+     */
+    int executeUpdate(@Nonnull final BoundSql bound) {
+        Connection connection = null;
+        PreparedStatement statement = null;
+        try {
+            connection = context.getConnection();
+            statement = connection.prepareStatement(bound.sql);
+            BoundParameters parameters = writeParameters(statement, bound.values);
+
+            StatementListener listener = context.getStatementListener();
+            listener.beforeExecuteUpdate(statement, bound.sql, parameters);
+            int count = statement.executeUpdate();
+            listener.afterExecuteUpdate(statement, count);
+            return count;
+        } catch (SQLException e) {
+            throw new RequeryExecutionException("Fail to execute query. sql=" + bound.sql, e);
+        } finally {
+            closeQuietly(statement);
+            closeQuietly(connection);
+        }
+    }
+
+    /**
+     * parameter 값을 찾아 IN 목록을 펼친 SQL 과 바인딩할 값 목록을 만듭니다.
+     */
+    @Nonnull
+    BoundSql bind() {
+        ParameterRef[] refs = parsedSql.parameters;
+        Object[] values = new Object[refs.length];
+        boolean expand = false;
+        int scalarCount = 0;
+
+        for (int i = 0; i < refs.length; i++) {
+            values[i] = resolve(refs[i]);
+            boolean expandable = parameterExpressions == null && isExpandable(values[i]);
+            expand |= expandable;
+            scalarCount += expandable ? 0 : 1;
+        }
+
+        if (!expand) {
+            List<Object> list = new ArrayList<>(values.length);
+            Collections.addAll(list, values);
+            return new BoundSql(parsedSql.jdbcSql, list);
+        }
+
+        int maxInListSize = SqlParameterLimits.getMaxInListSize(context.getPlatform(), scalarCount);
+        String[] fragments = parsedSql.fragments;
+        StringBuilder sb = new StringBuilder(parsedSql.jdbcSql.length() + 16 * refs.length);
+        List<Object> list = new ArrayList<>(values.length * 2);
+
+        sb.append(fragments[0]);
+        for (int i = 0; i < values.length; i++) {
+            if (isExpandable(values[i])) {
+                List<Object> elements = toList(values[i]);
+                int bucket = bucketSize(elements.size(), maxInListSize);
+                Object last = elements.isEmpty() ? null : elements.get(elements.size() - 1);
+                // "in :ids" 와 "in (:ids)" 모두 지원합니다.
+                boolean parenthesized = endsWithOpenParen(fragments[i]) && startsWithCloseParen(fragments[i + 1]);
+                sb.append(parenthesized ? "" : "(");
+                for (int j = 0; j < bucket; j++) {
+                    sb.append(j == 0 ? "?" : ", ?");
+                    list.add(j < elements.size() ? elements.get(j) : last);
+                }
+                sb.append(parenthesized ? "" : ")");
+            } else {
+                sb.append('?');
+                list.add(values[i]);
+            }
+            sb.append(fragments[i + 1]);
+        }
+        return new BoundSql(sb.toString(), list);
+    }
+
+    /**
+     * IN 목록의 placeholder 수. DB 의 IN 목록 최대 크기를 넘는 목록은 채우지 않고 그대로 바인딩합니다.
+     */
+    private static int bucketSize(int size, int maxInListSize) {
+        if (size > maxInListSize) {
+            return size;
+        }
+        return IdBatches.bucketSize(Math.max(size, 1), maxInListSize);
+    }
+
+    @Nullable
+    private Object resolve(@Nonnull final ParameterRef ref) {
+        if (ref.name != null) {
+            if (!namedParameters.containsKey(ref.name)) {
+                throw new IllegalArgumentException("No value supplied for named parameter :" + ref.name + ". sql=" + parsedSql.sql);
+            }
+            return namedParameters.get(ref.name);
+        }
+        if (ref.index >= positionalParameters.length) {
+            throw new IllegalArgumentException("No value supplied for parameter #" + (ref.index + 1) + ". sql=" + parsedSql.sql);
+        }
+        return positionalParameters[ref.index];
+    }
+
+    private static boolean endsWithOpenParen(@Nonnull final String fragment) {
+        int i = fragment.length() - 1;
+        while (i >= 0 && Character.isWhitespace(fragment.charAt(i))) {
+            i--;
+        }
+        return i >= 0 && fragment.charAt(i) == '(';
+    }
+
+    private static boolean startsWithCloseParen(@Nonnull final String fragment) {
+        int i = 0;
+        while (i < fragment.length() && Character.isWhitespace(fragment.charAt(i))) {
+            i++;
+        }
+        return i < fragment.length() && fragment.charAt(i) == ')';
+    }
+
+    private static boolean isExpandable(@Nullable final Object value) {
+        if (value instanceof Iterable) {
+            return true;
+        }
+        // byte[], char[] 는 하나의 값(BLOB, CHAR)으로 바인딩합니다.
+        return value != null &&
+               value.getClass().isArray() &&
+               !(value instanceof byte[]) &&
+               !(value instanceof char[]);
+    }
+
+    @Nonnull
+    private static List<Object> toList(@Nonnull final Object value) {
+        List<Object> list;
+        if (value instanceof Collection) {
+            list = new ArrayList<>((Collection<?>) value);
+        } else if (value instanceof Iterable) {
+            list = new ArrayList<>();
+            for (Object element : (Iterable<?>) value) {
+                list.add(element);
+            }
+        } else {
+            int length = Array.getLength(value);
+            list = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+                list.add(Array.get(value, i));
+            }
+        }
+        return list;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    private BoundParameters writeParameters(@Nonnull final PreparedStatement statement,
+                                            @Nonnull final List<Object> values) throws SQLException {
+        EntityModel model = context.getModel();
+        Mapping mapping = context.getMapping();
+        BoundParameters parameters = new BoundParameters();
+
+        for (int i = 0; i < values.size(); i++) {
+            Object value = values.get(i);
+            Class<?> valueType = (value != null) ? value.getClass() : Object.class;
+            Expression expression = (parameterExpressions != null)
+                                    ? parameterExpressions[i]
+                                    : NamedExpression.of(String.valueOf(i), valueType);
+
+            // 엔티티는 key 값으로 바인딩합니다.
+            if (value != null && model.containsTypeOf(valueType)) {
+                Attribute keyAttribute = model.typeOf(valueType).getSingleKeyAttribute();
+                if (keyAttribute != null) {
+                    value = keyAttribute.getProperty().get(value);
+                    expression = (Expression) keyAttribute;
+                }
+            }
+            mapping.write(expression, statement, i + 1, value);
+            parameters.add(expression, value);
+        }
+        return parameters;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    private RowMapper<T> getRowMapper(@Nonnull final ResultSetMetaData metadata) throws SQLException {
+        Object rowMapperKey = getRowMapperKey();
+        RowMapper<T> rowMapper = (RowMapper<T>) parsedSql.rowMappers.get(rowMapperKey);
+
+        if (rowMapper == null ||
+            rowMapper.getMapping() != context.getMapping() ||
+            rowMapper.getColumnCount() != metadata.getColumnCount()) {
+            rowMapper = createRowMapper(metadata);
+            parsedSql.rowMappers.put(rowMapperKey, rowMapper);
+        }
+        return rowMapper;
+    }
+
+    private static void closeQuietly(@Nullable final AutoCloseable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (Exception ignored) {
+                // Nothing to do.
+            }
+        }
+    }
+
+    /**
+     * 결과 행 하나를 {@code T}로 변환합니다. SQL 과 결과 타입 별로 캐시되므로 thread-safe 해야 합니다.
+     */
+    public interface RowMapper<T> {
+
+        @Nonnull
+        Mapping getMapping();
+
+        int getColumnCount();
+
+        T map(@Nonnull final ResultSet results, @Nullable final Object readContext) throws SQLException;
+    }
+
+    /**
+     * 파싱한 SQL. {@code fragments} 사이사이에 parameter 가 들어갑니다.
+     */
+    public static final class ParsedSql {
+
+        private static final Set<String> UPDATE_KEYWORDS = new LinkedHashSet<>();
+
+        static {
+            Collections.addAll(UPDATE_KEYWORDS, "INSERT", "UPDATE", "UPSERT", "DELETE", "TRUNCATE", "MERGE");
+        }
+
+        private final String sql;
+        private final String jdbcSql;
+        private final String[] fragments;
+        private final ParameterRef[] parameters;
+        private final boolean select;
+        private final ConcurrentMap<Object, RowMapper<?>> rowMappers = new ConcurrentHashMap<>();
+
+        private ParsedSql(String sql, List<String> fragments, List<ParameterRef> parameters) {
+            this.sql = sql;
+            this.fragments = fragments.toArray(new String[0]);
+            this.parameters = parameters.toArray(new ParameterRef[0]);
+            this.jdbcSql = String.join("?", fragments);
+            this.select = !UPDATE_KEYWORDS.contains(firstKeyword(sql));
+        }
+
+        /** 원본 SQL */
+        public String getSql() {
+            return sql;
+        }
+
+        /** named parameter 를 {@code ?}로 바꾼 SQL (IN 목록을 펼치기 전) */
+        public String getJdbcSql() {
+            return jdbcSql;
+        }
+
+        public int getParameterCount() {
+            return parameters.length;
+        }
+
+        /** SQL 에 나오는 순서대로의 parameter 이름. 이름이 없는 parameter 는 {@code null} */
+        public List<String> getParameterNames() {
+            List<String> names = new ArrayList<>(parameters.length);
+            for (ParameterRef parameter : parameters) {
+                names.add(parameter.name);
+            }
+            return names;
+        }
+
+        public boolean hasNamedParameters() {
+            for (ParameterRef parameter : parameters) {
+                if (parameter.name != null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /** 결과 행을 반환하는 문장인지 여부 (INSERT, UPDATE, DELETE 등이 아닌 경우) */
+        public boolean isSelect() {
+            return select;
+        }
+
+        private static String firstKeyword(String sql) {
+            String trimmed = sql.trim();
+            int end = 0;
+            while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+                end++;
+            }
+            return trimmed.substring(0, end).toUpperCase(Locale.ROOT);
+        }
+
+        @Nonnull
+        static ParsedSql of(@Nonnull final String sql) {
+            List<String> fragments = new ArrayList<>();
+            List<ParameterRef> parameters = new ArrayList<>();
+
+            int length = sql.length();
+            int fragmentStart = 0;
+            int positional = 0;
+            int i = 0;
+
+            while (i < length) {
+                char c = sql.charAt(i);
+
+                if (c == '\'' || c == '"' || c == '`') {
+                    // 따옴표가 두 번 나오는 escape 는 닫고 다시 여는 것으로 처리됩니다.
+                    int close = sql.indexOf(c, i + 1);
+                    i = (close < 0) ? length : close + 1;
+                } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                    int eol = sql.indexOf('\n', i + 2);
+                    i = (eol < 0) ? length : eol + 1;
+                } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                    int close = sql.indexOf("*/", i + 2);
+                    i = (close < 0) ? length : close + 2;
+                } else if (c == ':' && i + 1 < length && sql.charAt(i + 1) == ':') {
+                    i += 2;
+                } else if (c == ':' && i + 1 < length && Character.isJavaIdentifierStart(sql.charAt(i + 1))) {
+                    int end = i + 2;
+                    while (end < length && Character.isJavaIdentifierPart(sql.charAt(end))) {
+                        end++;
+                    }
+                    fragments.add(sql.substring(fragmentStart, i));
+                    parameters.add(new ParameterRef(sql.substring(i + 1, end), -1));
+                    fragmentStart = i = end;
+                } else if (c == '?') {
+                    int end = i + 1;
+                    while (end < length && Character.isDigit(sql.charAt(end))) {
+                        end++;
+                    }
+                    int index = (end > i + 1) ? Integer.parseInt(sql.substring(i + 1, end)) - 1 : positional++;
+                    if (index < 0) {
+                        throw new IllegalArgumentException("Parameter index starts from 1. sql=" + sql);
+                    }
+                    fragments.add(sql.substring(fragmentStart, i));
+                    parameters.add(new ParameterRef(null, index));
+                    fragmentStart = i = end;
+                } else {
+                    i++;
+                }
+            }
+            fragments.add(sql.substring(fragmentStart));
+
+            return new ParsedSql(sql, fragments, parameters);
+        }
+
+        @Override
+        public String toString() {
+            return "ParsedSql{jdbcSql=" + jdbcSql + ", parameters=" + getParameterNames() + "}";
+        }
+    }
+
+    private static final class ParameterRef {
+
+        @Nullable private final String name;
+        private final int index;
+
+        private ParameterRef(@Nullable String name, int index) {
+            this.name = name;
+            this.index = index;
+        }
+    }
+
+    static final class BoundSql {
+
+        final String sql;
+        final List<Object> values;
+
+        private BoundSql(String sql, List<Object> values) {
+            this.sql = sql;
+            this.values = values;
+        }
+    }
+
+    private static final class ParsedSqlCache {
+
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LinkedHashMap<String, ParsedSql> cache;
+        private volatile int maxSize;
+
+        private ParsedSqlCache(int maxSize) {
+            this.maxSize = maxSize;
+            this.cache = new LinkedHashMap<String, ParsedSql>(64, 0.75f, true) {
+                private static final long serialVersionUID = 4218736525712392134L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, ParsedSql> eldest) {
+                    return size() > ParsedSqlCache.this.maxSize;
+                }
+            };
+        }
+
+        @Nonnull
+        ParsedSql get(@Nonnull final String sql) {
+            synchronized (cache) {
+                ParsedSql parsed = cache.get(sql);
+                if (parsed != null) {
+                    hits.increment();
+                    return parsed;
+                }
+            }
+            misses.increment();
+            ParsedSql parsed = ParsedSql.of(sql);
+            log.trace("Parse named parameter sql. {}", parsed);
+
+            synchronized (cache) {
+                ParsedSql existing = cache.putIfAbsent(sql, parsed);
+                return (existing != null) ? existing : parsed;
+            }
+        }
+
+        void resize(int maxSize) {
+            synchronized (cache) {
+                this.maxSize = maxSize;
+                while (cache.size() > maxSize) {
+                    String eldest = cache.keySet().iterator().next();
+                    cache.remove(eldest);
+                }
+            }
+        }
+
+        int size() {
+            synchronized (cache) {
+                return cache.size();
+            }
+        }
+
+        void clear() {
+            synchronized (cache) {
+                cache.clear();
+            }
+        }
+    }
+
+    /**
+     * 순회할 때마다 connection 을 얻어 {@link PreparedStatement}를 실행하고 {@link RowMapper}로 결과를 읽습니다.
+     * statement 와 connection 은 결과를 다 읽거나 iterator 를 닫을 때 닫힙니다. 순회하지 않으면 connection 을 얻지 않습니다.
+     */
+    private final class StatementResult extends BaseResult<T> {
+
+        private final BoundSql bound;
+
+        private StatementResult(BoundSql bound) {
+            this.bound = bound;
+        }
+
+        @Override
+        protected CloseableIterator<T> createIterator(int skip, int take) {
+            Connection connection = null;
+            PreparedStatement statement = null;
+            ResultSet results = null;
+            RowIterator iterator = null;
+            try {
+                connection = context.getConnection();
+                statement = connection.prepareStatement(bound.sql);
+                BoundParameters parameters = writeParameters(statement, bound.values);
+
+                StatementListener listener = context.getStatementListener();
+                listener.beforeExecuteQuery(statement, bound.sql, parameters);
+                results = statement.executeQuery();
+                listener.afterExecuteQuery(statement);
+
+                iterator = new RowIterator(connection, statement, results, getRowMapper(results.getMetaData()), createReadContext());
+                return iterator;
+            } catch (SQLException e) {
+                throw new RequeryExecutionException("Fail to execute query. sql=" + bound.sql, e);
+            } finally {
+                if (iterator == null) {
+                    closeQuietly(results);
+                    closeQuietly(statement);
+                    closeQuietly(connection);
+                }
+            }
+        }
+    }
+
+    private final class RowIterator implements CloseableIterator<T> {
+
+        private final Connection connection;
+        private final PreparedStatement statement;
+        private final ResultSet results;
+        private final RowMapper<T> rowMapper;
+        private final Object readContext;
+        private boolean advanced;
+        private boolean closed;
+
+        private RowIterator(Connection connection, PreparedStatement statement, ResultSet results, RowMapper<T> rowMapper, Object readContext) {
+            this.connection = connection;
+            this.statement = statement;
+            this.results = results;
+            this.rowMapper = rowMapper;
+            this.readContext = readContext;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (closed) {
+                return false;
+            }
+            if (advanced) {
+                return true;
+            }
+            try {
+                if (results.next()) {
+                    advanced = true;
+                    return true;
+                }
+                close();
+                return false;
+            } catch (SQLException e) {
+                close();
+                throw new RequeryExecutionException("Fail to read result. sql=" + parsedSql.sql, e);
+            }
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            advanced = false;
+            try {
+                return rowMapper.map(results, readContext);
+            } catch (SQLException e) {
+                close();
+                throw new RequeryExecutionException("Fail to read result. sql=" + parsedSql.sql, e);
+            }
+        }
 
-    private NamedParameterJdbcOperations jdbcOperations;
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                closeQuietly(results);
+                closeQuietly(statement);
+                // transaction 중이면 requery 가 닫히지 않는 connection 을 반환하므로 transaction 의 connection 은 그대로 남습니다.
+                closeQuietly(connection);
+            }
+        }
+    }
 }
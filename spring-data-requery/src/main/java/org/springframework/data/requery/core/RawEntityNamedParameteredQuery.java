@@ -1,11 +1,396 @@
 package org.springframework.data.requery.core;
 
+import io.requery.EntityCache;
+import io.requery.meta.Attribute;
+import io.requery.meta.EntityModel;
+import io.requery.meta.Type;
+import io.requery.proxy.BooleanProperty;
+import io.requery.proxy.ByteProperty;
+import io.requery.proxy.DoubleProperty;
+import io.requery.proxy.EntityBuilderProxy;
+import io.requery.proxy.EntityProxy;
+import io.requery.proxy.FloatProperty;
+import io.requery.proxy.IntProperty;
+import io.requery.proxy.LongProperty;
+import io.requery.proxy.Property;
+import io.requery.proxy.PropertyLoader;
+import io.requery.proxy.PropertyState;
+import io.requery.proxy.Settable;
+import io.requery.proxy.ShortProperty;
+import io.requery.query.Expression;
+import io.requery.sql.EntityContext;
+import io.requery.sql.EntityStateListener;
+import io.requery.sql.Mapping;
+import org.springframework.data.requery.utils.RequeryUtils;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
- * {@link io.requery.sql.RawTupleQuery} 은 Named parameter를 지원하지 않아, {@link NamedPreparedQueryOperation} 을 상속해서
+ * {@link io.requery.sql.RawEntityQuery} 은 Named parameter를 지원하지 않아, {@link NamedPreparedQueryOperation} 을 상속해서
  * named parameter를 이용한 query를 수행할 수 있도록 합니다.
+ * <p>
+ * 결과 컬럼과 엔티티 속성의 매핑은 컬럼 순번으로 미리 계산해 두므로, 엔티티에 없는 컬럼이 섞여 있어도 값이 밀리지 않습니다.
+ * 엔티티는 requery 의 {@code EntityReader}와 같은 방식으로 만듭니다. (엔티티 캐시, lazy loading 연결, FK 참조 엔티티, postLoad)
+ * <p>
+ * {@link #readOnly(boolean)}를 지정하면 속성 값만 채운 엔티티를 만듭니다. 속성 상태를 기록하지 않고, 엔티티 캐시에 등록하지 않으며,
+ * lazy loading 과 postLoad listener 도 연결하지 않습니다. FK 참조 엔티티는 key 값만 가집니다.
  *
  * @author debop
  * @since 18. 12. 5
  */
-public class RawEntityNamedParameteredQuery extends NamedPreparedQueryOperation {
+public class RawEntityNamedParameteredQuery<E> extends NamedPreparedQueryOperation<E> {
+
+    private final Class<E> entityType;
+    private final Set<EntityStateListener> stateListeners;
+    private boolean readOnly;
+    @Nullable private Attribute<E, ?>[] selection;
+
+    public RawEntityNamedParameteredQuery(@Nonnull final RequeryOperations operations,
+                                          @Nonnull final Class<E> entityType,
+                                          @Nonnull final String sql,
+                                          @Nullable final Map<String, ?> namedParameters) {
+        this(operations, entityType, sql, namedParameters, null);
+    }
+
+    public RawEntityNamedParameteredQuery(@Nonnull final RequeryOperations operations,
+                                          @Nonnull final Class<E> entityType,
+                                          @Nonnull final String sql,
+                                          @Nullable final Map<String, ?> namedParameters,
+                                          @Nullable final Object[] positionalParameters) {
+        super(operations.getEntityContext(), sql, namedParameters, positionalParameters);
+        Assert.notNull(entityType, "entityType must not be null!");
+
+        this.entityType = entityType;
+        this.stateListeners = RequeryUtils.getConfiguration(operations.getDataStore()).getEntityStateListeners();
+    }
+
+    /**
+     * 변경 추적, 캐시 등록 없이 속성 값만 채운 엔티티를 만들지 여부
+     */
+    public RawEntityNamedParameteredQuery<E> readOnly(boolean readOnly) {
+        this.readOnly = readOnly;
+        return this;
+    }
+
+    /**
+     * 결과 컬럼 순서대로의 엔티티 속성. 지정하지 않으면 컬럼 이름으로 속성을 찾습니다.
+     */
+    RawEntityNamedParameteredQuery<E> selecting(@Nonnull final Attribute<E, ?>[] selection) {
+        this.selection = selection;
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    protected Object getRowMapperKey() {
+        return readOnly ? ReadOnlyKey.of(entityType) : entityType;
+    }
+
+    @Nullable
+    @Override
+    protected Object createReadContext() {
+        return readOnly ? null : new ReadContext(context, stateListeners);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    @Override
+    protected RowMapper<E> createRowMapper(@Nonnull final ResultSetMetaData metadata) throws SQLException {
+        EntityModel model = context.getModel();
+        Type<E> type = model.typeOf(entityType);
+
+        Map<String, Attribute<E, ?>> attributes = new LinkedHashMap<>();
+        for (Attribute<E, ?> attribute : type.getAttributes()) {
+            attributes.put(attribute.getName().toLowerCase(Locale.ROOT), attribute);
+        }
+
+        int columnCount = metadata.getColumnCount();
+        Attribute<E, ?>[] columns = new Attribute[columnCount];
+        Attribute<?, ?>[] referencedKeys = new Attribute[columnCount];
+        Type<?>[] referencedTypes = new Type[columnCount];
+        int keyColumn = 0;
+
+        for (int i = 0; i < columnCount; i++) {
+            Attribute<E, ?> attribute = (selection != null)
+                                        ? (i < selection.length ? selection[i] : null)
+                                        : attributes.get(metadata.getColumnName(i + 1).toLowerCase(Locale.ROOT));
+            if (attribute == null) {
+                continue;
+            }
+            if (attribute.isAssociation()) {
+                // FK 컬럼만 참조 엔티티의 key 로 읽고, 나머지 연관관계는 lazy loading 에 맡깁니다.
+                if (!attribute.isForeignKey() && !attribute.isKey()) {
+                    continue;
+                }
+                referencedKeys[i] = attribute.getReferencedAttribute().get();
+                referencedTypes[i] = model.typeOf(attribute.getClassType());
+            }
+            if (attribute.equals(type.getSingleKeyAttribute()) && keyColumn == 0) {
+                keyColumn = i + 1;
+            }
+            columns[i] = attribute;
+        }
+
+        return new EntityRowMapper<>(context.getMapping(), type, columns, referencedKeys, referencedTypes, keyColumn, readOnly);
+    }
+
+    /**
+     * read-only 로 읽는 {@link RowMapper}를 구분하는 키
+     */
+    private static final class ReadOnlyKey {
+
+        private static final Map<Class<?>, ReadOnlyKey> KEYS = new ConcurrentHashMap<>();
+
+        static ReadOnlyKey of(Class<?> entityType) {
+            return KEYS.computeIfAbsent(entityType, it -> new ReadOnlyKey());
+        }
+    }
+
+    /**
+     * 조회 결과 하나를 읽는 동안 사용하는 엔티티 캐시, {@link PropertyLoader}, listener
+     */
+    private static final class ReadContext {
+
+        private final EntityContext<Object> context;
+        private final EntityCache cache;
+        private final Set<EntityStateListener> stateListeners;
+        private final Map<Class<?>, PropertyLoader<?>> loaders = new HashMap<>();
+
+        private ReadContext(EntityContext<Object> context, Set<EntityStateListener> stateListeners) {
+            this.context = context;
+            this.cache = context.getCache();
+            this.stateListeners = stateListeners;
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> PropertyLoader<T> loaderOf(Class<T> entityType) {
+            return (PropertyLoader<T>) loaders.computeIfAbsent(entityType, cls -> (PropertyLoader<?>) context.read(cls));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static final class EntityRowMapper<E> implements RowMapper<E> {
+
+        private final Mapping mapping;
+        private final Type<E> type;
+        private final Attribute<E, ?>[] columns;
+        private final Attribute<?, ?>[] referencedKeys;
+        private final Type<?>[] referencedTypes;
+        private final int keyColumn;
+        private final boolean readOnly;
+
+        private EntityRowMapper(Mapping mapping,
+                                Type<E> type,
+                                Attribute<E, ?>[] columns,
+                                Attribute<?, ?>[] referencedKeys,
+                                Type<?>[] referencedTypes,
+                                int keyColumn,
+                                boolean readOnly) {
+            this.mapping = mapping;
+            this.type = type;
+            this.columns = columns;
+            this.referencedKeys = referencedKeys;
+            this.referencedTypes = referencedTypes;
+            this.keyColumn = keyColumn;
+            this.readOnly = readOnly;
+        }
+
+        @Nonnull
+        @Override
+        public Mapping getMapping() {
+            return mapping;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return columns.length;
+        }
+
+        @Override
+        public E map(@Nonnull final ResultSet results, @Nullable final Object readContext) throws SQLException {
+            if (type.isImmutable()) {
+                return build(results);
+            }
+            return readOnly ? fill(results) : load(results, (ReadContext) readContext);
+        }
+
+        private E fill(ResultSet results) throws SQLException {
+            E entity = type.getFactory().get();
+            for (int i = 0; i < columns.length; i++) {
+                Attribute attribute = columns[i];
+                if (attribute == null) {
+                    continue;
+                }
+                if (attribute.isAssociation()) {
+                    Attribute referencedKey = referencedKeys[i];
+                    Object key = mapping.read((Expression) referencedKey, results, i + 1);
+                    if (key != null) {
+                        Object reference = referencedTypes[i].getFactory().get();
+                        referencedKey.getProperty().set(reference, key);
+                        attribute.getProperty().set(entity, reference);
+                    }
+                } else {
+                    fillValue(entity, attribute, results, i + 1);
+                }
+            }
+            return entity;
+        }
+
+        private void fillValue(E entity, Attribute attribute, ResultSet results, int index) throws SQLException {
+            Property property = attribute.getProperty();
+            if (attribute.getPrimitiveKind() == null) {
+                property.set(entity, mapping.read((Expression) attribute, results, index));
+                return;
+            }
+            switch (attribute.getPrimitiveKind()) {
+                case INT:
+                    ((IntProperty) property).setInt(entity, mapping.readInt(results, index));
+                    break;
+                case LONG:
+                    ((LongProperty) property).setLong(entity, mapping.readLong(results, index));
+                    break;
+                case SHORT:
+                    ((ShortProperty) property).setShort(entity, mapping.readShort(results, index));
+                    break;
+                case BYTE:
+                    ((ByteProperty) property).setByte(entity, mapping.readByte(results, index));
+                    break;
+                case BOOLEAN:
+                    ((BooleanProperty) property).setBoolean(entity, mapping.readBoolean(results, index));
+                    break;
+                case FLOAT:
+                    ((FloatProperty) property).setFloat(entity, mapping.readFloat(results, index));
+                    break;
+                case DOUBLE:
+                    ((DoubleProperty) property).setDouble(entity, mapping.readDouble(results, index));
+                    break;
+                default:
+                    property.set(entity, mapping.read((Expression) attribute, results, index));
+            }
+        }
+
+        private E build(ResultSet results) throws SQLException {
+            EntityBuilderProxy<Object, E> builder = new EntityBuilderProxy<>(type);
+            for (int i = 0; i < columns.length; i++) {
+                if (columns[i] != null && !columns[i].isAssociation()) {
+                    readAttribute(mapping, builder, columns[i], results, i + 1);
+                }
+            }
+            return builder.build();
+        }
+
+        private E load(ResultSet results, ReadContext ctx) throws SQLException {
+            E entity = null;
+            if (keyColumn > 0 && type.isCacheable()) {
+                synchronized (type) {
+                    Object key = mapping.read((Expression) columns[keyColumn - 1], results, keyColumn);
+                    if (key != null) {
+                        entity = ctx.cache.get(type.getClassType(), key);
+                    }
+                    if (entity == null) {
+                        entity = type.getFactory().get();
+                        if (key != null) {
+                            ctx.cache.put(type.getClassType(), key, entity);
+                        }
+                    }
+                }
+            } else {
+                entity = type.getFactory().get();
+            }
+
+            EntityProxy<E> proxy = type.getProxyProvider().apply(entity);
+            synchronized (proxy.syncObject()) {
+                proxy.link(ctx.loaderOf(type.getClassType()));
+
+                for (int i = 0; i < columns.length; i++) {
+                    Attribute<E, ?> attribute = columns[i];
+                    if (attribute == null) {
+                        continue;
+                    }
+                    if (attribute.isAssociation()) {
+                        readReference(proxy, i, results, ctx);
+                    } else if (proxy.getState(attribute) != PropertyState.MODIFIED) {
+                        readAttribute(mapping, proxy, attribute, results, i + 1);
+                    }
+                }
+            }
+
+            for (EntityStateListener listener : ctx.stateListeners) {
+                listener.postLoad(entity);
+            }
+            proxy.postLoad();
+            return entity;
+        }
+
+        private void readReference(EntityProxy<E> proxy, int index, ResultSet results, ReadContext ctx) throws SQLException {
+            Attribute<E, ?> attribute = columns[index];
+            Attribute referencedKey = referencedKeys[index];
+            Object key = mapping.read((Expression) referencedKey, results, index + 1);
+            if (key == null) {
+                return;
+            }
+
+            Object reference = proxy.get((Attribute) attribute, false);
+            if (reference == null) {
+                Type referencedType = referencedTypes[index];
+                reference = referencedType.getFactory().get();
+                ((EntityProxy) referencedType.getProxyProvider().apply(reference)).link(ctx.loaderOf(referencedType.getClassType()));
+            }
+            ctx.context.proxyOf(reference, false).setObject(referencedKey, key, PropertyState.LOADED);
+
+            PropertyState state = proxy.getState(attribute);
+            proxy.setObject(attribute, reference, state == PropertyState.LOADED ? state : PropertyState.FETCH);
+        }
+    }
+
+    /**
+     * {@code attribute}의 값을 primitive 속성은 boxing 없이 읽어 {@code target}에 {@link PropertyState#LOADED} 상태로 설정합니다.
+     */
+    @SuppressWarnings("unchecked")
+    static <E> void readAttribute(@Nonnull final Mapping mapping,
+                                  @Nonnull final Settable<E> target,
+                                  @Nonnull final Attribute attribute,
+                                  @Nonnull final ResultSet results,
+                                  final int index) throws SQLException {
+        if (attribute.getPrimitiveKind() == null) {
+            target.setObject(attribute, mapping.read((Expression) attribute, results, index), PropertyState.LOADED);
+            return;
+        }
+        switch (attribute.getPrimitiveKind()) {
+            case INT:
+                target.setInt(attribute, mapping.readInt(results, index), PropertyState.LOADED);
+                break;
+            case LONG:
+                target.setLong(attribute, mapping.readLong(results, index), PropertyState.LOADED);
+                break;
+            case SHORT:
+                target.setShort(attribute, mapping.readShort(results, index), PropertyState.LOADED);
+                break;
+            case BYTE:
+                target.setByte(attribute, mapping.readByte(results, index), PropertyState.LOADED);
+                break;
+            case BOOLEAN:
+                target.setBoolean(attribute, mapping.readBoolean(results, index), PropertyState.LOADED);
+                break;
+            case FLOAT:
+                target.setFloat(attribute, mapping.readFloat(results, index), PropertyState.LOADED);
+                break;
+            case DOUBLE:
+                target.setDouble(attribute, mapping.readDouble(results, index), PropertyState.LOADED);
+                break;
+            default:
+                target.setObject(attribute, mapping.read((Expression) attribute, results, index), PropertyState.LOADED);
+        }
+    }
 }
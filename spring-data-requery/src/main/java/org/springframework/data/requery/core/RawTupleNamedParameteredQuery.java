@@ -1,11 +1,110 @@
 package org.springframework.data.requery.core;
 
+import io.requery.query.Expression;
+import io.requery.query.MutableTuple;
+import io.requery.query.NamedExpression;
+import io.requery.query.Result;
+import io.requery.query.Tuple;
+import io.requery.sql.CollectionResult;
+import io.requery.sql.Mapping;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * {@link io.requery.sql.RawTupleQuery} 은 Named parameter를 지원하지 않아, {@link NamedPreparedQueryOperation} 을 상속해서
  * named parameter를 이용한 query를 수행할 수 있도록 합니다.
+ * <p>
+ * 컬럼별 {@link Expression}은 처음 실행할 때 한 번만 만듭니다. INSERT, UPDATE, DELETE 등은 영향받은 행 수를 {@code count} 컬럼으로 반환합니다.
  *
  * @author debop
  * @since 18. 12. 5
  */
-public class RawTupleNamedParameteredQuery extends NamedPreparedQueryOperation {
+public class RawTupleNamedParameteredQuery extends NamedPreparedQueryOperation<Tuple> {
+
+    public RawTupleNamedParameteredQuery(@Nonnull final RequeryOperations operations,
+                                         @Nonnull final String sql,
+                                         @Nullable final Map<String, ?> namedParameters) {
+        this(operations, sql, namedParameters, null);
+    }
+
+    public RawTupleNamedParameteredQuery(@Nonnull final RequeryOperations operations,
+                                         @Nonnull final String sql,
+                                         @Nullable final Map<String, ?> namedParameters,
+                                         @Nullable final Object[] positionalParameters) {
+        super(operations.getEntityContext(), sql, namedParameters, positionalParameters);
+    }
+
+    @Nonnull
+    @Override
+    protected Object getRowMapperKey() {
+        return Tuple.class;
+    }
+
+    @Nonnull
+    @Override
+    Result<Tuple> execute(@Nonnull final BoundSql bound) {
+        if (parsedSql.isSelect()) {
+            return super.execute(bound);
+        }
+
+        MutableTuple tuple = new MutableTuple(1);
+        tuple.set(0, NamedExpression.ofInteger("count"), executeUpdate(bound));
+        return new CollectionResult<>(tuple);
+    }
+
+    @Nonnull
+    @Override
+    protected RowMapper<Tuple> createRowMapper(@Nonnull final ResultSetMetaData metadata) throws SQLException {
+        Mapping mapping = context.getMapping();
+        Expression<?>[] expressions = new Expression<?>[metadata.getColumnCount()];
+
+        for (int i = 0; i < expressions.length; i++) {
+            int sqlType = metadata.getColumnType(i + 1);
+            // requery 의 RawTupleQuery 와 같은 타입으로 읽습니다.
+            if (sqlType == Types.NUMERIC) {
+                sqlType = Types.INTEGER;
+            }
+            Set<Class<?>> types = mapping.typesOf(sqlType);
+            expressions[i] = NamedExpression.of(metadata.getColumnName(i + 1), types.iterator().next());
+        }
+        return new TupleRowMapper(mapping, expressions);
+    }
+
+    private static final class TupleRowMapper implements RowMapper<Tuple> {
+
+        private final Mapping mapping;
+        private final Expression<?>[] expressions;
+
+        private TupleRowMapper(Mapping mapping, Expression<?>[] expressions) {
+            this.mapping = mapping;
+            this.expressions = expressions;
+        }
+
+        @Nonnull
+        @Override
+        public Mapping getMapping() {
+            return mapping;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return expressions.length;
+        }
+
+        @Override
+        public Tuple map(@Nonnull final ResultSet results, @Nullable final Object readContext) throws SQLException {
+            MutableTuple tuple = new MutableTuple(expressions.length);
+            for (int i = 0; i < expressions.length; i++) {
+                tuple.set(i, expressions[i], mapping.read(expressions[i], results, i + 1));
+            }
+            return tuple;
+        }
+    }
 }
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.core;
+
+import io.requery.meta.Attribute;
+import io.requery.meta.QueryAttribute;
+import io.requery.meta.Type;
+import io.requery.query.Expression;
+import io.requery.query.Result;
+import io.requery.query.Selection;
+import io.requery.query.element.QueryElement;
+import io.requery.query.element.QueryOperation;
+import io.requery.query.element.QueryType;
+import io.requery.sql.BoundParameters;
+import io.requery.sql.EntityContext;
+import io.requery.sql.gen.DefaultOutput;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.requery.utils.RequeryUtils;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 엔티티를 read-only 로 조회하는 {@link QueryOperation}.
+ * <p>
+ * requery 의 query DSL 로 만든 {@link QueryElement}를 SQL 로 변환한 후, {@link RawEntityNamedParameteredQuery}의 read-only 모드로
+ * {@code ResultSet}에서 속성 값만 채운 엔티티를 만듭니다. 속성 상태(PropertyState), 엔티티 캐시, transaction 참조에 등록하지 않으므로
+ * 수정하지 않을 목록 조회에서 행마다의 할당과 처리 비용을 줄입니다.
+ * 만들어진 엔티티는 lazy loading 을 하지 않으며, 수정해서 저장하면 안 됩니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+class ReadOnlySelectOperation<E> implements QueryOperation<Result<E>> {
+
+    /**
+     * {@code entityType}을 read-only 로 조회하는 query 를 만듭니다. {@code attributes}가 없으면 requery 의 기본 selection 과 같은 속성을 조회합니다.
+     */
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    static <E> Selection<? extends Result<E>> select(@Nonnull final RequeryOperations operations,
+                                                     @Nonnull final Class<E> entityType,
+                                                     @Nonnull final QueryAttribute<?, ?>... attributes) {
+        Assert.notNull(operations, "operations must not be null!");
+        Assert.notNull(entityType, "entityType must not be null!");
+
+        Type<E> type = operations.getEntityModel().typeOf(entityType);
+        List<Attribute<E, ?>> selection = new ArrayList<>();
+
+        if (attributes.length == 0) {
+            for (Attribute<E, ?> attribute : type.getAttributes()) {
+                boolean isKey = attribute.isForeignKey() || attribute.isKey();
+                if (attribute.isLazy() || (!isKey && attribute.isAssociation())) {
+                    continue;
+                }
+                selection.add(attribute);
+            }
+        } else {
+            for (QueryAttribute<?, ?> attribute : attributes) {
+                selection.add((Attribute<E, ?>) attribute);
+            }
+        }
+
+        Set<Expression<?>> expressions = new LinkedHashSet<>();
+        for (Attribute<E, ?> attribute : selection) {
+            expressions.add((Expression<?>) attribute);
+        }
+
+        ReadOnlySelectOperation<E> operation = new ReadOnlySelectOperation<>(operations, entityType, selection.toArray(new Attribute[0]));
+        return new QueryElement<>(QueryType.SELECT, operations.getEntityModel(), operation).select(expressions).from(entityType);
+    }
+
+    private final RequeryOperations operations;
+    private final Class<E> entityType;
+    private final Attribute<E, ?>[] selection;
+
+    private ReadOnlySelectOperation(@Nonnull final RequeryOperations operations,
+                                    @Nonnull final Class<E> entityType,
+                                    @Nonnull final Attribute<E, ?>[] selection) {
+        this.operations = operations;
+        this.entityType = entityType;
+        this.selection = selection;
+    }
+
+    @Override
+    public Result<E> evaluate(@Nonnull final QueryElement<Result<E>> query) {
+        EntityContext<Object> context = operations.getEntityContext();
+        DefaultOutput output = new DefaultOutput(context, query);
+        String sql = output.toSql();
+        BoundParameters parameters = output.parameters();
+
+        log.trace("Select read-only entities. entityType={}, sql={}", entityType.getSimpleName(), sql);
+
+        RawEntityNamedParameteredQuery<E> rawQuery =
+            new RawEntityNamedParameteredQuery<>(operations, entityType, sql, null, RequeryUtils.getBoundValues(parameters).toArray())
+                .readOnly(true)
+                .selecting(selection);
+        rawQuery.bindWith(RequeryUtils.getBoundExpressions(parameters).toArray(new Expression<?>[0]));
+
+        return rawQuery.get();
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core;
+
+import io.requery.EntityCache;
+import io.requery.meta.Attribute;
+import io.requery.meta.Type;
+import io.requery.proxy.EntityProxy;
+import io.requery.proxy.PropertyLoader;
+import io.requery.proxy.PropertyState;
+import io.requery.query.Expression;
+import io.requery.sql.EntityContext;
+import io.requery.sql.Keyword;
+import io.requery.sql.Mapping;
+import io.requery.sql.QueryBuilder;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.requery.utils.IdBatches;
+import org.springframework.data.requery.utils.Iterables;
+import org.springframework.data.requery.utils.RequeryUtils;
+import org.springframework.data.requery.utils.SqlParameterLimits;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 여러 엔티티의 속성을 {@code SELECT key, 속성... FROM ... WHERE key IN (...)} 로 한 번에 다시 읽어 기존 엔티티(proxy)에 반영합니다.
+ * <p>
+ * requery 의 {@code refresh(Iterable, Attribute...)}는 IN 목록을 나누지 않아 DB 의 bind parameter 제한을 넘을 수 있고,
+ * 캐시 대상 엔티티는 같은 query 를 두 번 실행하며, FK 속성은 엔티티마다 참조 엔티티를 조회합니다.
+ * 여기서는 FK 속성도 같은 query 에서 참조 key 로 읽고, IN 목록은 {@link SqlParameterLimits} 크기의 chunk 로 나누어
+ * {@link IdBatches} 단위로 맞추므로 SQL 문장과 실행 계획이 재사용됩니다.
+ * <p>
+ * {@code @OneToMany}, {@code @ManyToMany} 같은 collection 연관관계는 requery 와 같이 엔티티마다 조회합니다.
+ * 복합 key 나 immutable 엔티티는 requery 의 refresh 를 그대로 사용합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+@UtilityClass
+public class RefreshQueries {
+
+    /**
+     * {@code entities}의 {@code attributes}를 DB 에서 다시 읽습니다. {@code attributes}가 없으면 lazy 가 아닌 컬럼 속성을 모두 읽습니다.
+     * DB 에서 삭제된 엔티티는 변경하지 않습니다.
+     *
+     * @return 전달한 엔티티 목록 (immutable 엔티티는 새로 만든 엔티티 목록)
+     */
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    public static <E> List<E> refresh(@Nonnull final RequeryOperations operations,
+                                      @Nonnull final Iterable<E> entities,
+                                      @Nullable final Attribute<?, ?>... attributes) {
+        Assert.notNull(operations, "operations must not be null!");
+        Assert.notNull(entities, "entities must not be null!");
+
+        List<E> list = Iterables.toList(entities);
+        if (list.isEmpty()) {
+            return list;
+        }
+
+        EntityContext<Object> context = RequeryUtils.getEntityContext(operations.getDataStore());
+        Type<E> type = (Type<E>) context.proxyOf(list.get(0), false).type();
+        if (type.isImmutable() || type.getSingleKeyAttribute() == null) {
+            return Iterables.toList(operations.getDataStore().refresh(list, attributes));
+        }
+
+        Map<Object, E> entityByKey = new HashMap<>(Math.max(16, list.size() * 4 / 3 + 1));
+        for (E entity : list) {
+            EntityProxy<E> proxy = type.getProxyProvider().apply(entity);
+            Assert.isTrue(proxy.type() == type,
+                          "All entities must be the same type. expected=" + type.getName() + ", actual=" + proxy.type().getName());
+            Object key = proxy.key();
+            Assert.notNull(key, () -> "Entity to refresh must have a key. entity=" + entity);
+            entityByKey.put(key, entity);
+        }
+
+        List<Attribute<E, ?>> columns = new ArrayList<>();
+        List<Attribute<E, ?>> collections = new ArrayList<>();
+        for (Attribute<E, ?> attribute : selection(type, (Attribute<E, ?>[]) attributes)) {
+            if (attribute.isKey()) {
+                continue;
+            }
+            if (!attribute.isAssociation() || attribute.isForeignKey()) {
+                columns.add(attribute);
+            } else {
+                collections.add(attribute);
+            }
+        }
+
+        if (!columns.isEmpty()) {
+            String sql = buildSql(context, type, columns);
+            List<Object> keys = new ArrayList<>(entityByKey.keySet());
+            int maxInListSize = SqlParameterLimits.getMaxInListSize(context.getPlatform(), 0);
+
+            for (List<Object> chunk : IdBatches.partition(keys, maxInListSize)) {
+                new RefreshQuery<>(operations, sql, chunk, type, columns, entityByKey).get().toList();
+            }
+            log.trace("Refresh entities. type={}, size={}, attributes={}", type.getName(), entityByKey.size(), columns.size());
+        }
+
+        if (!collections.isEmpty()) {
+            Attribute<?, ?>[] associations = collections.toArray(new Attribute<?, ?>[0]);
+            for (E entity : list) {
+                operations.getDataStore().refresh(entity, associations);
+            }
+        }
+        return list;
+    }
+
+    @Nonnull
+    private static <E> Set<Attribute<E, ?>> selection(@Nonnull final Type<E> type, @Nullable final Attribute<E, ?>[] attributes) {
+        if (attributes != null && attributes.length > 0) {
+            Set<Attribute<E, ?>> selection = new LinkedHashSet<>(attributes.length);
+            for (Attribute<E, ?> attribute : attributes) {
+                if (attribute != null) {
+                    selection.add(attribute);
+                }
+            }
+            return selection;
+        }
+
+        // requery 의 EntityReader 기본 selection 과 같이 lazy 속성과 collection 연관관계는 제외합니다.
+        Set<Attribute<E, ?>> selection = new LinkedHashSet<>();
+        for (Attribute<E, ?> attribute : type.getAttributes()) {
+            if (!attribute.isLazy() && (!attribute.isAssociation() || attribute.isForeignKey())) {
+                selection.add(attribute);
+            }
+        }
+        return selection;
+    }
+
+    @Nonnull
+    private static <E> String buildSql(@Nonnull final EntityContext<Object> context,
+                                       @Nonnull final Type<E> type,
+                                       @Nonnull final List<Attribute<E, ?>> columns) {
+        String versionColumn = context.getPlatform().versionColumnDefinition().columnName();
+
+        QueryBuilder qb = new QueryBuilder(context.getQueryBuilderOptions())
+            .keyword(Keyword.SELECT)
+            .attribute(type.getSingleKeyAttribute());
+        for (Attribute<E, ?> column : columns) {
+            qb.comma();
+            if (column.isVersion() && versionColumn != null) {
+                qb.append(versionColumn).space().keyword(Keyword.AS).append(column.getName()).space();
+            } else {
+                qb.attribute(column);
+            }
+        }
+        qb.keyword(Keyword.FROM)
+            .tableName(type.getName())
+            .keyword(Keyword.WHERE)
+            .attribute(type.getSingleKeyAttribute())
+            .keyword(Keyword.IN)
+            .append("(:keys)");
+
+        return qb.toString();
+    }
+
+    /**
+     * 결과 행을 key 가 같은 기존 엔티티에 반영하는 query
+     */
+    private static final class RefreshQuery<E> extends NamedPreparedQueryOperation<E> {
+
+        private final Type<E> type;
+        private final List<Attribute<E, ?>> columns;
+        private final Map<Object, E> entityByKey;
+
+        private RefreshQuery(@Nonnull final RequeryOperations operations,
+                             @Nonnull final String sql,
+                             @Nonnull final List<Object> keys,
+                             @Nonnull final Type<E> type,
+                             @Nonnull final List<Attribute<E, ?>> columns,
+                             @Nonnull final Map<Object, E> entityByKey) {
+            super(operations.getEntityContext(), sql, Collections.singletonMap("keys", keys), null);
+            this.type = type;
+            this.columns = columns;
+            this.entityByKey = entityByKey;
+        }
+
+        @Nonnull
+        @Override
+        protected Object getRowMapperKey() {
+            return RefreshQuery.class;
+        }
+
+        @Nullable
+        @Override
+        protected Object createReadContext() {
+            return entityByKey;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Nonnull
+        @Override
+        protected RowMapper<E> createRowMapper(@Nonnull final ResultSetMetaData metadata) throws SQLException {
+            Attribute<E, ?>[] selection = new Attribute[columns.size() + 1];
+            selection[0] = type.getSingleKeyAttribute();
+            for (int i = 0; i < columns.size(); i++) {
+                selection[i + 1] = columns.get(i);
+            }
+            return new RefreshRowMapper<>(context, type, selection);
+        }
+    }
+
+    /**
+     * 첫번째 컬럼(key)으로 엔티티를 찾아 나머지 컬럼 값을 {@link PropertyState#LOADED} 상태로 설정합니다.
+     * FK 속성은 참조 key 를 읽어, 현재 참조 엔티티의 key 가 다를 때만 캐시의 엔티티나 key 만 가진 엔티티로 바꿉니다.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static final class RefreshRowMapper<E> implements NamedPreparedQueryOperation.RowMapper<E> {
+
+        private final EntityContext<Object> context;
+        private final Mapping mapping;
+        private final Type<E> type;
+        private final Attribute<E, ?>[] selection;
+
+        private RefreshRowMapper(EntityContext<Object> context, Type<E> type, Attribute<E, ?>[] selection) {
+            this.context = context;
+            this.mapping = context.getMapping();
+            this.type = type;
+            this.selection = selection;
+        }
+
+        @Nonnull
+        @Override
+        public Mapping getMapping() {
+            return mapping;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return selection.length;
+        }
+
+        @Nullable
+        @Override
+        public E map(@Nonnull final ResultSet results, @Nullable final Object readContext) throws SQLException {
+            Map<Object, E> entityByKey = (Map<Object, E>) readContext;
+            Object key = mapping.read((Expression) selection[0], results, 1);
+            E entity = (entityByKey != null) ? entityByKey.get(key) : null;
+            if (entity == null) {
+                return null;
+            }
+
+            EntityProxy<E> proxy = type.getProxyProvider().apply(entity);
+            synchronized (proxy.syncObject()) {
+                for (int i = 1; i < selection.length; i++) {
+                    Attribute attribute = selection[i];
+                    if (attribute.isAssociation()) {
+                        readReference(proxy, attribute, results, i + 1);
+                    } else {
+                        RawEntityNamedParameteredQuery.readAttribute(mapping, proxy, attribute, results, i + 1);
+                    }
+                }
+            }
+            return entity;
+        }
+
+        private void readReference(EntityProxy<E> proxy, Attribute attribute, ResultSet results, int index) throws SQLException {
+            Attribute referencedKey = (Attribute) attribute.getReferencedAttribute().get();
+            Object key = mapping.read((Expression) referencedKey, results, index);
+            if (key == null) {
+                proxy.setObject(attribute, null, PropertyState.LOADED);
+                return;
+            }
+
+            Object reference = proxy.get(attribute, false);
+            if (reference != null && Objects.equals(key, context.proxyOf(reference, false).get(referencedKey, false))) {
+                proxy.setObject(attribute, reference, PropertyState.LOADED);
+                return;
+            }
+
+            Type referencedType = referencedKey.getDeclaringType();
+            EntityCache cache = context.getCache();
+            reference = (referencedType.isCacheable() && cache != null) ? cache.get(referencedType.getClassType(), key) : null;
+            if (reference == null) {
+                reference = referencedType.getFactory().get();
+                EntityProxy referenceProxy = (EntityProxy) referencedType.getProxyProvider().apply(reference);
+                referenceProxy.link((PropertyLoader) context.read(referencedType.getClassType()));
+                referenceProxy.setObject(referencedKey, key, PropertyState.LOADED);
+            }
+            proxy.setObject(attribute, reference, PropertyState.LOADED);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core;
+
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * requery 작업을 비동기로 실행할 {@link ExecutorService}를 제공합니다.
+ * <p>
+ * requery 의 transaction 은 thread 에 묶여 있으므로 작업마다 thread 를 하나씩 쓰는 것이 안전합니다.
+ * JDK 21 이상에서는 작업마다 virtual thread 를 사용하고, 그 이전 JDK 에서는 크기가 고정된 daemon thread pool 을 사용합니다.
+ * (platform thread 를 작업마다 만들면 동시 요청이 많을 때 고정 크기 pool 보다 느립니다)
+ * 이 라이브러리는 Java 8 로 빌드되므로 virtual thread API 는 reflection 으로 찾습니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+@UtilityClass
+public class RequeryExecutors {
+
+    private static final String THREAD_NAME_PREFIX = "requery-async-";
+
+    /**
+     * virtual thread 를 지원하지 않는 JDK 에서 사용할 thread pool 크기
+     */
+    public static final int FALLBACK_POOL_SIZE = 64;
+
+    @Nullable private static final Method VIRTUAL_THREAD_EXECUTOR_METHOD = findVirtualThreadExecutorMethod();
+
+    /**
+     * 현재 JVM 에서 virtual thread 를 사용할 수 있는지 여부
+     */
+    public static boolean isVirtualThreadSupported() {
+        return VIRTUAL_THREAD_EXECUTOR_METHOD != null;
+    }
+
+    /**
+     * 작업마다 새로운 virtual thread 를 사용하는 {@link ExecutorService}를 생성합니다.
+     * virtual thread 를 지원하지 않는 JDK 에서는 {@link #FALLBACK_POOL_SIZE} 크기의 thread pool 을 생성합니다.
+     */
+    @Nonnull
+    public static ExecutorService newExecutor() {
+        if (VIRTUAL_THREAD_EXECUTOR_METHOD != null) {
+            try {
+                return (ExecutorService) VIRTUAL_THREAD_EXECUTOR_METHOD.invoke(null);
+            } catch (Exception e) {
+                log.warn("Fail to create virtual thread executor. use platform thread pool instead.", e);
+            }
+        }
+        return Executors.newFixedThreadPool(FALLBACK_POOL_SIZE, new DaemonThreadFactory());
+    }
+
+    /**
+     * {@link RequeryOperations#runInTransactionAsync(java.util.concurrent.Callable)} 등에서 사용하는 공용 {@link ExecutorService}
+     */
+    @Nonnull
+    public static ExecutorService getDefaultExecutor() {
+        return DefaultExecutorHolder.INSTANCE;
+    }
+
+    @Nullable
+    private static Method findVirtualThreadExecutorMethod() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static class DefaultExecutorHolder {
+        private static final ExecutorService INSTANCE = newExecutor();
+    }
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@Nonnull final Runnable runnable) {
+            Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -26,6 +26,7 @@ import io.requery.query.Expression;
 import io.requery.query.InsertInto;
 import io.requery.query.Insertion;
 import io.requery.query.Result;
+import io.requery.query.Return;
 import io.requery.query.Scalar;
 import io.requery.query.Selection;
 import io.requery.query.Tuple;
@@ -34,6 +35,16 @@ import io.requery.query.element.QueryElement;
 import io.requery.query.function.Count;
 import io.requery.sql.EntityContext;
 import io.requery.sql.EntityDataStore;
+import org.springframework.data.requery.core.bulk.BulkLoader;
+import org.springframework.data.requery.core.export.ResultExporter;
+import org.springframework.data.requery.core.export.RowWriter;
+import org.springframework.data.requery.core.outbox.Outbox;
+import org.springframework.data.requery.core.retry.OptimisticRetry;
+import org.springframework.data.requery.core.scan.ParallelScanResult;
+import org.springframework.data.requery.core.scan.ParallelScanner;
+import org.springframework.data.requery.core.timeout.QueryCancellation;
+import org.springframework.data.requery.core.timeout.QueryDeadline;
+import org.springframework.data.requery.core.tree.TreeQuery;
 import org.springframework.data.requery.mapping.RequeryMappingContext;
 import org.springframework.data.requery.utils.Iterables;
 import org.springframework.data.requery.utils.RequeryUtils;
@@ -41,8 +52,15 @@ import org.springframework.data.requery.utils.RequeryUtils;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import static org.springframework.data.requery.utils.RequeryUtils.unwrap;
@@ -84,6 +102,17 @@ public interface RequeryOperations {
         return getDataStore().select(expressions);
     }
 
+    /**
+     * 속성 상태 추적, 엔티티 캐시 등록 없이 속성 값만 채운 엔티티를 조회합니다. 조회한 엔티티는 수정해서 저장하면 안 됩니다.
+     *
+     * @param entityType 엔티티 수형
+     * @param attributes 조회할 속성 (없으면 lazy 가 아닌 모든 속성)
+     */
+    default <E> Selection<? extends Result<E>> selectReadOnly(@Nonnull final Class<E> entityType,
+                                                              @Nonnull final QueryAttribute<?, ?>... attributes) {
+        return ReadOnlySelectOperation.select(this, entityType, attributes);
+    }
+
     default <E, K> E findById(@Nonnull final Class<E> entityType, @Nonnull final K id) {
         return getDataStore().findByKey(entityType, id);
     }
@@ -101,8 +130,11 @@ public interface RequeryOperations {
         return getDataStore().refresh(entity, attributes);
     }
 
+    /**
+     * {@code entities}의 {@code attributes}를 key 의 IN 목록 query 로 한 번에 다시 읽습니다. ({@link RefreshQueries} 참고)
+     */
     default <E> List<E> refresh(@Nonnull final Iterable<E> entities, final Attribute<?, ?>... attributes) {
-        return Iterables.toList(getDataStore().refresh(entities, attributes));
+        return RefreshQueries.refresh(this, entities, attributes);
     }
 
     default <E> E refreshAllProperties(@Nonnull final E entity) {
@@ -199,14 +231,24 @@ public interface RequeryOperations {
         return tuple.<Integer>get(0);
     }
 
+    /**
+     * {@code whereClause}의 조건을 만족하는 엔티티가 있는지 key 컬럼만 {@code LIMIT 1}로 조회해 확인합니다.
+     */
     default <E> boolean exists(@Nonnull final Class<E> entityType,
                                @Nonnull final QueryElement<? extends Result<E>> whereClause) {
-        return whereClause.limit(1).get().firstOrNull() != null;
+        return ExistenceQueries.exists(this, entityType, whereClause);
     }
 
     default <E, K> boolean existsBy(@Nonnull final Class<E> entityType,
                                     @Nonnull final Condition<K, ?> condition) {
-        return getDataStore().count(entityType).from(entityType).where(condition).get().value() > 0;
+        return ExistenceQueries.exists(this, entityType, condition);
+    }
+
+    /**
+     * 엔티티 캐시를 먼저 확인하고, 없으면 key 컬럼만 {@code LIMIT 1}로 조회합니다.
+     */
+    default <E> boolean existsById(@Nonnull final Class<E> entityType, @Nonnull final Object id) {
+        return ExistenceQueries.existsById(this, entityType, id);
     }
 
     default Result<Tuple> raw(@Nonnull final String query, final Object... parameters) {
@@ -219,15 +261,155 @@ public interface RequeryOperations {
         return getDataStore().raw(entityType, query, parameters);
     }
 
+    /**
+     * {@code :name} 형식의 named parameter 를 사용하는 raw query 를 실행합니다.
+     * {@link Iterable}이나 배열 값은 {@code IN} 목록으로 펼쳐집니다. ({@link NamedPreparedQueryOperation} 참고)
+     */
+    default Result<Tuple> rawNamed(@Nonnull final String query, @Nonnull final Map<String, ?> parameters) {
+        return new RawTupleNamedParameteredQuery(this, query, parameters).get();
+    }
+
+    default <E> Result<E> rawNamed(@Nonnull final Class<E> entityType,
+                                   @Nonnull final String query,
+                                   @Nonnull final Map<String, ?> parameters) {
+        return new RawEntityNamedParameteredQuery<>(this, entityType, query, parameters).get();
+    }
+
+    /**
+     * 대량의 엔티티를 chunk 단위의 transaction 으로 저장하는 {@link BulkLoader}를 생성합니다.
+     */
+    default BulkLoader bulkLoader() {
+        return new BulkLoader(this);
+    }
+
+    /**
+     * 기본 테이블({@link Outbox#DEFAULT_TABLE_NAME})을 사용하는 transactional {@link Outbox}를 생성합니다.
+     */
+    default Outbox outbox() {
+        return new Outbox(this);
+    }
+
+    /**
+     * 현재 transaction 에서 기본 outbox 테이블에 메시지를 저장합니다. 엔티티 변경과 함께 commit 되어야 하는 메시지를 저장할 때 사용합니다.
+     */
+    default long enqueueOutbox(@Nonnull final String aggregateType,
+                               @Nullable final Object aggregateId,
+                               @Nonnull final String eventType,
+                               @Nullable final String payload) {
+        return outbox().enqueue(aggregateType, aggregateId, eventType, payload);
+    }
+
+    /**
+     * 테이블을 key 구간으로 나누어 병렬로 scan 하는 {@link ParallelScanner}를 생성합니다.
+     */
+    default <E> ParallelScanner<E> parallelScanner(@Nonnull final Class<E> domainClass) {
+        return new ParallelScanner<>(this, domainClass);
+    }
+
+    /**
+     * {@code condition}을 만족하는 엔티티를 key 구간별로 {@code parallelism}개의 worker 에서 {@code chunkSize}씩 읽어 {@code consumer}에 전달합니다.
+     * checkpoint 등 다른 설정이 필요하면 {@link #parallelScanner(Class)}를 사용하세요.
+     */
+    default <E> ParallelScanResult parallelScan(@Nonnull final Class<E> domainClass,
+                                                @Nullable final Condition<?, ?> condition,
+                                                final int chunkSize,
+                                                final int parallelism,
+                                                @Nonnull final Consumer<? super List<E>> consumer) {
+        return parallelScanner(domainClass)
+            .condition(condition)
+            .chunkSize(chunkSize)
+            .parallelism(parallelism)
+            .scan(consumer);
+    }
+
+    /**
+     * version 충돌 시 엔티티를 다시 읽어 수정을 재시도하는 {@link OptimisticRetry}를 생성합니다.
+     */
+    default OptimisticRetry optimisticRetry() {
+        return new OptimisticRetry(this);
+    }
+
+    /**
+     * {@code id}의 엔티티에 {@code mutator}를 적용해 저장하고, version 충돌 시 기본 설정의 {@link OptimisticRetry}로 재시도합니다.
+     */
+    default <E> E updateWithRetry(@Nonnull final Class<E> entityType,
+                                  @Nonnull final Object id,
+                                  @Nonnull final Consumer<? super E> mutator) {
+        return optimisticRetry().update(entityType, id, mutator);
+    }
+
+    /**
+     * 자기 자신을 parent 로 참조하는 엔티티의 하위/상위 node 를 recursive CTE 로 조회하는 {@link TreeQuery}를 생성합니다.
+     */
+    default <E> TreeQuery<E> treeQuery(@Nonnull final Class<E> entityType) {
+        return new TreeQuery<>(this, entityType);
+    }
+
+    default <E> TreeQuery<E> treeQuery(@Nonnull final Class<E> entityType, @Nonnull final Attribute<E, ?> parentAttribute) {
+        return new TreeQuery<>(this, entityType, parentAttribute);
+    }
+
+    /**
+     * 조회 결과를 메모리에 모으지 않고 한 행씩 {@code out}에 출력합니다. {@code out}은 flush 만 하고 닫지 않습니다.
+     * driver 가 결과를 나누어 읽도록 fetch size 를 지정하므로 requery 설정에 {@link org.springframework.data.requery.core.export.FetchSizeListener}가
+     * 등록되어 있어야 하며, PostgreSQL 은 transaction 안에서 읽습니다. ({@link ResultExporter#withStreamingFetch(RequeryOperations, Callable)} 참고)
+     *
+     * @return 출력한 행 수
+     */
+    default <E> long export(@Nonnull final Return<? extends Result<E>> query,
+                            @Nonnull final RowWriter<? super E> rowWriter,
+                            @Nonnull final OutputStream out) {
+        return ResultExporter.withStreamingFetch(this, () -> ResultExporter.export(query.get(), rowWriter, out));
+    }
+
+    default <E> long export(@Nonnull final Return<? extends Result<E>> query,
+                            @Nonnull final RowWriter<? super E> rowWriter,
+                            @Nonnull final WritableByteChannel channel) {
+        return ResultExporter.withStreamingFetch(this, () -> ResultExporter.export(query.get(), rowWriter, channel));
+    }
+
+    /**
+     * {@code callable}에서 실행하는 query 들이 지금부터 {@code timeout} 안에 끝나도록 deadline 을 지정합니다. ({@link QueryDeadline} 참고)
+     */
+    default <V> V withQueryTimeout(final long timeout, @Nonnull final TimeUnit unit, @Nonnull final Callable<V> callable) {
+        return QueryDeadline.withTimeout(timeout, unit, callable);
+    }
+
     default <V> V runInTransaction(@Nonnull final Callable<V> callable) {
         return runInTransaction(callable, null);
     }
 
     <V> V runInTransaction(@Nonnull final Callable<V> callable, @Nullable final TransactionIsolation isolation);
 
+    default <V> CompletableFuture<V> runInTransactionAsync(@Nonnull final Callable<V> callable) {
+        return runInTransactionAsync(callable, null, RequeryExecutors.getDefaultExecutor());
+    }
+
+    /**
+     * {@code executor}의 thread 에서 새로운 transaction 으로 {@code callable}을 실행합니다.
+     * requery 의 transaction 은 thread 에 묶여 있으므로 호출한 thread 의 transaction 에는 참여하지 않습니다.
+     * 기본 executor 는 JDK 21 이상에서 virtual thread 를 사용합니다. ({@link RequeryExecutors} 참고)
+     * 호출한 thread 의 {@link QueryDeadline}을 따르며, 반환한 future 를 취소하면 실행 중인 statement 를 취소합니다. ({@link QueryCancellation} 참고)
+     */
+    default <V> CompletableFuture<V> runInTransactionAsync(@Nonnull final Callable<V> callable,
+                                                           @Nullable final TransactionIsolation isolation,
+                                                           @Nonnull final Executor executor) {
+        return QueryCancellation.supplyAsync(() -> runInTransaction(callable, isolation), executor);
+    }
+
     default <V> V withTransaction(@Nonnull final Function<EntityDataStore<Object>, V> block) {
         return withTransaction(block, null);
     }
 
     <V> V withTransaction(@Nonnull final Function<EntityDataStore<Object>, V> block, @Nullable final TransactionIsolation isolation);
+
+    default <V> CompletableFuture<V> withTransactionAsync(@Nonnull final Function<EntityDataStore<Object>, V> block) {
+        return withTransactionAsync(block, null, RequeryExecutors.getDefaultExecutor());
+    }
+
+    default <V> CompletableFuture<V> withTransactionAsync(@Nonnull final Function<EntityDataStore<Object>, V> block,
+                                                          @Nullable final TransactionIsolation isolation,
+                                                          @Nonnull final Executor executor) {
+        return QueryCancellation.supplyAsync(() -> withTransaction(block, isolation), executor);
+    }
 }
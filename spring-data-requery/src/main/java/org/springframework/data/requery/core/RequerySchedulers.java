@@ -0,0 +1,86 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core;
+
+import lombok.experimental.UtilityClass;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reactor 에서 blocking JDBC 작업을 실행할 {@link Scheduler}를 제공합니다.
+ * <p>
+ * JDBC 호출은 event loop thread 를 막으므로 크기가 제한된 별도의 thread pool 에서 실행해야 합니다.
+ * 동시에 실행되는 JDBC 작업 수가 connection pool 크기를 넘으면 connection 을 기다리며 thread 만 늘어나므로,
+ * pool 크기는 connection pool 크기와 비슷하게 지정합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@UtilityClass
+public class RequerySchedulers {
+
+    private static final String THREAD_NAME_PREFIX = "requery-jdbc-";
+
+    /**
+     * 기본 scheduler 의 thread 수. (HikariCP 의 기본 connection pool 크기와 같습니다)
+     */
+    public static final int DEFAULT_POOL_SIZE = 10;
+
+    /**
+     * {@code poolSize} 개의 daemon thread 를 사용하는 {@link Scheduler}를 생성합니다.
+     */
+    @Nonnull
+    public static Scheduler newBounded(final int poolSize) {
+        if (poolSize <= 0) {
+            throw new IllegalArgumentException("poolSize must be greater than 0. poolSize=" + poolSize);
+        }
+        return Schedulers.fromExecutorService(Executors.newFixedThreadPool(poolSize, new DaemonThreadFactory()));
+    }
+
+    /**
+     * Reactive repository 들이 공용으로 사용하는 {@link #DEFAULT_POOL_SIZE} 크기의 {@link Scheduler}
+     */
+    @Nonnull
+    public static Scheduler getDefault() {
+        return DefaultSchedulerHolder.INSTANCE;
+    }
+
+    private static class DefaultSchedulerHolder {
+        private static final Scheduler INSTANCE = newBounded(DEFAULT_POOL_SIZE);
+    }
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+
+        private static final AtomicInteger POOL_SEQ = new AtomicInteger();
+
+        private final int poolId = POOL_SEQ.incrementAndGet();
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@Nonnull final Runnable runnable) {
+            Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + poolId + "-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core.admission;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 이름별 {@link AdmissionLimiter}를 관리합니다.
+ * <p>
+ * Repository 에 적용하면 repository 이름(예: {@code UserRepository})이나 method 이름(예: {@code UserRepository.findByName})으로
+ * limiter 를 찾습니다. method 이름으로 등록한 정책이 있으면 그 method 는 별도의 limiter 를 사용하고, 나머지 method 는 repository 의 limiter 를 공유합니다.
+ * 정책을 등록하지 않은 이름은 기본 정책으로 limiter 를 만듭니다.
+ *
+ * <pre>{@code
+ * AdmissionController controller = new AdmissionController(new AdmissionPolicy().limits(10, 2, 40))
+ *     .policy("ReportRepository", new AdmissionPolicy().fixed(3))
+ *     .policy("UserRepository.findByName", new AdmissionPolicy().fixed(5).maxWait(100, TimeUnit.MILLISECONDS));
+ *
+ * List<User> users = controller.call("UserRepository", () -> operations.findAll(User.class));
+ * }</pre>
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+public class AdmissionController {
+
+    @Nonnull private final AdmissionPolicy defaultPolicy;
+    @Nonnull private final Map<String, AdmissionPolicy> policies = new ConcurrentHashMap<>();
+    @Nonnull private final Map<String, AdmissionLimiter> limiters = new ConcurrentHashMap<>();
+    @Nonnull private final List<AdmissionListener> listeners = new CopyOnWriteArrayList<>();
+
+    public AdmissionController() {
+        this(new AdmissionPolicy());
+    }
+
+    public AdmissionController(@Nonnull final AdmissionPolicy defaultPolicy) {
+        Assert.notNull(defaultPolicy, "defaultPolicy must not be null!");
+        this.defaultPolicy = defaultPolicy.copy();
+    }
+
+    /**
+     * {@code name}(repository 또는 {@code repository.method})에 사용할 정책을 등록합니다. limiter 를 만들기 전에 등록해야 합니다.
+     */
+    public AdmissionController policy(@Nonnull final String name, @Nonnull final AdmissionPolicy policy) {
+        Assert.hasText(name, "name must not be empty!");
+        Assert.notNull(policy, "policy must not be null!");
+        if (limiters.containsKey(name)) {
+            log.warn("Admission limiter is created already, so new policy is ignored. name={}", name);
+        }
+        policies.put(name, policy.copy());
+        return this;
+    }
+
+    /**
+     * 모든 limiter 의 이벤트를 받을 {@link AdmissionListener}를 등록합니다.
+     */
+    public AdmissionController addListener(@Nonnull final AdmissionListener listener) {
+        Assert.notNull(listener, "listener must not be null!");
+        listeners.add(listener);
+        limiters.values().forEach(limiter -> limiter.addListener(listener));
+        return this;
+    }
+
+    /**
+     * {@code name}에 정책이 등록되어 있는지 여부
+     */
+    public boolean hasPolicy(@Nonnull final String name) {
+        return policies.containsKey(name);
+    }
+
+    @Nonnull
+    public AdmissionLimiter getLimiter(@Nonnull final String name) {
+        Assert.hasText(name, "name must not be empty!");
+        return limiters.computeIfAbsent(name, this::createLimiter);
+    }
+
+    /**
+     * {@code name}의 limiter 에서 {@code callable}을 실행합니다.
+     *
+     * @throws AdmissionRejectedException 작업을 거절한 경우
+     */
+    public <T> T call(@Nonnull final String name, @Nonnull final Callable<T> callable) {
+        return getLimiter(name).call(callable);
+    }
+
+    /**
+     * 생성된 limiter 들의 상태와 통계 (이름 순)
+     */
+    @Nonnull
+    public Map<String, AdmissionMetrics> getMetrics() {
+        Map<String, AdmissionMetrics> metrics = new TreeMap<>();
+        limiters.forEach((name, limiter) -> metrics.put(name, limiter.getMetrics()));
+        return metrics;
+    }
+
+    @Nullable
+    public AdmissionMetrics getMetrics(@Nonnull final String name) {
+        AdmissionLimiter limiter = limiters.get(name);
+        return (limiter != null) ? limiter.getMetrics() : null;
+    }
+
+    @Nonnull
+    private AdmissionLimiter createLimiter(@Nonnull final String name) {
+        AdmissionPolicy policy = policies.getOrDefault(name, defaultPolicy);
+        AdmissionLimiter limiter = new AdmissionLimiter(name, policy);
+        listeners.forEach(limiter::addListener);
+
+        log.info("Create admission limiter. name={}, policy={}", name, policy);
+        return limiter;
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core.admission;
+
+/**
+ * {@link AdmissionPolicy}의 동시 실행 수 알고리즘
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+public enum AdmissionLimitType {
+
+    /**
+     * {@link FixedConcurrencyLimit}
+     */
+    FIXED,
+
+    /**
+     * {@link AimdConcurrencyLimit}
+     */
+    AIMD,
+
+    /**
+     * {@link VegasConcurrencyLimit}
+     */
+    VEGAS
+}
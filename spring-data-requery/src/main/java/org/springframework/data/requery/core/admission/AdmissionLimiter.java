@@ -0,0 +1,309 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core.admission;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.requery.RequeryExecutionException;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 이름 하나(repository 또는 repository method)의 동시 실행 수를 제한하는 bulkhead 입니다.
+ * <p>
+ * 실행 중인 작업 수가 {@link ConcurrencyLimit#getLimit()} 보다 작으면 바로 실행하고, 그렇지 않으면 {@link AdmissionPolicy}에 따라
+ * 바로 거절하거나 {@code maxWait} 동안 차례를 기다립니다. 기다리는 작업은 도착한 순서대로 실행됩니다.
+ * 작업이 끝나면 실행 시간과 timeout 여부를 {@link ConcurrencyLimit}에 알려 limit 을 조정합니다.
+ * 느려진 repository 하나가 connection pool 을 모두 차지하지 못하도록, repository 별 limit 의 합이 pool 크기를 넘지 않게 설정합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+public class AdmissionLimiter {
+
+    @Nonnull private final String name;
+    @Nonnull private final AdmissionPolicy policy;
+    @Nonnull private final ConcurrencyLimit limit;
+    @Nonnull private final List<AdmissionListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition permitReleased = lock.newCondition();
+    private int inflight = 0;
+    private int queued = 0;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    public AdmissionLimiter(@Nonnull final String name, @Nonnull final AdmissionPolicy policy) {
+        Assert.hasText(name, "name must not be empty!");
+        Assert.notNull(policy, "policy must not be null!");
+
+        this.name = name;
+        this.policy = policy.copy();
+        this.limit = this.policy.createLimit();
+    }
+
+    @Nonnull
+    public String getName() {
+        return name;
+    }
+
+    @Nonnull
+    public AdmissionPolicy getPolicy() {
+        return policy.copy();
+    }
+
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    public void addListener(@Nonnull final AdmissionListener listener) {
+        Assert.notNull(listener, "listener must not be null!");
+        listeners.add(listener);
+    }
+
+    /**
+     * 차례가 오면 {@code callable}을 실행합니다.
+     *
+     * @throws AdmissionRejectedException 작업을 거절한 경우
+     */
+    public <T> T call(@Nonnull final Callable<T> callable) {
+        Assert.notNull(callable, "callable must not be null!");
+
+        final Permit permit = acquire();
+        final long startNanos = System.nanoTime();
+        boolean overloaded = false;
+        boolean sampled = true;
+        try {
+            return callable.call();
+        } catch (Exception e) {
+            overloaded = isOverloaded(e);
+            // 과부하와 관계없는 오류는 실행 시간이 의미 없으므로 limit 조정에 쓰지 않습니다.
+            sampled = overloaded;
+            if (e instanceof RuntimeException) {
+                throw (RuntimeException) e;
+            }
+            throw new RequeryExecutionException("Fail to execute in admission limiter. name=" + name, e);
+        } finally {
+            release(permit, System.nanoTime() - startNanos, overloaded, sampled);
+        }
+    }
+
+    /**
+     * 현재 상태와 누적 통계
+     */
+    @Nonnull
+    public AdmissionMetrics getMetrics() {
+        int currentInflight;
+        int currentQueued;
+        lock.lock();
+        try {
+            currentInflight = inflight;
+            currentQueued = queued;
+        } finally {
+            lock.unlock();
+        }
+        return new AdmissionMetrics(name,
+                                    limit.getLimit(),
+                                    currentInflight,
+                                    currentQueued,
+                                    accepted.sum(),
+                                    rejected.sum(),
+                                    timedOut.sum(),
+                                    dropped.sum(),
+                                    completed.sum(),
+                                    totalLatencyNanos.sum(),
+                                    maxLatencyNanos.get());
+    }
+
+    /**
+     * 실행 허가를 받습니다. 거절한 경우 listener 는 lock 을 놓은 후에 호출합니다.
+     */
+    @Nonnull
+    private Permit acquire() {
+        final long startNanos = System.nanoTime();
+        AdmissionRejectedException.Reason reason;
+        lock.lock();
+        try {
+            // 기다리는 작업이 있으면 새 작업이 앞지르지 않도록 대기열 뒤에 섭니다.
+            if (queued == 0 && inflight < limit.getLimit()) {
+                accepted.increment();
+                return new Permit(0L, ++inflight);
+            }
+            if (policy.getMaxWaitNanos() <= 0) {
+                reason = AdmissionRejectedException.Reason.LIMIT_EXCEEDED;
+            } else if (queued >= policy.getMaxQueueSize()) {
+                reason = AdmissionRejectedException.Reason.QUEUE_FULL;
+            } else {
+                reason = await(startNanos);
+                if (reason == null) {
+                    accepted.increment();
+                    return new Permit(System.nanoTime() - startNanos, ++inflight);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        throw reject(reason);
+    }
+
+    /**
+     * lock 을 잡은 상태에서 허가가 날 때까지 기다립니다.
+     *
+     * @return 허가를 받으면 null, 그렇지 않으면 거절 사유
+     */
+    @Nullable
+    private AdmissionRejectedException.Reason await(final long startNanos) {
+        queued++;
+        try {
+            long remains = policy.getMaxWaitNanos() - (System.nanoTime() - startNanos);
+            while (inflight >= limit.getLimit()) {
+                if (remains <= 0) {
+                    timedOut.increment();
+                    return leaveQueue(AdmissionRejectedException.Reason.TIMEOUT);
+                }
+                remains = permitReleased.awaitNanos(remains);
+            }
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return leaveQueue(AdmissionRejectedException.Reason.INTERRUPTED);
+        } finally {
+            queued--;
+        }
+    }
+
+    /**
+     * 허가를 받지 않고 대기열을 떠납니다. 이 작업이 받은 signal 을 잃지 않도록, 남은 허가가 있으면 다음 작업을 깨웁니다.
+     */
+    @Nonnull
+    private AdmissionRejectedException.Reason leaveQueue(@Nonnull final AdmissionRejectedException.Reason reason) {
+        if (inflight < limit.getLimit()) {
+            permitReleased.signal();
+        }
+        return reason;
+    }
+
+    private void release(@Nonnull final Permit permit,
+                         final long latencyNanos,
+                         final boolean overloaded,
+                         final boolean sampled) {
+        final int oldLimit = limit.getLimit();
+        if (sampled) {
+            limit.onSample(latencyNanos, permit.inflight, overloaded);
+        }
+        final int newLimit = limit.getLimit();
+
+        lock.lock();
+        try {
+            inflight--;
+            // limit 이 늘었으면 늘어난 만큼 기다리는 작업을 깨웁니다.
+            if (newLimit > oldLimit) {
+                permitReleased.signalAll();
+            } else {
+                permitReleased.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        completed.increment();
+        totalLatencyNanos.add(latencyNanos);
+        maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+        if (overloaded) {
+            dropped.increment();
+        }
+
+        for (AdmissionListener listener : listeners) {
+            listener.onCompleted(name, permit.waitNanos, latencyNanos, overloaded);
+            if (newLimit != oldLimit) {
+                listener.onLimitChanged(name, oldLimit, newLimit);
+            }
+        }
+        if (newLimit != oldLimit && log.isDebugEnabled()) {
+            log.debug("Admission limit is changed. name={}, limit={} -> {}", name, oldLimit, newLimit);
+        }
+    }
+
+    @Nonnull
+    private AdmissionRejectedException reject(@Nonnull final AdmissionRejectedException.Reason reason) {
+        rejected.increment();
+        for (AdmissionListener listener : listeners) {
+            listener.onRejected(name, reason);
+        }
+        return new AdmissionRejectedException(name, reason, limit.getLimit());
+    }
+
+    /**
+     * 예외가 database 과부하(timeout)로 인한 것인지 판단합니다.
+     */
+    static boolean isOverloaded(@Nonnull final Throwable error) {
+        Throwable cause = error;
+        int depth = 0;
+        while (cause != null && depth++ < 16) {
+            if (cause instanceof SQLTimeoutException ||
+                cause instanceof SQLTransientException ||
+                cause instanceof TimeoutException ||
+                cause instanceof QueryTimeoutException ||
+                cause instanceof TransientDataAccessException) {
+                return true;
+            }
+            cause = cause.getCause();
+        }
+        return false;
+    }
+
+    private static final class Permit {
+
+        private final long waitNanos;
+        /**
+         * 허가를 받은 시점에 실행 중인 작업 수 (자신 포함)
+         */
+        private final int inflight;
+
+        private Permit(final long waitNanos, final int inflight) {
+            this.waitNanos = waitNanos;
+            this.inflight = inflight;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "AdmissionLimiter{name=" + name + ", limit=" + limit + ", policy=" + policy + '}';
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core.admission;
+
+import javax.annotation.Nonnull;
+
+/**
+ * {@link AdmissionLimiter}의 이벤트를 받아 Micrometer 등의 metric 으로 내보낼 때 구현합니다.
+ * 작업을 실행하는 thread 에서 호출되므로 빠르게 반환해야 합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+public interface AdmissionListener {
+
+    /**
+     * 작업이 끝났을 때 호출됩니다.
+     *
+     * @param waitNanos    차례를 기다린 시간
+     * @param latencyNanos 작업 실행 시간
+     * @param dropped      timeout 등 과부하로 실패했는지 여부
+     */
+    default void onCompleted(@Nonnull String limiterName, long waitNanos, long latencyNanos, boolean dropped) {}
+
+    /**
+     * 작업을 거절했을 때 호출됩니다.
+     */
+    default void onRejected(@Nonnull String limiterName, @Nonnull AdmissionRejectedException.Reason reason) {}
+
+    /**
+     * 동시 실행 수가 바뀌었을 때 호출됩니다.
+     */
+    default void onLimitChanged(@Nonnull String limiterName, int oldLimit, int newLimit) {}
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core.admission;
+
+import lombok.Getter;
+
+import javax.annotation.Nonnull;
+import java.io.Serializable;
+
+/**
+ * {@link AdmissionLimiter}의 현재 상태와 누적 통계
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Getter
+public final class AdmissionMetrics implements Serializable {
+
+    private static final long serialVersionUID = 2675185340318712085L;
+
+    @Nonnull private final String name;
+    private final int limit;
+    private final int inflight;
+    private final int queued;
+    private final long accepted;
+    private final long rejected;
+    private final long timedOut;
+    private final long dropped;
+    private final long completed;
+    private final long totalLatencyNanos;
+    private final long maxLatencyNanos;
+
+    AdmissionMetrics(@Nonnull final String name,
+                     final int limit,
+                     final int inflight,
+                     final int queued,
+                     final long accepted,
+                     final long rejected,
+                     final long timedOut,
+                     final long dropped,
+                     final long completed,
+                     final long totalLatencyNanos,
+                     final long maxLatencyNanos) {
+        this.name = name;
+        this.limit = limit;
+        this.inflight = inflight;
+        this.queued = queued;
+        this.accepted = accepted;
+        this.rejected = rejected;
+        this.timedOut = timedOut;
+        this.dropped = dropped;
+        this.completed = completed;
+        this.totalLatencyNanos = totalLatencyNanos;
+        this.maxLatencyNanos = maxLatencyNanos;
+    }
+
+    /**
+     * 평균 실행 시간 (ms)
+     */
+    public double getAverageLatencyMillis() {
+        return (completed > 0) ? totalLatencyNanos / (double) completed / 1_000_000.0 : 0.0;
+    }
+
+    @Override
+    public String toString() {
+        return "AdmissionMetrics{" +
+               "name=" + name +
+               ", limit=" + limit +
+               ", inflight=" + inflight +
+               ", queued=" + queued +
+               ", accepted=" + accepted +
+               ", rejected=" + rejected +
+               ", timedOut=" + timedOut +
+               ", dropped=" + dropped +
+               ", averageLatencyMillis=" + String.format("%.3f", getAverageLatencyMillis()) +
+               '}';
+    }
+}
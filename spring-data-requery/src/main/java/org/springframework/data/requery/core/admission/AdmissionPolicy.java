@@ -0,0 +1,158 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core.admission;
+
+import lombok.Getter;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AdmissionLimiter}의 설정
+ * <p>
+ * {@code maxWait}가 0 이면 limit 을 넘는 작업을 바로 거절하고(fail-fast), 0 보다 크면 최대 {@code maxQueueSize}개의 작업이
+ * {@code maxWait} 동안 차례를 기다립니다.
+ *
+ * <pre>{@code
+ * AdmissionPolicy policy = new AdmissionPolicy()
+ *     .limitType(AdmissionLimitType.VEGAS)
+ *     .limits(10, 2, 50)
+ *     .maxWait(200, TimeUnit.MILLISECONDS)
+ *     .maxQueueSize(100);
+ * }</pre>
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Getter
+public class AdmissionPolicy {
+
+    public static final int DEFAULT_INITIAL_LIMIT = 10;
+    public static final int DEFAULT_MIN_LIMIT = 1;
+    public static final int DEFAULT_MAX_LIMIT = 100;
+    public static final int DEFAULT_MAX_QUEUE_SIZE = 100;
+    public static final long DEFAULT_LATENCY_THRESHOLD_MILLIS = 1000L;
+
+    @Nonnull private AdmissionLimitType limitType = AdmissionLimitType.AIMD;
+    private int initialLimit = DEFAULT_INITIAL_LIMIT;
+    private int minLimit = DEFAULT_MIN_LIMIT;
+    private int maxLimit = DEFAULT_MAX_LIMIT;
+    private long maxWaitNanos = 0L;
+    private int maxQueueSize = DEFAULT_MAX_QUEUE_SIZE;
+    private long latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_LATENCY_THRESHOLD_MILLIS);
+
+    /**
+     * 동시 실행 수 알고리즘 (기본 {@link AdmissionLimitType#AIMD})
+     */
+    public AdmissionPolicy limitType(@Nonnull final AdmissionLimitType limitType) {
+        Assert.notNull(limitType, "limitType must not be null!");
+        this.limitType = limitType;
+        return this;
+    }
+
+    /**
+     * 고정된 동시 실행 수를 사용합니다.
+     */
+    public AdmissionPolicy fixed(final int limit) {
+        return limitType(AdmissionLimitType.FIXED).limits(limit, limit, limit);
+    }
+
+    /**
+     * 동시 실행 수의 초기값, 최소값, 최대값. {@link AdmissionLimitType#FIXED}는 초기값을 사용합니다.
+     */
+    public AdmissionPolicy limits(final int initialLimit, final int minLimit, final int maxLimit) {
+        Assert.isTrue(minLimit > 0, "minLimit must be greater than 0.");
+        Assert.isTrue(minLimit <= initialLimit && initialLimit <= maxLimit, "minLimit <= initialLimit <= maxLimit is required.");
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        return this;
+    }
+
+    /**
+     * limit 을 넘은 작업이 차례를 기다리는 최대 시간. 0 이면 바로 거절합니다. (기본 0)
+     */
+    public AdmissionPolicy maxWait(final long maxWait, @Nonnull final TimeUnit unit) {
+        Assert.isTrue(maxWait >= 0, "maxWait must not be negative.");
+        Assert.notNull(unit, "unit must not be null!");
+        this.maxWaitNanos = unit.toNanos(maxWait);
+        return this;
+    }
+
+    /**
+     * 차례를 기다릴 수 있는 최대 작업 수 (기본 {@link #DEFAULT_MAX_QUEUE_SIZE})
+     */
+    public AdmissionPolicy maxQueueSize(final int maxQueueSize) {
+        Assert.isTrue(maxQueueSize >= 0, "maxQueueSize must not be negative.");
+        this.maxQueueSize = maxQueueSize;
+        return this;
+    }
+
+    /**
+     * {@link AdmissionLimitType#AIMD}에서 과부하로 판단하는 응답 시간 (기본 {@link #DEFAULT_LATENCY_THRESHOLD_MILLIS} ms)
+     */
+    public AdmissionPolicy latencyThreshold(final long latencyThreshold, @Nonnull final TimeUnit unit) {
+        Assert.isTrue(latencyThreshold > 0, "latencyThreshold must be greater than 0.");
+        Assert.notNull(unit, "unit must not be null!");
+        this.latencyThresholdNanos = unit.toNanos(latencyThreshold);
+        return this;
+    }
+
+    @Nonnull
+    public AdmissionPolicy copy() {
+        AdmissionPolicy copy = new AdmissionPolicy();
+        copy.limitType = limitType;
+        copy.initialLimit = initialLimit;
+        copy.minLimit = minLimit;
+        copy.maxLimit = maxLimit;
+        copy.maxWaitNanos = maxWaitNanos;
+        copy.maxQueueSize = maxQueueSize;
+        copy.latencyThresholdNanos = latencyThresholdNanos;
+        return copy;
+    }
+
+    /**
+     * 설정에 맞는 {@link ConcurrencyLimit}를 생성합니다.
+     */
+    @Nonnull
+    public ConcurrencyLimit createLimit() {
+        switch (limitType) {
+            case FIXED:
+                return new FixedConcurrencyLimit(initialLimit);
+            case VEGAS:
+                return new VegasConcurrencyLimit(initialLimit, minLimit, maxLimit);
+            case AIMD:
+            default:
+                return new AimdConcurrencyLimit(initialLimit, minLimit, maxLimit,
+                                                AimdConcurrencyLimit.DEFAULT_BACKOFF_RATIO, latencyThresholdNanos);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "AdmissionPolicy{" +
+               "limitType=" + limitType +
+               ", initialLimit=" + initialLimit +
+               ", minLimit=" + minLimit +
+               ", maxLimit=" + maxLimit +
+               ", maxWaitMillis=" + TimeUnit.NANOSECONDS.toMillis(maxWaitNanos) +
+               ", maxQueueSize=" + maxQueueSize +
+               '}';
+    }
+}
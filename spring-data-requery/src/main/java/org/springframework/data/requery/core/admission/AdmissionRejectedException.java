@@ -0,0 +1,66 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core.admission;
+
+import lombok.Getter;
+import org.springframework.data.requery.RequeryExecutionException;
+
+import javax.annotation.Nonnull;
+
+/**
+ * {@link AdmissionLimiter}가 작업을 거절했을 때 발생하는 예외. 호출자는 재시도하지 말고 빠르게 실패 응답을 보내야 합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Getter
+public class AdmissionRejectedException extends RequeryExecutionException {
+
+    private static final long serialVersionUID = -4290446474512340287L;
+
+    /**
+     * 거절한 이유
+     */
+    public enum Reason {
+        /**
+         * limit 을 넘었고 기다리지 않도록 설정됨
+         */
+        LIMIT_EXCEEDED,
+        /**
+         * 대기열이 가득 참
+         */
+        QUEUE_FULL,
+        /**
+         * {@code maxWait} 동안 차례가 오지 않음
+         */
+        TIMEOUT,
+        /**
+         * 기다리는 중에 thread 가 interrupt 됨
+         */
+        INTERRUPTED
+    }
+
+    @Nonnull private final String limiterName;
+    @Nonnull private final Reason reason;
+
+    public AdmissionRejectedException(@Nonnull final String limiterName, @Nonnull final Reason reason, final int limit) {
+        super("Admission is rejected. limiter=" + limiterName + ", reason=" + reason + ", limit=" + limit);
+        this.limiterName = limiterName;
+        this.reason = reason;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core.admission;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AIMD (Additive Increase, Multiplicative Decrease) 방식의 동시 실행 수.
+ * <p>
+ * 작업이 {@code latencyThreshold} 안에 끝나고 limit 의 절반 이상을 사용 중이면 limit 을 1 늘리고,
+ * 작업이 느리거나 timeout 으로 실패하면 limit 에 {@code backoffRatio}를 곱해서 줄입니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+public class AimdConcurrencyLimit implements ConcurrencyLimit {
+
+    public static final double DEFAULT_BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+
+    private volatile int limit;
+
+    public AimdConcurrencyLimit(final int initialLimit,
+                                final int minLimit,
+                                final int maxLimit,
+                                final long latencyThreshold,
+                                final TimeUnit unit) {
+        this(initialLimit, minLimit, maxLimit, DEFAULT_BACKOFF_RATIO, unit.toNanos(latencyThreshold));
+    }
+
+    public AimdConcurrencyLimit(final int initialLimit,
+                                final int minLimit,
+                                final int maxLimit,
+                                final double backoffRatio,
+                                final long latencyThresholdNanos) {
+        if (minLimit <= 0 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Invalid limits. initial=" + initialLimit + ", min=" + minLimit + ", max=" + maxLimit);
+        }
+        if (backoffRatio <= 0.0 || backoffRatio >= 1.0) {
+            throw new IllegalArgumentException("backoffRatio must be in (0, 1). backoffRatio=" + backoffRatio);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.limit = initialLimit;
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public synchronized void onSample(final long rttNanos, final int inflight, final boolean dropped) {
+        int current = limit;
+        if (dropped || rttNanos > latencyThresholdNanos) {
+            limit = Math.max(minLimit, Math.min(current - 1, (int) (current * backoffRatio)));
+        } else if (inflight * 2 >= current) {
+            limit = Math.min(maxLimit, current + 1);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "AimdConcurrencyLimit{limit=" + limit + ", min=" + minLimit + ", max=" + maxLimit + '}';
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core.admission;
+
+/**
+ * 동시에 실행할 수 있는 작업 수(limit)를 정하는 알고리즘.
+ * <p>
+ * {@link AdmissionLimiter}는 작업이 끝날 때마다 {@link #onSample(long, int, boolean)}으로 응답 시간을 알려주고,
+ * 다음 작업을 받을지 {@link #getLimit()}으로 판단합니다. 구현체는 thread-safe 해야 합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+public interface ConcurrencyLimit {
+
+    /**
+     * 현재 허용하는 최대 동시 실행 수
+     */
+    int getLimit();
+
+    /**
+     * 작업 하나가 끝났음을 알립니다.
+     *
+     * @param rttNanos 작업 실행 시간 (대기 시간 제외)
+     * @param inflight 작업이 시작될 때 실행 중이던 작업 수 (자신 포함)
+     * @param dropped  timeout 등 database 과부하로 실패했는지 여부
+     */
+    void onSample(long rttNanos, int inflight, boolean dropped);
+}
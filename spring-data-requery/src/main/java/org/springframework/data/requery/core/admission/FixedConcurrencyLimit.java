@@ -0,0 +1,51 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core.admission;
+
+/**
+ * 고정된 동시 실행 수. bulkhead 로 사용합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+public class FixedConcurrencyLimit implements ConcurrencyLimit {
+
+    private final int limit;
+
+    public FixedConcurrencyLimit(final int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be greater than 0. limit=" + limit);
+        }
+        this.limit = limit;
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public void onSample(final long rttNanos, final int inflight, final boolean dropped) {
+        // 고정 값이므로 무시합니다.
+    }
+
+    @Override
+    public String toString() {
+        return "FixedConcurrencyLimit{limit=" + limit + '}';
+    }
+}
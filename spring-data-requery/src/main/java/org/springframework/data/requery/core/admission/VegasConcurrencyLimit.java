@@ -0,0 +1,100 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core.admission;
+
+/**
+ * TCP Vegas 방식의 동시 실행 수.
+ * <p>
+ * 부하가 없을 때의 최소 응답 시간({@code minRtt})과 현재 응답 시간으로 database 앞에 쌓인 대기열 길이를
+ * {@code limit * (1 - minRtt / rtt)}로 추정합니다. 대기열이 {@code alpha} 보다 짧으면 limit 을 늘리고, {@code beta} 보다 길면 줄입니다.
+ * 응답 시간만으로 과부하를 감지하므로 임계값을 정하지 않아도 되며, timeout 으로 실패하면 limit 을 절반으로 줄입니다.
+ * 최소 응답 시간은 데이터 증가 등으로 바뀔 수 있으므로 {@code probeInterval} 개의 sample 마다 다시 측정합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+public class VegasConcurrencyLimit implements ConcurrencyLimit {
+
+    public static final int DEFAULT_PROBE_INTERVAL = 1000;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int probeInterval;
+
+    private volatile int limit;
+    private long minRttNanos = Long.MAX_VALUE;
+    private int samples = 0;
+
+    public VegasConcurrencyLimit(final int initialLimit, final int minLimit, final int maxLimit) {
+        this(initialLimit, minLimit, maxLimit, DEFAULT_PROBE_INTERVAL);
+    }
+
+    public VegasConcurrencyLimit(final int initialLimit, final int minLimit, final int maxLimit, final int probeInterval) {
+        if (minLimit <= 0 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Invalid limits. initial=" + initialLimit + ", min=" + minLimit + ", max=" + maxLimit);
+        }
+        if (probeInterval <= 0) {
+            throw new IllegalArgumentException("probeInterval must be greater than 0. probeInterval=" + probeInterval);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.probeInterval = probeInterval;
+        this.limit = initialLimit;
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public synchronized void onSample(final long rttNanos, final int inflight, final boolean dropped) {
+        final int current = limit;
+        if (dropped) {
+            limit = Math.max(minLimit, current / 2);
+            return;
+        }
+        if (++samples >= probeInterval) {
+            samples = 0;
+            minRttNanos = Long.MAX_VALUE;
+        }
+        if (rttNanos <= 0) {
+            return;
+        }
+        minRttNanos = Math.min(minRttNanos, rttNanos);
+
+        final double log = Math.max(1.0, Math.log10(current));
+        final double alpha = 3 * log;
+        final double beta = 6 * log;
+        final double queue = current * (1.0 - (double) minRttNanos / rttNanos);
+
+        if (queue <= alpha) {
+            // limit 을 다 쓰지 않을 때 늘리면 부하가 생겼을 때 한꺼번에 몰리므로, 절반 이상 사용할 때만 늘립니다.
+            if (inflight * 2 >= current) {
+                limit = Math.min(maxLimit, current + (int) log);
+            }
+        } else if (queue >= beta) {
+            limit = Math.max(minLimit, current - (int) log);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "VegasConcurrencyLimit{limit=" + limit + ", min=" + minLimit + ", max=" + maxLimit + '}';
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.core.bulk;
+
+import javax.annotation.Nonnull;
+
+/**
+ * {@link BulkLoader}의 진행 상황을 통보받는 listener 입니다.
+ * <p>
+ * worker thread 를 사용하는 경우 worker thread 에서 호출되므로 thread-safe 하게 구현해야 합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+public interface BulkLoadListener {
+
+    /**
+     * chunk 하나가 commit 되었을 때 호출됩니다.
+     *
+     * @param chunkIndex  0 부터 시작하는 chunk 순번
+     * @param chunkRows   chunk 의 행 수
+     * @param loadedRows  지금까지 commit 된 전체 행 수
+     */
+    default void onChunkLoaded(final long chunkIndex, final int chunkRows, final long loadedRows) {}
+
+    /**
+     * chunk 하나가 재시도 후에도 실패했을 때 호출됩니다.
+     *
+     * @param chunkIndex 0 부터 시작하는 chunk 순번
+     * @param chunkRows  chunk 의 행 수
+     * @param error      마지막 시도의 예외
+     */
+    default void onChunkFailed(final long chunkIndex, final int chunkRows, @Nonnull final Throwable error) {}
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.core.bulk;
+
+import io.requery.sql.EntityDataStore;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+/**
+ * {@link BulkLoader}가 chunk 단위로 엔티티를 저장하는 방식
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+public enum BulkLoadMode {
+
+    /**
+     * {@link EntityDataStore#insert(Iterable)} 로 저장합니다. (JDBC batch insert)
+     */
+    INSERT {
+        @Override
+        <E> void write(@Nonnull final EntityDataStore<Object> dataStore, @Nonnull final List<E> chunk) {
+            dataStore.insert(chunk);
+        }
+    },
+
+    /**
+     * {@link EntityDataStore#upsert(Iterable)} 로 저장합니다.
+     */
+    UPSERT {
+        @Override
+        <E> void write(@Nonnull final EntityDataStore<Object> dataStore, @Nonnull final List<E> chunk) {
+            dataStore.upsert(chunk);
+        }
+    };
+
+    abstract <E> void write(@Nonnull final EntityDataStore<Object> dataStore, @Nonnull final List<E> chunk);
+}
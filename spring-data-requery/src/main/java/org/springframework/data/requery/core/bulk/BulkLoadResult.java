@@ -0,0 +1,73 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.core.bulk;
+
+import lombok.Getter;
+
+/**
+ * {@link BulkLoader} 실행 결과
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Getter
+public class BulkLoadResult {
+
+    private final long loadedRows;
+    private final long failedRows;
+    private final long chunks;
+    private final long failedChunks;
+    private final long retries;
+    private final long elapsedMillis;
+
+    BulkLoadResult(final long loadedRows,
+                   final long failedRows,
+                   final long chunks,
+                   final long failedChunks,
+                   final long retries,
+                   final long elapsedMillis) {
+        this.loadedRows = loadedRows;
+        this.failedRows = failedRows;
+        this.chunks = chunks;
+        this.failedChunks = failedChunks;
+        this.retries = retries;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public boolean hasFailures() {
+        return failedChunks > 0;
+    }
+
+    /**
+     * 초당 commit 된 행 수
+     */
+    public double getRowsPerSecond() {
+        return (elapsedMillis > 0) ? loadedRows * 1000.0 / elapsedMillis : loadedRows;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkLoadResult{" +
+               "loadedRows=" + loadedRows +
+               ", failedRows=" + failedRows +
+               ", chunks=" + chunks +
+               ", failedChunks=" + failedChunks +
+               ", retries=" + retries +
+               ", elapsedMillis=" + elapsedMillis +
+               '}';
+    }
+}
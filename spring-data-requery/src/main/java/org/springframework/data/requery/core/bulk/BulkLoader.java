@@ -0,0 +1,345 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.core.bulk;
+
+import io.requery.TransactionIsolation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.requery.RequeryExecutionException;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * 대량의 엔티티를 chunk 단위로 나누어 저장하는 loader 입니다.
+ * <p>
+ * {@link Stream}/{@link Iterator}를 {@code chunkSize} 만큼씩 읽어 chunk 마다 별도의 transaction 으로 commit 하므로,
+ * 메모리에는 처리 중인 chunk 만 유지됩니다. {@code parallelism} 이 1 보다 크면 chunk 를 worker thread 들에 분산합니다.
+ * Requery 의 transaction 은 thread 단위이므로 worker 마다 별도의 connection 을 사용합니다.
+ * <p>
+ * 호출 thread 에 이미 transaction 이 있고 {@code parallelism} 이 1 이면, chunk 는 기존 transaction 에 참여하므로 chunk 단위 commit 이 되지 않습니다.
+ *
+ * <pre>{@code
+ * BulkLoadResult result = operations.bulkLoader()
+ *     .chunkSize(1000)
+ *     .parallelism(4)
+ *     .maxRetries(2)
+ *     .load(logs);
+ * }</pre>
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+public class BulkLoader {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+    public static final long DEFAULT_RETRY_BACKOFF_MILLIS = 100L;
+
+    private static final AtomicInteger LOADER_SEQ = new AtomicInteger();
+
+    private final RequeryOperations operations;
+
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private int parallelism = 1;
+    private int maxRetries = 0;
+    private long retryBackoffMillis = DEFAULT_RETRY_BACKOFF_MILLIS;
+    private boolean continueOnError = false;
+    private BulkLoadMode mode = BulkLoadMode.INSERT;
+    @Nullable private TransactionIsolation isolation;
+    @Nullable private BulkLoadListener listener;
+    @Nullable private ExecutorService executor;
+
+    public BulkLoader(@Nonnull final RequeryOperations operations) {
+        Assert.notNull(operations, "operations must not be null!");
+        this.operations = operations;
+    }
+
+    /**
+     * 한 transaction 에서 저장할 엔티티 수 (기본 {@link #DEFAULT_CHUNK_SIZE})
+     */
+    public BulkLoader chunkSize(final int chunkSize) {
+        Assert.isTrue(chunkSize > 0, "chunkSize must be greater than 0.");
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * 동시에 chunk 를 저장하는 worker thread 수 (기본 1 = 호출 thread 에서 저장). connection pool 크기를 넘지 않도록 지정해야 합니다.
+     */
+    public BulkLoader parallelism(final int parallelism) {
+        Assert.isTrue(parallelism > 0, "parallelism must be greater than 0.");
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * 실패한 chunk 의 재시도 횟수와 재시도 간격 (시도 횟수에 비례하여 증가)
+     */
+    public BulkLoader maxRetries(final int maxRetries) {
+        Assert.isTrue(maxRetries >= 0, "maxRetries must not be negative.");
+        this.maxRetries = maxRetries;
+        return this;
+    }
+
+    public BulkLoader retryBackoff(final long backoff, @Nonnull final TimeUnit unit) {
+        Assert.isTrue(backoff >= 0, "backoff must not be negative.");
+        this.retryBackoffMillis = unit.toMillis(backoff);
+        return this;
+    }
+
+    /**
+     * true 이면 재시도 후에도 실패한 chunk 를 건너뛰고 계속 진행합니다. false (기본) 이면 {@link RequeryExecutionException}을 던집니다.
+     */
+    public BulkLoader continueOnError(final boolean continueOnError) {
+        this.continueOnError = continueOnError;
+        return this;
+    }
+
+    public BulkLoader mode(@Nonnull final BulkLoadMode mode) {
+        Assert.notNull(mode, "mode must not be null!");
+        this.mode = mode;
+        return this;
+    }
+
+    public BulkLoader isolation(@Nullable final TransactionIsolation isolation) {
+        this.isolation = isolation;
+        return this;
+    }
+
+    public BulkLoader listener(@Nullable final BulkLoadListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * worker 로 사용할 {@link ExecutorService}. 지정하지 않으면 load 시마다 {@code parallelism} 크기의 thread pool 을 생성합니다.
+     * 지정한 executor 는 load 후에 shutdown 하지 않습니다.
+     */
+    public BulkLoader executor(@Nullable final ExecutorService executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    @Nonnull
+    public <E> BulkLoadResult load(@Nonnull final Stream<E> entities) {
+        Assert.notNull(entities, "entities must not be null!");
+
+        try (Stream<E> stream = entities) {
+            return load(stream.iterator());
+        }
+    }
+
+    @Nonnull
+    public <E> BulkLoadResult load(@Nonnull final Iterable<E> entities) {
+        Assert.notNull(entities, "entities must not be null!");
+        return load(entities.iterator());
+    }
+
+    @Nonnull
+    public <E> BulkLoadResult load(@Nonnull final Iterator<E> entities) {
+        Assert.notNull(entities, "entities must not be null!");
+
+        Progress progress = new Progress();
+        if (parallelism == 1 && executor == null) {
+            loadSequential(entities, progress);
+        } else {
+            loadParallel(entities, progress);
+        }
+
+        BulkLoadResult result = progress.toResult();
+        log.debug("Bulk load finished. mode={}, chunkSize={}, parallelism={}, result={}", mode, chunkSize, parallelism, result);
+        return result;
+    }
+
+    private <E> void loadSequential(@Nonnull final Iterator<E> entities, @Nonnull final Progress progress) {
+        if (operations.getDataStore().transaction().active()) {
+            log.warn("Transaction is active already, so chunks join the current transaction and are not committed separately.");
+        }
+
+        long chunkIndex = 0;
+        List<E> chunk;
+        while (!(chunk = nextChunk(entities)).isEmpty()) {
+            loadChunk(chunkIndex++, chunk, progress);
+            if (progress.error.get() != null) {
+                break;
+            }
+        }
+        progress.rethrowIfFailed();
+    }
+
+    private <E> void loadParallel(@Nonnull final Iterator<E> entities, @Nonnull final Progress progress) {
+        final boolean ownExecutor = (executor == null);
+        final ExecutorService workers = ownExecutor
+                                        ? Executors.newFixedThreadPool(parallelism, newThreadFactory())
+                                        : executor;
+
+        // 처리 중이거나 대기 중인 chunk 수를 제한하여 메모리 사용량을 chunkSize * parallelism * 2 이내로 유지합니다.
+        final Semaphore inFlight = new Semaphore(parallelism * 2);
+        try {
+            long chunkIndex = 0;
+            List<E> chunk;
+            while (progress.error.get() == null && !(chunk = nextChunk(entities)).isEmpty()) {
+                inFlight.acquire();
+
+                final long index = chunkIndex++;
+                final List<E> rows = chunk;
+                workers.execute(() -> {
+                    try {
+                        loadChunk(index, rows, progress);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            // 모든 chunk 가 끝날 때까지 대기
+            inFlight.acquire(parallelism * 2);
+            inFlight.release(parallelism * 2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RequeryExecutionException("Bulk load is interrupted. " + progress.toResult(), e);
+        } finally {
+            if (ownExecutor) {
+                workers.shutdown();
+            }
+        }
+        progress.rethrowIfFailed();
+    }
+
+    @Nonnull
+    private <E> List<E> nextChunk(@Nonnull final Iterator<E> entities) {
+        List<E> chunk = new ArrayList<>(chunkSize);
+        while (chunk.size() < chunkSize && entities.hasNext()) {
+            chunk.add(entities.next());
+        }
+        return chunk;
+    }
+
+    private <E> void loadChunk(final long chunkIndex, @Nonnull final List<E> chunk, @Nonnull final Progress progress) {
+        int attempt = 0;
+        while (true) {
+            try {
+                operations.runInTransaction(() -> {
+                    mode.write(operations.getDataStore(), chunk);
+                    return null;
+                }, isolation);
+
+                long loaded = progress.loadedRows.addAndGet(chunk.size());
+                progress.chunks.incrementAndGet();
+                if (listener != null) {
+                    listener.onChunkLoaded(chunkIndex, chunk.size(), loaded);
+                }
+                return;
+            } catch (RuntimeException e) {
+                if (attempt < maxRetries && !Thread.currentThread().isInterrupted()) {
+                    attempt++;
+                    progress.retries.incrementAndGet();
+                    log.debug("Fail to load chunk[{}], retry {}/{}.", chunkIndex, attempt, maxRetries, e);
+                    if (backoff(attempt)) {
+                        continue;
+                    }
+                }
+                onChunkFailed(chunkIndex, chunk, e, progress);
+                return;
+            }
+        }
+    }
+
+    private boolean backoff(final int attempt) {
+        if (retryBackoffMillis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(retryBackoffMillis * attempt);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private <E> void onChunkFailed(final long chunkIndex,
+                                   @Nonnull final List<E> chunk,
+                                   @Nonnull final RuntimeException error,
+                                   @Nonnull final Progress progress) {
+        log.warn("Fail to load chunk[{}]. rows={}", chunkIndex, chunk.size(), error);
+
+        progress.chunks.incrementAndGet();
+        progress.failedChunks.incrementAndGet();
+        progress.failedRows.addAndGet(chunk.size());
+
+        if (listener != null) {
+            listener.onChunkFailed(chunkIndex, chunk.size(), error);
+        }
+        if (!continueOnError) {
+            progress.error.compareAndSet(null, error);
+        }
+    }
+
+    @Nonnull
+    private static ThreadFactory newThreadFactory() {
+        final String prefix = "requery-bulk-loader-" + LOADER_SEQ.incrementAndGet() + "-";
+        final AtomicInteger threadSeq = new AtomicInteger();
+
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadSeq.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Progress {
+        private final long startNanos = System.nanoTime();
+
+        private final AtomicLong loadedRows = new AtomicLong();
+        private final AtomicLong failedRows = new AtomicLong();
+        private final AtomicLong chunks = new AtomicLong();
+        private final AtomicLong failedChunks = new AtomicLong();
+        private final AtomicLong retries = new AtomicLong();
+        private final AtomicReference<RuntimeException> error = new AtomicReference<>();
+
+        void rethrowIfFailed() {
+            RuntimeException e = error.get();
+            if (e != null) {
+                throw new RequeryExecutionException("Fail to bulk load. " + toResult(), e);
+            }
+        }
+
+        @Nonnull
+        BulkLoadResult toResult() {
+            return new BulkLoadResult(loadedRows.get(),
+                                      failedRows.get(),
+                                      chunks.get(),
+                                      failedChunks.get(),
+                                      retries.get(),
+                                      TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.core.export;
+
+import io.requery.meta.Type;
+import io.requery.query.Tuple;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * 조회 결과를 CSV (RFC 4180) 형식으로 출력하는 {@link RowWriter} 입니다.
+ * <p>
+ * 구분자, 따옴표, 개행 문자를 포함한 값만 따옴표로 감싸고, {@code null} 은 빈 값으로 출력합니다.
+ *
+ * <pre>{@code
+ * long rows = operations.export(query, CsvRowWriter.of(FullLog.$TYPE), outputStream);
+ * }</pre>
+ *
+ * @param <T> row type
+ * @author debop
+ * @since 26. 10. 19
+ */
+public class CsvRowWriter<T> implements RowWriter<T> {
+
+    public static final char DEFAULT_DELIMITER = ',';
+    private static final String LINE_SEPARATOR = "\r\n";
+
+    /**
+     * Requery 엔티티를 CSV로 출력하는 writer 를 생성합니다. 컬럼명을 header 로 출력합니다.
+     */
+    @Nonnull
+    public static <E> CsvRowWriter<E> of(@Nonnull final Type<E> type) {
+        return of(type, DEFAULT_DELIMITER);
+    }
+
+    @Nonnull
+    public static <E> CsvRowWriter<E> of(@Nonnull final Type<E> type, final char delimiter) {
+        Assert.notNull(type, "type must not be null!");
+        return new CsvRowWriter<>(RowColumns.of(type), RowColumns.namesOf(type), delimiter);
+    }
+
+    /**
+     * {@link Tuple} 결과를 CSV로 출력하는 writer 를 생성합니다.
+     *
+     * @param headers header 로 출력할 컬럼명, 지정하지 않으면 header 를 출력하지 않습니다.
+     */
+    @Nonnull
+    public static CsvRowWriter<Tuple> ofTuple(final String... headers) {
+        return new CsvRowWriter<>(RowColumns.ofTuple(), headers, DEFAULT_DELIMITER);
+    }
+
+    private final RowColumns<T> columns;
+    @Nullable private final String[] headers;
+    private final char delimiter;
+
+    public CsvRowWriter(@Nonnull final RowColumns<T> columns,
+                        @Nullable final String[] headers,
+                        final char delimiter) {
+        Assert.notNull(columns, "columns must not be null!");
+        Assert.isTrue(delimiter != '"' && delimiter != '\r' && delimiter != '\n', "Invalid delimiter=" + delimiter);
+
+        this.columns = columns;
+        this.headers = headers;
+        this.delimiter = delimiter;
+    }
+
+    @Override
+    public void writeHeader(@Nonnull final Writer out) throws IOException {
+        if (headers == null || headers.length == 0) {
+            return;
+        }
+        for (int i = 0; i < headers.length; i++) {
+            if (i > 0) {
+                out.write(delimiter);
+            }
+            writeValue(headers[i], out);
+        }
+        out.write(LINE_SEPARATOR);
+    }
+
+    @Override
+    public void writeRow(@Nonnull final T row, @Nonnull final Writer out) throws IOException {
+        final int count = columns.count(row);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                out.write(delimiter);
+            }
+            Object value = columns.get(row, i);
+            if (value != null) {
+                writeValue(value.toString(), out);
+            }
+        }
+        out.write(LINE_SEPARATOR);
+    }
+
+    private void writeValue(@Nonnull final String value, @Nonnull final Writer out) throws IOException {
+        if (!needsQuote(value)) {
+            out.write(value);
+            return;
+        }
+
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch == '"') {
+                out.write('"');
+            }
+            out.write(ch);
+        }
+        out.write('"');
+    }
+
+    private boolean needsQuote(@Nonnull final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch == delimiter || ch == '"' || ch == '\r' || ch == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.core.export;
+
+import io.requery.meta.Attribute;
+import io.requery.meta.Type;
+import io.requery.proxy.EntityProxy;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Requery 엔티티를 export 할 때 사용할 컬럼 정보입니다.
+ * <p>
+ * 단순 컬럼과 foreign key 만 대상으로 하고, collection association 은 제외합니다.
+ * 값은 {@link EntityProxy}에서 lazy loading 없이 읽기 때문에 export 중에 추가 질의가 발생하지 않습니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+class EntityColumns<E> {
+
+    private final Type<E> type;
+    private final List<Attribute<E, ?>> attributes = new ArrayList<>();
+    private final String[] names;
+
+    EntityColumns(@Nonnull final Type<E> type) {
+        Assert.notNull(type, "type must not be null!");
+        this.type = type;
+
+        for (Attribute<E, ?> attr : type.getAttributes()) {
+            if (!attr.isAssociation() || attr.isForeignKey()) {
+                attributes.add(attr);
+            }
+        }
+
+        this.names = new String[attributes.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = attributes.get(i).getName();
+        }
+    }
+
+    int size() {
+        return names.length;
+    }
+
+    @Nonnull
+    String[] getNames() {
+        return names;
+    }
+
+    @Nonnull
+    EntityProxy<E> proxyOf(@Nonnull final E entity) {
+        return type.getProxyProvider().apply(entity);
+    }
+
+    @Nullable
+    Object valueAt(@Nonnull final EntityProxy<E> proxy, final int index) {
+        Attribute<E, ?> attr = attributes.get(index);
+        return attr.isAssociation() ? proxy.getKey(attr) : proxy.get(attr, false);
+    }
+}
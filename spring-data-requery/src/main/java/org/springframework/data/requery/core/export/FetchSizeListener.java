@@ -0,0 +1,126 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core.export;
+
+import io.requery.sql.BoundParameters;
+import io.requery.sql.StatementListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.requery.RequeryExecutionException;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Callable;
+
+/**
+ * {@link #withFetchSize(int, Callable)}로 실행하는 동안 조회 statement 의 fetch size 를 지정하는 {@link StatementListener} 입니다.
+ * <p>
+ * requery 는 LIMIT 이 없는 조회의 fetch size 를 0 (driver 기본값) 으로 두는데, MySQL, PostgreSQL driver 는 이 경우 결과 전체를 메모리로 읽습니다.
+ * {@link ResultExporter}가 결과를 나누어 읽도록 fetch size 를 지정하며, requery 설정에 등록되어 있어야 적용됩니다.
+ *
+ * <pre>{@code
+ * new ConfigurationBuilder(dataSource, model)
+ *     .addStatementListener(new FetchSizeListener())
+ *     .build();
+ * }</pre>
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+public class FetchSizeListener implements StatementListener {
+
+    /**
+     * MySQL Connector/J 가 결과를 한 행씩 읽도록 하는 fetch size
+     */
+    public static final int MYSQL_STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+
+    private static final ThreadLocal<Integer> FETCH_SIZE = new ThreadLocal<>();
+
+    /**
+     * 현재 thread 에서 조회 statement 에 지정할 fetch size. 없으면 null
+     */
+    @Nullable
+    public static Integer getFetchSize() {
+        return FETCH_SIZE.get();
+    }
+
+    /**
+     * {@code callable}에서 실행하는 조회 statement 의 fetch size 를 {@code fetchSize}로 지정합니다.
+     * 0 보다 커야 하며, MySQL 은 {@link #MYSQL_STREAMING_FETCH_SIZE}를 사용할 수 있습니다.
+     */
+    public static <T> T withFetchSize(final int fetchSize, @Nonnull final Callable<T> callable) {
+        Assert.isTrue(fetchSize > 0 || fetchSize == MYSQL_STREAMING_FETCH_SIZE, "fetchSize must be greater than 0.");
+        Assert.notNull(callable, "callable must not be null!");
+
+        final Integer previous = FETCH_SIZE.get();
+        FETCH_SIZE.set(fetchSize);
+        try {
+            return callable.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RequeryExecutionException("Fail to execute with fetch size.", e);
+        } finally {
+            if (previous != null) {
+                FETCH_SIZE.set(previous);
+            } else {
+                FETCH_SIZE.remove();
+            }
+        }
+    }
+
+    @Override
+    public void beforeExecuteUpdate(@Nonnull final Statement statement,
+                                    @Nullable final String sql,
+                                    @Nullable final BoundParameters parameters) {
+    }
+
+    @Override
+    public void afterExecuteUpdate(@Nonnull final Statement statement, final int count) {
+    }
+
+    @Override
+    public void beforeExecuteBatchUpdate(@Nonnull final Statement statement, @Nullable final String sql) {
+    }
+
+    @Override
+    public void afterExecuteBatchUpdate(@Nonnull final Statement statement, @Nullable final int[] count) {
+    }
+
+    @Override
+    public void beforeExecuteQuery(@Nonnull final Statement statement,
+                                   @Nullable final String sql,
+                                   @Nullable final BoundParameters parameters) {
+        final Integer fetchSize = FETCH_SIZE.get();
+        if (fetchSize == null) {
+            return;
+        }
+        try {
+            statement.setFetchSize(fetchSize);
+        } catch (SQLException e) {
+            log.warn("Fail to set fetch size. fetchSize={}", fetchSize, e);
+        }
+    }
+
+    @Override
+    public void afterExecuteQuery(@Nonnull final Statement statement) {
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.core.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.requery.meta.Type;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * 조회 결과를 JSON Lines (한 행당 JSON object 하나) 형식으로 출력하는 {@link RowWriter} 입니다.
+ * <p>
+ * Requery 엔티티는 {@link #of(Type, ObjectMapper)} 로 컬럼 값만 출력하는 것을 권장합니다.
+ * 엔티티 자체를 Jackson 으로 직렬화해야 한다면 requery-jackson 의 {@code EntityMapper} 를 {@link #of(ObjectMapper)}에 전달하면 됩니다.
+ *
+ * @param <T> row type
+ * @author debop
+ * @since 26. 10. 19
+ */
+public class JsonLinesRowWriter<T> implements RowWriter<T> {
+
+    /**
+     * Requery 엔티티의 컬럼을 JSON object 로 출력하는 writer 를 생성합니다.
+     */
+    @Nonnull
+    public static <E> JsonLinesRowWriter<E> of(@Nonnull final Type<E> type, @Nonnull final ObjectMapper mapper) {
+        Assert.notNull(type, "type must not be null!");
+        return new JsonLinesRowWriter<>(mapper, RowColumns.of(type), RowColumns.namesOf(type));
+    }
+
+    /**
+     * 행 전체를 지정한 {@link ObjectMapper}로 직렬화하는 writer 를 생성합니다.
+     */
+    @Nonnull
+    public static <T> JsonLinesRowWriter<T> of(@Nonnull final ObjectMapper mapper) {
+        return new JsonLinesRowWriter<>(mapper, null, null);
+    }
+
+    private final ObjectMapper mapper;
+    private final ObjectWriter objectWriter;
+    @Nullable private final RowColumns<T> columns;
+    @Nullable private final String[] names;
+
+    private JsonLinesRowWriter(@Nonnull final ObjectMapper mapper,
+                               @Nullable final RowColumns<T> columns,
+                               @Nullable final String[] names) {
+        Assert.notNull(mapper, "mapper must not be null!");
+
+        this.mapper = mapper;
+        this.objectWriter = mapper.writer()
+                                  .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                                  .without(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        this.columns = columns;
+        this.names = names;
+    }
+
+    @Override
+    public void writeRow(@Nonnull final T row, @Nonnull final Writer out) throws IOException {
+        if (columns == null || names == null) {
+            objectWriter.writeValue(out, row);
+        } else {
+            JsonGenerator generator = mapper.getFactory().createGenerator(out);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+            try {
+                generator.writeStartObject();
+                for (int i = 0; i < names.length; i++) {
+                    generator.writeFieldName(names[i]);
+                    generator.writeObject(columns.get(row, i));
+                }
+                generator.writeEndObject();
+            } finally {
+                generator.close();
+            }
+        }
+        out.write('\n');
+    }
+}
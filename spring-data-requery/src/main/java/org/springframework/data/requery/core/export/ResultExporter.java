@@ -0,0 +1,177 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.core.export;
+
+import io.requery.query.Result;
+import io.requery.sql.EntityDataStore;
+import io.requery.sql.Platform;
+import io.requery.util.CloseableIterator;
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.utils.RequeryUtils;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.stream.Stream;
+
+/**
+ * 조회 결과를 {@link java.util.List}로 만들지 않고, forward-only cursor 에서 한 행씩 읽어 바로 출력 스트림에 쓰는 exporter 입니다.
+ * <p>
+ * 출력 쪽 메모리는 buffer 크기로 일정하지만, JDBC driver 가 결과를 나누어 읽는지는 fetch size 와 database 에 따라 다릅니다.
+ * {@link RequeryOperations#export}는 {@link #withStreamingFetch(RequeryOperations, Callable)}로 실행하여
+ * {@link FetchSizeListener}가 fetch size 를 지정하도록 하고, PostgreSQL 은 autocommit 이 꺼져 있어야 cursor 를 사용하므로 transaction 안에서 읽습니다.
+ * {@link FetchSizeListener}가 requery 설정에 없으면 MySQL, PostgreSQL driver 는 결과 전체를 메모리로 읽습니다.
+ * 출력 스트림은 flush 만 하고 닫지 않습니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+@UtilityClass
+public class ResultExporter {
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 결과를 나누어 읽을 때 한 번에 가져올 행 수
+     */
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+
+    /**
+     * {@code platform}에서 결과를 나누어 읽기 위한 fetch size. MySQL 은 {@link FetchSizeListener#MYSQL_STREAMING_FETCH_SIZE}를 사용합니다.
+     */
+    public static int getStreamingFetchSize(@Nonnull final Platform platform) {
+        Assert.notNull(platform, "platform must not be null!");
+        return "MySQL".equals(platform.toString()) ? FetchSizeListener.MYSQL_STREAMING_FETCH_SIZE : DEFAULT_FETCH_SIZE;
+    }
+
+    /**
+     * {@code operations}의 platform 에 맞는 fetch size 로 {@code export}를 실행합니다.
+     * PostgreSQL 이고 transaction 밖이면 transaction 을 시작하여 실행합니다.
+     */
+    public static <T> T withStreamingFetch(@Nonnull final RequeryOperations operations, @Nonnull final Callable<T> export) {
+        Assert.notNull(operations, "operations must not be null!");
+
+        EntityDataStore<Object> dataStore = operations.getDataStore();
+        Platform platform = RequeryUtils.getEntityContext(dataStore).getPlatform();
+        int fetchSize = getStreamingFetchSize(platform);
+
+        if ("PostgresSQL".equals(platform.toString()) && !dataStore.transaction().active()) {
+            return operations.runInTransaction(() -> FetchSizeListener.withFetchSize(fetchSize, export));
+        }
+        return FetchSizeListener.withFetchSize(fetchSize, export);
+    }
+
+    /**
+     * Requery {@link Result}를 출력합니다. 출력이 끝나면 result 를 닫습니다.
+     *
+     * @return 출력한 행 수
+     */
+    public static <T> long export(@Nonnull final Result<T> result,
+                                  @Nonnull final RowWriter<? super T> rowWriter,
+                                  @Nonnull final OutputStream out) {
+        Assert.notNull(result, "result must not be null!");
+
+        try (CloseableIterator<T> iterator = result.iterator()) {
+            return export(iterator, rowWriter, out);
+        } finally {
+            result.close();
+        }
+    }
+
+    /**
+     * Requery {@link Result}를 NIO channel 로 출력합니다. 출력이 끝나면 result 를 닫습니다.
+     *
+     * @return 출력한 행 수
+     */
+    public static <T> long export(@Nonnull final Result<T> result,
+                                  @Nonnull final RowWriter<? super T> rowWriter,
+                                  @Nonnull final WritableByteChannel channel) {
+        Assert.notNull(result, "result must not be null!");
+
+        try (CloseableIterator<T> iterator = result.iterator()) {
+            return export(iterator, rowWriter, channel);
+        } finally {
+            result.close();
+        }
+    }
+
+    /**
+     * Derived query 의 {@link Stream} 결과를 출력합니다. 출력이 끝나면 stream 을 닫습니다.
+     *
+     * @return 출력한 행 수
+     */
+    public static <T> long export(@Nonnull final Stream<T> stream,
+                                  @Nonnull final RowWriter<? super T> rowWriter,
+                                  @Nonnull final OutputStream out) {
+        Assert.notNull(stream, "stream must not be null!");
+
+        try (Stream<T> rows = stream) {
+            return export(rows.iterator(), rowWriter, out);
+        }
+    }
+
+    public static <T> long export(@Nonnull final Iterator<T> rows,
+                                  @Nonnull final RowWriter<? super T> rowWriter,
+                                  @Nonnull final OutputStream out) {
+        Assert.notNull(out, "out must not be null!");
+        return write(rows, rowWriter, new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    public static <T> long export(@Nonnull final Iterator<T> rows,
+                                  @Nonnull final RowWriter<? super T> rowWriter,
+                                  @Nonnull final WritableByteChannel channel) {
+        Assert.notNull(channel, "channel must not be null!");
+        return write(rows, rowWriter, Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), DEFAULT_BUFFER_SIZE));
+    }
+
+    private static <T> long write(@Nonnull final Iterator<T> rows,
+                                  @Nonnull final RowWriter<? super T> rowWriter,
+                                  @Nonnull final Writer target) {
+        Assert.notNull(rows, "rows must not be null!");
+        Assert.notNull(rowWriter, "rowWriter must not be null!");
+
+        long count = 0L;
+        try {
+            Writer out = new BufferedWriter(target, DEFAULT_BUFFER_SIZE);
+            rowWriter.writeHeader(out);
+
+            while (rows.hasNext()) {
+                rowWriter.writeRow(rows.next(), out);
+                count++;
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Fail to export rows. written rows=" + count, e);
+        }
+
+        log.debug("Exported rows={}", count);
+        return count;
+    }
+}
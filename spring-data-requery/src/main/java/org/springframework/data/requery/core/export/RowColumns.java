@@ -0,0 +1,96 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.core.export;
+
+import io.requery.meta.Type;
+import io.requery.proxy.EntityProxy;
+import io.requery.query.Tuple;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * 한 행에서 컬럼 값을 index 로 읽어오는 accessor 입니다. 행 마다 배열이나 Map 을 만들지 않도록 합니다.
+ *
+ * @param <T> row type
+ * @author debop
+ * @since 26. 10. 19
+ */
+public interface RowColumns<T> {
+
+    /**
+     * @param row 대상 행
+     * @return 행의 컬럼 수
+     */
+    int count(@Nonnull final T row);
+
+    /**
+     * @param row   대상 행
+     * @param index 0 부터 시작하는 컬럼 index
+     * @return 컬럼 값
+     */
+    @Nullable
+    Object get(@Nonnull final T row, final int index);
+
+    /**
+     * Requery 엔티티의 컬럼 값을 {@link EntityProxy}를 통해 읽는 accessor 를 생성합니다.
+     */
+    @Nonnull
+    static <E> RowColumns<E> of(@Nonnull final Type<E> type) {
+        EntityColumns<E> columns = new EntityColumns<>(type);
+
+        return new RowColumns<E>() {
+            @Override
+            public int count(@Nonnull final E row) {
+                return columns.size();
+            }
+
+            @Nullable
+            @Override
+            public Object get(@Nonnull final E row, final int index) {
+                return columns.valueAt(columns.proxyOf(row), index);
+            }
+        };
+    }
+
+    /**
+     * {@link Tuple}의 컬럼 값을 순서대로 읽는 accessor 를 생성합니다.
+     */
+    @Nonnull
+    static RowColumns<Tuple> ofTuple() {
+        return new RowColumns<Tuple>() {
+            @Override
+            public int count(@Nonnull final Tuple row) {
+                return row.count();
+            }
+
+            @Nullable
+            @Override
+            public Object get(@Nonnull final Tuple row, final int index) {
+                return row.get(index);
+            }
+        };
+    }
+
+    /**
+     * 엔티티의 컬럼명 (export header 용)
+     */
+    @Nonnull
+    static String[] namesOf(@Nonnull final Type<?> type) {
+        return new EntityColumns<>(type).getNames().clone();
+    }
+}
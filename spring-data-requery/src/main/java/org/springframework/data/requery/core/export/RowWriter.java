@@ -0,0 +1,52 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.core.export;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * 조회 결과의 한 행(row)을 {@link Writer}에 직렬화하는 writer 입니다.
+ * <p>
+ * {@link ResultExporter}가 forward-only cursor 로부터 한 행씩 읽어 바로 전달하므로, 구현체는 행 단위 상태를 보관하지 않아야 합니다.
+ *
+ * @param <T> row type (entity, {@link io.requery.query.Tuple} or DTO)
+ * @author debop
+ * @since 26. 10. 19
+ */
+public interface RowWriter<T> {
+
+    /**
+     * 첫 행을 쓰기 전에 한번 호출됩니다. (CSV header 등)
+     *
+     * @param out 출력 대상
+     * @throws IOException 쓰기 실패 시
+     */
+    default void writeHeader(@Nonnull final Writer out) throws IOException {
+        // Nothing to do.
+    }
+
+    /**
+     * 한 행을 출력합니다. 행 구분자까지 출력해야 합니다.
+     *
+     * @param row 출력할 행
+     * @param out 출력 대상
+     * @throws IOException 쓰기 실패 시
+     */
+    void writeRow(@Nonnull final T row, @Nonnull final Writer out) throws IOException;
+}
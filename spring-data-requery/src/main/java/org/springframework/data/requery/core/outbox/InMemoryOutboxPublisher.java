@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core.outbox;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 발행한 메시지를 메모리에 보관하는 {@link OutboxPublisher}. message broker 없이 outbox 를 테스트할 때 사용합니다.
+ * <p>
+ * {@link #failNext(int)}로 다음 발행들을 실패시켜 재시도 동작을 확인할 수 있습니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+public class InMemoryOutboxPublisher implements OutboxPublisher {
+
+    private final List<OutboxMessage> messages = new ArrayList<>();
+    private final AtomicInteger failures = new AtomicInteger();
+
+    @Override
+    public void publish(@Nonnull final List<OutboxMessage> batch) throws Exception {
+        if (failures.getAndUpdate(remains -> Math.max(remains - 1, 0)) > 0) {
+            throw new IllegalStateException("Publishing is failed on purpose. size=" + batch.size());
+        }
+        synchronized (messages) {
+            messages.addAll(batch);
+            messages.notifyAll();
+        }
+    }
+
+    /**
+     * 다음 {@code times} 번의 발행을 실패시킵니다.
+     */
+    public InMemoryOutboxPublisher failNext(final int times) {
+        failures.set(times);
+        return this;
+    }
+
+    /**
+     * 지금까지 발행된 메시지들 (발행된 순서)
+     */
+    @Nonnull
+    public List<OutboxMessage> getMessages() {
+        synchronized (messages) {
+            return Collections.unmodifiableList(new ArrayList<>(messages));
+        }
+    }
+
+    /**
+     * 발행된 메시지가 {@code count} 개 이상이 될 때까지 최대 {@code timeout} 동안 기다립니다.
+     *
+     * @return 제한 시간 안에 {@code count} 개 이상 발행되었으면 true
+     */
+    public boolean await(final int count, final long timeout, @Nonnull final TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (messages) {
+            while (messages.size() < count) {
+                long remains = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remains <= 0) {
+                    return false;
+                }
+                messages.wait(remains);
+            }
+            return true;
+        }
+    }
+
+    public void clear() {
+        synchronized (messages) {
+            messages.clear();
+        }
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core.outbox;
+
+import io.requery.sql.EntityContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.requery.RequeryExecutionException;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Transactional outbox 입니다.
+ * <p>
+ * {@link #enqueue(String, Object, String, String)}는 현재 thread 의 requery transaction 의 connection 으로 outbox 테이블에 메시지를 저장하므로,
+ * 엔티티 변경과 메시지 저장이 함께 commit 되거나 함께 rollback 됩니다. 저장된 메시지는 {@link OutboxRelay}가 읽어 {@link OutboxPublisher}로 발행합니다.
+ * <p>
+ * outbox 테이블은 사용자의 {@link io.requery.meta.EntityModel}에 속하지 않는 library 관리 테이블이므로, {@link #createTableIfNotExists()}로 생성합니다.
+ * PostgreSQL, MySQL/MariaDB, H2 를 지원합니다.
+ *
+ * <pre>{@code
+ * Outbox outbox = operations.outbox();
+ * outbox.createTableIfNotExists();
+ *
+ * operations.runInTransaction(() -> {
+ *     operations.insert(order);
+ *     outbox.enqueue("Order", order.getId(), "OrderCreated", toJson(order));
+ *     return order;
+ * });
+ * }</pre>
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+public class Outbox {
+
+    public static final String DEFAULT_TABLE_NAME = "requery_outbox";
+
+    private static final Pattern TABLE_NAME_PATTERN = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    private static final String COLUMNS = "id, aggregate_type, aggregate_id, event_type, payload, created_at, attempts";
+
+    private final RequeryOperations operations;
+    private final String tableName;
+
+    @Nullable private volatile OutboxLockMode detectedLockMode;
+
+    public Outbox(@Nonnull final RequeryOperations operations) {
+        this(operations, DEFAULT_TABLE_NAME);
+    }
+
+    public Outbox(@Nonnull final RequeryOperations operations, @Nonnull final String tableName) {
+        Assert.notNull(operations, "operations must not be null!");
+        Assert.isTrue(TABLE_NAME_PATTERN.matcher(tableName).matches(), "tableName must be a plain SQL identifier. tableName=" + tableName);
+
+        this.operations = operations;
+        this.tableName = tableName;
+    }
+
+    @Nonnull
+    public RequeryOperations getOperations() {
+        return operations;
+    }
+
+    @Nonnull
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * outbox 테이블이 없으면 생성합니다.
+     */
+    public void createTableIfNotExists() {
+        execute(connection -> {
+            if (tableExists(connection.getMetaData())) {
+                return null;
+            }
+            String product = connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+            String ddl = "CREATE TABLE " + tableName + " (" +
+                         "id " + identityColumnDefinition(product) + " PRIMARY KEY, " +
+                         "aggregate_type VARCHAR(255) NOT NULL, " +
+                         "aggregate_id VARCHAR(255), " +
+                         "event_type VARCHAR(255) NOT NULL, " +
+                         "payload " + textColumnDefinition(product) + ", " +
+                         "created_at TIMESTAMP NOT NULL, " +
+                         "attempts INT NOT NULL)";
+            log.info("Create outbox table. ddl={}", ddl);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(ddl);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 메시지를 outbox 에 저장하고 생성된 id 를 반환합니다.
+     * 현재 thread 에 requery transaction 이 있으면 그 transaction 에 참여하고, 없으면 별도의 transaction 으로 저장합니다.
+     */
+    public long enqueue(@Nonnull final String aggregateType,
+                        @Nullable final Object aggregateId,
+                        @Nonnull final String eventType,
+                        @Nullable final String payload) {
+        Assert.hasText(aggregateType, "aggregateType must not be empty!");
+        Assert.hasText(eventType, "eventType must not be empty!");
+
+        final String sql = "INSERT INTO " + tableName +
+                           " (aggregate_type, aggregate_id, event_type, payload, created_at, attempts) VALUES (?, ?, ?, ?, ?, 0)";
+
+        return execute(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                statement.setString(1, aggregateType);
+                statement.setString(2, (aggregateId != null) ? aggregateId.toString() : null);
+                statement.setString(3, eventType);
+                if (payload != null) {
+                    statement.setString(4, payload);
+                } else {
+                    statement.setNull(4, Types.VARCHAR);
+                }
+                statement.setTimestamp(5, Timestamp.from(Instant.now()));
+                statement.executeUpdate();
+
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    return keys.next() ? keys.getLong(1) : -1L;
+                }
+            }
+        });
+    }
+
+    /**
+     * 발행을 기다리는 메시지 수
+     */
+    public long countPending() {
+        return execute(connection -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM " + tableName)) {
+                return rs.next() ? rs.getLong(1) : 0L;
+            }
+        });
+    }
+
+    /**
+     * outbox 의 메시지를 발행하는 {@link OutboxRelay}를 생성합니다.
+     */
+    @Nonnull
+    public OutboxRelay relay(@Nonnull final OutboxPublisher publisher) {
+        return new OutboxRelay(this, publisher);
+    }
+
+    /**
+     * 연결된 database 가 지원하는 잠금 방식
+     */
+    @Nonnull
+    public OutboxLockMode getLockMode() {
+        OutboxLockMode lockMode = detectedLockMode;
+        if (lockMode == null) {
+            lockMode = execute(connection -> OutboxLockMode.detect(connection.getMetaData()));
+            detectedLockMode = lockMode;
+        }
+        return lockMode;
+    }
+
+    /**
+     * 발행할 메시지를 {@code id} 순으로 최대 {@code limit} 개 잠그고 읽습니다. transaction 안에서 호출해야 합니다.
+     */
+    @Nonnull
+    List<OutboxMessage> lockBatch(final int limit, final int maxAttempts, @Nonnull final OutboxLockMode lockMode) {
+        final String sql = "SELECT " + COLUMNS + " FROM " + tableName +
+                           ((maxAttempts > 0) ? " WHERE attempts < " + maxAttempts : "") +
+                           " ORDER BY id LIMIT " + limit +
+                           lockMode.getClause();
+
+        return execute(connection -> {
+            List<OutboxMessage> messages = new ArrayList<>(limit);
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(sql)) {
+                while (rs.next()) {
+                    messages.add(new OutboxMessage(rs.getLong(1),
+                                                   rs.getString(2),
+                                                   rs.getString(3),
+                                                   rs.getString(4),
+                                                   rs.getString(5),
+                                                   rs.getTimestamp(6).toInstant(),
+                                                   rs.getInt(7)));
+                }
+            }
+            return messages;
+        });
+    }
+
+    /**
+     * 발행한 메시지를 삭제합니다.
+     */
+    int delete(@Nonnull final Collection<OutboxMessage> messages) {
+        return updateByIds("DELETE FROM " + tableName, messages);
+    }
+
+    /**
+     * 발행에 실패한 메시지의 {@code attempts}를 증가시킵니다.
+     */
+    int incrementAttempts(@Nonnull final Collection<OutboxMessage> messages) {
+        return updateByIds("UPDATE " + tableName + " SET attempts = attempts + 1", messages);
+    }
+
+    private int updateByIds(@Nonnull final String statementPrefix, @Nonnull final Collection<OutboxMessage> messages) {
+        if (messages.isEmpty()) {
+            return 0;
+        }
+        StringBuilder sql = new StringBuilder(statementPrefix).append(" WHERE id IN (");
+        for (int i = 0; i < messages.size(); i++) {
+            sql.append((i == 0) ? "?" : ", ?");
+        }
+        sql.append(')');
+
+        return execute(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+                int index = 1;
+                for (OutboxMessage message : messages) {
+                    statement.setLong(index++, message.getId());
+                }
+                return statement.executeUpdate();
+            }
+        });
+    }
+
+    /**
+     * 현재 transaction 의 connection 으로 작업을 수행합니다. transaction 이 없으면 별도의 transaction 을 시작합니다.
+     * requery 는 transaction 의 connection 을 닫지 않도록 감싸서 주므로, 작업 후에 connection 을 닫아도 됩니다.
+     */
+    private <T> T execute(@Nonnull final ConnectionCallback<T> callback) {
+        return operations.runInTransaction(() -> {
+            EntityContext<Object> context = operations.getEntityContext();
+            try (Connection connection = context.getConnection()) {
+                return callback.doInConnection(connection);
+            } catch (SQLException e) {
+                throw new RequeryExecutionException("Fail to access outbox table. table=" + tableName, e);
+            }
+        });
+    }
+
+    private boolean tableExists(@Nonnull final DatabaseMetaData metaData) throws SQLException {
+        for (String name : new String[] { tableName, tableName.toUpperCase(Locale.ROOT), tableName.toLowerCase(Locale.ROOT) }) {
+            try (ResultSet rs = metaData.getTables(null, null, name, new String[] { "TABLE" })) {
+                if (rs.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Nonnull
+    private static String identityColumnDefinition(@Nonnull final String product) {
+        return (product.contains("mysql") || product.contains("mariadb"))
+               ? "BIGINT AUTO_INCREMENT"
+               : "BIGINT GENERATED BY DEFAULT AS IDENTITY";
+    }
+
+    @Nonnull
+    private static String textColumnDefinition(@Nonnull final String product) {
+        return (product.contains("postgres") || product.contains("mysql") || product.contains("mariadb"))
+               ? "TEXT"
+               : "CLOB";
+    }
+
+    @FunctionalInterface
+    private interface ConnectionCallback<T> {
+        T doInConnection(@Nonnull Connection connection) throws SQLException;
+    }
+}
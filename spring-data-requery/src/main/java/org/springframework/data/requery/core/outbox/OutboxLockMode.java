@@ -0,0 +1,80 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core.outbox;
+
+import javax.annotation.Nonnull;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * {@link OutboxRelay}가 발행할 메시지를 읽을 때 row 를 잠그는 방식
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+public enum OutboxLockMode {
+
+    /**
+     * {@code FOR UPDATE SKIP LOCKED}. 다른 relay worker 가 잠근 row 는 건너뛰므로 worker 들이 서로 기다리지 않습니다.
+     * (PostgreSQL 9.5+, MySQL 8+)
+     */
+    SKIP_LOCKED(" FOR UPDATE SKIP LOCKED"),
+
+    /**
+     * {@code FOR UPDATE}. 같은 메시지를 중복 발행하지는 않지만, worker 들이 앞선 worker 의 commit 을 기다립니다.
+     */
+    FOR_UPDATE(" FOR UPDATE"),
+
+    /**
+     * 잠그지 않습니다. relay worker 가 하나일 때만 사용해야 합니다.
+     */
+    NONE("");
+
+    private final String clause;
+
+    OutboxLockMode(@Nonnull final String clause) {
+        this.clause = clause;
+    }
+
+    @Nonnull
+    String getClause() {
+        return clause;
+    }
+
+    /**
+     * Database 종류와 버전으로 지원하는 잠금 방식을 찾습니다.
+     */
+    @Nonnull
+    static OutboxLockMode detect(@Nonnull final DatabaseMetaData metaData) throws SQLException {
+        String product = metaData.getDatabaseProductName().toLowerCase(Locale.ROOT);
+        int major = metaData.getDatabaseMajorVersion();
+        int minor = metaData.getDatabaseMinorVersion();
+
+        if (product.contains("postgres")) {
+            return (major > 9 || (major == 9 && minor >= 5)) ? SKIP_LOCKED : FOR_UPDATE;
+        }
+        if (product.contains("mysql")) {
+            return (major >= 8) ? SKIP_LOCKED : FOR_UPDATE;
+        }
+        if (product.contains("sqlite")) {
+            return NONE;
+        }
+        return FOR_UPDATE;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core.outbox;
+
+import lombok.Getter;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * outbox 테이블에 저장된 메시지. {@link OutboxRelay}가 읽어서 {@link OutboxPublisher}에 전달합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Getter
+public final class OutboxMessage implements Serializable {
+
+    private static final long serialVersionUID = -3318466170521842467L;
+
+    private final long id;
+    @Nonnull private final String aggregateType;
+    @Nullable private final String aggregateId;
+    @Nonnull private final String eventType;
+    @Nullable private final String payload;
+    @Nonnull private final Instant createdAt;
+    /**
+     * 발행에 실패한 횟수
+     */
+    private final int attempts;
+
+    public OutboxMessage(final long id,
+                         @Nonnull final String aggregateType,
+                         @Nullable final String aggregateId,
+                         @Nonnull final String eventType,
+                         @Nullable final String payload,
+                         @Nonnull final Instant createdAt,
+                         final int attempts) {
+        this.id = id;
+        this.aggregateType = aggregateType;
+        this.aggregateId = aggregateId;
+        this.eventType = eventType;
+        this.payload = payload;
+        this.createdAt = createdAt;
+        this.attempts = attempts;
+    }
+
+    @Override
+    public String toString() {
+        return "OutboxMessage{" +
+               "id=" + id +
+               ", aggregateType=" + aggregateType +
+               ", aggregateId=" + aggregateId +
+               ", eventType=" + eventType +
+               ", createdAt=" + createdAt +
+               ", attempts=" + attempts +
+               '}';
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core.outbox;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+/**
+ * {@link OutboxRelay}가 outbox 에서 읽은 메시지를 message broker 등 외부로 발행합니다.
+ * <p>
+ * 예외 없이 반환하면 메시지는 outbox 에서 삭제되고, 예외를 던지면 메시지의 {@code attempts}를 증가시킨 후 다음 polling 에서 다시 전달합니다.
+ * 따라서 같은 메시지가 두 번 이상 전달될 수 있으므로 (at-least-once) 수신 측은 {@link OutboxMessage#getId()}로 중복을 걸러야 합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@FunctionalInterface
+public interface OutboxPublisher {
+
+    /**
+     * 메시지들을 발행합니다. 메시지는 {@code id} 순으로 정렬되어 있습니다.
+     */
+    void publish(@Nonnull List<OutboxMessage> messages) throws Exception;
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link Outbox}에 저장된 메시지를 batch 단위로 읽어 {@link OutboxPublisher}로 발행하는 relay 입니다.
+ * <p>
+ * batch 마다 하나의 transaction 에서 {@code SELECT ... ORDER BY id LIMIT batchSize FOR UPDATE SKIP LOCKED}로 메시지를 잠그고,
+ * 발행에 성공하면 같은 transaction 에서 메시지를 삭제합니다. 발행에 실패하면 {@code attempts}만 증가시키고 commit 하므로 다음 polling 에서 다시 발행합니다.
+ * {@code SKIP LOCKED}를 지원하는 database 에서는 {@code parallelism} 개의 worker 가 서로 다른 메시지를 동시에 발행하고,
+ * 지원하지 않으면 {@code FOR UPDATE}로 잠가서 worker 들이 차례로 발행합니다.
+ * <p>
+ * worker 가 여럿이면 메시지 간의 발행 순서는 보장되지 않습니다. 순서가 중요하면 {@code parallelism} 을 1 로 지정합니다.
+ *
+ * <pre>{@code
+ * OutboxRelay relay = operations.outbox()
+ *     .relay(messages -> kafka.send(messages))
+ *     .batchSize(200)
+ *     .parallelism(4)
+ *     .pollInterval(500, TimeUnit.MILLISECONDS);
+ * relay.start();
+ * ...
+ * relay.close();
+ * }</pre>
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+public class OutboxRelay implements AutoCloseable {
+
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    public static final long DEFAULT_POLL_INTERVAL_MILLIS = 500L;
+
+    private static final AtomicInteger RELAY_SEQ = new AtomicInteger();
+
+    private final Outbox outbox;
+    private final OutboxPublisher publisher;
+
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private int parallelism = 1;
+    private int maxAttempts = 0;
+    private long pollIntervalMillis = DEFAULT_POLL_INTERVAL_MILLIS;
+    @Nullable private OutboxLockMode lockMode;
+
+    private final LongAdder publishedMessages = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+
+    private final List<Thread> workers = new ArrayList<>();
+    private final Object idleMonitor = new Object();
+    private volatile boolean running = false;
+
+    public OutboxRelay(@Nonnull final Outbox outbox, @Nonnull final OutboxPublisher publisher) {
+        Assert.notNull(outbox, "outbox must not be null!");
+        Assert.notNull(publisher, "publisher must not be null!");
+
+        this.outbox = outbox;
+        this.publisher = publisher;
+    }
+
+    /**
+     * 한 transaction 에서 읽어 발행할 최대 메시지 수 (기본 {@link #DEFAULT_BATCH_SIZE})
+     */
+    public OutboxRelay batchSize(final int batchSize) {
+        Assert.isTrue(batchSize > 0, "batchSize must be greater than 0.");
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * 동시에 발행하는 worker 수 (기본 1). worker 마다 connection 을 하나씩 사용합니다.
+     */
+    public OutboxRelay parallelism(final int parallelism) {
+        Assert.isTrue(parallelism > 0, "parallelism must be greater than 0.");
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * 발행 시도 횟수가 {@code maxAttempts} 이상인 메시지는 더 이상 발행하지 않고 outbox 에 남겨둡니다. 0 이면 제한이 없습니다. (기본 0)
+     */
+    public OutboxRelay maxAttempts(final int maxAttempts) {
+        Assert.isTrue(maxAttempts >= 0, "maxAttempts must not be negative.");
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    /**
+     * 발행할 메시지가 없거나 발행에 실패했을 때 worker 가 다음 polling 까지 기다리는 시간 (기본 {@link #DEFAULT_POLL_INTERVAL_MILLIS} ms)
+     */
+    public OutboxRelay pollInterval(final long pollInterval, @Nonnull final TimeUnit unit) {
+        Assert.isTrue(pollInterval > 0, "pollInterval must be greater than 0.");
+        Assert.notNull(unit, "unit must not be null!");
+        this.pollIntervalMillis = unit.toMillis(pollInterval);
+        return this;
+    }
+
+    /**
+     * 메시지를 읽을 때의 잠금 방식. 지정하지 않으면 database 에 따라 {@link OutboxLockMode#SKIP_LOCKED} 또는 {@link OutboxLockMode#FOR_UPDATE}를 사용합니다.
+     */
+    public OutboxRelay lockMode(@Nullable final OutboxLockMode lockMode) {
+        this.lockMode = lockMode;
+        return this;
+    }
+
+    /**
+     * 메시지 한 batch 를 발행하고, 발행한 메시지 수를 반환합니다. 발행에 실패하면 0 을 반환합니다.
+     */
+    public int relayOnce() {
+        final OutboxLockMode mode = (lockMode != null) ? lockMode : outbox.getLockMode();
+        final RequeryOperations operations = outbox.getOperations();
+
+        return operations.runInTransaction(() -> {
+            List<OutboxMessage> messages = outbox.lockBatch(batchSize, maxAttempts, mode);
+            if (messages.isEmpty()) {
+                return 0;
+            }
+            batches.increment();
+            try {
+                publisher.publish(messages);
+            } catch (Exception e) {
+                failedBatches.increment();
+                log.warn("Fail to publish outbox messages. first={}, size={}", messages.get(0), messages.size(), e);
+                outbox.incrementAttempts(messages);
+                return 0;
+            }
+            outbox.delete(messages);
+            publishedMessages.add(messages.size());
+            return messages.size();
+        });
+    }
+
+    /**
+     * 발행할 메시지가 없거나 발행에 실패할 때까지 현재 thread 에서 발행하고, 발행한 메시지 수를 반환합니다.
+     */
+    public long relayAll() {
+        long total = 0;
+        int published;
+        while ((published = relayOnce()) > 0) {
+            total += published;
+        }
+        return total;
+    }
+
+    /**
+     * {@code parallelism} 개의 daemon worker thread 로 outbox 를 polling 합니다.
+     */
+    public synchronized OutboxRelay start() {
+        Assert.state(!running, "OutboxRelay is running already.");
+
+        running = true;
+        int relayId = RELAY_SEQ.incrementAndGet();
+        for (int i = 0; i < parallelism; i++) {
+            Thread worker = new Thread(this::poll, "requery-outbox-relay-" + relayId + "-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+        log.info("Start outbox relay. table={}, batchSize={}, parallelism={}", outbox.getTableName(), batchSize, parallelism);
+        return this;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * worker 들을 멈추고, 처리 중인 batch 가 끝날 때까지 최대 10초 기다립니다.
+     */
+    @Override
+    public synchronized void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        // JDBC 작업 중인 thread 를 interrupt 하면 driver 에 따라 connection 이 닫히므로, 대기 중인 worker 만 깨웁니다.
+        synchronized (idleMonitor) {
+            idleMonitor.notifyAll();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        workers.clear();
+        log.info("Stop outbox relay. table={}, published={}", outbox.getTableName(), getPublishedMessages());
+    }
+
+    private void poll() {
+        while (running) {
+            int published;
+            try {
+                published = relayOnce();
+            } catch (RuntimeException e) {
+                log.error("Fail to relay outbox messages. table={}", outbox.getTableName(), e);
+                published = 0;
+            }
+            // 가득 찬 batch 를 발행했다면 남은 메시지가 있을 가능성이 높으므로 바로 다음 batch 를 읽습니다.
+            if (published < batchSize) {
+                synchronized (idleMonitor) {
+                    if (!running) {
+                        return;
+                    }
+                    try {
+                        idleMonitor.wait(pollIntervalMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    public long getPublishedMessages() {
+        return publishedMessages.sum();
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    public long getFailedBatches() {
+        return failedBatches.sum();
+    }
+}
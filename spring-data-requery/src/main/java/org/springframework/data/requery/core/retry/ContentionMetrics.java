@@ -0,0 +1,57 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.core.retry;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 엔티티 타입별 {@link ContentionStats} 저장소. metrics 수집기가 주기적으로 {@link #getAll()}을 읽어 기록합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@UtilityClass
+public class ContentionMetrics {
+
+    private static final Map<Class<?>, ContentionStats> STATS = new ConcurrentHashMap<>();
+
+    @Nonnull
+    public static ContentionStats of(@Nonnull final Class<?> entityType) {
+        Assert.notNull(entityType, "entityType must not be null!");
+
+        ContentionStats stats = STATS.get(entityType);
+        return (stats != null) ? stats : STATS.computeIfAbsent(entityType, ContentionStats::new);
+    }
+
+    @Nonnull
+    public static Map<Class<?>, ContentionStats> getAll() {
+        return Collections.unmodifiableMap(STATS);
+    }
+
+    /**
+     * 모든 통계를 0 으로 초기화합니다.
+     */
+    public static void reset() {
+        STATS.values().forEach(ContentionStats::reset);
+    }
+}
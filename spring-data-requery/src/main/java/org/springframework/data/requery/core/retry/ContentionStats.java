@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.core.retry;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 엔티티 타입별 optimistic lock 경합 통계. {@link OptimisticRetry}가 기록합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+public class ContentionStats {
+
+    @Getter
+    private final Class<?> entityType;
+
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+    private final LongAdder backoffMillis = new LongAdder();
+
+    ContentionStats(final Class<?> entityType) {
+        this.entityType = entityType;
+    }
+
+    /**
+     * 엔티티를 읽고 수정하여 쓰기를 시도한 횟수
+     */
+    public long getAttempts() {
+        return attempts.sum();
+    }
+
+    /**
+     * version 충돌로 실패한 쓰기 횟수
+     */
+    public long getConflicts() {
+        return conflicts.sum();
+    }
+
+    /**
+     * 충돌 후 다시 시도한 횟수
+     */
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    /**
+     * 최대 시도 횟수를 넘겨 포기한 엔티티 수
+     */
+    public long getExhausted() {
+        return exhausted.sum();
+    }
+
+    /**
+     * 재시도 전에 대기한 시간의 합
+     */
+    public long getBackoffMillis() {
+        return backoffMillis.sum();
+    }
+
+    /**
+     * 쓰기 시도 중 충돌 비율 (0.0 ~ 1.0)
+     */
+    public double getConflictRatio() {
+        long attempted = getAttempts();
+        return (attempted > 0) ? (double) getConflicts() / attempted : 0.0;
+    }
+
+    void recordAttempts(final int count) {
+        attempts.add(count);
+    }
+
+    void recordConflicts(final int count) {
+        conflicts.add(count);
+    }
+
+    void recordRetries(final int count, final long backoff) {
+        retries.add(count);
+        backoffMillis.add(backoff);
+    }
+
+    void recordExhausted(final int count) {
+        exhausted.add(count);
+    }
+
+    void reset() {
+        attempts.reset();
+        conflicts.reset();
+        retries.reset();
+        exhausted.reset();
+        backoffMillis.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "ContentionStats{" +
+               "entityType=" + entityType.getSimpleName() +
+               ", attempts=" + getAttempts() +
+               ", conflicts=" + getConflicts() +
+               ", retries=" + getRetries() +
+               ", exhausted=" + getExhausted() +
+               ", backoffMillis=" + getBackoffMillis() +
+               '}';
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.core.retry;
+
+import io.requery.TransactionIsolation;
+import io.requery.EntityCache;
+import io.requery.meta.QueryAttribute;
+import io.requery.meta.Type;
+import io.requery.sql.OptimisticLockException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.utils.IdBatches;
+import org.springframework.data.requery.utils.RequeryUtils;
+import org.springframework.data.requery.utils.SqlParameterLimits;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * {@code @Version} 속성이 있는 엔티티를 다시 읽고, 수정하고, 저장하는 작업을 version 충돌 시 재시도합니다.
+ * <p>
+ * 엔티티마다 별도의 transaction 으로 저장하므로 한 엔티티의 충돌이 다른 엔티티의 저장을 되돌리지 않습니다.
+ * 충돌한 엔티티들은 모아서 한 번 대기한 후 {@code WHERE key IN (...)} 한 번으로 다시 읽어 재시도합니다.
+ * 대기 시간은 시도 횟수에 따라 지수적으로 늘어나고 ({@link #maxBackoff(long, TimeUnit)}까지), 동시에 충돌한 요청들이
+ * 같은 시점에 다시 부딪히지 않도록 {@link #jitter(double)} 비율만큼 무작위로 줄입니다.
+ * 충돌 통계는 엔티티 타입별로 {@link ContentionMetrics}에 기록합니다.
+ * <p>
+ * {@code mutator}는 재시도할 때마다 새로 읽은 엔티티에 다시 적용되므로, 현재 값을 기준으로 변경해야 합니다.
+ * 호출 thread 에 이미 transaction 이 있으면 모든 시도가 그 transaction 에 참여하므로 충돌 후 다시 읽어도 같은 행을 볼 수 있습니다.
+ *
+ * <pre>{@code
+ * Inventory inventory = operations.optimisticRetry()
+ *     .maxAttempts(10)
+ *     .update(Inventory.class, itemId, it -> it.setStock(it.getStock() - 1));
+ * }</pre>
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+public class OptimisticRetry {
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 5;
+    public static final long DEFAULT_INITIAL_BACKOFF_MILLIS = 10L;
+    public static final long DEFAULT_MAX_BACKOFF_MILLIS = 1000L;
+    public static final double DEFAULT_MULTIPLIER = 2.0;
+    public static final double DEFAULT_JITTER = 0.5;
+
+    private final RequeryOperations operations;
+
+    private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    private long initialBackoffMillis = DEFAULT_INITIAL_BACKOFF_MILLIS;
+    private long maxBackoffMillis = DEFAULT_MAX_BACKOFF_MILLIS;
+    private double multiplier = DEFAULT_MULTIPLIER;
+    private double jitter = DEFAULT_JITTER;
+    @Nullable private TransactionIsolation isolation;
+
+    public OptimisticRetry(@Nonnull final RequeryOperations operations) {
+        Assert.notNull(operations, "operations must not be null!");
+        this.operations = operations;
+    }
+
+    /**
+     * 엔티티 하나에 대해 최대 시도 횟수 (첫 시도 포함, 기본 {@link #DEFAULT_MAX_ATTEMPTS})
+     */
+    public OptimisticRetry maxAttempts(final int maxAttempts) {
+        Assert.isTrue(maxAttempts > 0, "maxAttempts must be greater than 0.");
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    /**
+     * 첫 재시도 전 대기 시간 (기본 {@link #DEFAULT_INITIAL_BACKOFF_MILLIS} ms)
+     */
+    public OptimisticRetry initialBackoff(final long backoff, @Nonnull final TimeUnit unit) {
+        Assert.isTrue(backoff >= 0, "backoff must not be negative.");
+        this.initialBackoffMillis = unit.toMillis(backoff);
+        return this;
+    }
+
+    /**
+     * 재시도 전 대기 시간의 상한 (기본 {@link #DEFAULT_MAX_BACKOFF_MILLIS} ms)
+     */
+    public OptimisticRetry maxBackoff(final long backoff, @Nonnull final TimeUnit unit) {
+        Assert.isTrue(backoff >= 0, "backoff must not be negative.");
+        this.maxBackoffMillis = unit.toMillis(backoff);
+        return this;
+    }
+
+    /**
+     * 재시도마다 대기 시간을 늘리는 배수 (기본 {@link #DEFAULT_MULTIPLIER})
+     */
+    public OptimisticRetry multiplier(final double multiplier) {
+        Assert.isTrue(multiplier >= 1.0, "multiplier must be greater than or equal to 1.0");
+        this.multiplier = multiplier;
+        return this;
+    }
+
+    /**
+     * 대기 시간에서 무작위로 줄이는 최대 비율 (0.0 ~ 1.0, 기본 {@link #DEFAULT_JITTER}). 0 이면 항상 같은 시간만큼 대기합니다.
+     */
+    public OptimisticRetry jitter(final double jitter) {
+        Assert.isTrue(jitter >= 0.0 && jitter <= 1.0, "jitter must be between 0.0 and 1.0");
+        this.jitter = jitter;
+        return this;
+    }
+
+    public OptimisticRetry isolation(@Nullable final TransactionIsolation isolation) {
+        this.isolation = isolation;
+        return this;
+    }
+
+    /**
+     * {@code id}의 엔티티를 읽어 {@code mutator}를 적용하고 저장합니다. version 충돌 시 다시 읽어 재시도합니다.
+     *
+     * @throws EmptyResultDataAccessException     엔티티가 없는 경우
+     * @throws OptimisticLockingFailureException 최대 시도 횟수까지 충돌한 경우
+     */
+    @Nonnull
+    public <E> E update(@Nonnull final Class<E> entityType,
+                        @Nonnull final Object id,
+                        @Nonnull final Consumer<? super E> mutator) {
+        Assert.notNull(id, "id must not be null!");
+
+        E entity = execute(entityType, Collections.singletonList(id), mutator).get(id);
+        if (entity == null) {
+            throw new EmptyResultDataAccessException(String.format("No %s entity with id %s exists!", entityType.getName(), id), 1);
+        }
+        return entity;
+    }
+
+    /**
+     * {@code ids}의 엔티티들에 {@code mutator}를 적용하고 각각 저장합니다. 충돌한 엔티티들만 모아 다시 읽어 재시도하며,
+     * 존재하지 않는 id 는 무시합니다.
+     *
+     * @return 저장된 엔티티 목록 (중복을 제거한 id 순서)
+     * @throws OptimisticLockingFailureException 최대 시도 횟수까지 충돌한 엔티티가 있는 경우. 나머지 엔티티는 이미 저장되어 있습니다.
+     */
+    @Nonnull
+    public <E> List<E> updateAll(@Nonnull final Class<E> entityType,
+                                 @Nonnull final Iterable<?> ids,
+                                 @Nonnull final Consumer<? super E> mutator) {
+        List<?> distinctIds = IdBatches.distinct(ids);
+        Map<Object, E> updated = execute(entityType, distinctIds, mutator);
+
+        List<E> entities = new ArrayList<>(updated.size());
+        for (Object id : distinctIds) {
+            E entity = updated.get(id);
+            if (entity != null) {
+                entities.add(entity);
+            }
+        }
+        return entities;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    private <E> Map<Object, E> execute(@Nonnull final Class<E> entityType,
+                                       @Nonnull final List<?> ids,
+                                       @Nonnull final Consumer<? super E> mutator) {
+        Assert.notNull(entityType, "entityType must not be null!");
+        Assert.notNull(mutator, "mutator must not be null!");
+
+        if (operations.getDataStore().transaction().active()) {
+            log.warn("Transaction is active already, so retries join the current transaction. entityType={}", entityType.getName());
+        }
+
+        final Type<E> type = operations.getEntityModel().typeOf(entityType);
+        final QueryAttribute<E, Object> keyAttribute = (QueryAttribute<E, Object>) type.getSingleKeyAttribute();
+        final ContentionStats stats = ContentionMetrics.of(entityType);
+        final Map<Object, E> updated = new HashMap<>();
+
+        List<Object> pending = Collections.unmodifiableList(ids);
+        int attempt = 1;
+        while (!pending.isEmpty()) {
+            List<E> entities = load(entityType, keyAttribute, pending);
+            stats.recordAttempts(entities.size());
+
+            List<Object> conflicted = new ArrayList<>();
+            RuntimeException conflict = null;
+            for (E entity : entities) {
+                Object id = type.getProxyProvider().apply(entity).key();
+                try {
+                    updated.put(id, operations.runInTransaction(() -> {
+                        mutator.accept(entity);
+                        return operations.update(entity);
+                    }, isolation));
+                } catch (RuntimeException e) {
+                    if (!isOptimisticLockFailure(e)) {
+                        throw e;
+                    }
+                    conflicted.add(id);
+                    conflict = e;
+                    evict(type, id);
+                }
+            }
+            if (conflicted.isEmpty()) {
+                break;
+            }
+
+            stats.recordConflicts(conflicted.size());
+            if (attempt >= maxAttempts) {
+                stats.recordExhausted(conflicted.size());
+                throw new OptimisticLockingFailureException(
+                    String.format("Fail to update %s after %d attempts. ids=%s", entityType.getSimpleName(), attempt, conflicted),
+                    conflict);
+            }
+
+            long backoff = backoffMillis(attempt);
+            stats.recordRetries(conflicted.size(), backoff);
+            if (log.isDebugEnabled()) {
+                log.debug("Version conflict. entityType={}, attempt={}, conflicted={}, backoff={}ms",
+                          entityType.getSimpleName(), attempt, conflicted.size(), backoff);
+            }
+            sleep(backoff);
+
+            pending = conflicted;
+            attempt++;
+        }
+        return updated;
+    }
+
+    /**
+     * {@code attempt} 번째 시도가 충돌한 후 대기할 시간
+     */
+    long backoffMillis(final int attempt) {
+        double exponential = initialBackoffMillis * Math.pow(multiplier, attempt - 1);
+        long backoff = (long) Math.min(maxBackoffMillis, exponential);
+        if (jitter > 0.0 && backoff > 0) {
+            long spread = (long) (backoff * jitter);
+            backoff = backoff - spread + ThreadLocalRandom.current().nextLong(spread + 1);
+        }
+        return backoff;
+    }
+
+    @Nonnull
+    private <E> List<E> load(@Nonnull final Class<E> entityType,
+                             @Nonnull final QueryAttribute<E, Object> keyAttribute,
+                             @Nonnull final List<Object> ids) {
+        int maxInListSize = SqlParameterLimits.getMaxInListSize(operations.getDataStore());
+
+        List<E> entities = new ArrayList<>(ids.size());
+        for (List<Object> chunk : IdBatches.partition(ids, maxInListSize)) {
+            entities.addAll(operations
+                                .select(entityType)
+                                .where(keyAttribute.in(chunk))
+                                .get()
+                                .toList());
+        }
+        return entities;
+    }
+
+    /**
+     * 충돌한 엔티티는 수정된 상태이므로, 다시 읽을 때 새 인스턴스를 만들도록 entity cache 에서 제거합니다.
+     */
+    private void evict(@Nonnull final Type<?> type, @Nonnull final Object id) {
+        if (type.isCacheable()) {
+            EntityCache cache = RequeryUtils.getEntityContext(operations.getDataStore()).getCache();
+            cache.invalidate(type.getClassType(), id);
+        }
+    }
+
+    private static boolean isOptimisticLockFailure(@Nullable final Throwable error) {
+        Throwable cause = error;
+        while (cause != null) {
+            if (cause instanceof OptimisticLockException || cause instanceof OptimisticLockingFailureException) {
+                return true;
+            }
+            cause = (cause.getCause() != cause) ? cause.getCause() : null;
+        }
+        return false;
+    }
+
+    private static void sleep(final long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OptimisticLockingFailureException("Interrupted while waiting to retry.", e);
+        }
+    }
+}
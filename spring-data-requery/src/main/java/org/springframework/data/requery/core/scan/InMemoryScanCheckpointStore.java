@@ -0,0 +1,67 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core.scan;
+
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 메모리에 checkpoint 를 보관하는 {@link ScanCheckpointStore}. 같은 프로세스 안에서 중단된 scan 을 이어서 할 때 사용합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+public class InMemoryScanCheckpointStore implements ScanCheckpointStore {
+
+    private final Map<String, Map<Integer, ScanCheckpoint>> checkpoints = new ConcurrentHashMap<>();
+
+    @Nonnull
+    @Override
+    public List<ScanCheckpoint> load(@Nonnull final String scanId) {
+        Assert.notNull(scanId, "scanId must not be null!");
+
+        Map<Integer, ScanCheckpoint> partitions = checkpoints.get(scanId);
+        if (partitions == null) {
+            return Collections.emptyList();
+        }
+        List<ScanCheckpoint> loaded = new ArrayList<>(partitions.values());
+        loaded.sort(Comparator.comparingInt(ScanCheckpoint::getPartition));
+        return loaded;
+    }
+
+    @Override
+    public void save(@Nonnull final String scanId, @Nonnull final ScanCheckpoint checkpoint) {
+        Assert.notNull(scanId, "scanId must not be null!");
+        Assert.notNull(checkpoint, "checkpoint must not be null!");
+
+        checkpoints.computeIfAbsent(scanId, id -> new ConcurrentHashMap<>()).put(checkpoint.getPartition(), checkpoint);
+    }
+
+    @Override
+    public void clear(@Nonnull final String scanId) {
+        Assert.notNull(scanId, "scanId must not be null!");
+        checkpoints.remove(scanId);
+    }
+}
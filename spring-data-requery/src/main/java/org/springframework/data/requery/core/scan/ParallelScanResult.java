@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core.scan;
+
+import lombok.Getter;
+
+/**
+ * {@link ParallelScanner} 실행 결과
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Getter
+public class ParallelScanResult {
+
+    private final long scannedRows;
+    private final long chunks;
+    private final int partitions;
+    /**
+     * checkpoint 에서 이어서 처리한 partition 수 (이미 끝난 partition 포함)
+     */
+    private final int resumedPartitions;
+    private final long elapsedMillis;
+
+    ParallelScanResult(final long scannedRows,
+                       final long chunks,
+                       final int partitions,
+                       final int resumedPartitions,
+                       final long elapsedMillis) {
+        this.scannedRows = scannedRows;
+        this.chunks = chunks;
+        this.partitions = partitions;
+        this.resumedPartitions = resumedPartitions;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * 초당 처리한 행 수
+     */
+    public double getRowsPerSecond() {
+        return (elapsedMillis > 0) ? scannedRows * 1000.0 / elapsedMillis : scannedRows;
+    }
+
+    @Override
+    public String toString() {
+        return "ParallelScanResult{" +
+               "scannedRows=" + scannedRows +
+               ", chunks=" + chunks +
+               ", partitions=" + partitions +
+               ", resumedPartitions=" + resumedPartitions +
+               ", elapsedMillis=" + elapsedMillis +
+               '}';
+    }
+}
@@ -0,0 +1,448 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core.scan;
+
+import io.requery.meta.Attribute;
+import io.requery.meta.QueryAttribute;
+import io.requery.meta.Type;
+import io.requery.query.Condition;
+import io.requery.query.LogicalCondition;
+import io.requery.query.NamedExpression;
+import io.requery.query.Result;
+import io.requery.query.Tuple;
+import io.requery.query.element.QueryElement;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.requery.RequeryExecutionException;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.utils.RequeryUtils;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import static org.springframework.data.requery.utils.RequeryUtils.unwrap;
+
+/**
+ * 테이블 전체를 key 구간(partition)으로 나누어 병렬로 처리하는 scanner 입니다.
+ * <p>
+ * {@link RequeryUtils#getKeyExpression(Class)}로 찾은 {@code @Key} 속성의 최소/최대 값으로 key 범위를 나누고,
+ * partition 마다 {@link ForkJoinPool}의 worker 에서 {@code key > lastKey ORDER BY key LIMIT chunkSize} 로 chunk 를 읽어 consumer 에 전달합니다.
+ * OFFSET 을 사용하지 않으므로 테이블이 커져도 chunk 를 읽는 비용이 일정하고, 각 worker 는 chunk 마다 자신의 connection 을 사용합니다.
+ * 정수형이 아닌 key 는 범위를 나눌 수 없으므로 하나의 partition 으로 처리합니다.
+ * <p>
+ * {@link ScanCheckpointStore}를 지정하면 chunk 를 처리할 때마다 partition 별 마지막 key 를 저장하고,
+ * 같은 {@code scanId}로 다시 실행하면 끝나지 않은 partition 의 마지막 key 다음부터 이어서 처리합니다.
+ * checkpoint 는 consumer 가 chunk 처리를 마친 후에 저장하므로, 중단된 chunk 는 다시 전달될 수 있습니다.
+ *
+ * <pre>{@code
+ * ParallelScanResult result = operations.parallelScanner(Log.class)
+ *     .condition(Log.CREATED_AT.lt(threshold))
+ *     .chunkSize(1000)
+ *     .parallelism(8)
+ *     .checkpoint(checkpointStore, "log-compaction")
+ *     .scan(logs -> compact(logs));
+ * }</pre>
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+public class ParallelScanner<E> {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    /**
+     * partition 수를 지정하지 않았을 때 worker 당 partition 수. key 분포가 고르지 않아도 worker 들이 골고루 일하도록 worker 수보다 많이 나눕니다.
+     */
+    public static final int PARTITIONS_PER_WORKER = 4;
+
+    private static final AtomicInteger SCANNER_SEQ = new AtomicInteger();
+
+    private final RequeryOperations operations;
+    private final Class<E> domainClass;
+    private final QueryAttribute<E, Object> keyAttribute;
+
+    @Nullable private Condition<?, ?> condition;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int partitions = 0;
+    private boolean readOnly = false;
+    private boolean transactional = false;
+    @Nullable private ScanCheckpointStore checkpointStore;
+    @Nullable private String scanId;
+    @Nullable private ForkJoinPool pool;
+
+    public ParallelScanner(@Nonnull final RequeryOperations operations, @Nonnull final Class<E> domainClass) {
+        Assert.notNull(operations, "operations must not be null!");
+        Assert.notNull(domainClass, "domainClass must not be null!");
+
+        this.operations = operations;
+        this.domainClass = domainClass;
+        this.keyAttribute = findKeyAttribute(operations.getEntityModel().typeOf(domainClass));
+    }
+
+    /**
+     * scan 할 엔티티의 조건. 지정하지 않으면 모든 엔티티를 scan 합니다.
+     */
+    public ParallelScanner<E> condition(@Nullable final Condition<?, ?> condition) {
+        this.condition = condition;
+        return this;
+    }
+
+    /**
+     * 한번에 읽어 consumer 에 전달할 엔티티 수 (기본 {@link #DEFAULT_CHUNK_SIZE})
+     */
+    public ParallelScanner<E> chunkSize(final int chunkSize) {
+        Assert.isTrue(chunkSize > 0, "chunkSize must be greater than 0.");
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * 동시에 partition 을 처리하는 worker 수 (기본 CPU core 수). connection pool 크기를 넘지 않도록 지정해야 합니다.
+     */
+    public ParallelScanner<E> parallelism(final int parallelism) {
+        Assert.isTrue(parallelism > 0, "parallelism must be greater than 0.");
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * key 범위를 나눌 partition 수 (기본 {@code parallelism * }{@link #PARTITIONS_PER_WORKER}).
+     * checkpoint 에서 이어서 처리할 때는 처음 실행할 때 나눈 partition 을 그대로 사용합니다.
+     */
+    public ParallelScanner<E> partitions(final int partitions) {
+        Assert.isTrue(partitions > 0, "partitions must be greater than 0.");
+        this.partitions = partitions;
+        return this;
+    }
+
+    /**
+     * true 이면 {@link RequeryOperations#selectReadOnly(Class, QueryAttribute[])} 로 속성 값만 채운 엔티티를 전달합니다.
+     */
+    public ParallelScanner<E> readOnly(final boolean readOnly) {
+        this.readOnly = readOnly;
+        return this;
+    }
+
+    /**
+     * true 이면 chunk 조회와 consumer 실행을 하나의 transaction 으로 묶습니다. consumer 에서 엔티티를 수정할 때 사용합니다.
+     */
+    public ParallelScanner<E> transactional(final boolean transactional) {
+        this.transactional = transactional;
+        return this;
+    }
+
+    /**
+     * partition 별 진행 상태를 {@code checkpointStore}에 {@code scanId}로 저장합니다. scan 이 모두 끝나면 checkpoint 를 삭제합니다.
+     */
+    public ParallelScanner<E> checkpoint(@Nonnull final ScanCheckpointStore checkpointStore, @Nonnull final String scanId) {
+        Assert.notNull(checkpointStore, "checkpointStore must not be null!");
+        Assert.hasText(scanId, "scanId must not be empty!");
+        this.checkpointStore = checkpointStore;
+        this.scanId = scanId;
+        return this;
+    }
+
+    /**
+     * worker 로 사용할 {@link ForkJoinPool}. 지정하지 않으면 scan 시마다 {@code parallelism} 크기의 pool 을 생성합니다.
+     * 지정한 pool 은 scan 후에 shutdown 하지 않습니다.
+     */
+    public ParallelScanner<E> pool(@Nullable final ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    /**
+     * 모든 partition 을 scan 하여 chunk 단위로 {@code consumer}에 전달합니다. {@code consumer}는 여러 thread 에서 동시에 호출됩니다.
+     * chunk 처리가 실패하면 나머지 partition 의 처리를 멈추고 {@link RequeryExecutionException}을 던집니다.
+     */
+    @Nonnull
+    public ParallelScanResult scan(@Nonnull final Consumer<? super List<E>> consumer) {
+        Assert.notNull(consumer, "consumer must not be null!");
+
+        List<ScanCheckpoint> plan = loadCheckpoints();
+        final int resumed = plan.size();
+        if (plan.isEmpty()) {
+            plan = planPartitions();
+            plan.forEach(this::saveCheckpoint);
+        } else {
+            log.info("Resume parallel scan. domainClass={}, scanId={}, partitions={}", domainClass.getSimpleName(), scanId, resumed);
+        }
+
+        Progress progress = new Progress();
+        final boolean ownPool = (pool == null);
+        final ForkJoinPool workers = ownPool ? new ForkJoinPool(parallelism, newThreadFactory(), null, false) : pool;
+        try {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(plan.size());
+            for (ScanCheckpoint checkpoint : plan) {
+                if (checkpoint.isCompleted()) {
+                    continue;
+                }
+                tasks.add(workers.submit(() -> scanPartition(checkpoint, consumer, progress)));
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            progress.error.compareAndSet(null, new RequeryExecutionException("Parallel scan is interrupted.", e));
+            throw new RequeryExecutionException("Parallel scan is interrupted. " + progress.toResult(plan.size(), resumed), e);
+        } catch (ExecutionException e) {
+            throw new RequeryExecutionException("Fail to scan " + domainClass.getSimpleName() + ".", e.getCause());
+        } finally {
+            if (ownPool) {
+                workers.shutdownNow();
+            }
+        }
+
+        ParallelScanResult result = progress.toResult(plan.size(), resumed);
+        progress.rethrowIfFailed(result);
+
+        if (checkpointStore != null) {
+            checkpointStore.clear(scanId);
+        }
+        log.debug("Parallel scan finished. domainClass={}, chunkSize={}, parallelism={}, result={}",
+                  domainClass.getSimpleName(), chunkSize, parallelism, result);
+        return result;
+    }
+
+    private void scanPartition(@Nonnull final ScanCheckpoint initial,
+                               @Nonnull final Consumer<? super List<E>> consumer,
+                               @Nonnull final Progress progress) {
+        ScanCheckpoint checkpoint = initial;
+        try {
+            while (progress.error.get() == null && !Thread.currentThread().isInterrupted()) {
+                List<E> chunk = processChunk(checkpoint, consumer);
+                if (chunk.isEmpty()) {
+                    saveCheckpoint(checkpoint.complete());
+                    return;
+                }
+
+                Object lastKey = keyAttribute.getProperty().get(chunk.get(chunk.size() - 1));
+                boolean completed = chunk.size() < chunkSize;
+                checkpoint = checkpoint.advance(lastKey, chunk.size(), completed);
+                saveCheckpoint(checkpoint);
+
+                progress.rows.add(chunk.size());
+                progress.chunks.increment();
+                if (completed) {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Fail to scan partition. domainClass={}, checkpoint={}", domainClass.getSimpleName(), checkpoint, e);
+            progress.error.compareAndSet(null, e);
+        }
+    }
+
+    @Nonnull
+    private List<E> processChunk(@Nonnull final ScanCheckpoint checkpoint, @Nonnull final Consumer<? super List<E>> consumer) {
+        if (!transactional) {
+            List<E> chunk = readChunk(checkpoint);
+            if (!chunk.isEmpty()) {
+                consumer.accept(chunk);
+            }
+            return chunk;
+        }
+        return operations.runInTransaction(() -> {
+            List<E> chunk = readChunk(checkpoint);
+            if (!chunk.isEmpty()) {
+                consumer.accept(chunk);
+            }
+            return chunk;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    private List<E> readChunk(@Nonnull final ScanCheckpoint checkpoint) {
+        QueryElement<? extends Result<E>> query = (QueryElement<? extends Result<E>>) unwrap(
+            readOnly ? operations.selectReadOnly(domainClass) : operations.select(domainClass));
+
+        Condition<?, ?> where = getRangeCondition(checkpoint);
+        if (where != null) {
+            query.where(where);
+        }
+        query.orderBy(keyAttribute.asc()).limit(chunkSize);
+
+        Result<E> result = query.get();
+        try {
+            return result.toList();
+        } finally {
+            result.close();
+        }
+    }
+
+    /**
+     * partition 범위와 사용자 조건을 묶은 조건. 사용자 조건은 괄호로 묶이도록 마지막 operand 로 둡니다.
+     */
+    @Nullable
+    private Condition<?, ?> getRangeCondition(@Nonnull final ScanCheckpoint checkpoint) {
+        LogicalCondition<?, ?> range = null;
+        if (checkpoint.getLastKey() != null) {
+            range = keyAttribute.gt(checkpoint.getLastKey());
+        } else if (checkpoint.getLowerBound() != null) {
+            range = keyAttribute.gte(checkpoint.getLowerBound());
+        }
+        if (checkpoint.getUpperBound() != null) {
+            LogicalCondition<?, ?> upper = keyAttribute.lt(checkpoint.getUpperBound());
+            range = (range == null) ? upper : range.and(upper);
+        }
+
+        if (range == null) {
+            return condition;
+        }
+        return (condition == null) ? range : range.and(condition);
+    }
+
+    @Nonnull
+    private List<ScanCheckpoint> planPartitions() {
+        int count = (partitions > 0) ? partitions : parallelism * PARTITIONS_PER_WORKER;
+        if (count == 1 || !isIntegral(keyAttribute.getClassType())) {
+            return Collections.singletonList(ScanCheckpoint.of(0, null, null));
+        }
+
+        Result<Tuple> rangeResult = (condition != null)
+                                    ? operations.select(keyAttribute.min(), keyAttribute.max()).from(domainClass).where(condition).get()
+                                    : operations.select(keyAttribute.min(), keyAttribute.max()).from(domainClass).get();
+        Tuple range = rangeResult.firstOrNull();
+        rangeResult.close();
+
+        Number min = (range != null) ? range.get(0) : null;
+        Number max = (range != null) ? range.get(1) : null;
+        if (min == null || max == null) {
+            return Collections.singletonList(ScanCheckpoint.of(0, null, null));
+        }
+
+        long width = max.longValue() - min.longValue() + 1;
+        if (width <= 0) {
+            // overflow
+            return Collections.singletonList(ScanCheckpoint.of(0, null, null));
+        }
+        long step = (width + count - 1) / count;
+        count = (int) ((width + step - 1) / step);
+
+        // 첫 partition 과 마지막 partition 은 범위를 열어두어, 계획 이후에 추가된 key 도 처리합니다.
+        List<ScanCheckpoint> plan = new ArrayList<>(count);
+        Object lower = null;
+        for (int i = 0; i < count; i++) {
+            Object upper = (i < count - 1) ? toKey(min.longValue() + step * (i + 1)) : null;
+            plan.add(ScanCheckpoint.of(i, lower, upper));
+            lower = upper;
+        }
+        log.debug("Plan parallel scan. domainClass={}, min={}, max={}, partitions={}", domainClass.getSimpleName(), min, max, count);
+        return plan;
+    }
+
+    @Nonnull
+    private List<ScanCheckpoint> loadCheckpoints() {
+        return (checkpointStore != null) ? new ArrayList<>(checkpointStore.load(scanId)) : new ArrayList<>();
+    }
+
+    private void saveCheckpoint(@Nonnull final ScanCheckpoint checkpoint) {
+        if (checkpointStore != null) {
+            checkpointStore.save(scanId, checkpoint);
+        }
+    }
+
+    @Nonnull
+    private Object toKey(final long value) {
+        Class<?> keyType = keyAttribute.getClassType();
+        if (keyType == Integer.class || keyType == int.class) {
+            return (int) value;
+        }
+        if (keyType == Short.class || keyType == short.class) {
+            return (short) value;
+        }
+        if (keyType == Byte.class || keyType == byte.class) {
+            return (byte) value;
+        }
+        return value;
+    }
+
+    private static boolean isIntegral(@Nonnull final Class<?> keyType) {
+        return keyType == Integer.class || keyType == int.class ||
+               keyType == Long.class || keyType == long.class ||
+               keyType == Short.class || keyType == short.class ||
+               keyType == Byte.class || keyType == byte.class;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    private static <E> QueryAttribute<E, Object> findKeyAttribute(@Nonnull final Type<E> type) {
+        Assert.state(type.getKeyAttributes().size() == 1,
+                     "ParallelScanner requires a single @Key attribute. type=" + type.getName());
+
+        NamedExpression<?> keyExpression = RequeryUtils.getKeyExpression(type.getClassType());
+        for (Attribute<E, ?> attribute : type.getKeyAttributes()) {
+            if (attribute.getName().equals(keyExpression.getName())) {
+                return (QueryAttribute<E, Object>) attribute;
+            }
+        }
+        return (QueryAttribute<E, Object>) type.getSingleKeyAttribute();
+    }
+
+    @Nonnull
+    private static ForkJoinPool.ForkJoinWorkerThreadFactory newThreadFactory() {
+        final String prefix = "requery-parallel-scan-" + SCANNER_SEQ.incrementAndGet() + "-";
+        final AtomicInteger threadSeq = new AtomicInteger();
+
+        return pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(prefix + threadSeq.incrementAndGet());
+            return thread;
+        };
+    }
+
+    private static final class Progress {
+        private final long startNanos = System.nanoTime();
+
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder chunks = new LongAdder();
+        private final AtomicReference<RuntimeException> error = new AtomicReference<>();
+
+        void rethrowIfFailed(@Nonnull final ParallelScanResult result) {
+            RuntimeException e = error.get();
+            if (e != null) {
+                throw new RequeryExecutionException("Fail to scan. " + result, e);
+            }
+        }
+
+        @Nonnull
+        ParallelScanResult toResult(final int partitions, final int resumedPartitions) {
+            return new ParallelScanResult(rows.sum(),
+                                          chunks.sum(),
+                                          partitions,
+                                          resumedPartitions,
+                                          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        }
+    }
+}
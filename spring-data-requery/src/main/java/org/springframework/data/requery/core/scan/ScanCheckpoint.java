@@ -0,0 +1,89 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core.scan;
+
+import lombok.Getter;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.Serializable;
+
+/**
+ * {@link ParallelScanner}의 key 구간(partition)별 진행 상태. 불변 객체이며, chunk 를 처리할 때마다 새로운 인스턴스가 저장됩니다.
+ * <p>
+ * 구간은 {@code lowerBound <= key < upperBound} 이고, bound 가 null 이면 해당 방향으로 제한이 없습니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Getter
+public final class ScanCheckpoint implements Serializable {
+
+    private static final long serialVersionUID = 5174265530925563327L;
+
+    private final int partition;
+    @Nullable private final Object lowerBound;
+    @Nullable private final Object upperBound;
+    /**
+     * 마지막으로 처리한 엔티티의 key. 아직 처리한 chunk 가 없으면 null
+     */
+    @Nullable private final Object lastKey;
+    private final long scannedRows;
+    private final boolean completed;
+
+    public ScanCheckpoint(final int partition,
+                          @Nullable final Object lowerBound,
+                          @Nullable final Object upperBound,
+                          @Nullable final Object lastKey,
+                          final long scannedRows,
+                          final boolean completed) {
+        this.partition = partition;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+        this.lastKey = lastKey;
+        this.scannedRows = scannedRows;
+        this.completed = completed;
+    }
+
+    @Nonnull
+    static ScanCheckpoint of(final int partition, @Nullable final Object lowerBound, @Nullable final Object upperBound) {
+        return new ScanCheckpoint(partition, lowerBound, upperBound, null, 0L, false);
+    }
+
+    @Nonnull
+    ScanCheckpoint advance(@Nonnull final Object lastKey, final int rows, final boolean completed) {
+        return new ScanCheckpoint(partition, lowerBound, upperBound, lastKey, scannedRows + rows, completed);
+    }
+
+    @Nonnull
+    ScanCheckpoint complete() {
+        return new ScanCheckpoint(partition, lowerBound, upperBound, lastKey, scannedRows, true);
+    }
+
+    @Override
+    public String toString() {
+        return "ScanCheckpoint{" +
+               "partition=" + partition +
+               ", lowerBound=" + lowerBound +
+               ", upperBound=" + upperBound +
+               ", lastKey=" + lastKey +
+               ", scannedRows=" + scannedRows +
+               ", completed=" + completed +
+               '}';
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core.scan;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+/**
+ * {@link ParallelScanner}의 partition 별 진행 상태를 보관합니다.
+ * 프로세스가 재시작된 후에도 scan 을 이어서 하려면 DB, 파일 등 영속 저장소를 사용하는 구현체를 지정해야 합니다.
+ * 여러 worker thread 에서 서로 다른 partition 의 checkpoint 를 동시에 저장하므로 thread-safe 해야 합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+public interface ScanCheckpointStore {
+
+    /**
+     * {@code scanId}로 저장된 모든 partition 의 checkpoint. 없으면 빈 목록
+     */
+    @Nonnull
+    List<ScanCheckpoint> load(@Nonnull String scanId);
+
+    /**
+     * partition 의 checkpoint 를 저장합니다. 같은 partition 의 이전 checkpoint 는 대체합니다.
+     */
+    void save(@Nonnull String scanId, @Nonnull ScanCheckpoint checkpoint);
+
+    /**
+     * scan 이 모두 끝나면 {@code scanId}의 checkpoint 를 삭제합니다.
+     */
+    void clear(@Nonnull String scanId);
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.core.shard;
+
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+
+/**
+ * shard key 의 hash 값으로 shard 를 결정합니다. key 가 고르게 분포되지 않아도 shard 마다 비슷한 양이 저장되도록 hash 값을 한 번 더 섞습니다.
+ * shard 수를 바꾸면 대부분의 엔티티가 다른 shard 로 옮겨져야 합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+public class HashShardStrategy implements ShardStrategy {
+
+    public static final HashShardStrategy INSTANCE = new HashShardStrategy();
+
+    @Override
+    public int shardOf(@Nonnull final Object shardKey, final int shardCount) {
+        Assert.notNull(shardKey, "shardKey must not be null!");
+        Assert.isTrue(shardCount > 0, "shardCount must be greater than 0.");
+
+        return Math.floorMod(mix(shardKey.hashCode()), shardCount);
+    }
+
+    /**
+     * MurmurHash3 의 finalizer
+     */
+    private static int mix(final int hash) {
+        int h = hash;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.core.shard;
+
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * shard key 의 범위로 shard 를 결정합니다. {@code upperBounds[i]}보다 작은 key 는 i 번째 shard 에,
+ * 마지막 경계 이상인 key 는 마지막 shard 에 저장합니다. 따라서 경계는 shard 수보다 하나 적어야 합니다.
+ *
+ * <pre>{@code
+ * // [..1000) -> 0, [1000..2000) -> 1, [2000..) -> 2
+ * ShardStrategy strategy = RangeShardStrategy.of(1000L, 2000L);
+ * }</pre>
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+public class RangeShardStrategy implements ShardStrategy {
+
+    @SuppressWarnings("unchecked")
+    public static RangeShardStrategy of(@Nonnull final Comparable<?>... upperBounds) {
+        return new RangeShardStrategy(Arrays.asList(upperBounds));
+    }
+
+    private final List<Comparable<Object>> upperBounds;
+
+    @SuppressWarnings("unchecked")
+    public RangeShardStrategy(@Nonnull final List<? extends Comparable<?>> upperBounds) {
+        Assert.notEmpty(upperBounds, "upperBounds must not be empty!");
+
+        List<Comparable<Object>> bounds = new ArrayList<>(upperBounds.size());
+        for (Comparable<?> bound : upperBounds) {
+            Assert.notNull(bound, "upper bound must not be null!");
+            Comparable<Object> current = (Comparable<Object>) bound;
+            if (!bounds.isEmpty()) {
+                Assert.isTrue(bounds.get(bounds.size() - 1).compareTo(current) < 0, "upperBounds must be in ascending order.");
+            }
+            bounds.add(current);
+        }
+        this.upperBounds = Collections.unmodifiableList(bounds);
+    }
+
+    @Override
+    public int shardOf(@Nonnull final Object shardKey, final int shardCount) {
+        Assert.notNull(shardKey, "shardKey must not be null!");
+        Assert.isTrue(shardCount == upperBounds.size() + 1,
+                      "shardCount must be " + (upperBounds.size() + 1) + " for " + upperBounds.size() + " upper bounds.");
+
+        int low = 0;
+        int high = upperBounds.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (upperBounds.get(mid).compareTo(shardKey) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
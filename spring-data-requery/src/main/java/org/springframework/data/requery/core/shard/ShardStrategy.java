@@ -0,0 +1,36 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.core.shard;
+
+import javax.annotation.Nonnull;
+
+/**
+ * shard key 로 엔티티를 저장할 shard 를 결정합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@FunctionalInterface
+public interface ShardStrategy {
+
+    /**
+     * @param shardKey   엔티티의 shard key
+     * @param shardCount 전체 shard 수
+     * @return shard index (0 ~ shardCount - 1)
+     */
+    int shardOf(@Nonnull Object shardKey, int shardCount);
+}
@@ -0,0 +1,626 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.core.shard;
+
+import io.requery.meta.Attribute;
+import io.requery.meta.EntityModel;
+import io.requery.meta.QueryAttribute;
+import io.requery.meta.Type;
+import io.requery.query.Condition;
+import io.requery.query.Functional;
+import io.requery.query.OrderingExpression;
+import io.requery.query.Result;
+import io.requery.query.element.QueryElement;
+import io.requery.query.function.Upper;
+import io.requery.sql.Platform;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.requery.RequeryExecutionException;
+import org.springframework.data.requery.annotation.ShardKey;
+import org.springframework.data.requery.core.RequeryExecutors;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.utils.RequeryUtils;
+import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import static org.springframework.data.requery.utils.RequeryUtils.unwrap;
+
+/**
+ * 여러 database 에 나누어 저장한 엔티티를 다루는 operations 입니다. shard 마다 {@link RequeryOperations}를 하나씩 사용합니다.
+ * <p>
+ * 엔티티의 {@link ShardKey} 속성 (없으면 key 속성) 값을 {@link ShardStrategy}에 넘겨 shard 를 결정하고,
+ * {@link #findById(Class, Object)}, {@link #save(Object)}, {@link #delete(Object)}는 그 shard 에서만 실행합니다.
+ * shard key 가 key 속성이 아니면 id 만으로는 shard 를 알 수 없으므로 {@link #findById(Class, Object, Object)}를 사용하세요.
+ * <p>
+ * {@link #findAll(Class, Condition, Sort)}, {@link #findAll(Class, Condition, Pageable)}, {@link #count(Class, Condition)}는
+ * 모든 shard 에 동시에 실행한 후 결과를 합칩니다 (scatter-gather). 정렬된 조회는 shard 마다 정렬된 결과를 받아 병합하며,
+ * 같은 값끼리의 순서가 shard 마다 달라지지 않도록 key 속성을 마지막 정렬 조건으로 추가합니다.
+ * page 조회는 shard 마다 {@code offset + pageSize}건을 읽으므로 뒤쪽 page 일수록 비용이 커집니다.
+ * <p>
+ * 병합할 때와 같은 순서로 읽도록 shard 에 {@code NULLS FIRST/LAST}를 명시합니다. {@link Sort.NullHandling#NATIVE}는 null 을 가장 작은 값으로 봅니다.
+ * {@code NULLS FIRST/LAST}를 지원하지 않는 MySQL, SQL Server 는 null 이 가장 작은 값인 정렬만 사용할 수 있고,
+ * {@link Sort.Order#isIgnoreCase()}는 문자열 속성에만 {@code UPPER()}로 적용합니다. 병합할 수 없는 정렬은 {@link IllegalArgumentException}을 던집니다.
+ * 문자열은 {@link String#compareTo(String)}로 병합하므로 shard 의 collation 은 binary 여야 합니다.
+ * <p>
+ * shard 사이의 transaction 은 지원하지 않습니다. {@link #saveAll(Iterable)}은 shard 마다 별도의 transaction 으로 저장합니다.
+ * 생성되는 key ({@code @Generated})는 shard 마다 따로 증가하므로 key 로 shard 를 결정하는 엔티티는 key 를 직접 지정해야 합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+public class ShardedRequeryOperations {
+
+    private final List<RequeryOperations> shards;
+    private final ShardStrategy shardStrategy;
+    private Executor executor = RequeryExecutors.getDefaultExecutor();
+
+    private final Map<Class<?>, Attribute<?, ?>> shardKeyAttributes = new ConcurrentHashMap<>();
+
+    public ShardedRequeryOperations(@Nonnull final List<? extends RequeryOperations> shards) {
+        this(shards, HashShardStrategy.INSTANCE);
+    }
+
+    public ShardedRequeryOperations(@Nonnull final List<? extends RequeryOperations> shards,
+                                    @Nonnull final ShardStrategy shardStrategy) {
+        Assert.notEmpty(shards, "shards must not be empty!");
+        Assert.noNullElements(shards.toArray(), "shards must not contain null!");
+        Assert.notNull(shardStrategy, "shardStrategy must not be null!");
+
+        this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+        this.shardStrategy = shardStrategy;
+    }
+
+    /**
+     * scatter-gather 조회를 실행할 executor (기본은 {@link RequeryExecutors#getDefaultExecutor()})
+     */
+    public ShardedRequeryOperations executor(@Nonnull final Executor executor) {
+        Assert.notNull(executor, "executor must not be null!");
+        this.executor = executor;
+        return this;
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    @Nonnull
+    public List<RequeryOperations> getShards() {
+        return shards;
+    }
+
+    @Nonnull
+    public RequeryOperations getShard(final int index) {
+        return shards.get(index);
+    }
+
+    /**
+     * 모든 shard 가 공유하는 {@link EntityModel}
+     */
+    @Nonnull
+    public EntityModel getEntityModel() {
+        return shards.get(0).getEntityModel();
+    }
+
+    /**
+     * {@code shardKey}를 저장하는 shard 의 index
+     */
+    public int shardIndexOf(@Nonnull final Object shardKey) {
+        Assert.notNull(shardKey, "shardKey must not be null!");
+
+        int index = shardStrategy.shardOf(shardKey, shards.size());
+        Assert.state(index >= 0 && index < shards.size(), "Invalid shard index " + index + " for shardKey " + shardKey);
+        return index;
+    }
+
+    /**
+     * {@code shardKey}를 저장하는 shard
+     */
+    @Nonnull
+    public RequeryOperations shardFor(@Nonnull final Object shardKey) {
+        return shards.get(shardIndexOf(shardKey));
+    }
+
+    /**
+     * {@code entity}를 저장하는 shard
+     *
+     * @throws IllegalArgumentException 엔티티의 shard key 값이 null 인 경우
+     */
+    @Nonnull
+    public <E> RequeryOperations shardOf(@Nonnull final E entity) {
+        return shardFor(shardKeyOf(entity));
+    }
+
+    /**
+     * {@code entity}의 shard key 값
+     */
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    public <E> Object shardKeyOf(@Nonnull final E entity) {
+        Assert.notNull(entity, "entity must not be null!");
+
+        Attribute<E, ?> attribute = shardKeyAttribute((Class<E>) entity.getClass());
+        Object shardKey = attribute.getProperty().get(entity);
+        Assert.notNull(shardKey, () -> "Shard key must not be null. entity=" + entity + ", attribute=" + attribute.getName());
+        return shardKey;
+    }
+
+    /**
+     * id 로 엔티티를 찾습니다. shard key 가 key 속성이면 한 shard 에서만 찾고, 아니면 모든 shard 에서 찾습니다.
+     */
+    @Nullable
+    public <E> E findById(@Nonnull final Class<E> entityType, @Nonnull final Object id) {
+        Assert.notNull(id, "id must not be null!");
+
+        if (shardKeyAttribute(entityType).isKey()) {
+            return shardFor(id).findById(entityType, id);
+        }
+        for (E entity : scatter(shard -> shard.findById(entityType, id))) {
+            if (entity != null) {
+                return entity;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * {@code shardKey}의 shard 에서 id 로 엔티티를 찾습니다.
+     */
+    @Nullable
+    public <E> E findById(@Nonnull final Class<E> entityType, @Nonnull final Object shardKey, @Nonnull final Object id) {
+        Assert.notNull(id, "id must not be null!");
+        return shardFor(shardKey).findById(entityType, id);
+    }
+
+    /**
+     * 엔티티의 shard 에 저장합니다.
+     */
+    @Nonnull
+    public <E> E save(@Nonnull final E entity) {
+        return shardOf(entity).upsert(entity);
+    }
+
+    /**
+     * 엔티티들을 shard 별로 나누어 shard 마다 하나의 transaction 으로 동시에 저장합니다.
+     * 한 shard 의 저장이 실패해도 다른 shard 에 저장된 엔티티는 되돌리지 않습니다.
+     */
+    @Nonnull
+    public <E> List<E> saveAll(@Nonnull final Iterable<E> entities) {
+        Assert.notNull(entities, "entities must not be null!");
+
+        List<E> saved = new ArrayList<>();
+        List<List<E>> groups = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            groups.add(new ArrayList<>());
+        }
+        for (E entity : entities) {
+            groups.get(shardIndexOf(shardKeyOf(entity))).add(entity);
+            saved.add(entity);
+        }
+
+        List<CompletableFuture<List<E>>> futures = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            final RequeryOperations shard = shards.get(i);
+            final List<E> group = groups.get(i);
+            if (!group.isEmpty()) {
+                futures.add(CompletableFuture.supplyAsync(() -> shard.runInTransaction(() -> shard.upsertAll(group)), executor));
+            }
+        }
+        join(futures);
+        return saved;
+    }
+
+    /**
+     * 엔티티의 shard 에서 삭제합니다.
+     */
+    public <E> void delete(@Nonnull final E entity) {
+        shardOf(entity).delete(entity);
+    }
+
+    /**
+     * id 로 엔티티를 삭제합니다. shard key 가 key 속성이면 한 shard 에서만 삭제하고, 아니면 모든 shard 에서 삭제합니다.
+     *
+     * @return 삭제한 엔티티 수
+     */
+    public <E> int deleteById(@Nonnull final Class<E> entityType, @Nonnull final Object id) {
+        Assert.notNull(id, "id must not be null!");
+
+        QueryAttribute<E, Object> keyAttribute = keyAttribute(entityType);
+        if (shardKeyAttribute(entityType).isKey()) {
+            return shardFor(id).delete(entityType).where(keyAttribute.eq(id)).get().value();
+        }
+        return sum(scatter(shard -> shard.delete(entityType).where(keyAttribute.eq(id)).get().value()));
+    }
+
+    /**
+     * 모든 shard 의 엔티티를 삭제합니다.
+     *
+     * @return 삭제한 엔티티 수
+     */
+    public <E> int deleteAll(@Nonnull final Class<E> entityType) {
+        return sum(scatter(shard -> shard.deleteAll(entityType)));
+    }
+
+    /**
+     * 모든 shard 의 엔티티를 조회합니다. 순서는 보장하지 않습니다.
+     */
+    @Nonnull
+    public <E> List<E> findAll(@Nonnull final Class<E> entityType) {
+        List<E> entities = new ArrayList<>();
+        scatter(shard -> shard.findAll(entityType)).forEach(entities::addAll);
+        return entities;
+    }
+
+    /**
+     * 모든 shard 에서 {@code condition}을 만족하는 엔티티를 {@code sort} 순서로 조회합니다.
+     */
+    @Nonnull
+    public <E> List<E> findAll(@Nonnull final Class<E> entityType,
+                               @Nullable final Condition<?, ?> condition,
+                               @Nonnull final Sort sort) {
+        Assert.notNull(sort, "sort must not be null!");
+
+        List<SortKey<E>> sortKeys = sortKeysOf(entityType, sort);
+        List<List<E>> results = scatter(shard -> select(shard, entityType, condition, sortKeys, null));
+        return merge(results, comparatorOf(sortKeys), 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 모든 shard 에서 {@code condition}을 만족하는 엔티티 중 {@code pageable}의 page 를 조회합니다.
+     * shard 마다 {@code offset + pageSize}건을 정렬하여 읽고, 병합한 후 page 에 해당하는 엔티티만 남깁니다.
+     */
+    @Nonnull
+    public <E> Page<E> findAll(@Nonnull final Class<E> entityType,
+                               @Nullable final Condition<?, ?> condition,
+                               @Nonnull final Pageable pageable) {
+        Assert.notNull(pageable, "pageable must not be null!");
+
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(findAll(entityType, condition, pageable.getSort()));
+        }
+
+        final int fetchSize = Math.toIntExact(pageable.getOffset() + pageable.getPageSize());
+        List<SortKey<E>> sortKeys = sortKeysOf(entityType, pageable.getSort());
+        List<ShardSlice<E>> slices = scatter(shard -> new ShardSlice<>(
+            select(shard, entityType, condition, sortKeys, fetchSize),
+            count(shard, entityType, condition)));
+
+        List<List<E>> results = new ArrayList<>(slices.size());
+        long total = 0;
+        for (ShardSlice<E> slice : slices) {
+            results.add(slice.entities);
+            total += slice.total;
+        }
+
+        List<E> content = merge(results, comparatorOf(sortKeys), pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    public <E> long count(@Nonnull final Class<E> entityType) {
+        return count(entityType, null);
+    }
+
+    /**
+     * 모든 shard 에서 {@code condition}을 만족하는 엔티티 수를 동시에 세어 합칩니다.
+     */
+    public <E> long count(@Nonnull final Class<E> entityType, @Nullable final Condition<?, ?> condition) {
+        long total = 0;
+        for (Long count : scatter(shard -> count(shard, entityType, condition))) {
+            total += count;
+        }
+        return total;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <E> List<E> select(@Nonnull final RequeryOperations shard,
+                               @Nonnull final Class<E> entityType,
+                               @Nullable final Condition<?, ?> condition,
+                               @Nonnull final List<SortKey<E>> sortKeys,
+                               @Nullable final Integer limit) {
+        QueryElement<?> query = unwrap(shard.select(entityType));
+        if (condition != null) {
+            query = unwrap(query.where(condition));
+        }
+        query = unwrap(query.orderBy(orderingsOf(shard, sortKeys)));
+        if (limit != null) {
+            query = unwrap(query.limit(limit));
+        }
+        return ((QueryElement<? extends Result<E>>) query).get().toList();
+    }
+
+    private <E> long count(@Nonnull final RequeryOperations shard,
+                           @Nonnull final Class<E> entityType,
+                           @Nullable final Condition<?, ?> condition) {
+        return (condition != null)
+               ? shard.count(entityType).where(condition).get().value()
+               : shard.count(entityType).get().value();
+    }
+
+    /**
+     * {@code sort} 뒤에 key 속성을 추가한 정렬 기준. null 의 위치는 shard 의 기본 정렬에 맡기지 않고 여기서 정합니다.
+     *
+     * @throws IllegalArgumentException 엔티티에 없는 속성이거나, 문자열이 아닌 속성에 ignoreCase 를 지정한 경우
+     */
+    @SuppressWarnings("unchecked")
+    private <E> List<SortKey<E>> sortKeysOf(@Nonnull final Class<E> entityType, @Nonnull final Sort sort) {
+        Type<E> type = getEntityModel().typeOf(entityType);
+        List<SortKey<E>> sortKeys = new ArrayList<>();
+
+        for (Sort.Order order : sort) {
+            Attribute<E, ?> attribute = findAttribute(type, order.getProperty());
+            Assert.isTrue(attribute instanceof QueryAttribute,
+                          () -> "Sharded query can not sort by unknown property. property=" + order.getProperty());
+            Assert.isTrue(!order.isIgnoreCase() || attribute.getClassType() == String.class,
+                          () -> "ignoreCase is supported only for String property. property=" + order.getProperty());
+
+            boolean nullsFirst = (order.getNullHandling() == Sort.NullHandling.NATIVE)
+                                 ? order.isAscending()
+                                 : order.getNullHandling() == Sort.NullHandling.NULLS_FIRST;
+            sortKeys.add(new SortKey<>((QueryAttribute<E, Object>) attribute, order.isAscending(), order.isIgnoreCase(), nullsFirst));
+        }
+
+        QueryAttribute<E, Object> keyAttribute = keyAttribute(entityType);
+        if (sort.getOrderFor(keyAttribute.getPropertyName()) == null) {
+            sortKeys.add(new SortKey<>(keyAttribute, true, false, true));
+        }
+        return sortKeys;
+    }
+
+    /**
+     * {@code shard}에 전달할 정렬 조건. shard 의 platform 이 null 위치를 지정할 수 없으면 기본 위치 (가장 작은 값) 와 같은 경우만 허용합니다.
+     */
+    private static <E> OrderingExpression<?>[] orderingsOf(@Nonnull final RequeryOperations shard,
+                                                           @Nonnull final List<SortKey<E>> sortKeys) {
+        Platform platform = RequeryUtils.getEntityContext(shard.getDataStore()).getPlatform();
+        boolean supportsNullOrder = supportsNullOrdering(platform);
+
+        OrderingExpression<?>[] orderings = new OrderingExpression<?>[sortKeys.size()];
+        for (int i = 0; i < sortKeys.size(); i++) {
+            SortKey<E> sortKey = sortKeys.get(i);
+            Functional<Object> expression = sortKey.ignoreCase ? Upper.upper(sortKey.attribute) : sortKey.attribute;
+            OrderingExpression<Object> ordering = sortKey.ascending ? expression.asc() : expression.desc();
+
+            if (supportsNullOrder) {
+                ordering = sortKey.nullsFirst ? ordering.nullsFirst() : ordering.nullsLast();
+            } else if (sortKey.nullsFirst != sortKey.ascending) {
+                throw new IllegalArgumentException("Platform " + platform + " can not order nulls "
+                                                   + (sortKey.nullsFirst ? "first" : "last") + ". property="
+                                                   + sortKey.attribute.getPropertyName());
+            }
+            orderings[i] = ordering;
+        }
+        return orderings;
+    }
+
+    /**
+     * MySQL, SQL Server 는 {@code NULLS FIRST/LAST}를 지원하지 않고 null 을 가장 작은 값으로 정렬합니다.
+     */
+    private static boolean supportsNullOrdering(@Nonnull final Platform platform) {
+        switch (platform.toString()) {
+            case "MySQL":
+            case "SQLServer":
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * {@link #orderingsOf(RequeryOperations, List)}와 같은 순서로 엔티티를 비교합니다.
+     */
+    private static <E> Comparator<E> comparatorOf(@Nonnull final List<SortKey<E>> sortKeys) {
+        Comparator<E> comparator = null;
+        for (SortKey<E> sortKey : sortKeys) {
+            Comparator<E> current = sortKey.comparator();
+            comparator = (comparator == null) ? current : comparator.thenComparing(current);
+        }
+        return comparator;
+    }
+
+    @Nullable
+    private static <E> Attribute<E, ?> findAttribute(@Nonnull final Type<E> type, @Nonnull final String propertyName) {
+        for (Attribute<E, ?> attribute : type.getAttributes()) {
+            if (propertyName.equals(attribute.getPropertyName())) {
+                return attribute;
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <E> QueryAttribute<E, Object> keyAttribute(@Nonnull final Class<E> entityType) {
+        return (QueryAttribute<E, Object>) getEntityModel().typeOf(entityType).getSingleKeyAttribute();
+    }
+
+    /**
+     * {@link ShardKey}가 지정된 속성. 없으면 key 속성입니다.
+     */
+    @SuppressWarnings("unchecked")
+    private <E> Attribute<E, ?> shardKeyAttribute(@Nonnull final Class<E> entityType) {
+        Attribute<?, ?> attribute = shardKeyAttributes.get(entityType);
+        if (attribute == null) {
+            attribute = shardKeyAttributes.computeIfAbsent(entityType, this::findShardKeyAttribute);
+        }
+        return (Attribute<E, ?>) attribute;
+    }
+
+    private <E> Attribute<E, ?> findShardKeyAttribute(@Nonnull final Class<E> entityType) {
+        Type<E> type = getEntityModel().typeOf(entityType);
+        for (Attribute<E, ?> attribute : type.getAttributes()) {
+            if (isShardKey(entityType, attribute.getPropertyName())) {
+                log.debug("Shard key of {} is {}", entityType.getSimpleName(), attribute.getName());
+                return attribute;
+            }
+        }
+        return type.getSingleKeyAttribute();
+    }
+
+    private static boolean isShardKey(@Nonnull final Class<?> entityType, @Nonnull final String propertyName) {
+        Field field = ReflectionUtils.findField(entityType, propertyName);
+        if (field != null && field.isAnnotationPresent(ShardKey.class)) {
+            return true;
+        }
+        Method method = ReflectionUtils.findMethod(entityType, propertyName);
+        return method != null && AnnotatedElementUtils.hasAnnotation(method, ShardKey.class);
+    }
+
+    /**
+     * 정렬된 결과들을 병합하여 {@code offset}부터 {@code limit}건을 반환합니다.
+     */
+    private static <E> List<E> merge(@Nonnull final List<List<E>> sortedResults,
+                                     @Nonnull final Comparator<? super E> comparator,
+                                     final long offset,
+                                     final int limit) {
+        PriorityQueue<Cursor<E>> queue = new PriorityQueue<>(Math.max(1, sortedResults.size()),
+                                                             (left, right) -> comparator.compare(left.current(), right.current()));
+        for (List<E> result : sortedResults) {
+            if (!result.isEmpty()) {
+                queue.add(new Cursor<>(result));
+            }
+        }
+
+        List<E> merged = new ArrayList<>();
+        long skipped = 0;
+        while (!queue.isEmpty() && merged.size() < limit) {
+            Cursor<E> cursor = queue.poll();
+            E entity = cursor.current();
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                merged.add(entity);
+            }
+            if (cursor.advance()) {
+                queue.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * 모든 shard 에 {@code action}을 동시에 실행하고 shard 순서대로 결과를 반환합니다.
+     */
+    private <R> List<R> scatter(@Nonnull final Function<RequeryOperations, R> action) {
+        if (shards.size() == 1) {
+            return Collections.singletonList(action.apply(shards.get(0)));
+        }
+        List<CompletableFuture<R>> futures = new ArrayList<>(shards.size());
+        for (RequeryOperations shard : shards) {
+            futures.add(CompletableFuture.supplyAsync(() -> action.apply(shard), executor));
+        }
+        return join(futures);
+    }
+
+    private static <R> List<R> join(@Nonnull final List<CompletableFuture<R>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            Throwable cause = (e.getCause() != null) ? e.getCause() : e;
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RequeryExecutionException("Fail to execute on shards.", cause);
+        }
+
+        List<R> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<R> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    private static int sum(@Nonnull final List<Integer> counts) {
+        return counts.stream().filter(Objects::nonNull).mapToInt(Integer::intValue).sum();
+    }
+
+    private static final class ShardSlice<E> {
+        private final List<E> entities;
+        private final long total;
+
+        private ShardSlice(final List<E> entities, final long total) {
+            this.entities = entities;
+            this.total = total;
+        }
+    }
+
+    private static final class SortKey<E> {
+        private final QueryAttribute<E, Object> attribute;
+        private final boolean ascending;
+        private final boolean ignoreCase;
+        private final boolean nullsFirst;
+
+        private SortKey(final QueryAttribute<E, Object> attribute,
+                        final boolean ascending,
+                        final boolean ignoreCase,
+                        final boolean nullsFirst) {
+            this.attribute = attribute;
+            this.ascending = ascending;
+            this.ignoreCase = ignoreCase;
+            this.nullsFirst = nullsFirst;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Comparator<E> comparator() {
+            Comparator<Object> values = ignoreCase
+                                        ? Comparator.comparing(value -> ((String) value).toUpperCase(Locale.ROOT))
+                                        : (left, right) -> ((Comparable<Object>) left).compareTo(right);
+            if (!ascending) {
+                values = values.reversed();
+            }
+            values = nullsFirst ? Comparator.nullsFirst(values) : Comparator.nullsLast(values);
+            return Comparator.comparing(entity -> attribute.getProperty().get(entity), values);
+        }
+    }
+
+    private static final class Cursor<E> {
+        private final List<E> entities;
+        private int index;
+
+        private Cursor(final List<E> entities) {
+            this.entities = entities;
+        }
+
+        private E current() {
+            return entities.get(index);
+        }
+
+        private boolean advance() {
+            return ++index < entities.size();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.core.tenant;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.data.requery.RequeryExecutionException;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.Callable;
+
+/**
+ * 현재 thread 의 tenant key 를 보관합니다. web filter 나 message listener 에서 요청마다 지정하고 해제합니다.
+ *
+ * <pre>{@code
+ * TenantContextHolder.callAs("tenant-a", () -> repository.findAll());
+ * }</pre>
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@UtilityClass
+public class TenantContextHolder {
+
+    private static final ThreadLocal<String> TENANT = new ThreadLocal<>();
+
+    @Nullable
+    public static String getTenant() {
+        return TENANT.get();
+    }
+
+    public static void setTenant(@Nullable final String tenant) {
+        if (tenant != null) {
+            TENANT.set(tenant);
+        } else {
+            TENANT.remove();
+        }
+    }
+
+    public static void clear() {
+        TENANT.remove();
+    }
+
+    /**
+     * {@code tenant}를 현재 thread 에 지정하고 {@code callable}을 실행한 후 이전 tenant 로 되돌립니다.
+     */
+    public static <V> V callAs(@Nonnull final String tenant, @Nonnull final Callable<V> callable) {
+        Assert.hasText(tenant, "tenant must not be empty!");
+        Assert.notNull(callable, "callable must not be null!");
+
+        String previous = TENANT.get();
+        TENANT.set(tenant);
+        try {
+            return callable.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RequeryExecutionException("Fail to execute for tenant " + tenant, e);
+        } finally {
+            setTenant(previous);
+        }
+    }
+
+    public static void runAs(@Nonnull final String tenant, @Nonnull final Runnable runnable) {
+        Assert.notNull(runnable, "runnable must not be null!");
+        callAs(tenant, () -> {
+            runnable.run();
+            return null;
+        });
+    }
+}
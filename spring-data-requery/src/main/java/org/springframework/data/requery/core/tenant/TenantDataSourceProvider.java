@@ -0,0 +1,46 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.core.tenant;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.sql.DataSource;
+
+/**
+ * tenant 별 {@link DataSource}를 제공합니다. tenant 마다 schema 가 다르면 schema 를 지정한 {@link DataSource}를 반환합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@FunctionalInterface
+public interface TenantDataSourceProvider {
+
+    /**
+     * @param tenant tenant key
+     * @return tenant 의 {@link DataSource}. 알 수 없는 tenant 이면 null
+     */
+    @Nullable
+    DataSource getDataSource(@Nonnull String tenant);
+
+    /**
+     * 사용하지 않는 tenant 의 {@link io.requery.sql.EntityDataStore}를 정리한 후 호출됩니다.
+     * tenant 마다 connection pool 을 만든 경우 여기서 닫습니다.
+     */
+    default void release(@Nonnull String tenant, @Nonnull DataSource dataSource) {
+        // Nothing to do.
+    }
+}
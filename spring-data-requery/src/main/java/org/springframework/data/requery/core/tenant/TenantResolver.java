@@ -0,0 +1,40 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.core.tenant;
+
+import javax.annotation.Nullable;
+
+/**
+ * 현재 요청의 tenant key 를 결정합니다. {@link TenantRoutingRequeryOperations}가 호출 또는 transaction 마다 사용합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@FunctionalInterface
+public interface TenantResolver {
+
+    /**
+     * {@link TenantContextHolder}에 지정된 tenant 를 사용하는 기본 resolver
+     */
+    TenantResolver CONTEXT_HOLDER = TenantContextHolder::getTenant;
+
+    /**
+     * @return 현재 tenant key. 없으면 null
+     */
+    @Nullable
+    String resolveTenant();
+}
@@ -0,0 +1,649 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.core.tenant;
+
+import io.requery.EntityCache;
+import io.requery.TransactionIsolation;
+import io.requery.cache.EmptyEntityCache;
+import io.requery.cache.WeakEntityCache;
+import io.requery.meta.EntityModel;
+import io.requery.sql.Configuration;
+import io.requery.sql.ConfigurationBuilder;
+import io.requery.sql.ConnectionProvider;
+import io.requery.sql.EntityContext;
+import io.requery.sql.EntityDataStore;
+import io.requery.sql.SchemaModifier;
+import io.requery.sql.TableCreationMode;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.core.RequeryTemplate;
+import org.springframework.data.requery.mapping.RequeryMappingContext;
+import org.springframework.data.requery.utils.RequeryUtils;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 호출 또는 transaction 마다 {@link TenantResolver}로 tenant 를 결정하고, tenant 별 {@link EntityDataStore}로 실행하는 {@link RequeryOperations}
+ * <p>
+ * tenant 의 {@link EntityDataStore}는 처음 사용할 때 {@link TenantDataSourceProvider}의 {@link DataSource}로 생성합니다.
+ * 이때 기본 {@link EntityDataStore}의 설정 ({@link EntityModel}, platform, type mapping, listener 등)을 그대로 사용하므로,
+ * 모든 tenant 는 같은 종류의 database 이어야 합니다. entity cache 는 tenant 끼리 섞이지 않도록 tenant 마다 새로 만듭니다.
+ * repository 의 query method 는 이 operations 로 한 번만 생성되어 모든 tenant 가 공유합니다.
+ * <p>
+ * tenant 를 결정할 수 없으면 기본 {@link EntityDataStore}를 사용합니다.
+ * ({@link org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource}와 같은 방식입니다)
+ * transaction 안에서는 transaction 을 시작할 때의 tenant 를 계속 사용합니다.
+ * <p>
+ * {@link #idleTimeout(long, TimeUnit)} 동안 사용하지 않은 tenant 의 store 와, {@link #maxTenants(int)}를 넘는 tenant 중
+ * 가장 오래전에 사용한 tenant 의 store 는 닫고 {@link TenantDataSourceProvider#release(String, DataSource)}를 호출합니다.
+ * store 는 진행 중인 transaction 과 열려 있는 connection 수만큼 참조되며, 참조가 없고
+ * {@link #evictionGrace(long, TimeUnit)} 동안 조회되지 않은 store 만 정리합니다.
+ * transaction 밖에서 받은 {@link io.requery.query.Result}처럼 connection 을 나중에 여는 결과는 그 시간 안에 사용해야 합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+public class TenantRoutingRequeryOperations implements RequeryOperations, AutoCloseable {
+
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    public static final long DEFAULT_EVICTION_GRACE_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+    @Getter
+    private final EntityDataStore<Object> defaultDataStore;
+    @Getter
+    private final RequeryMappingContext mappingContext;
+    private final TenantDataSourceProvider dataSourceProvider;
+    private final RequeryTemplate defaultTemplate;
+
+    private TenantResolver tenantResolver = TenantResolver.CONTEXT_HOLDER;
+    private long idleTimeoutMillis = DEFAULT_IDLE_TIMEOUT_MILLIS;
+    private long evictionGraceMillis = DEFAULT_EVICTION_GRACE_MILLIS;
+    private int maxTenants = Integer.MAX_VALUE;
+    @Nullable private TableCreationMode tableCreationMode;
+    @Nullable private Supplier<EntityCache> entityCacheFactory;
+
+    private final ConcurrentMap<String, TenantStore> stores = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, TenantStats> stats = new ConcurrentHashMap<>();
+    private final ThreadLocal<String> transactionTenant = new ThreadLocal<>();
+    private volatile long nextSweepMillis;
+    private volatile boolean closed;
+
+    public TenantRoutingRequeryOperations(@Nonnull final EntityDataStore<Object> defaultDataStore,
+                                          @Nonnull final RequeryMappingContext mappingContext,
+                                          @Nonnull final TenantDataSourceProvider dataSourceProvider) {
+        Assert.notNull(defaultDataStore, "defaultDataStore must not be null!");
+        Assert.notNull(mappingContext, "mappingContext must not be null!");
+        Assert.notNull(dataSourceProvider, "dataSourceProvider must not be null!");
+
+        this.defaultDataStore = defaultDataStore;
+        this.mappingContext = mappingContext;
+        this.dataSourceProvider = dataSourceProvider;
+        this.defaultTemplate = new RequeryTemplate(defaultDataStore, mappingContext);
+        this.nextSweepMillis = System.currentTimeMillis() + idleTimeoutMillis;
+    }
+
+    /**
+     * 현재 tenant 를 결정하는 방법 (기본은 {@link TenantContextHolder})
+     */
+    public TenantRoutingRequeryOperations tenantResolver(@Nonnull final TenantResolver tenantResolver) {
+        Assert.notNull(tenantResolver, "tenantResolver must not be null!");
+        this.tenantResolver = tenantResolver;
+        return this;
+    }
+
+    /**
+     * 이 시간 동안 사용하지 않은 tenant 의 store 를 정리합니다. (기본 30분)
+     */
+    public TenantRoutingRequeryOperations idleTimeout(final long idleTimeout, @Nonnull final TimeUnit unit) {
+        Assert.isTrue(idleTimeout > 0, "idleTimeout must be greater than 0.");
+        this.idleTimeoutMillis = unit.toMillis(idleTimeout);
+        this.nextSweepMillis = System.currentTimeMillis() + idleTimeoutMillis;
+        return this;
+    }
+
+    /**
+     * 동시에 유지할 tenant store 의 최대 수 (기본 제한 없음)
+     */
+    public TenantRoutingRequeryOperations maxTenants(final int maxTenants) {
+        Assert.isTrue(maxTenants > 0, "maxTenants must be greater than 0.");
+        this.maxTenants = maxTenants;
+        return this;
+    }
+
+    /**
+     * 마지막으로 조회된 뒤 이 시간이 지나지 않은 store 는 {@link #maxTenants(int)}를 넘어도 정리하지 않습니다. (기본 1초)
+     * store 를 조회한 뒤 connection 을 열기 전까지는 참조가 없으므로, 그 사이에 store 가 닫히지 않도록 합니다.
+     */
+    public TenantRoutingRequeryOperations evictionGrace(final long evictionGrace, @Nonnull final TimeUnit unit) {
+        Assert.isTrue(evictionGrace >= 0, "evictionGrace must be greater than or equal to 0.");
+        this.evictionGraceMillis = unit.toMillis(evictionGrace);
+        return this;
+    }
+
+    /**
+     * 지정하면 tenant 의 store 를 생성할 때 schema 를 생성합니다.
+     */
+    public TenantRoutingRequeryOperations tableCreationMode(@Nullable final TableCreationMode tableCreationMode) {
+        this.tableCreationMode = tableCreationMode;
+        return this;
+    }
+
+    /**
+     * tenant 마다 사용할 entity cache 를 생성합니다. 지정하지 않으면 기본 store 의 cache 와 같은 종류를 사용합니다.
+     */
+    public TenantRoutingRequeryOperations entityCacheFactory(@Nullable final Supplier<EntityCache> entityCacheFactory) {
+        this.entityCacheFactory = entityCacheFactory;
+        return this;
+    }
+
+    /**
+     * 현재 tenant 의 {@link EntityDataStore}. tenant 가 없으면 기본 {@link EntityDataStore}를 반환합니다.
+     */
+    @Nonnull
+    @Override
+    public EntityDataStore<Object> getDataStore() {
+        return currentTemplate().getDataStore();
+    }
+
+    /**
+     * {@code tenant}의 {@link EntityDataStore}
+     *
+     * @throws IllegalStateException {@link TenantDataSourceProvider}가 tenant 의 {@link DataSource}를 제공하지 않는 경우
+     */
+    @Nonnull
+    public EntityDataStore<Object> getDataStore(@Nonnull final String tenant) {
+        Assert.hasText(tenant, "tenant must not be empty!");
+        return acquire(tenant, false).template.getDataStore();
+    }
+
+    /**
+     * 모든 tenant 가 공유하는 {@link EntityModel}
+     */
+    @Override
+    public EntityModel getEntityModel() {
+        return RequeryUtils.getEntityModel(defaultDataStore);
+    }
+
+    /**
+     * 현재 thread 에서 사용할 tenant. transaction 안이면 transaction 의 tenant 입니다.
+     */
+    @Nullable
+    public String getCurrentTenant() {
+        String tenant = transactionTenant.get();
+        return (tenant != null) ? tenant : tenantResolver.resolveTenant();
+    }
+
+    @Override
+    public <V> V runInTransaction(@Nonnull final Callable<V> callable, @Nullable final TransactionIsolation isolation) {
+        return executeInTransaction(template -> template.runInTransaction(callable, isolation));
+    }
+
+    @Override
+    public <V> V withTransaction(@Nonnull final Function<EntityDataStore<Object>, V> block, @Nullable final TransactionIsolation isolation) {
+        return executeInTransaction(template -> template.withTransaction(block, isolation));
+    }
+
+    /**
+     * 현재 생성되어 있는 tenant 목록
+     */
+    @Nonnull
+    public List<String> getActiveTenants() {
+        return new ArrayList<>(stores.keySet());
+    }
+
+    @Nullable
+    public TenantStats getTenantStats(@Nonnull final String tenant) {
+        return stats.get(tenant);
+    }
+
+    /**
+     * tenant 별 사용 통계. metrics 수집기가 주기적으로 읽어 기록합니다.
+     */
+    @Nonnull
+    public Map<String, TenantStats> getAllTenantStats() {
+        return Collections.unmodifiableMap(stats);
+    }
+
+    /**
+     * {@link #idleTimeout(long, TimeUnit)} 동안 사용하지 않은 tenant 의 store 를 정리합니다.
+     * store 를 사용할 때도 주기적으로 호출되므로, 요청이 없는 동안에도 정리하려면 scheduler 에서 호출하세요.
+     *
+     * @return 정리한 tenant 수
+     */
+    public int evictIdle() {
+        long now = System.currentTimeMillis();
+        nextSweepMillis = now + idleTimeoutMillis;
+
+        int evicted = 0;
+        for (TenantStore store : stores.values()) {
+            if (now - store.lastAccessMillis >= idleTimeoutMillis && evict(store, idleTimeoutMillis)) {
+                evicted++;
+            }
+        }
+        return evicted + evictOverflow();
+    }
+
+    /**
+     * {@code tenant}의 store 를 정리합니다. transaction 이나 열린 connection 이 있거나,
+     * {@link #evictionGrace(long, TimeUnit)} 안에 조회된 store 는 정리하지 않습니다.
+     *
+     * @return 정리했으면 true
+     */
+    public boolean evict(@Nonnull final String tenant) {
+        TenantStore store = stores.get(tenant);
+        return store != null && evict(store, evictionGraceMillis);
+    }
+
+    /**
+     * 모든 tenant 의 store 를 닫습니다. 기본 {@link EntityDataStore}는 닫지 않습니다.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (TenantStore store : stores.values()) {
+            if (stores.remove(store.tenant, store)) {
+                store.references.set(TenantStore.CLOSED);
+                closeStore(store);
+            }
+        }
+    }
+
+    private RequeryTemplate currentTemplate() {
+        String tenant = getCurrentTenant();
+        if (tenant == null) {
+            log.trace("No tenant is resolved, so use default EntityDataStore.");
+            return defaultTemplate;
+        }
+        return acquire(tenant, false).template;
+    }
+
+    private <V> V executeInTransaction(@Nonnull final Function<RequeryTemplate, V> action) {
+        String bound = transactionTenant.get();
+        String tenant = (bound != null) ? bound : tenantResolver.resolveTenant();
+        if (tenant == null) {
+            return action.apply(defaultTemplate);
+        }
+
+        TenantStore store = acquire(tenant, true);
+        TenantStats tenantStats = statsOf(tenant);
+        transactionTenant.set(tenant);
+        boolean failed = true;
+        try {
+            V result = action.apply(store.template);
+            failed = false;
+            return result;
+        } finally {
+            if (bound == null) {
+                transactionTenant.remove();
+            }
+            store.touch();
+            store.release();
+            if (bound == null) {
+                tenantStats.recordTransaction(failed);
+            }
+        }
+    }
+
+    /**
+     * tenant 의 store 를 조회하고 참조를 추가한 상태에서 마지막 사용 시각을 갱신합니다.
+     * 정리 중인 store 를 만나면 map 에서 제거될 때까지 기다렸다가 새 store 를 받습니다.
+     *
+     * @param retain true 이면 참조를 유지한 채 반환하므로, 호출자가 {@link TenantStore#release()}를 호출해야 합니다.
+     */
+    private TenantStore acquire(@Nonnull final String tenant, final boolean retain) {
+        statsOf(tenant).recordRequest();
+
+        TenantStore store;
+        boolean created = false;
+        while (true) {
+            Assert.state(!closed, "TenantRoutingRequeryOperations is closed.");
+            store = stores.get(tenant);
+            if (store == null) {
+                store = stores.computeIfAbsent(tenant, this::createStore);
+                created = true;
+            }
+            if (store.retain()) {
+                break;
+            }
+            Thread.yield();
+        }
+        store.touch();
+        if (!retain) {
+            store.release();
+        }
+
+        if (created) {
+            evictOverflow();
+        }
+
+        if (System.currentTimeMillis() >= nextSweepMillis) {
+            evictIdle();
+        }
+        return store;
+    }
+
+    private TenantStats statsOf(@Nonnull final String tenant) {
+        TenantStats tenantStats = stats.get(tenant);
+        return (tenantStats != null) ? tenantStats : stats.computeIfAbsent(tenant, TenantStats::new);
+    }
+
+    private TenantStore createStore(@Nonnull final String tenant) {
+        DataSource dataSource = dataSourceProvider.getDataSource(tenant);
+        if (dataSource == null) {
+            throw new IllegalStateException("No DataSource for tenant. tenant=" + tenant);
+        }
+
+        CountingConnectionProvider connectionProvider = new CountingConnectionProvider(dataSource);
+        Configuration configuration = createConfiguration(connectionProvider);
+        if (tableCreationMode != null) {
+            new SchemaModifier(configuration).createTables(tableCreationMode);
+        }
+
+        log.info("Create EntityDataStore for tenant. tenant={}", tenant);
+        statsOf(tenant).recordStoreCreation();
+        EntityDataStore<Object> dataStore = new EntityDataStore<>(configuration);
+        TenantStore store = new TenantStore(tenant, dataSource, new RequeryTemplate(dataStore, mappingContext));
+        connectionProvider.store = store;
+        return store;
+    }
+
+    /**
+     * 기본 {@link EntityDataStore}의 설정을 복사하여 {@code connectionProvider}용 설정을 만듭니다.
+     * platform 과 type mapping 은 기본 store 가 확인한 instance 를 그대로 사용하므로 tenant 마다 database metadata 를 조회하지 않습니다.
+     */
+    @SuppressWarnings("unchecked")
+    private Configuration createConfiguration(@Nonnull final ConnectionProvider connectionProvider) {
+        Configuration base = RequeryUtils.getConfiguration(defaultDataStore);
+        EntityContext<Object> context = RequeryUtils.getEntityContext(defaultDataStore);
+
+        ConfigurationBuilder builder = new ConfigurationBuilder(connectionProvider, base.getModel())
+            .setPlatform(context.getPlatform())
+            .setMapping(context.getMapping())
+            .setEntityCache(createEntityCache(base.getCache()))
+            .setStatementCacheSize(base.getStatementCacheSize())
+            .setBatchUpdateSize(base.getBatchUpdateSize())
+            .setQuoteTableNames(base.getQuoteTableNames())
+            .setQuoteColumnNames(base.getQuoteColumnNames())
+            .setTableTransformer(base.getTableTransformer())
+            .setColumnTransformer(base.getColumnTransformer())
+            .setTransactionMode(base.getTransactionMode())
+            .setTransactionIsolation(base.getTransactionIsolation())
+            .setWriteExecutor(base.getWriteExecutor());
+
+        base.getStatementListeners().forEach(builder::addStatementListener);
+        base.getEntityStateListeners().forEach(builder::addEntityStateListener);
+        base.getTransactionListenerFactories().forEach(builder::addTransactionListenerFactory);
+        if (base.getUseDefaultLogging()) {
+            builder.useDefaultLogging();
+        }
+        return builder.build();
+    }
+
+    private EntityCache createEntityCache(@Nullable final EntityCache baseCache) {
+        if (entityCacheFactory != null) {
+            return entityCacheFactory.get();
+        }
+        return (baseCache == null || baseCache instanceof EmptyEntityCache) ? new EmptyEntityCache() : new WeakEntityCache();
+    }
+
+    private int evictOverflow() {
+        int overflow = stores.size() - maxTenants;
+        if (overflow <= 0) {
+            return 0;
+        }
+        List<TenantStore> candidates = new ArrayList<>(stores.values());
+        candidates.sort(Comparator.comparingLong(store -> store.lastAccessMillis));
+
+        int evicted = 0;
+        for (TenantStore store : candidates) {
+            if (evicted >= overflow) {
+                break;
+            }
+            if (evict(store, evictionGraceMillis)) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * 참조가 없는 store 를 닫힌 상태로 바꾼 뒤, 그 사이에 조회되지 않았는지 다시 확인하고 정리합니다.
+     * 닫힌 상태에서는 참조를 추가할 수 없으므로, 확인 이후에 store 를 사용하기 시작하는 호출은 없습니다.
+     */
+    private boolean evict(@Nonnull final TenantStore store, final long minIdleMillis) {
+        if (!store.references.compareAndSet(0, TenantStore.CLOSED)) {
+            return false;
+        }
+        if (System.currentTimeMillis() - store.lastAccessMillis < minIdleMillis) {
+            store.references.compareAndSet(TenantStore.CLOSED, 0);
+            return false;
+        }
+        if (!stores.remove(store.tenant, store)) {
+            return false;
+        }
+        log.info("Evict EntityDataStore of tenant. tenant={}", store.tenant);
+        statsOf(store.tenant).recordEviction();
+        closeStore(store);
+        return true;
+    }
+
+    private void closeStore(@Nonnull final TenantStore store) {
+        try {
+            store.template.getDataStore().close();
+        } catch (Exception e) {
+            log.warn("Fail to close EntityDataStore of tenant. tenant={}", store.tenant, e);
+        }
+        try {
+            dataSourceProvider.release(store.tenant, store.dataSource);
+        } catch (Exception e) {
+            log.warn("Fail to release DataSource of tenant. tenant={}", store.tenant, e);
+        }
+    }
+
+    private static final class TenantStore {
+
+        private static final int CLOSED = -1;
+
+        private final String tenant;
+        private final DataSource dataSource;
+        private final RequeryTemplate template;
+        /** 진행 중인 transaction 과 열린 connection 수. 정리되면 {@link #CLOSED} 입니다. */
+        private final AtomicInteger references = new AtomicInteger();
+        private volatile long lastAccessMillis = System.currentTimeMillis();
+
+        private TenantStore(final String tenant, final DataSource dataSource, final RequeryTemplate template) {
+            this.tenant = tenant;
+            this.dataSource = dataSource;
+            this.template = template;
+        }
+
+        private boolean retain() {
+            while (true) {
+                int current = references.get();
+                if (current == CLOSED) {
+                    return false;
+                }
+                if (references.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private void release() {
+            while (true) {
+                int current = references.get();
+                if (current <= 0 || references.compareAndSet(current, current - 1)) {
+                    return;
+                }
+            }
+        }
+
+        private void touch() {
+            lastAccessMillis = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * tenant 의 {@link DataSource}에서 받은 connection 이 열려 있는 동안 store 의 참조를 유지합니다.
+     * store 가 만들어지기 전 (schema 생성) 에 연 connection 은 세지 않습니다.
+     */
+    private static final class CountingConnectionProvider implements ConnectionProvider {
+
+        private final DataSource dataSource;
+        @Nullable private volatile TenantStore store;
+
+        private CountingConnectionProvider(final DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            TenantStore current = store;
+            if (current == null) {
+                return dataSource.getConnection();
+            }
+            if (!current.retain()) {
+                throw new SQLException("EntityDataStore of tenant is already evicted. tenant=" + current.tenant);
+            }
+            try {
+                return new ReleasingHandler(dataSource.getConnection(), current).proxy;
+            } catch (SQLException | RuntimeException e) {
+                current.release();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * connection 을 닫을 때 한 번만 store 의 참조를 해제합니다.
+     * requery 는 {@link Statement#getConnection()}, {@link ResultSet#getStatement()}로 connection 을 찾아 닫기도 하므로,
+     * connection 에서 만든 statement 와 result set 도 감싸서 이 connection 을 반환하도록 합니다.
+     */
+    private static final class ReleasingHandler implements InvocationHandler {
+
+        private final Connection connection;
+        private final TenantStore store;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private final Connection proxy;
+
+        private ReleasingHandler(final Connection connection, final TenantStore store) {
+            this.connection = connection;
+            this.store = store;
+            this.proxy = newProxy(Connection.class, this);
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            try {
+                return wrapStatement(invokeTarget(connection, method, args), method, this.proxy);
+            } finally {
+                if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                    store.release();
+                }
+            }
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+        private final Connection connection;
+
+        private StatementHandler(final Statement statement, final Connection connection) {
+            this.statement = statement;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            if ("getConnection".equals(method.getName())) {
+                return connection;
+            }
+            Object result = invokeTarget(statement, method, args);
+            if (result instanceof ResultSet && method.getReturnType() == ResultSet.class) {
+                return newProxy(ResultSet.class, new ResultSetHandler((ResultSet) result, (Statement) proxy));
+            }
+            return result;
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+
+        private final ResultSet resultSet;
+        private final Statement statement;
+
+        private ResultSetHandler(final ResultSet resultSet, final Statement statement) {
+            this.resultSet = resultSet;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            if ("getStatement".equals(method.getName())) {
+                return statement;
+            }
+            return invokeTarget(resultSet, method, args);
+        }
+    }
+
+    private static Object wrapStatement(@Nullable final Object result, final Method method, final Connection connection) {
+        Class<?> type = method.getReturnType();
+        if (result instanceof Statement && Statement.class.isAssignableFrom(type) && type.isInterface()) {
+            return newProxy(type, new StatementHandler((Statement) result, connection));
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T newProxy(final Class<T> type, final InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler);
+    }
+
+    private static Object invokeTarget(final Object target, final Method method, final Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
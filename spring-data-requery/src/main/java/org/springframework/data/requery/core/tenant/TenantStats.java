@@ -0,0 +1,118 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.core.tenant;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * tenant 별 사용 통계. {@link TenantRoutingRequeryOperations}가 기록하며, tenant 의 store 가 정리되어도 유지됩니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+public class TenantStats {
+
+    @Getter
+    private final String tenant;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder transactions = new LongAdder();
+    private final LongAdder failedTransactions = new LongAdder();
+    private final LongAdder storeCreations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private volatile long lastAccessMillis;
+
+    TenantStats(final String tenant) {
+        this.tenant = tenant;
+    }
+
+    /**
+     * tenant 의 {@link io.requery.sql.EntityDataStore}를 요청한 횟수
+     */
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    /**
+     * tenant 에서 실행한 transaction 수
+     */
+    public long getTransactions() {
+        return transactions.sum();
+    }
+
+    /**
+     * 예외로 끝난 transaction 수
+     */
+    public long getFailedTransactions() {
+        return failedTransactions.sum();
+    }
+
+    /**
+     * tenant 의 {@link io.requery.sql.EntityDataStore}를 생성한 횟수 (정리된 후 다시 생성한 경우 포함)
+     */
+    public long getStoreCreations() {
+        return storeCreations.sum();
+    }
+
+    /**
+     * 사용하지 않아 정리된 횟수
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * 마지막으로 사용한 시각 (epoch millis)
+     */
+    public long getLastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    void recordRequest() {
+        requests.increment();
+        lastAccessMillis = System.currentTimeMillis();
+    }
+
+    void recordTransaction(final boolean failed) {
+        transactions.increment();
+        if (failed) {
+            failedTransactions.increment();
+        }
+    }
+
+    void recordStoreCreation() {
+        storeCreations.increment();
+    }
+
+    void recordEviction() {
+        evictions.increment();
+    }
+
+    @Override
+    public String toString() {
+        return "TenantStats{" +
+               "tenant=" + tenant +
+               ", requests=" + getRequests() +
+               ", transactions=" + getTransactions() +
+               ", failedTransactions=" + getFailedTransactions() +
+               ", storeCreations=" + getStoreCreations() +
+               ", evictions=" + getEvictions() +
+               '}';
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core.timeout;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.requery.RequeryExecutionException;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * 작업이 실행 중인 statement 를 추적하고, 작업을 취소하면 {@link Statement#cancel()}로 DB 에서 실행 중인 query 도 중단합니다.
+ * <p>
+ * {@link #run(Callable)}으로 실행하는 동안 {@link QueryTimeoutListener}가 실행하는 statement 를 등록합니다.
+ * 취소한 후에 실행하려는 statement 는 {@link CancellationException}으로 실패하므로, 취소된 작업이 connection 을 계속 사용하지 않습니다.
+ * {@link #supplyAsync(Callable, Executor)}가 반환하는 {@link CompletableFuture}는 {@code cancel()}을 호출하면 이 취소를 수행합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+public class QueryCancellation {
+
+    private static final ThreadLocal<QueryCancellation> CURRENT = new ThreadLocal<>();
+
+    private final Set<Statement> statements = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+
+    /**
+     * 현재 thread 에서 실행 중인 작업의 {@link QueryCancellation}. 없으면 null
+     */
+    @Nullable
+    public static QueryCancellation current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * {@code executor}에서 {@code callable}을 실행합니다. 반환한 future 를 취소하면 실행 중인 statement 를 취소합니다.
+     * 호출한 thread 의 {@link QueryDeadline}은 실행하는 thread 에도 적용됩니다.
+     */
+    @Nonnull
+    public static <V> CompletableFuture<V> supplyAsync(@Nonnull final Callable<V> callable, @Nonnull final Executor executor) {
+        Assert.notNull(callable, "callable must not be null!");
+        Assert.notNull(executor, "executor must not be null!");
+
+        final Long deadline = QueryDeadline.getDeadlineNanos();
+        final QueryCancellation cancellation = new QueryCancellation();
+        final CancellableFuture<V> future = new CancellableFuture<>(cancellation);
+
+        executor.execute(() -> {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                V result = cancellation.run(() -> (deadline != null) ? QueryDeadline.withDeadline(deadline, callable) : callable.call());
+                future.complete(result);
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 작업을 취소하고 실행 중인 statement 들을 취소합니다. 이후 실행하려는 statement 는 실패합니다.
+     */
+    public void cancel() {
+        cancelled = true;
+        for (Statement statement : statements) {
+            try {
+                statement.cancel();
+                log.debug("Cancel running statement. statement={}", statement);
+            } catch (SQLException | RuntimeException e) {
+                // 이미 끝났거나 닫힌 statement 입니다.
+                log.trace("Fail to cancel statement. statement={}", statement, e);
+            }
+        }
+    }
+
+    /**
+     * 현재 thread 에서 실행하는 statement 들을 이 {@link QueryCancellation}으로 취소할 수 있도록 {@code callable}을 실행합니다.
+     */
+    public <T> T run(@Nonnull final Callable<T> callable) {
+        Assert.notNull(callable, "callable must not be null!");
+        checkCancelled();
+
+        final QueryCancellation previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return callable.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RequeryExecutionException("Fail to execute cancellable queries.", e);
+        } finally {
+            statements.clear();
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    void register(@Nonnull final Statement statement) {
+        checkCancelled();
+        statements.add(statement);
+        // register 와 cancel 이 동시에 실행되면 cancel 이 이 statement 를 보지 못했을 수 있습니다.
+        if (cancelled) {
+            statements.remove(statement);
+            throw new CancellationException("Query is cancelled.");
+        }
+    }
+
+    void unregister(@Nonnull final Statement statement) {
+        statements.remove(statement);
+    }
+
+    private void checkCancelled() {
+        if (cancelled) {
+            throw new CancellationException("Query is cancelled.");
+        }
+    }
+
+    /**
+     * {@link #cancel(boolean)}을 호출하면 실행 중인 statement 를 취소하는 {@link CompletableFuture}
+     */
+    private static final class CancellableFuture<V> extends CompletableFuture<V> {
+
+        private final QueryCancellation cancellation;
+
+        private CancellableFuture(@Nonnull final QueryCancellation cancellation) {
+            this.cancellation = cancellation;
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                cancellation.cancel();
+            }
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core.timeout;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.requery.RequeryExecutionException;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 현재 thread 에서 실행하는 query 들이 지켜야 할 deadline 을 관리합니다.
+ * <p>
+ * deadline 은 {@link System#nanoTime()} 기준의 절대 시각이므로 중첩해서 지정하면 가장 이른 deadline 을 따르고,
+ * 작업이 끝나면 이전 deadline 으로 돌아갑니다. {@link QueryTimeoutListener}가 statement 를 실행하기 전에 남은 시간을
+ * {@link java.sql.Statement#setQueryTimeout(int)}로 적용하고, 이미 지났으면 실행하지 않고 {@link QueryTimeoutException}을 던집니다.
+ *
+ * <pre>{@code
+ * List<User> users = QueryDeadline.withTimeout(500, TimeUnit.MILLISECONDS, () -> userRepository.findByName(name));
+ * }</pre>
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@UtilityClass
+public class QueryDeadline {
+
+    /**
+     * deadline 이 없음을 나타내는 남은 시간
+     */
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>();
+
+    /**
+     * 현재 thread 의 deadline ({@link System#nanoTime()} 기준). 없으면 null
+     */
+    @Nullable
+    public static Long getDeadlineNanos() {
+        return DEADLINE.get();
+    }
+
+    /**
+     * deadline 까지 남은 시간(nanoseconds). deadline 이 없으면 {@link #NO_DEADLINE}
+     */
+    public static long remainingNanos() {
+        Long deadline = DEADLINE.get();
+        return (deadline != null) ? deadline - System.nanoTime() : NO_DEADLINE;
+    }
+
+    /**
+     * deadline 이 지났으면 {@link QueryTimeoutException}을 던집니다.
+     */
+    public static void checkDeadline() {
+        long remaining = remainingNanos();
+        if (remaining <= 0) {
+            throw new QueryTimeoutException("Query deadline exceeded by " + TimeUnit.NANOSECONDS.toMillis(-remaining) + " msec");
+        }
+    }
+
+    /**
+     * 지금부터 {@code timeout} 안에 끝나야 하는 deadline 으로 {@code callable}을 실행합니다.
+     */
+    public static <T> T withTimeout(final long timeout, @Nonnull final TimeUnit unit, @Nonnull final Callable<T> callable) {
+        Assert.isTrue(timeout > 0, "timeout must be greater than 0.");
+        Assert.notNull(unit, "unit must not be null!");
+        return withDeadline(System.nanoTime() + unit.toNanos(timeout), callable);
+    }
+
+    /**
+     * {@code deadlineNanos}({@link System#nanoTime()} 기준)를 deadline 으로 {@code callable}을 실행합니다.
+     * 이미 더 이른 deadline 이 있으면 그 deadline 을 유지합니다.
+     */
+    public static <T> T withDeadline(final long deadlineNanos, @Nonnull final Callable<T> callable) {
+        Assert.notNull(callable, "callable must not be null!");
+
+        final Long previous = DEADLINE.get();
+        final long deadline = (previous != null && previous - deadlineNanos < 0) ? previous : deadlineNanos;
+
+        DEADLINE.set(deadline);
+        try {
+            return callable.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RequeryExecutionException("Fail to execute with query deadline.", e);
+        } finally {
+            if (previous != null) {
+                DEADLINE.set(previous);
+            } else {
+                DEADLINE.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core.timeout;
+
+import io.requery.sql.BoundParameters;
+import io.requery.sql.StatementListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statement 를 실행하기 전에 query timeout 을 적용하고, 취소할 수 있도록 현재 {@link QueryCancellation}에 등록하는 {@link StatementListener} 입니다.
+ * <p>
+ * timeout 은 기본 timeout 과 현재 {@link QueryDeadline}까지 남은 시간 중 짧은 값입니다. JDBC 의 query timeout 은 초 단위이므로 올림해서 적용합니다.
+ * deadline 이 이미 지났으면 statement 를 실행하지 않고 {@link org.springframework.dao.QueryTimeoutException}을 던집니다.
+ * requery 설정에 등록해야 {@link org.springframework.data.requery.annotation.QueryTimeout}, {@link QueryDeadline}, {@link QueryCancellation}이 동작합니다.
+ *
+ * <pre>{@code
+ * new ConfigurationBuilder(dataSource, model)
+ *     .addStatementListener(new QueryTimeoutListener(30, TimeUnit.SECONDS))
+ *     .build();
+ * }</pre>
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+public class QueryTimeoutListener implements StatementListener {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final long defaultTimeoutNanos;
+
+    /**
+     * 기본 timeout 없이 {@link QueryDeadline}, {@link QueryCancellation}만 적용합니다.
+     */
+    public QueryTimeoutListener() {
+        this.defaultTimeoutNanos = QueryDeadline.NO_DEADLINE;
+    }
+
+    /**
+     * 모든 statement 에 {@code timeout}을 적용합니다.
+     */
+    public QueryTimeoutListener(final long timeout, @Nonnull final TimeUnit unit) {
+        Assert.isTrue(timeout > 0, "timeout must be greater than 0.");
+        Assert.notNull(unit, "unit must not be null!");
+        this.defaultTimeoutNanos = unit.toNanos(timeout);
+    }
+
+    public long getDefaultTimeout(@Nonnull final TimeUnit unit) {
+        return (defaultTimeoutNanos == QueryDeadline.NO_DEADLINE) ? 0L : unit.convert(defaultTimeoutNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void beforeExecuteUpdate(@Nonnull final Statement statement,
+                                    @Nullable final String sql,
+                                    @Nullable final BoundParameters parameters) {
+        beforeExecute(statement);
+    }
+
+    @Override
+    public void afterExecuteUpdate(@Nonnull final Statement statement, final int count) {
+        afterExecute(statement);
+    }
+
+    @Override
+    public void beforeExecuteBatchUpdate(@Nonnull final Statement statement, @Nullable final String sql) {
+        beforeExecute(statement);
+    }
+
+    @Override
+    public void afterExecuteBatchUpdate(@Nonnull final Statement statement, @Nullable final int[] count) {
+        afterExecute(statement);
+    }
+
+    @Override
+    public void beforeExecuteQuery(@Nonnull final Statement statement,
+                                   @Nullable final String sql,
+                                   @Nullable final BoundParameters parameters) {
+        beforeExecute(statement);
+    }
+
+    @Override
+    public void afterExecuteQuery(@Nonnull final Statement statement) {
+        afterExecute(statement);
+    }
+
+    private void beforeExecute(@Nonnull final Statement statement) {
+        // 실행하지 않을 statement 가 취소 대상으로 남지 않도록 deadline 을 먼저 확인한 후 등록합니다.
+        final long timeoutNanos = Math.min(defaultTimeoutNanos, QueryDeadline.remainingNanos());
+        if (timeoutNanos != QueryDeadline.NO_DEADLINE) {
+            QueryDeadline.checkDeadline();
+        }
+
+        final QueryCancellation cancellation = QueryCancellation.current();
+        if (cancellation != null) {
+            cancellation.register(statement);
+        }
+        if (timeoutNanos == QueryDeadline.NO_DEADLINE) {
+            return;
+        }
+
+        final int seconds = (int) Math.min(Integer.MAX_VALUE, (timeoutNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+        try {
+            statement.setQueryTimeout(seconds);
+        } catch (SQLException e) {
+            log.warn("Fail to set query timeout. timeout={} sec", seconds, e);
+        }
+    }
+
+    private void afterExecute(@Nonnull final Statement statement) {
+        final QueryCancellation cancellation = QueryCancellation.current();
+        if (cancellation != null) {
+            cancellation.unregister(statement);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core.tree;
+
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 한 번에 조회한 엔티티 목록을 parent 키로 연결한 in-memory tree 입니다.
+ * <p>
+ * 엔티티의 {@code children} 같은 연관관계 컬렉션은 건드리지 않으므로 lazy loading 이 일어나지 않습니다.
+ * tree 는 엔티티 수에 비례하는 시간(O(n))에 만들며, 목록에 parent 가 없는 엔티티는 root 가 됩니다.
+ *
+ * @param <E> entity type
+ * @author debop
+ * @since 26. 10. 19
+ */
+public final class EntityTree<E> {
+
+    @Nonnull private final List<Node<E>> roots;
+    @Nonnull private final Map<Object, Node<E>> nodes;
+
+    private EntityTree(@Nonnull final List<Node<E>> roots, @Nonnull final Map<Object, Node<E>> nodes) {
+        this.roots = Collections.unmodifiableList(roots);
+        this.nodes = nodes;
+    }
+
+    /**
+     * {@code entities}를 {@code keyMapper}, {@code parentKeyMapper}로 구한 키로 연결한 tree 를 만듭니다. 자식 순서는 목록 순서를 따릅니다.
+     */
+    @Nonnull
+    public static <E> EntityTree<E> of(@Nonnull final List<E> entities,
+                                       @Nonnull final Function<? super E, ?> keyMapper,
+                                       @Nonnull final Function<? super E, ?> parentKeyMapper) {
+        Assert.notNull(entities, "entities must not be null!");
+        Assert.notNull(keyMapper, "keyMapper must not be null!");
+        Assert.notNull(parentKeyMapper, "parentKeyMapper must not be null!");
+
+        Map<Object, Node<E>> nodes = new HashMap<>(Math.max(16, entities.size() * 4 / 3 + 1));
+        List<Node<E>> ordered = new ArrayList<>(entities.size());
+        for (E entity : entities) {
+            Node<E> node = new Node<>(entity, keyMapper.apply(entity), parentKeyMapper.apply(entity));
+            if (nodes.putIfAbsent(node.key, node) == null) {
+                ordered.add(node);
+            }
+        }
+
+        List<Node<E>> roots = new ArrayList<>();
+        for (Node<E> node : ordered) {
+            Node<E> parent = (node.parentKey != null) ? nodes.get(node.parentKey) : null;
+            if (parent != null && parent != node) {
+                node.parent = parent;
+                parent.children.add(node);
+            } else {
+                roots.add(node);
+            }
+        }
+
+        // root 부터 너비 우선으로 depth 를 정합니다. 순환 참조로 root 에서 닿지 않는 node 는 tree 에 포함하지 않습니다.
+        Deque<Node<E>> queue = new ArrayDeque<>(roots);
+        int reachable = 0;
+        while (!queue.isEmpty()) {
+            Node<E> node = queue.poll();
+            reachable++;
+            for (Node<E> child : node.children) {
+                child.depth = node.depth + 1;
+                queue.add(child);
+            }
+        }
+        if (reachable < ordered.size()) {
+            ordered.stream()
+                .filter(node -> node.parent != null && node.depth == 0)
+                .forEach(node -> nodes.remove(node.key));
+        }
+        return new EntityTree<>(roots, nodes);
+    }
+
+    @Nonnull
+    public List<Node<E>> getRoots() {
+        return roots;
+    }
+
+    /**
+     * root 가 하나일 때 그 root. root 가 없으면 null
+     *
+     * @throws IllegalStateException root 가 여러 개인 경우
+     */
+    @Nullable
+    public Node<E> getRoot() {
+        if (roots.size() > 1) {
+            throw new IllegalStateException("Tree has " + roots.size() + " roots.");
+        }
+        return roots.isEmpty() ? null : roots.get(0);
+    }
+
+    @Nullable
+    public Node<E> getNode(@Nonnull final Object key) {
+        return nodes.get(key);
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    /**
+     * 전위 순회(부모 다음 자식) 순서의 엔티티 목록
+     */
+    @Nonnull
+    public List<E> flatten() {
+        List<E> result = new ArrayList<>(nodes.size());
+        Deque<Node<E>> stack = new ArrayDeque<>();
+        for (int i = roots.size() - 1; i >= 0; i--) {
+            stack.push(roots.get(i));
+        }
+        while (!stack.isEmpty()) {
+            Node<E> node = stack.pop();
+            result.add(node.entity);
+            for (int i = node.children.size() - 1; i >= 0; i--) {
+                stack.push(node.children.get(i));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "EntityTree{roots=" + roots.size() + ", size=" + nodes.size() + '}';
+    }
+
+    /**
+     * Tree 의 node. 엔티티와 부모, 자식 node 를 가집니다.
+     */
+    public static final class Node<E> {
+
+        private final E entity;
+        private final Object key;
+        private final Object parentKey;
+        private final List<Node<E>> children = new ArrayList<>();
+        private Node<E> parent;
+        private int depth;
+
+        private Node(E entity, Object key, Object parentKey) {
+            this.entity = entity;
+            this.key = key;
+            this.parentKey = parentKey;
+        }
+
+        @Nonnull
+        public E getEntity() {
+            return entity;
+        }
+
+        @Nonnull
+        public Object getKey() {
+            return key;
+        }
+
+        @Nullable
+        public Node<E> getParent() {
+            return parent;
+        }
+
+        @Nonnull
+        public List<Node<E>> getChildren() {
+            return Collections.unmodifiableList(children);
+        }
+
+        /**
+         * root 로부터의 깊이. root 는 0 입니다.
+         */
+        public int getDepth() {
+            return depth;
+        }
+
+        public boolean isLeaf() {
+            return children.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return "Node{key=" + key + ", depth=" + depth + ", children=" + children.size() + '}';
+        }
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core.tree;
+
+import io.requery.meta.Attribute;
+import io.requery.meta.Type;
+import io.requery.proxy.EntityProxy;
+import io.requery.sql.EntityContext;
+import io.requery.sql.Platform;
+import io.requery.sql.QueryBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 자기 자신을 parent 로 참조하는 엔티티(tree node)의 하위/상위 node 들을 recursive CTE({@code WITH RECURSIVE}) 한 문장으로 조회합니다.
+ * <p>
+ * {@code children} 연관관계를 따라 읽으면 level 마다(또는 node 마다) query 가 실행되지만, recursive CTE 는 depth 와 상관없이 한 번의 round trip 으로 끝납니다.
+ * 조회한 엔티티의 parent 는 key 만 가진 참조로 채워지므로, {@link EntityTree}로 연결하여 추가 query 없이 tree 를 구성할 수 있습니다.
+ *
+ * <pre>{@code
+ * TreeQuery<TreeNode> treeQuery = operations.treeQuery(TreeNode.class);
+ *
+ * List<TreeNode> descendants = treeQuery.findDescendants(rootId, 3);
+ * List<TreeNode> ancestors = treeQuery.findAncestors(leafId);
+ * EntityTree<TreeNode> tree = treeQuery.findTree(rootId);
+ * }</pre>
+ * <p>
+ * SQL Server, Oracle 은 {@code RECURSIVE} keyword 없이 실행합니다. parent 참조에 순환이 있는 데이터는 {@code maxDepth}로 깊이를 제한해야 합니다.
+ * table, column 이름은 requery 의 {@link QueryBuilder} 로 만들어 quoteTableNames, quoteColumnNames 설정을 따릅니다.
+ *
+ * @param <E> entity type
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+public class TreeQuery<E> {
+
+    /**
+     * depth 제한 없이 모든 하위 node 를 조회합니다.
+     */
+    public static final int UNLIMITED_DEPTH = Integer.MAX_VALUE;
+
+    private final RequeryOperations operations;
+    private final Type<E> type;
+    private final Attribute<E, ?> keyAttribute;
+    private final Attribute<E, ?> parentAttribute;
+    private final String descendantsSql;
+    private final String ancestorsSql;
+
+    /**
+     * {@code entityType}에서 자기 자신을 참조하는 foreign key 속성을 찾아 parent 속성으로 사용합니다.
+     */
+    public TreeQuery(@Nonnull final RequeryOperations operations, @Nonnull final Class<E> entityType) {
+        this(operations, entityType, null);
+    }
+
+    public TreeQuery(@Nonnull final RequeryOperations operations,
+                     @Nonnull final Class<E> entityType,
+                     @Nullable final Attribute<E, ?> parentAttribute) {
+        Assert.notNull(operations, "operations must not be null!");
+        Assert.notNull(entityType, "entityType must not be null!");
+
+        this.operations = operations;
+        this.type = operations.getEntityModel().typeOf(entityType);
+        this.keyAttribute = type.getSingleKeyAttribute();
+        Assert.state(keyAttribute != null && type.getKeyAttributes().size() == 1,
+                     "TreeQuery requires a single @Key attribute. type=" + type.getName());
+
+        this.parentAttribute = (parentAttribute != null) ? parentAttribute : findParentAttribute(type);
+        Assert.isTrue(this.parentAttribute.isForeignKey(),
+                      "parentAttribute must be a foreign key. attribute=" + this.parentAttribute.getName());
+
+        EntityContext<Object> context = operations.getEntityContext();
+        String with = withClause(context.getPlatform());
+        String table = identifier(context, qb -> qb.tableName(type.getName()));
+        String key = identifier(context, qb -> qb.attribute(keyAttribute));
+        String parent = identifier(context, qb -> qb.attribute(this.parentAttribute));
+
+        this.descendantsSql =
+            with + " tree_path (node_id, depth) AS (" +
+            "SELECT " + key + ", 0 FROM " + table + " WHERE " + key + " = :rootId" +
+            " UNION ALL " +
+            "SELECT c." + key + ", p.depth + 1 FROM " + table + " c INNER JOIN tree_path p ON c." + parent + " = p.node_id" +
+            " WHERE p.depth < :maxDepth) " +
+            "SELECT n.* FROM " + table + " n INNER JOIN tree_path p ON n." + key + " = p.node_id" +
+            " WHERE p.depth >= :minDepth ORDER BY p.depth, n." + key;
+
+        this.ancestorsSql =
+            with + " tree_path (node_id, parent_id, depth) AS (" +
+            "SELECT " + key + ", " + parent + ", 0 FROM " + table + " WHERE " + key + " = :nodeId" +
+            " UNION ALL " +
+            "SELECT a." + key + ", a." + parent + ", p.depth + 1 FROM " + table + " a INNER JOIN tree_path p ON a." + key + " = p.parent_id) " +
+            "SELECT n.* FROM " + table + " n INNER JOIN tree_path p ON n." + key + " = p.node_id" +
+            " WHERE p.depth > 0 ORDER BY p.depth";
+
+        log.debug("Create TreeQuery. type={}, key={}, parent={}", table, key, parent);
+    }
+
+    /**
+     * requery 가 생성하는 다른 SQL 과 같은 규칙(table/column transformer, 설정된 경우 DB 의 identifier quote)으로 이름을 만듭니다.
+     */
+    @Nonnull
+    private static String identifier(@Nonnull final EntityContext<Object> context,
+                                     @Nonnull final Consumer<QueryBuilder> appender) {
+        QueryBuilder qb = new QueryBuilder(context.getQueryBuilderOptions());
+        appender.accept(qb);
+        return qb.toString().trim();
+    }
+
+    @Nonnull
+    public Attribute<E, ?> getParentAttribute() {
+        return parentAttribute;
+    }
+
+    /**
+     * {@code id} node 의 모든 하위 node 를 depth, key 순서로 조회합니다. {@code id} node 자신은 포함하지 않습니다.
+     */
+    @Nonnull
+    public List<E> findDescendants(@Nonnull final Object id) {
+        return findDescendants(id, UNLIMITED_DEPTH);
+    }
+
+    /**
+     * {@code id} node 의 {@code maxDepth} 단계까지의 하위 node 를 depth, key 순서로 조회합니다. ({@code maxDepth}가 1 이면 자식 node 만)
+     */
+    @Nonnull
+    public List<E> findDescendants(@Nonnull final Object id, final int maxDepth) {
+        Assert.isTrue(maxDepth > 0, "maxDepth must be greater than 0.");
+        return selectDescendants(id, maxDepth, 1);
+    }
+
+    /**
+     * {@code id} node 의 상위 node 들을 가까운 순서(부모, 조부모, ..., root)로 조회합니다.
+     */
+    @Nonnull
+    public List<E> findAncestors(@Nonnull final Object id) {
+        Assert.notNull(id, "id must not be null!");
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("nodeId", id);
+        return operations.rawNamed(type.getClassType(), ancestorsSql, params).toList();
+    }
+
+    /**
+     * {@code id} node 와 모든 하위 node 를 조회하여 {@code id} node 를 root 로 하는 {@link EntityTree}를 만듭니다.
+     */
+    @Nonnull
+    public EntityTree<E> findTree(@Nonnull final Object id) {
+        return findTree(id, UNLIMITED_DEPTH);
+    }
+
+    /**
+     * {@code id} node 와 {@code maxDepth} 단계까지의 하위 node 를 조회하여 {@link EntityTree}를 만듭니다. 없는 node 이면 빈 tree 를 반환합니다.
+     */
+    @Nonnull
+    public EntityTree<E> findTree(@Nonnull final Object id, final int maxDepth) {
+        Assert.isTrue(maxDepth >= 0, "maxDepth must be greater than or equal to 0.");
+        return toTree(selectDescendants(id, maxDepth, 0));
+    }
+
+    /**
+     * 이미 조회한 엔티티들을 parent 키로 연결한 {@link EntityTree}를 만듭니다.
+     */
+    @Nonnull
+    public EntityTree<E> toTree(@Nonnull final List<E> entities) {
+        return EntityTree.of(entities, this::getKey, this::getParentKey);
+    }
+
+    @Nonnull
+    private List<E> selectDescendants(@Nonnull final Object id, final int maxDepth, final int minDepth) {
+        Assert.notNull(id, "id must not be null!");
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("rootId", id);
+        params.put("maxDepth", maxDepth);
+        params.put("minDepth", minDepth);
+        return operations.rawNamed(type.getClassType(), descendantsSql, params).toList();
+    }
+
+    @Nonnull
+    private Object getKey(@Nonnull final E entity) {
+        return proxyOf(entity).key();
+    }
+
+    @Nullable
+    private Object getParentKey(@Nonnull final E entity) {
+        return proxyOf(entity).getKey(parentAttribute);
+    }
+
+    @Nonnull
+    private EntityProxy<E> proxyOf(@Nonnull final E entity) {
+        return type.getProxyProvider().apply(entity);
+    }
+
+    @Nonnull
+    private static <E> Attribute<E, ?> findParentAttribute(@Nonnull final Type<E> type) {
+        Attribute<E, ?> found = null;
+        for (Attribute<E, ?> attribute : type.getAttributes()) {
+            if (attribute.isAssociation() && attribute.isForeignKey() &&
+                attribute.getReferencedClass() != null &&
+                attribute.getReferencedClass().isAssignableFrom(type.getClassType())) {
+                Assert.state(found == null,
+                             "Multiple self referencing attributes. specify parentAttribute explicitly. type=" + type.getName());
+                found = attribute;
+            }
+        }
+        Assert.state(found != null, "No self referencing foreign key attribute. type=" + type.getName());
+        return found;
+    }
+
+    @Nonnull
+    private static String withClause(@Nonnull final Platform platform) {
+        switch (platform.toString()) {
+            case "SQLServer":
+            case "Oracle":
+                return "WITH";
+            default:
+                return "WITH RECURSIVE";
+        }
+    }
+}
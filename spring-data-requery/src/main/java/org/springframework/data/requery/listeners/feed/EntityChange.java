@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.listeners.feed;
+
+import lombok.Getter;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Set;
+
+/**
+ * commit 된 엔티티 변경 내역
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Getter
+public final class EntityChange {
+
+    @Nonnull private final EntityChangeType changeType;
+    @Nonnull private final Class<?> entityType;
+    /**
+     * 엔티티의 key. 복합 key 이면 {@link io.requery.proxy.CompositeKey}
+     */
+    @Nullable private final Object key;
+    /**
+     * UPDATE 시 변경된 속성 이름. INSERT, DELETE 는 빈 집합입니다.
+     */
+    @Nonnull private final Set<String> changedAttributes;
+    /**
+     * 변경 내역을 수집한 시각 (epoch millis)
+     */
+    private final long timestamp;
+
+    EntityChange(@Nonnull final EntityChangeType changeType,
+                 @Nonnull final Class<?> entityType,
+                 @Nullable final Object key,
+                 @Nonnull final Set<String> changedAttributes,
+                 final long timestamp) {
+        this.changeType = changeType;
+        this.entityType = entityType;
+        this.key = key;
+        this.changedAttributes = changedAttributes;
+        this.timestamp = timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "EntityChange{" +
+               "changeType=" + changeType +
+               ", entityType=" + entityType.getSimpleName() +
+               ", key=" + key +
+               ", changedAttributes=" + changedAttributes +
+               ", timestamp=" + timestamp +
+               '}';
+    }
+}
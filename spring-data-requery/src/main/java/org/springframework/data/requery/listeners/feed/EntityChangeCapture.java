@@ -0,0 +1,176 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.listeners.feed;
+
+import io.requery.TransactionIsolation;
+import io.requery.TransactionListener;
+import io.requery.meta.Attribute;
+import io.requery.meta.EntityModel;
+import io.requery.meta.Type;
+import io.requery.proxy.EntityProxy;
+import io.requery.proxy.PropertyState;
+import io.requery.sql.EntityStateListener;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * transaction 안에서 발생한 엔티티 변경을 thread 별로 모았다가, commit 후에 {@link EntityChangeFeed}에 넘깁니다. rollback 되면 버립니다.
+ * requery 는 transaction 을 thread 에 묶으므로 {@link EntityStateListener}와 {@link TransactionListener} 호출은 같은 thread 에서 일어납니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+class EntityChangeCapture implements EntityStateListener<Object>, TransactionListener {
+
+    private final EntityChangeFeed feed;
+    private final EntityModel entityModel;
+    private final ThreadLocal<Pending> pending = ThreadLocal.withInitial(Pending::new);
+
+    EntityChangeCapture(@Nonnull final EntityChangeFeed feed, @Nonnull final EntityModel entityModel) {
+        this.feed = feed;
+        this.entityModel = entityModel;
+    }
+
+    @Override
+    public void preUpdate(@Nullable final Object entity) {
+        if (entity == null || !feed.hasSubscribers()) {
+            return;
+        }
+        // postUpdate 시점에는 속성 상태가 LOADED 로 바뀌므로 변경된 속성은 여기서 수집합니다.
+        EntityProxy<Object> proxy = proxyOf(entity);
+        Set<String> modified = new LinkedHashSet<>();
+        for (Attribute<Object, ?> attribute : proxy.type().getAttributes()) {
+            if (proxy.getState(attribute) == PropertyState.MODIFIED) {
+                modified.add(attribute.getName());
+            }
+        }
+        pending.get().modifiedAttributes.put(entity, Collections.unmodifiableSet(modified));
+    }
+
+    @Override
+    public void postUpdate(@Nullable final Object entity) {
+        if (entity == null) {
+            return;
+        }
+        Set<String> modified = pending.get().modifiedAttributes.remove(entity);
+        if (modified != null || feed.hasSubscribers()) {
+            capture(EntityChangeType.UPDATE, entity, modified != null ? modified : Collections.emptySet());
+        }
+    }
+
+    @Override
+    public void postInsert(@Nullable final Object entity) {
+        if (entity != null && feed.hasSubscribers()) {
+            capture(EntityChangeType.INSERT, entity, Collections.emptySet());
+        }
+    }
+
+    @Override
+    public void postDelete(@Nullable final Object entity) {
+        if (entity != null && feed.hasSubscribers()) {
+            capture(EntityChangeType.DELETE, entity, Collections.emptySet());
+        }
+    }
+
+    @Override
+    public void postLoad(@Nullable final Object entity) {
+        // Nothing to do.
+    }
+
+    @Override
+    public void preInsert(@Nullable final Object entity) {
+        // Nothing to do.
+    }
+
+    @Override
+    public void preDelete(@Nullable final Object entity) {
+        // Nothing to do.
+    }
+
+    @Override
+    public void beforeBegin(@Nullable final TransactionIsolation isolation) {
+        pending.remove();
+    }
+
+    @Override
+    public void afterBegin(@Nullable final TransactionIsolation isolation) {
+        // Nothing to do.
+    }
+
+    @Override
+    public void beforeCommit(@Nullable final Set<Type<?>> types) {
+        // Nothing to do.
+    }
+
+    @Override
+    public void afterCommit(@Nullable final Set<Type<?>> types) {
+        List<EntityChange> changes = pending.get().changes;
+        pending.remove();
+        if (!changes.isEmpty()) {
+            feed.publish(changes);
+        }
+    }
+
+    @Override
+    public void beforeRollback(@Nullable final Set<Type<?>> types) {
+        // Nothing to do.
+    }
+
+    @Override
+    public void afterRollback(@Nullable final Set<Type<?>> types) {
+        Pending discarded = pending.get();
+        pending.remove();
+        if (!discarded.changes.isEmpty()) {
+            log.trace("Discard entity changes of rolled back transaction. changes={}", discarded.changes.size());
+        }
+    }
+
+    private void capture(@Nonnull final EntityChangeType changeType,
+                         @Nonnull final Object entity,
+                         @Nonnull final Set<String> changedAttributes) {
+        EntityProxy<Object> proxy = proxyOf(entity);
+        EntityChange change = new EntityChange(changeType,
+                                               proxy.type().getClassType(),
+                                               proxy.key(),
+                                               changedAttributes,
+                                               System.currentTimeMillis());
+        pending.get().changes.add(change);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    private EntityProxy<Object> proxyOf(@Nonnull final Object entity) {
+        Type<Object> type = (Type<Object>) entityModel.typeOf(entity.getClass());
+        return type.getProxyProvider().apply(entity);
+    }
+
+    private static final class Pending {
+        private final List<EntityChange> changes = new ArrayList<>();
+        private final Map<Object, Set<String>> modifiedAttributes = new IdentityHashMap<>();
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.listeners.feed;
+
+import io.requery.meta.EntityModel;
+import io.requery.sql.ConfigurationBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * commit 된 엔티티 변경 내역(INSERT, UPDATE, DELETE)을 비동기로 subscriber 들에게 묶음으로 전달합니다.
+ * <p>
+ * {@link #install(ConfigurationBuilder)}로 requery 설정에 등록하면 transaction 안의 엔티티 변경을 thread 별로 모았다가
+ * commit 후에 lock-free ring buffer 에 넣고, 전용 dispatcher thread 가 최대 {@code maxBatchSize}개씩 꺼내 {@link EntityChangeSubscriber}에 전달합니다.
+ * 따라서 subscriber 의 작업은 transaction thread 에서 실행되지 않습니다.
+ * <p>
+ * ring buffer 가 가득 차면 {@link OverflowStrategy}에 따라 변경 내역을 버리거나 commit 한 thread 를 잠시 기다리게 하며,
+ * 버린 수는 {@link #getDroppedCount()}로 확인할 수 있습니다. 엔티티 객체를 거치지 않는 update/delete query 의 변경은 수집하지 않습니다.
+ * subscriber 가 없으면 변경 내역을 수집하지 않습니다.
+ *
+ * <pre>{@code
+ * EntityChangeFeed feed = new EntityChangeFeed(Models.DEFAULT, 8192).maxBatchSize(256);
+ * Configuration configuration = feed.install(new ConfigurationBuilder(dataSource, Models.DEFAULT)).build();
+ * feed.subscribe(changes -> searchIndexer.index(changes));
+ * }</pre>
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+public class EntityChangeFeed implements AutoCloseable {
+
+    public static final int DEFAULT_CAPACITY = 8192;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+    public static final long DEFAULT_BLOCK_TIMEOUT_MILLIS = 100L;
+
+    private static final int MAX_CAPACITY = 1 << 30;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final AtomicInteger FEED_SEQ = new AtomicInteger();
+
+    private final MpscRingBuffer<EntityChange> buffer;
+    private final EntityChangeCapture capture;
+    private final List<EntityChangeSubscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final Thread dispatcher;
+
+    private volatile int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+    private volatile OverflowStrategy overflowStrategy = OverflowStrategy.DROP;
+    private volatile long blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_BLOCK_TIMEOUT_MILLIS);
+    private volatile boolean closed = false;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failedDeliveries = new LongAdder();
+
+    public EntityChangeFeed(@Nonnull final EntityModel entityModel) {
+        this(entityModel, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity ring buffer 크기. 2의 거듭제곱으로 올림합니다.
+     */
+    public EntityChangeFeed(@Nonnull final EntityModel entityModel, final int capacity) {
+        Assert.notNull(entityModel, "entityModel must not be null!");
+        Assert.isTrue(capacity > 0 && capacity <= MAX_CAPACITY, "capacity must be between 1 and " + MAX_CAPACITY);
+
+        this.buffer = new MpscRingBuffer<>(capacity);
+        this.capture = new EntityChangeCapture(this, entityModel);
+
+        this.dispatcher = new Thread(this::dispatchLoop, "requery-change-feed-" + FEED_SEQ.incrementAndGet());
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    /**
+     * subscriber 에 한번에 전달할 최대 변경 내역 수 (기본 {@link #DEFAULT_MAX_BATCH_SIZE})
+     */
+    public EntityChangeFeed maxBatchSize(final int maxBatchSize) {
+        Assert.isTrue(maxBatchSize > 0, "maxBatchSize must be greater than 0.");
+        this.maxBatchSize = maxBatchSize;
+        return this;
+    }
+
+    /**
+     * ring buffer 가 가득 찼을 때의 처리 방법 (기본 {@link OverflowStrategy#DROP}).
+     * {@link OverflowStrategy#BLOCK}이면 commit 한 thread 를 최대 {@code blockTimeout} 동안 기다리게 합니다.
+     */
+    public EntityChangeFeed overflowStrategy(@Nonnull final OverflowStrategy overflowStrategy,
+                                             final long blockTimeout,
+                                             @Nonnull final TimeUnit unit) {
+        Assert.notNull(overflowStrategy, "overflowStrategy must not be null!");
+        Assert.isTrue(blockTimeout >= 0, "blockTimeout must not be negative.");
+        this.overflowStrategy = overflowStrategy;
+        this.blockTimeoutNanos = unit.toNanos(blockTimeout);
+        return this;
+    }
+
+    /**
+     * 엔티티 변경을 수집하는 listener 를 requery 설정에 등록합니다.
+     */
+    @Nonnull
+    public ConfigurationBuilder install(@Nonnull final ConfigurationBuilder builder) {
+        Assert.notNull(builder, "builder must not be null!");
+        return builder
+            .addEntityStateListener(capture)
+            .addTransactionListenerFactory(() -> capture);
+    }
+
+    public EntityChangeFeed subscribe(@Nonnull final EntityChangeSubscriber subscriber) {
+        Assert.notNull(subscriber, "subscriber must not be null!");
+        subscribers.add(subscriber);
+        return this;
+    }
+
+    public void unsubscribe(@Nonnull final EntityChangeSubscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    public boolean hasSubscribers() {
+        return !subscribers.isEmpty();
+    }
+
+    /**
+     * commit 된 transaction 의 변경 내역을 ring buffer 에 넣습니다. 넣지 못한 변경 내역은 버리고 drop 수에 더합니다.
+     */
+    void publish(@Nonnull final List<EntityChange> changes) {
+        if (closed) {
+            dropped.add(changes.size());
+            return;
+        }
+        for (EntityChange change : changes) {
+            if (offer(change)) {
+                published.increment();
+            } else {
+                dropped.increment();
+            }
+        }
+        LockSupport.unpark(dispatcher);
+    }
+
+    private boolean offer(@Nonnull final EntityChange change) {
+        if (buffer.offer(change)) {
+            return true;
+        }
+        if (overflowStrategy != OverflowStrategy.BLOCK) {
+            return false;
+        }
+
+        LockSupport.unpark(dispatcher);
+        long deadline = System.nanoTime() + blockTimeoutNanos;
+        while (System.nanoTime() < deadline && !closed) {
+            LockSupport.parkNanos(this, FULL_PARK_NANOS);
+            if (buffer.offer(change)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void dispatchLoop() {
+        List<EntityChange> batch = new ArrayList<>(maxBatchSize);
+        while (true) {
+            batch.clear();
+            if (buffer.drain(batch, maxBatchSize) > 0) {
+                deliver(batch);
+                continue;
+            }
+            if (closed && buffer.size() == 0) {
+                break;
+            }
+            LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+        }
+        log.debug("Entity change feed dispatcher is stopped. published={}, dropped={}", getPublishedCount(), getDroppedCount());
+    }
+
+    private void deliver(@Nonnull final List<EntityChange> batch) {
+        batches.increment();
+        for (EntityChangeSubscriber subscriber : subscribers) {
+            List<EntityChange> changes = filter(subscriber, batch);
+            if (changes.isEmpty()) {
+                continue;
+            }
+            try {
+                subscriber.onChanges(changes);
+            } catch (Exception e) {
+                failedDeliveries.increment();
+                log.warn("Fail to deliver entity changes. subscriber={}, changes={}", subscriber, changes.size(), e);
+            }
+        }
+        delivered.add(batch.size());
+    }
+
+    @Nonnull
+    private static List<EntityChange> filter(@Nonnull final EntityChangeSubscriber subscriber, @Nonnull final List<EntityChange> batch) {
+        List<EntityChange> changes = new ArrayList<>(batch.size());
+        for (EntityChange change : batch) {
+            if (subscriber.supports(change.getEntityType())) {
+                changes.add(change);
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * 지금까지 ring buffer 에 넣은 변경 내역이 모두 전달될 때까지 최대 {@code timeout} 동안 기다립니다.
+     *
+     * @return 시간 안에 모두 전달되면 true
+     */
+    public boolean flush(final long timeout, @Nonnull final TimeUnit unit) {
+        long target = published.sum();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (delivered.sum() < target) {
+            if (System.nanoTime() >= deadline || !dispatcher.isAlive()) {
+                return false;
+            }
+            LockSupport.unpark(dispatcher);
+            LockSupport.parkNanos(this, FULL_PARK_NANOS);
+        }
+        return true;
+    }
+
+    /**
+     * 새로운 변경 내역을 받지 않고, 남은 변경 내역을 전달한 후 dispatcher thread 를 종료합니다.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(dispatcher);
+        try {
+            dispatcher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getCapacity() {
+        return buffer.capacity();
+    }
+
+    /**
+     * ring buffer 에 들어간 변경 내역 수
+     */
+    public long getPublishedCount() {
+        return published.sum();
+    }
+
+    /**
+     * ring buffer 가 가득 차거나 feed 가 닫혀서 버린 변경 내역 수
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * subscriber 들에게 전달을 마친 변경 내역 수
+     */
+    public long getDeliveredCount() {
+        return delivered.sum();
+    }
+
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * subscriber 가 예외를 던진 횟수
+     */
+    public long getFailedDeliveryCount() {
+        return failedDeliveries.sum();
+    }
+
+    /**
+     * 아직 전달하지 않은 변경 내역 수
+     */
+    public int getPendingCount() {
+        return buffer.size();
+    }
+}
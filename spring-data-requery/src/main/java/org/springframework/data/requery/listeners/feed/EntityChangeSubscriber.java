@@ -0,0 +1,46 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.listeners.feed;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+/**
+ * {@link EntityChangeFeed}에서 commit 된 엔티티 변경 내역을 묶음으로 받습니다. (cache 무효화, 검색 색인, outbox 등)
+ * <p>
+ * feed 의 dispatcher thread 에서 호출되므로 transaction thread 의 지연에 영향을 주지 않지만,
+ * 오래 걸리는 작업은 다른 subscriber 의 전달을 늦추므로 별도의 executor 로 넘기는 것이 좋습니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@FunctionalInterface
+public interface EntityChangeSubscriber {
+
+    /**
+     * commit 순서대로 정렬된 변경 내역을 받습니다. 예외를 던지면 해당 묶음은 이 subscriber 에 다시 전달되지 않습니다.
+     */
+    void onChanges(@Nonnull List<EntityChange> changes);
+
+    /**
+     * {@code entityType}의 변경 내역을 받을지 여부 (기본은 모든 엔티티)
+     */
+    default boolean supports(@Nonnull final Class<?> entityType) {
+        return true;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.listeners.feed;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 여러 producer, 하나의 consumer 를 위한 lock-free 고정 크기 ring buffer.
+ * <p>
+ * producer 는 CAS 로 slot 을 예약한 후 값을 기록하고, consumer 는 slot 에 값이 기록된 순서대로만 꺼냅니다.
+ * 예약은 되었지만 아직 기록되지 않은 slot 을 만나면 다음 drain 때까지 기다립니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+final class MpscRingBuffer<T> {
+
+    private final AtomicReferenceArray<T> buffer;
+    private final int capacity;
+    private final int mask;
+
+    private final AtomicLong producerIndex = new AtomicLong();
+    private final AtomicLong consumerIndex = new AtomicLong();
+
+    MpscRingBuffer(final int requestedCapacity) {
+        this.capacity = roundToPowerOfTwo(requestedCapacity);
+        this.mask = capacity - 1;
+        this.buffer = new AtomicReferenceArray<>(capacity);
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return 가득 차서 넣지 못하면 false
+     */
+    boolean offer(@Nonnull final T element) {
+        long index;
+        do {
+            index = producerIndex.get();
+            if (index - consumerIndex.get() >= capacity) {
+                return false;
+            }
+        } while (!producerIndex.compareAndSet(index, index + 1));
+
+        buffer.lazySet((int) index & mask, element);
+        return true;
+    }
+
+    /**
+     * consumer thread 에서만 호출해야 합니다.
+     *
+     * @return 꺼낸 요소 수
+     */
+    int drain(@Nonnull final List<T> out, final int limit) {
+        long index = consumerIndex.get();
+        int count = 0;
+        while (count < limit) {
+            int slot = (int) index & mask;
+            T element = buffer.get(slot);
+            if (element == null) {
+                break;
+            }
+            buffer.lazySet(slot, null);
+            out.add(element);
+            index++;
+            count++;
+        }
+        if (count > 0) {
+            consumerIndex.lazySet(index);
+        }
+        return count;
+    }
+
+    int size() {
+        long size = producerIndex.get() - consumerIndex.get();
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    private static int roundToPowerOfTwo(final int value) {
+        if (value <= 2) {
+            return 2;
+        }
+        return Integer.highestOneBit(value - 1) << 1;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.listeners.feed;
+
+/**
+ * {@link EntityChangeFeed}의 ring buffer 가 가득 찼을 때의 처리 방법
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+public enum OverflowStrategy {
+
+    /**
+     * 변경 내역을 버리고 drop 수를 증가시킵니다. commit 한 thread 는 기다리지 않습니다.
+     */
+    DROP,
+
+    /**
+     * 빈 공간이 생길 때까지 commit 한 thread 를 지정한 시간만큼 기다리게 합니다. 시간이 지나면 변경 내역을 버립니다.
+     */
+    BLOCK
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.repository;
+
+import io.requery.query.Condition;
+import org.reactivestreams.Publisher;
+import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.data.repository.reactive.ReactiveSortingRepository;
+import org.springframework.data.requery.core.RequeryOperations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * {@link Mono}/{@link Flux}를 반환하는 Requery repository 입니다.
+ * <p>
+ * JDBC 작업은 {@link #getScheduler()}의 크기가 제한된 thread pool 에서 실행되므로, WebFlux 의 event loop 를 막지 않습니다.
+ * {@code findAll} 계열의 {@link Flux}는 구독자가 요청한 수({@code request(n)})만큼씩 나누어 조회하고,
+ * {@link #saveAll(Publisher)}는 requery 의 {@code batchUpdateSize} 단위로 모아서 저장합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@NoRepositoryBean
+@ParametersAreNonnullByDefault
+public interface ReactiveRequeryRepository<T, ID> extends ReactiveSortingRepository<T, ID> {
+
+    @Nonnull
+    RequeryOperations getOperations();
+
+    /**
+     * JDBC 작업을 실행하는 {@link Scheduler}
+     */
+    @Nonnull
+    Scheduler getScheduler();
+
+    /**
+     * {@code condition}을 만족하는 엔티티를 구독자의 요청 수만큼씩 나누어 조회합니다.
+     */
+    @Nonnull
+    Flux<T> findAll(Condition<?, ?> condition);
+
+    /**
+     * {@code condition}을 만족하는 엔티티 수
+     */
+    @Nonnull
+    Mono<Long> count(Condition<?, ?> condition);
+}
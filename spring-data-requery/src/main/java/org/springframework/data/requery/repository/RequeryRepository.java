@@ -24,11 +24,14 @@ import org.springframework.data.repository.NoRepositoryBean;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.QueryByExampleExecutor;
 import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.core.export.RowWriter;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * RequeryRepository
@@ -89,10 +92,28 @@ public interface RequeryRepository<T, ID>
     @Nonnull
     <S extends T> S refreshAll(@Nonnull final S entity);
 
+    /**
+     * {@code id}의 엔티티를 읽어 {@code mutator}를 적용하고 저장합니다. {@code @Version} 충돌 시 다시 읽어 재시도합니다.
+     *
+     * @see org.springframework.data.requery.core.retry.OptimisticRetry
+     */
+    @Nonnull
+    T updateWithRetry(@Nonnull final ID id, @Nonnull final Consumer<? super T> mutator);
+
+    /**
+     * {@code ids}의 엔티티들을 각각 수정하여 저장하고, 충돌한 엔티티들만 모아 다시 읽어 재시도합니다.
+     *
+     * @see org.springframework.data.requery.core.retry.OptimisticRetry
+     */
+    @Nonnull
+    List<T> updateAllWithRetry(@Nonnull final Iterable<ID> ids, @Nonnull final Consumer<? super T> mutator);
+
     void deleteInBatch(@Nonnull final Iterable<T> entities);
 
     int deleteAllInBatch();
 
+    long exportAll(@Nonnull final RowWriter<? super T> rowWriter, @Nonnull final OutputStream out);
+
     @Nullable
     T getOne(@Nonnull final ID id);
 
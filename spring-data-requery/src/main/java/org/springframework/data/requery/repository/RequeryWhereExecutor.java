@@ -25,8 +25,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.repository.NoRepositoryBean;
+import org.springframework.data.requery.core.export.RowWriter;
 
 import javax.annotation.Nonnull;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Optional;
 
@@ -69,4 +71,16 @@ public interface RequeryWhereExecutor<T> {
      * @return 조건절에 해당하는 엔티티 존재 여부
      */
     boolean exists(@Nonnull final QueryElement<? extends Result<T>> whereClause);
+
+    /**
+     * 해당 where 조건에 해당하는 엔티티를 메모리에 모으지 않고 한 행씩 출력합니다.
+     *
+     * @param whereClause Where 조건절
+     * @param rowWriter   행 출력 형식 (CSV, JSON Lines 등)
+     * @param out         출력 스트림 (flush 만 하고 닫지 않습니다)
+     * @return 출력한 행 수
+     */
+    long export(@Nonnull final Return<? extends Result<T>> whereClause,
+                @Nonnull final RowWriter<? super T> rowWriter,
+                @Nonnull final OutputStream out);
 }
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.repository;
+
+import org.springframework.data.requery.core.tree.EntityTree;
+
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.List;
+
+/**
+ * 자기 자신을 parent 로 참조하는 엔티티(tree node)의 하위/상위 node 를 recursive CTE 한 문장으로 조회하는 repository fragment 입니다.
+ * {@link TreeRequeryRepository}를 상속한 repository 에만 구현체가 추가됩니다.
+ *
+ * @author debop
+ * @see org.springframework.data.requery.core.tree.TreeQuery
+ * @since 26. 10. 19
+ */
+@ParametersAreNonnullByDefault
+public interface TreeQueryExecutor<T, ID> {
+
+    /**
+     * {@code id} node 의 {@code maxDepth} 단계까지의 하위 node 들을 depth 순서로 조회합니다. {@code id} node 자신은 포함하지 않습니다.
+     */
+    @Nonnull
+    List<T> findDescendants(@Nonnull final ID id, final int maxDepth);
+
+    /**
+     * {@code id} node 의 상위 node 들을 가까운 순서(부모, ..., root)로 조회합니다.
+     */
+    @Nonnull
+    List<T> findAncestors(@Nonnull final ID id);
+
+    /**
+     * {@code id} node 를 root 로 하고 {@code maxDepth} 단계까지의 하위 node 를 포함하는 {@link EntityTree}를 조회합니다.
+     */
+    @Nonnull
+    EntityTree<T> findTree(@Nonnull final ID id, final int maxDepth);
+
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.repository;
+
+import org.springframework.data.repository.NoRepositoryBean;
+
+/**
+ * 자기 자신을 parent 로 참조하는 엔티티(tree node)를 위한 repository 입니다.
+ * 하위/상위 node 를 depth 와 상관없이 recursive CTE 한 문장으로 조회합니다.
+ * tree 조회 메소드는 {@link TreeQueryExecutor} fragment 로 제공되므로, 이 interface 를 상속한 repository 에만 추가됩니다.
+ *
+ * <pre>{@code
+ * public interface CategoryRepository extends TreeRequeryRepository<Category, Long> { }
+ * }</pre>
+ *
+ * @author debop
+ * @see org.springframework.data.requery.core.tree.TreeQuery
+ * @since 26. 10. 19
+ */
+@NoRepositoryBean
+public interface TreeRequeryRepository<T, ID> extends RequeryRepository<T, ID>, TreeQueryExecutor<T, ID> {
+
+}
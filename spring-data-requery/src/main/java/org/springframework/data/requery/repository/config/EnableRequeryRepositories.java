@@ -21,6 +21,7 @@ import org.springframework.context.annotation.Import;
 import org.springframework.data.repository.config.DefaultRepositoryBaseClass;
 import org.springframework.data.repository.query.QueryLookupStrategy;
 import org.springframework.data.requery.repository.RequeryRepository;
+import org.springframework.data.requery.repository.query.QueryBootstrapMode;
 import org.springframework.data.requery.repository.support.RequeryRepositoryFactoryBean;
 
 import java.lang.annotation.Documented;
@@ -68,4 +69,9 @@ public @interface EnableRequeryRepositories {
     boolean considerNestedRepositories() default false;
 
     boolean enableDefaultTransactions() default true;
+
+    /**
+     * Query method 생성 시점. {@link QueryBootstrapMode#DEFAULT}이면 {@link QueryBootstrapMode#PROPERTY_NAME} 환경설정 값을 따릅니다.
+     */
+    QueryBootstrapMode bootstrapMode() default QueryBootstrapMode.DEFAULT;
 }
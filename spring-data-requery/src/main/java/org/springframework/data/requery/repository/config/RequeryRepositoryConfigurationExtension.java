@@ -52,6 +52,7 @@ public class RequeryRepositoryConfigurationExtension extends RepositoryConfigura
 
     private static final String DEFAULT_TRANSACTION_MANAGER_BEAN_NAME = "transactionManager";
     private static final String ENABLE_DEFAULT_TRANSACTIONS_ATTRIBUTE = "enableDefaultTransactions";
+    private static final String BOOTSTRAP_MODE_ATTRIBUTE = "bootstrapMode";
 
     @Nonnull
     @Override
@@ -101,6 +102,8 @@ public class RequeryRepositoryConfigurationExtension extends RepositoryConfigura
 
         builder.addPropertyValue(ENABLE_DEFAULT_TRANSACTIONS_ATTRIBUTE,
                                  attributes.getBoolean(ENABLE_DEFAULT_TRANSACTIONS_ATTRIBUTE));
+        builder.addPropertyValue(BOOTSTRAP_MODE_ATTRIBUTE,
+                                 attributes.getEnum(BOOTSTRAP_MODE_ATTRIBUTE));
     }
 
     @Override
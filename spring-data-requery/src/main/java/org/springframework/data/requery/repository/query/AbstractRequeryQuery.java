@@ -30,7 +30,6 @@ import org.springframework.data.requery.repository.query.RequeryQueryExecution.S
 import org.springframework.data.requery.repository.query.RequeryQueryExecution.SlicedExecution;
 import org.springframework.data.requery.repository.query.RequeryQueryExecution.StreamExecution;
 import org.springframework.data.requery.utils.RequeryMetamodel;
-import org.springframework.data.requery.utils.RequeryUtils;
 import org.springframework.util.Assert;
 
 import javax.annotation.Nonnull;
@@ -60,7 +59,7 @@ public abstract class AbstractRequeryQuery implements RepositoryQuery {
 
         this.queryMethod = method;
         this.operations = operations;
-        this.metamodel = new RequeryMetamodel(RequeryUtils.getEntityModel(operations.getDataStore()));
+        this.metamodel = new RequeryMetamodel(operations.getEntityModel());
         this.domainClass = method.getEntityInformation().getJavaType();
     }
 
@@ -119,6 +118,16 @@ public abstract class AbstractRequeryQuery implements RepositoryQuery {
                : Optional.empty();
     }
 
+    /**
+     * 파라미터를 {@code ?}로 둔 이 query method 의 SQL 을 생성합니다. 시작 시 warmup 에서 SQL 생성과 statement 준비에 사용합니다.
+     *
+     * @return SQL 을 미리 만들 수 없는 query method 이면 {@link Optional#empty()}
+     */
+    @Nonnull
+    public Optional<String> createWarmupSql() {
+        return Optional.empty();
+    }
+
     @Nonnull
     protected abstract QueryElement<?> doCreateQuery(@Nonnull final Object[] values);
 
@@ -23,16 +23,23 @@ import io.requery.query.element.QueryElement;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.query.Parameter;
+import org.springframework.data.repository.query.Parameters;
 import org.springframework.data.repository.query.RepositoryQuery;
 import org.springframework.data.repository.query.ResultProcessor;
 import org.springframework.data.repository.query.ReturnedType;
 import org.springframework.data.requery.annotation.Query;
+import org.springframework.data.requery.core.RawEntityNamedParameteredQuery;
+import org.springframework.data.requery.core.RawTupleNamedParameteredQuery;
 import org.springframework.data.requery.core.RequeryOperations;
 import org.springframework.util.StringUtils;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * {@link Query} annotation이 정의된 메소드, interface default method, custom defined method를 실행하는 {@link RepositoryQuery}
@@ -62,6 +69,12 @@ public class DeclaredRequeryQuery extends AbstractRequeryQuery {
         throw new UnsupportedOperationException("Unsupported operation in @Query is defined");
     }
 
+    @Nonnull
+    @Override
+    public Optional<String> createWarmupSql() {
+        return Optional.of(getRawQuery());
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public Object execute(@Nonnull final Object[] parameters) {
@@ -76,7 +89,9 @@ public class DeclaredRequeryQuery extends AbstractRequeryQuery {
 
         String query = getRawQuery();
 
-        log.debug("Execute queryMethod={}, return type={}, query={}", getQueryMethod().getName(), getQueryMethod().getReturnType(), query);
+        if (log.isDebugEnabled()) {
+            log.debug("Execute queryMethod={}, return type={}, query={}", getQueryMethod().getName(), getQueryMethod().getReturnType(), query);
+        }
 
         Result<?> result;
 
@@ -89,33 +104,25 @@ public class DeclaredRequeryQuery extends AbstractRequeryQuery {
         // 참고로 Query By Property 로 PagedExecution 에서는 제대로 수행된다.
         if (pageable.isPaged()) {
 
-            int pageableIndex = accessor.getParameters().getPageableIndex();
-            Object[] values = extractValues(pageableIndex, parameters);
-
-            log.trace("values={}", values);
-
-            // Content Query
-            long totals = retrieveTotals(query, values);
+            // Count Query
+            long totals = retrieveTotals(query, parameters);
 
             // Content query
-            Result<?> contentResult = retrieveContents(query, pageable, values);
+            Result<?> contentResult = retrieveContents(query, pageable, parameters);
 
             if (getQueryMethod().isPageQuery()) {
                 List<?> contents = contentResult.toList();
-                log.debug("Page results. totals={}, contents={}, values={}", totals, contents, values);
+                if (log.isDebugEnabled()) {
+                    log.debug("Page results. totals={}, contents={}, parameters={}", totals, contents, parameters);
+                }
 
                 resultSet = new PageImpl(contents, pageable, totals);
             } else {
                 resultSet = castResult(contentResult);
             }
 
-        } else if (getQueryMethod().isQueryForEntity()) {
-            log.debug("Query for entity. entity={}", getQueryMethod().getEntityInformation().getJavaType());
-            result = operations.raw(getQueryMethod().getEntityInformation().getJavaType(), query, parameters);
-            resultSet = castResult(result);
-            result.close();
         } else {
-            result = operations.raw(query, parameters);
+            result = executeQuery(query, parameters);
             resultSet = castResult(result);
             result.close();
         }
@@ -123,22 +130,7 @@ public class DeclaredRequeryQuery extends AbstractRequeryQuery {
         return resultSet;
     }
 
-    @Nonnull
-    private Object[] extractValues(int pageableIndex, @Nonnull final Object[] parameters) {
-
-        Object[] values = (pageableIndex >= 0) ? new Object[parameters.length - 1] : parameters;
-
-        int j = 0;
-        for (int i = 0; i < parameters.length; i++) {
-            if (i == pageableIndex) {
-                continue;
-            }
-            values[j++] = parameters[i];
-        }
-        return values;
-    }
-
-    private Result<?> retrieveContents(final String baseQuery, Pageable pageable, final Object[] values) {
+    private Result<?> retrieveContents(final String baseQuery, Pageable pageable, final Object[] parameters) {
         long offset = pageable.getOffset();
         int limit = pageable.getPageSize();
 
@@ -150,16 +142,10 @@ public class DeclaredRequeryQuery extends AbstractRequeryQuery {
             query = query + " limit " + limit;
         }
 
-        if (getQueryMethod().isQueryForEntity()) {
-            log.trace("query for entity. {}", getQueryMethod().getEntityInformation().getJavaType());
-            return operations.raw(getQueryMethod().getEntityInformation().getJavaType(), query, values);
-        } else {
-            log.trace("raw query for tuple. query={}, values={}", query, values);
-            return operations.raw(query, values);
-        }
+        return executeQuery(query, parameters);
     }
 
-    private long retrieveTotals(final String query, final Object[] values) {
+    private long retrieveTotals(final String query, final Object[] parameters) {
         // Count Query
         String countQuery = queryMethod.getCountQuery();
         if (countQuery == null) {
@@ -168,8 +154,11 @@ public class DeclaredRequeryQuery extends AbstractRequeryQuery {
 
         if (StringUtils.hasText(countQuery)) {
             try {
-                Result<Tuple> result = operations.raw(countQuery, values);
-                return result.first().get(0);
+                Result<Tuple> result = new RawTupleNamedParameteredQuery(operations,
+                                                                          countQuery,
+                                                                          getNamedValues(parameters),
+                                                                          getBindableValues(parameters)).get();
+                return result.first().<Number>get(0).longValue();
             } catch (Exception e) {
                 log.error("Fail to retrieve count. query={}", query, e);
                 return 0L;
@@ -178,6 +167,49 @@ public class DeclaredRequeryQuery extends AbstractRequeryQuery {
         return 0L;
     }
 
+    /**
+     * {@code :name} 은 메소드 parameter 이름으로, {@code ?} 는 바인딩 가능한 parameter 의 순서대로 값을 찾아 query 를 실행합니다.
+     */
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    private Result<?> executeQuery(@Nonnull final String query, @Nonnull final Object[] parameters) {
+        Map<String, Object> namedValues = getNamedValues(parameters);
+        Object[] values = getBindableValues(parameters);
+
+        if (getQueryMethod().isQueryForEntity()) {
+            Class<Object> entityType = (Class<Object>) getQueryMethod().getEntityInformation().getJavaType();
+            log.trace("query for entity. entity={}, query={}", entityType, query);
+            return new RawEntityNamedParameteredQuery<>(operations, entityType, query, namedValues, values)
+                .readOnly(getQueryMethod().isReadOnlyFetch())
+                .get();
+        } else {
+            log.trace("raw query for tuple. query={}, values={}", query, values);
+            return new RawTupleNamedParameteredQuery(operations, query, namedValues, values).get();
+        }
+    }
+
+    @Nonnull
+    private Map<String, Object> getNamedValues(@Nonnull final Object[] parameters) {
+        Map<String, Object> namedValues = new HashMap<>();
+        for (Parameter parameter : getQueryMethod().getParameters().getBindableParameters()) {
+            Optional<String> name = parameter.getName();
+            name.ifPresent(it -> namedValues.put(it, parameters[parameter.getIndex()]));
+        }
+        return namedValues;
+    }
+
+    @Nonnull
+    private Object[] getBindableValues(@Nonnull final Object[] parameters) {
+        Parameters<?, ?> bindableParameters = getQueryMethod().getParameters().getBindableParameters();
+        Object[] values = new Object[bindableParameters.getNumberOfParameters()];
+
+        int i = 0;
+        for (Parameter parameter : bindableParameters) {
+            values[i++] = parameters[parameter.getIndex()];
+        }
+        return values;
+    }
+
     @SuppressWarnings("unchecked")
     @Nullable
     private Object castResult(Result<?> result) {
@@ -196,7 +228,9 @@ public class DeclaredRequeryQuery extends AbstractRequeryQuery {
         } else if (getQueryMethod().isPageQuery()) {
             List<?> contents = result.toList();
             if (pageable.isPaged()) {
-                log.trace("Cast result to Page. totals={}, contents={}, contents size={}", totals, contents, contents.size());
+                if (log.isTraceEnabled()) {
+                    log.trace("Cast result to Page. totals={}, contents={}, contents size={}", totals, contents, contents.size());
+                }
                 return new PageImpl<>(contents, pageable, totals);
             } else {
                 return new PageImpl<>(result.toList());
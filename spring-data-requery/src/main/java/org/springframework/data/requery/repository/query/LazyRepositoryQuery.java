@@ -0,0 +1,128 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.repository.query;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.repository.query.QueryMethod;
+import org.springframework.data.repository.query.RepositoryQuery;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * 실제 {@link RepositoryQuery} 생성을 미루는 {@link RepositoryQuery}
+ * <p>
+ * {@link QueryBootstrapMode#LAZY}에서는 첫 실행 시 생성하고, {@link QueryBootstrapMode#PARALLEL}에서는
+ * 생성 즉시 {@link Executor}에서 생성을 시작하고 첫 실행 시 그 결과를 기다립니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+public class LazyRepositoryQuery implements RepositoryQuery {
+
+    @Nonnull private final RequeryQueryMethod queryMethod;
+    @Nonnull private final Supplier<RepositoryQuery> queryCreator;
+    @Nonnull private final AtomicReference<CompletableFuture<RepositoryQuery>> query = new AtomicReference<>();
+
+    public LazyRepositoryQuery(@Nonnull final RequeryQueryMethod queryMethod,
+                               @Nonnull final Supplier<RepositoryQuery> queryCreator) {
+        Assert.notNull(queryMethod, "queryMethod must not be null!");
+        Assert.notNull(queryCreator, "queryCreator must not be null!");
+
+        this.queryMethod = queryMethod;
+        this.queryCreator = queryCreator;
+    }
+
+    /**
+     * {@code executor}에서 query 생성을 시작합니다. 이미 생성 중이거나 생성되었다면 아무것도 하지 않습니다.
+     */
+    @Nonnull
+    public LazyRepositoryQuery start(@Nonnull final Executor executor) {
+        Assert.notNull(executor, "executor must not be null!");
+
+        CompletableFuture<RepositoryQuery> future = new CompletableFuture<>();
+        if (query.compareAndSet(null, future)) {
+            executor.execute(() -> create(future));
+        }
+        return this;
+    }
+
+    /**
+     * Query 생성(검증)이 끝나면 완료되는 future 를 반환합니다. 아직 시작하지 않았다면 호출한 thread 에서 생성합니다.
+     */
+    @Nonnull
+    public CompletableFuture<RepositoryQuery> getQuery() {
+        CompletableFuture<RepositoryQuery> future = query.get();
+        if (future == null) {
+            CompletableFuture<RepositoryQuery> created = new CompletableFuture<>();
+            if (query.compareAndSet(null, created)) {
+                create(created);
+            }
+            future = query.get();
+        }
+        return future;
+    }
+
+    @Override
+    public Object execute(@Nonnull final Object[] parameters) {
+        return resolve().execute(parameters);
+    }
+
+    @Nonnull
+    @Override
+    public QueryMethod getQueryMethod() {
+        return queryMethod;
+    }
+
+    @Nonnull
+    private RepositoryQuery resolve() {
+        try {
+            return getQuery().join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private void create(@Nonnull final CompletableFuture<RepositoryQuery> future) {
+        try {
+            if (log.isTraceEnabled()) {
+                log.trace("Create query for method={}", queryMethod.getName());
+            }
+            future.complete(queryCreator.get());
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LazyRepositoryQuery(" + queryMethod + ")";
+    }
+}
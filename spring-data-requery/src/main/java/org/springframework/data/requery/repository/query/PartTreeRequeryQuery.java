@@ -19,6 +19,7 @@ package org.springframework.data.requery.repository.query;
 import io.requery.query.NamedExpression;
 import io.requery.query.Scalar;
 import io.requery.query.element.QueryElement;
+import io.requery.sql.gen.DefaultOutput;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.repository.query.ResultProcessor;
@@ -29,10 +30,13 @@ import org.springframework.data.requery.mapping.RequeryMappingContext;
 import org.springframework.data.requery.repository.query.RequeryQueryExecution.DeleteExecution;
 import org.springframework.data.requery.repository.query.RequeryQueryExecution.ExistsExecution;
 import org.springframework.data.requery.utils.RequeryUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.springframework.data.requery.utils.RequeryUtils.applyPageable;
 import static org.springframework.data.requery.utils.RequeryUtils.applySort;
@@ -47,6 +51,11 @@ import static org.springframework.data.requery.utils.RequeryUtils.unwrap;
 @Slf4j
 public class PartTreeRequeryQuery extends AbstractRequeryQuery {
 
+    /**
+     * 같은 repository interface 로 여러 repository 를 만들 때 메소드 이름을 다시 파싱하지 않도록 domain class 별로 보관합니다.
+     */
+    private static final Map<Class<?>, Map<String, PartTree>> partTrees = new ConcurrentReferenceHashMap<>();
+
     private final PartTree tree;
     private final RequeryParameters parameters;
 
@@ -67,7 +76,9 @@ public class PartTreeRequeryQuery extends AbstractRequeryQuery {
         log.debug("Create PartTreeRequeryQuery. domainClass={}, parameters={}", getDomainClass(), parameters);
 
         try {
-            this.tree = new PartTree(method.getName(), domainClass);
+            this.tree = partTrees
+                .computeIfAbsent(domainClass, it -> new ConcurrentHashMap<>())
+                .computeIfAbsent(method.getName(), name -> new PartTree(name, domainClass));
             this.countQueryPreparer = new CountQueryPreparer();
             this.queryPreparer = tree.isCountProjection() ? countQueryPreparer : new QueryPreparer();
         } catch (Exception e) {
@@ -88,6 +99,20 @@ public class PartTreeRequeryQuery extends AbstractRequeryQuery {
         return (QueryElement<? extends Scalar<Integer>>) countQueryPreparer.createQuery(values);
     }
 
+    /**
+     * 파라미터 값 없이 validation 에 사용하는 것과 같은 query 를 만들어 SQL 로 변환합니다.
+     */
+    @Nonnull
+    @Override
+    public Optional<String> createWarmupSql() {
+        RequeryQueryCreator creator = queryPreparer.createCreator(null);
+        if (creator == null) {
+            return Optional.empty();
+        }
+        QueryElement<?> query = queryPreparer.restrictMaxResultsIfNecessary(creator.createQuery());
+        return Optional.of(new DefaultOutput(RequeryUtils.getEntityContext(operations.getDataStore()), query).toSql());
+    }
+
     @Nonnull
     @Override
     protected RequeryQueryExecution getExecution() {
@@ -104,7 +129,9 @@ public class PartTreeRequeryQuery extends AbstractRequeryQuery {
     @SuppressWarnings("unchecked")
     @Nonnull
     protected QueryElement<?> prepareQuery(@Nonnull final RequeryParameterAccessor accessor) {
-        QueryElement<?> query = unwrap(getOperations().select(getDomainClass()));
+        QueryElement<?> query = getQueryMethod().isReadOnlyFetch()
+                                ? unwrap(getOperations().selectReadOnly(getDomainClass()))
+                                : unwrap(getOperations().select(getDomainClass()));
 
         query = buildWhereClause(query, accessor);
 
@@ -218,7 +245,7 @@ public class PartTreeRequeryQuery extends AbstractRequeryQuery {
                                         ? processor.withDynamicProjection(accessor).getReturnedType()
                                         : processor.getReturnedType();
 
-            return new RequeryQueryCreator(operations, provider, returnedType, tree);
+            return new RequeryQueryCreator(operations, provider, returnedType, tree, getQueryMethod().isReadOnlyFetch());
         }
 
         private Sort getDynamicSort(Object[] values) {
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.repository.query;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Locale;
+
+/**
+ * Repository 의 query method 를 언제 생성하고 검증할지를 지정합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+public enum QueryBootstrapMode {
+
+    /**
+     * Repository 생성 시 모든 query method 를 순차적으로 생성하고 검증합니다.
+     */
+    DEFAULT,
+
+    /**
+     * Query method 가 처음 호출될 때 생성합니다. 잘못 정의된 query 는 첫 호출 시 예외가 발생합니다.
+     */
+    LAZY,
+
+    /**
+     * Repository 생성 시 query method 들을 fork-join pool 에서 병렬로 생성하고,
+     * 모든 singleton 이 생성된 후 검증 결과를 기다립니다.
+     */
+    PARALLEL;
+
+    /**
+     * Spring Environment 에서 bootstrap mode 를 읽을 때 사용하는 property 이름
+     */
+    public static final String PROPERTY_NAME = "spring.data.requery.bootstrap-mode";
+
+    /**
+     * {@code lazy}, {@code PARALLEL} 같은 문자열을 {@link QueryBootstrapMode}로 변환합니다. 값이 없으면 {@link #DEFAULT}입니다.
+     */
+    @Nonnull
+    public static QueryBootstrapMode of(@Nullable final String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return DEFAULT;
+        }
+        return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.US));
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.repository.query;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.ResolvableType;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.repository.core.NamedQueries;
+import org.springframework.data.repository.core.RepositoryMetadata;
+import org.springframework.data.repository.query.QueryLookupStrategy;
+import org.springframework.data.repository.query.QueryMethod;
+import org.springframework.data.repository.query.RepositoryQuery;
+import org.springframework.data.repository.util.ReactiveWrappers;
+import org.springframework.util.Assert;
+import org.springframework.util.NumberUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.stream.Stream;
+
+/**
+ * {@link Mono}/{@link Flux}를 반환하는 query method 를 실행하는 {@link RepositoryQuery}
+ * <p>
+ * query 생성과 실행은 blocking query method 와 같은 {@link RepositoryQuery}에 위임하고, 실행만 {@link Scheduler}로 옮겨서 결과를 감쌉니다.
+ * {@link Flux}를 반환하는 query method 는 결과 전체를 조회한 후 발행하므로, 결과가 큰 경우에는 {@code Pageable}로 나누어 조회해야 합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+public class ReactiveRequeryQuery implements RepositoryQuery {
+
+    @Nonnull private final RepositoryQuery delegate;
+    @Nonnull private final Scheduler scheduler;
+    private final boolean reactive;
+    private final boolean multiValue;
+    @Nullable private final Class<?> elementType;
+
+    public ReactiveRequeryQuery(@Nonnull final RepositoryQuery delegate,
+                                @Nonnull final Method method,
+                                @Nonnull final Scheduler scheduler) {
+        Assert.notNull(delegate, "delegate must not be null!");
+        Assert.notNull(method, "method must not be null!");
+        Assert.notNull(scheduler, "scheduler must not be null!");
+
+        this.delegate = delegate;
+        this.scheduler = scheduler;
+        this.reactive = ReactiveWrappers.supports(method.getReturnType());
+        this.multiValue = reactive && ReactiveWrappers.isMultiValueType(method.getReturnType());
+        this.elementType = ResolvableType.forMethodReturnType(method).getGeneric(0).resolve();
+    }
+
+    /**
+     * {@link RequeryQueryLookupStrategy}로 찾은 query 를 {@link ReactiveRequeryQuery}로 감싸는 {@link QueryLookupStrategy}를 생성합니다.
+     */
+    @Nonnull
+    public static QueryLookupStrategy lookupStrategy(@Nonnull final QueryLookupStrategy delegate,
+                                                     @Nonnull final Scheduler scheduler) {
+        Assert.notNull(delegate, "delegate must not be null!");
+        Assert.notNull(scheduler, "scheduler must not be null!");
+
+        return (Method method, RepositoryMetadata metadata, ProjectionFactory factory, NamedQueries namedQueries) ->
+            new ReactiveRequeryQuery(delegate.resolveQuery(method, metadata, factory, namedQueries), method, scheduler);
+    }
+
+    @Override
+    public Object execute(@Nonnull final Object[] parameters) {
+        if (!reactive) {
+            return delegate.execute(parameters);
+        }
+
+        Mono<Object> result = Mono.fromCallable(() -> delegate.execute(parameters)).subscribeOn(scheduler);
+        return multiValue ? result.flatMapMany(ReactiveRequeryQuery::toFlux) : result.flatMap(this::toMono);
+    }
+
+    @Nonnull
+    @Override
+    public QueryMethod getQueryMethod() {
+        return delegate.getQueryMethod();
+    }
+
+    @Nonnull
+    private static Flux<Object> toFlux(@Nonnull final Object value) {
+        if (value instanceof Iterable) {
+            return Flux.fromIterable((Iterable<?>) value);
+        }
+        if (value instanceof Stream) {
+            return Flux.fromStream((Stream<?>) value);
+        }
+        return Flux.just(value);
+    }
+
+    /**
+     * {@link Mono}를 반환하는 query method 는 blocking query 에서 collection query 로 실행되므로, 결과 목록에서 하나를 꺼냅니다.
+     * count 등 컬럼이 하나인 {@link io.requery.query.Tuple}은 값으로, 숫자는 {@link Mono}의 타입으로 변환합니다.
+     */
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    private Mono<Object> toMono(@Nonnull final Object value) {
+        Object single = value;
+        if (value instanceof Collection) {
+            Collection<?> values = (Collection<?>) value;
+            if (values.size() > 1) {
+                return Mono.error(new IncorrectResultSizeDataAccessException(1, values.size()));
+            }
+            single = values.isEmpty() ? null : values.iterator().next();
+        }
+
+        Object converted = RequeryResultConverter.convertResult(single);
+        if (converted instanceof Number && elementType != null && Number.class.isAssignableFrom(elementType)) {
+            converted = NumberUtils.convertNumberToTargetClass((Number) converted, (Class<? extends Number>) elementType);
+        }
+        return Mono.justOrEmpty(converted);
+    }
+
+    @Override
+    public String toString() {
+        return "ReactiveRequeryQuery(" + delegate + ")";
+    }
+}
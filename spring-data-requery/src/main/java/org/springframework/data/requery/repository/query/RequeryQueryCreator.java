@@ -67,6 +67,7 @@ public class RequeryQueryCreator extends AbstractQueryCreator<QueryElement<?>, L
     private final String domainClassName;
     private final ParameterMetadataProvider provider;
     private final PartTree tree;
+    private final boolean readOnlyFetch;
 
     private final QueryElement<?> root;
 
@@ -74,6 +75,17 @@ public class RequeryQueryCreator extends AbstractQueryCreator<QueryElement<?>, L
                                @Nonnull final ParameterMetadataProvider provider,
                                @Nonnull final ReturnedType returnedType,
                                @Nonnull final PartTree tree) {
+        this(operations, provider, returnedType, tree, false);
+    }
+
+    /**
+     * @param readOnlyFetch 조회한 엔티티를 {@link RequeryOperations#selectReadOnly(Class, io.requery.meta.QueryAttribute[])} 로 만들지 여부
+     */
+    public RequeryQueryCreator(@Nonnull final RequeryOperations operations,
+                               @Nonnull final ParameterMetadataProvider provider,
+                               @Nonnull final ReturnedType returnedType,
+                               @Nonnull final PartTree tree,
+                               final boolean readOnlyFetch) {
         super(tree);
 
         Assert.notNull(operations, "operation must not be null.");
@@ -89,6 +101,7 @@ public class RequeryQueryCreator extends AbstractQueryCreator<QueryElement<?>, L
         this.domainClassName = returnedType.getDomainType().getSimpleName();
 
         this.tree = tree;
+        this.readOnlyFetch = readOnlyFetch;
         this.root = createQueryElement(returnedType);
 
         log.debug("Create RequeryQueryCreator for [{}]", domainClassName);
@@ -113,6 +126,9 @@ public class RequeryQueryCreator extends AbstractQueryCreator<QueryElement<?>, L
         if (tree.isDelete()) {
             return unwrap(operations.delete(type.getDomainType()));
         }
+        if (readOnlyFetch) {
+            return unwrap(operations.selectReadOnly(type.getDomainType()));
+        }
 
         return unwrap(operations.select(type.getDomainType()));
     }
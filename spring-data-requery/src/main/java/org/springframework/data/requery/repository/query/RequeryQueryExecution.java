@@ -32,6 +32,7 @@ import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.repository.query.ParameterAccessor;
 import org.springframework.data.repository.query.ParametersParameterAccessor;
+import org.springframework.data.requery.core.ExistenceQueries;
 import org.springframework.data.requery.core.RequeryOperations;
 import org.springframework.data.requery.utils.RequeryUtils;
 import org.springframework.util.Assert;
@@ -315,8 +316,7 @@ public abstract class RequeryQueryExecution {
     static class ExistsExecution extends RequeryQueryExecution {
         @Override
         protected @Nullable Object doExecute(AbstractRequeryQuery query, Object[] values) {
-            Result<?> result = (Result<?>) query.createQueryElement(values).limit(1).get();
-            return result.firstOrNull() != null;
+            return ExistenceQueries.exists(query.operations, query.domainClass, query.createQueryElement(values));
         }
     }
 }
@@ -31,6 +31,7 @@ import org.springframework.data.requery.core.RequeryOperations;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.lang.reflect.Method;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.springframework.data.repository.query.QueryLookupStrategy.Key;
 
@@ -48,22 +49,34 @@ public final class RequeryQueryLookupStrategy {
     public static QueryLookupStrategy create(@Nonnull final RequeryOperations operations,
                                              @Nullable final Key key,
                                              @Nonnull final EvaluationContextProvider evaluationContextProvider) {
-        log.debug("Create Query Lookup Strategy with key={}", key);
+        return create(operations, key, evaluationContextProvider, QueryBootstrapMode.DEFAULT);
+    }
+
+    /**
+     * {@code bootstrapMode}가 {@link QueryBootstrapMode#DEFAULT}가 아니면 query method 마다 {@link LazyRepositoryQuery}를 반환합니다.
+     */
+    @Nonnull
+    public static QueryLookupStrategy create(@Nonnull final RequeryOperations operations,
+                                             @Nullable final Key key,
+                                             @Nonnull final EvaluationContextProvider evaluationContextProvider,
+                                             @Nonnull final QueryBootstrapMode bootstrapMode) {
+        log.debug("Create Query Lookup Strategy with key={}, bootstrapMode={}", key, bootstrapMode);
 
         switch (key != null ? key : Key.CREATE_IF_NOT_FOUND) {
             case CREATE:
                 log.trace("Create CreateQueryLookupStrategy instance.");
-                return new CreateQueryLookupStrategy(operations);
+                return new CreateQueryLookupStrategy(operations, bootstrapMode);
 
             case USE_DECLARED_QUERY:
                 log.trace("Create DeclaredQueryLookupStrategy instance.");
-                return new DeclaredQueryLookupStrategy(operations, evaluationContextProvider);
+                return new DeclaredQueryLookupStrategy(operations, bootstrapMode, evaluationContextProvider);
 
             case CREATE_IF_NOT_FOUND:
                 log.trace("Create CreateIfNotFoundQueryLookupStrategy instance.");
                 return new CreateIfNotFoundQueryLookupStrategy(operations,
-                                                               new CreateQueryLookupStrategy(operations),
-                                                               new DeclaredQueryLookupStrategy(operations, evaluationContextProvider));
+                                                               bootstrapMode,
+                                                               new CreateQueryLookupStrategy(operations, QueryBootstrapMode.DEFAULT),
+                                                               new DeclaredQueryLookupStrategy(operations, QueryBootstrapMode.DEFAULT, evaluationContextProvider));
             default:
                 throw new IllegalArgumentException("Unsupported query lookup strategy " + key);
         }
@@ -75,9 +88,11 @@ public final class RequeryQueryLookupStrategy {
     private abstract static class AbstractQueryLookupStrategy implements QueryLookupStrategy {
 
         private final RequeryOperations operations;
+        private final QueryBootstrapMode bootstrapMode;
 
-        public AbstractQueryLookupStrategy(RequeryOperations operations) {
+        public AbstractQueryLookupStrategy(RequeryOperations operations, QueryBootstrapMode bootstrapMode) {
             this.operations = operations;
+            this.bootstrapMode = bootstrapMode;
         }
 
         @Nonnull
@@ -86,7 +101,17 @@ public final class RequeryQueryLookupStrategy {
                                                   @Nonnull final RepositoryMetadata metadata,
                                                   @Nonnull final ProjectionFactory factory,
                                                   @Nonnull final NamedQueries namedQueries) {
-            return resolveQuery(new RequeryQueryMethod(method, metadata, factory), operations, namedQueries);
+            RequeryQueryMethod queryMethod = new RequeryQueryMethod(method, metadata, factory);
+
+            switch (bootstrapMode) {
+                case LAZY:
+                    return new LazyRepositoryQuery(queryMethod, () -> resolveQuery(queryMethod, operations, namedQueries));
+                case PARALLEL:
+                    return new LazyRepositoryQuery(queryMethod, () -> resolveQuery(queryMethod, operations, namedQueries))
+                        .start(ForkJoinPool.commonPool());
+                default:
+                    return resolveQuery(queryMethod, operations, namedQueries);
+            }
         }
 
         protected abstract RepositoryQuery resolveQuery(@Nonnull final RequeryQueryMethod method,
@@ -100,8 +125,8 @@ public final class RequeryQueryLookupStrategy {
      */
     private static class CreateQueryLookupStrategy extends AbstractQueryLookupStrategy {
 
-        public CreateQueryLookupStrategy(RequeryOperations operations) {
-            super(operations);
+        public CreateQueryLookupStrategy(RequeryOperations operations, QueryBootstrapMode bootstrapMode) {
+            super(operations, bootstrapMode);
         }
 
         @Override
@@ -122,8 +147,9 @@ public final class RequeryQueryLookupStrategy {
         private final EvaluationContextProvider evaluationContextProvider;
 
         public DeclaredQueryLookupStrategy(RequeryOperations operations,
+                                           QueryBootstrapMode bootstrapMode,
                                            EvaluationContextProvider evaluationContextProvider) {
-            super(operations);
+            super(operations, bootstrapMode);
             this.evaluationContextProvider = evaluationContextProvider;
         }
 
@@ -157,9 +183,10 @@ public final class RequeryQueryLookupStrategy {
         private final CreateQueryLookupStrategy createStrategy;
 
         public CreateIfNotFoundQueryLookupStrategy(RequeryOperations operations,
+                                                   QueryBootstrapMode bootstrapMode,
                                                    CreateQueryLookupStrategy createStrategy,
                                                    DeclaredQueryLookupStrategy lookupStrategy) {
-            super(operations);
+            super(operations, bootstrapMode);
             this.createStrategy = createStrategy;
             this.lookupStrategy = lookupStrategy;
         }
@@ -168,13 +195,17 @@ public final class RequeryQueryLookupStrategy {
         protected RepositoryQuery resolveQuery(@Nonnull final RequeryQueryMethod method,
                                                @Nonnull final RequeryOperations operations,
                                                @Nullable NamedQueries namedQueries) {
-            try {
-                log.debug("Resolve query by DeclaredQueryLookupStrategy...");
-                return lookupStrategy.resolveQuery(method, operations, namedQueries);
-            } catch (IllegalStateException se) {
-                log.debug("Resolve query by CreateQueryLookupStrategy...");
-                return createStrategy.resolveQuery(method, operations, namedQueries);
+            // 선언된 query 가 없는 메소드는 예외를 거치지 않고 바로 생성합니다.
+            if (method.isAnnotatedQuery()) {
+                try {
+                    log.debug("Resolve query by DeclaredQueryLookupStrategy...");
+                    return lookupStrategy.resolveQuery(method, operations, namedQueries);
+                } catch (IllegalStateException se) {
+                    log.debug("Fail to resolve declared query. method={}", method, se);
+                }
             }
+            log.debug("Resolve query by CreateQueryLookupStrategy...");
+            return createStrategy.resolveQuery(method, operations, namedQueries);
         }
     }
 
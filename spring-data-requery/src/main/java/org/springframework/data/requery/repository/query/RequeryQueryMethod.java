@@ -26,6 +26,7 @@ import org.springframework.data.repository.query.Parameter;
 import org.springframework.data.repository.query.Parameters;
 import org.springframework.data.repository.query.QueryMethod;
 import org.springframework.data.requery.annotation.Query;
+import org.springframework.data.requery.annotation.ReadOnlyFetch;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
@@ -62,6 +63,7 @@ public class RequeryQueryMethod extends QueryMethod {
     private final Method method;
     private final RepositoryMetadata metadata;
     private final RequeryEntityMetadata<?> entityInformation;
+    private final boolean readOnlyFetch;
 
     /**
      * Creates a new {@link QueryMethod} from the given parameters. Looks up the correct query to use for following
@@ -82,6 +84,7 @@ public class RequeryQueryMethod extends QueryMethod {
         this.method = method;
         this.metadata = metadata;
         this.entityInformation = DefaultRequeryEntityMetadata.of(getDomainClass());
+        this.readOnlyFetch = isReadOnlyFetch(method, metadata.getRepositoryInterface());
 
         Assert.isTrue(!(isModifyingQuery() && getParameters().hasSpecialParameter()),
                       String.format("Modifying queryMethod must not contains %s!", Parameters.TYPES));
@@ -133,6 +136,20 @@ public class RequeryQueryMethod extends QueryMethod {
         return null != AnnotationUtils.findAnnotation(method, Query.class);
     }
 
+    /**
+     * Query method 나 repository interface 에 {@link ReadOnlyFetch}가 지정되었는지 여부
+     */
+    public boolean isReadOnlyFetch() {
+        return readOnlyFetch;
+    }
+
+    private static boolean isReadOnlyFetch(@Nonnull final Method method, @Nullable final Class<?> repositoryInterface) {
+        if (AnnotationUtils.findAnnotation(method, ReadOnlyFetch.class) != null) {
+            return true;
+        }
+        return repositoryInterface != null && AnnotationUtils.findAnnotation(repositoryInterface, ReadOnlyFetch.class) != null;
+    }
+
     public boolean isDefaultMethod() {
         return method.isDefault();
     }
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.repository.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.reactivestreams.Publisher;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.core.support.RepositoryProxyPostProcessor;
+import org.springframework.data.requery.core.admission.AdmissionController;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import javax.annotation.Nonnull;
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Repository method 호출을 {@link AdmissionController}의 limiter 를 거쳐 실행하도록 하는 {@link RepositoryProxyPostProcessor} 입니다.
+ * <p>
+ * Limiter 이름은 {@code UserRepository.findByName}처럼 repository 와 method 이름으로 정책이 등록되어 있으면 그 이름을,
+ * 아니면 repository 이름({@code UserRepository})을 사용합니다. Transaction 시작 전에 허가를 받도록 가장 바깥쪽 advice 로 등록합니다.
+ * {@link Object}의 method 와 {@link Publisher}를 반환하는 reactive method 는 제한하지 않습니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+public class AdmissionControlPostProcessor implements RepositoryProxyPostProcessor {
+
+    private static final boolean REACTIVE_PRESENT =
+        ClassUtils.isPresent("org.reactivestreams.Publisher", AdmissionControlPostProcessor.class.getClassLoader());
+
+    @Nonnull private final AdmissionController controller;
+
+    public AdmissionControlPostProcessor(@Nonnull final AdmissionController controller) {
+        Assert.notNull(controller, "controller must not be null!");
+        this.controller = controller;
+    }
+
+    @Override
+    public void postProcess(@Nonnull final ProxyFactory factory,
+                            @Nonnull final RepositoryInformation repositoryInformation) {
+        String repositoryName = repositoryInformation.getRepositoryInterface().getSimpleName();
+        log.debug("Apply admission control. repository={}", repositoryName);
+
+        factory.addAdvice(0, new AdmissionControlInterceptor(controller, repositoryName));
+    }
+
+    static class AdmissionControlInterceptor implements MethodInterceptor {
+
+        /**
+         * 제한하지 않는 method 를 나타내는 limiter 이름
+         */
+        private static final String UNLIMITED = "";
+
+        private final AdmissionController controller;
+        private final String repositoryName;
+        private final ConcurrentHashMap<Method, String> limiterNames = new ConcurrentHashMap<>();
+
+        AdmissionControlInterceptor(@Nonnull final AdmissionController controller, @Nonnull final String repositoryName) {
+            this.controller = controller;
+            this.repositoryName = repositoryName;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            String name = limiterNames.computeIfAbsent(invocation.getMethod(), this::resolveLimiterName);
+            if (UNLIMITED.equals(name)) {
+                return invocation.proceed();
+            }
+
+            try {
+                return controller.call(name, new ProceedingCallable(invocation));
+            } catch (ProceedingCallable.ProceedException e) {
+                throw e.getCause();
+            }
+        }
+
+        @Nonnull
+        private String resolveLimiterName(@Nonnull final Method method) {
+            if (ReflectionUtils.isObjectMethod(method) ||
+                (REACTIVE_PRESENT && Publisher.class.isAssignableFrom(method.getReturnType()))) {
+                return UNLIMITED;
+            }
+            String methodName = repositoryName + "." + method.getName();
+            return controller.hasPolicy(methodName) ? methodName : repositoryName;
+        }
+    }
+
+    /**
+     * {@link MethodInvocation#proceed()}의 checked 예외를 감싸 limiter 를 지난 후 원래 예외로 다시 던질 수 있도록 합니다.
+     */
+    private static final class ProceedingCallable implements Callable<Object> {
+
+        private final MethodInvocation invocation;
+
+        private ProceedingCallable(MethodInvocation invocation) {
+            this.invocation = invocation;
+        }
+
+        @Override
+        public Object call() throws Exception {
+            try {
+                return invocation.proceed();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new ProceedException(t);
+            }
+        }
+
+        private static final class ProceedException extends RuntimeException {
+            private static final long serialVersionUID = -6794539415052419620L;
+
+            private ProceedException(Throwable cause) {
+                super(null, cause, false, false);
+            }
+        }
+    }
+}
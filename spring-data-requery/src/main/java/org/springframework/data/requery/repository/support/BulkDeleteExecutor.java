@@ -0,0 +1,156 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.repository.support;
+
+import io.requery.EntityCache;
+import io.requery.meta.Attribute;
+import io.requery.meta.QueryAttribute;
+import io.requery.meta.Type;
+import io.requery.proxy.EntityProxy;
+import io.requery.sql.EntityContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.requery.cache.BulkInvalidatableEntityCache;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.utils.IdBatches;
+import org.springframework.data.requery.utils.Iterables;
+import org.springframework.data.requery.utils.RequeryUtils;
+import org.springframework.data.requery.utils.SqlParameterLimits;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 엔티티 목록을 {@code DELETE ... WHERE id IN (...)} 문장으로 한번에 삭제합니다.
+ * <p>
+ * requery 의 {@code EntityDataStore#delete(Iterable)}는 엔티티마다 연관관계를 정리하고 캐시를 무효화하며,
+ * {@code batchUpdateSize} 단위로만 IN 절을 만듭니다. 연관관계, version 속성, 전역 {@code EntityStateListener}가 없는 엔티티는
+ * 이런 처리가 필요 없으므로 id 만 모아 DB 의 parameter 제한까지 묶어서 삭제하고, 캐시도 한번에 무효화합니다.
+ * 조건에 맞지 않는 엔티티는 기존처럼 requery 에 위임합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+class BulkDeleteExecutor<T, ID> {
+
+    private final RequeryOperations operations;
+    private final RequeryEntityInformation<T, ID> entityInformation;
+    private final Class<T> domainClass;
+
+    @Nullable private volatile Type<T> type;
+    private volatile Boolean setBasedDeletable;
+
+    BulkDeleteExecutor(@Nonnull final RequeryOperations operations,
+                       @Nonnull final RequeryEntityInformation<T, ID> entityInformation) {
+        this.operations = operations;
+        this.entityInformation = entityInformation;
+        this.domainClass = entityInformation.getJavaType();
+    }
+
+    /**
+     * @param entities 삭제할 엔티티들
+     */
+    @SuppressWarnings("unchecked")
+    void deleteAll(@Nonnull final Iterable<? extends T> entities) {
+        List<T> list = Iterables.toList((Iterable<T>) entities);
+        if (list.isEmpty()) {
+            return;
+        }
+        if (!isSetBasedDeletable()) {
+            operations.deleteAll(list);
+            return;
+        }
+
+        final Type<T> type = this.type;
+        final List<EntityProxy<T>> proxies = new ArrayList<>(list.size());
+        final List<ID> ids = new ArrayList<>(list.size());
+
+        for (T entity : list) {
+            EntityProxy<T> proxy = type.getProxyProvider().apply(entity);
+            ID id = (ID) proxy.key();
+            if (id == null) {
+                // 저장되지 않은 엔티티는 삭제할 것이 없습니다.
+                continue;
+            }
+            proxy.preDelete();
+            proxies.add(proxy);
+            ids.add(id);
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        int deleted = operations.runInTransaction(() -> deleteByIds(ids));
+        log.debug("Delete {} entities by id in batch. requested={}, deleted={}", domainClass.getSimpleName(), ids.size(), deleted);
+
+        EntityContext context = RequeryUtils.getEntityContext(operations.getDataStore());
+        EntityCache cache = context.getCache();
+        if (type.isCacheable() && cache != null) {
+            BulkInvalidatableEntityCache.invalidateAll(cache, domainClass, ids);
+        }
+
+        for (EntityProxy<T> proxy : proxies) {
+            proxy.unlink();
+            proxy.postDelete();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private int deleteByIds(@Nonnull final List<ID> ids) {
+        QueryAttribute<T, ID> keyAttribute = (QueryAttribute<T, ID>) type.getSingleKeyAttribute();
+        int chunkSize = SqlParameterLimits.getMaxInListSize(operations.getDataStore());
+
+        // 같은 크기의 IN 절을 재사용하도록 chunk 크기를 2의 거듭제곱으로 맞춥니다. (중복된 id 는 결과에 영향이 없습니다)
+        int deleted = 0;
+        for (List<ID> chunk : IdBatches.partition(ids, chunkSize)) {
+            deleted += operations.delete(domainClass).where(keyAttribute.in(chunk)).get().value();
+        }
+        return deleted;
+    }
+
+    private boolean isSetBasedDeletable() {
+        Boolean deletable = setBasedDeletable;
+        if (deletable == null) {
+            Type<T> type = RequeryUtils.getType(operations.getDataStore(), domainClass);
+            this.type = type;
+            deletable = (type != null) &&
+                        isSetBasedDeletable(type) &&
+                        !RequeryUtils.hasEntityStateListeners(operations.getDataStore());
+            setBasedDeletable = deletable;
+
+            log.debug("Set based delete for {} is {}.", domainClass.getSimpleName(), deletable ? "enabled" : "disabled");
+        }
+        return deletable;
+    }
+
+    /**
+     * 단일 key 이고, version 과 연관관계 속성이 없는 엔티티만 id 만으로 삭제할 수 있습니다.
+     */
+    private boolean isSetBasedDeletable(@Nonnull final Type<T> type) {
+        if (entityInformation.hasCompositeId() || type.getKeyAttributes().size() != 1) {
+            return false;
+        }
+        for (Attribute<T, ?> attribute : type.getAttributes()) {
+            if (attribute.isVersion() || attribute.isAssociation()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.repository.support;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Scheduler;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 구독자가 요청한 수({@code request(n)})만큼씩 나누어 조회하는 {@link Flux}를 생성합니다.
+ * <p>
+ * 조회는 {@link Scheduler.Worker} 하나에서 차례로 실행되고, 한 번에 조회하는 행 수는 요청 수와 {@code maxChunkSize} 중 작은 값입니다.
+ * 조회한 행 수가 요청한 수보다 적으면 완료합니다. 구독자가 요청하지 않으면 조회하지 않으므로 connection 을 붙잡고 있지 않습니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+final class DemandChunkedFlux {
+
+    private DemandChunkedFlux() {}
+
+    /**
+     * chunk 하나를 조회합니다.
+     */
+    @FunctionalInterface
+    interface ChunkFetcher<T> {
+
+        /**
+         * @param last   이전 chunk 의 마지막 행. 첫 chunk 이면 null
+         * @param offset 지금까지 조회한 행 수
+         * @param limit  조회할 최대 행 수
+         */
+        @Nonnull
+        List<T> fetch(@Nullable T last, long offset, int limit);
+    }
+
+    @Nonnull
+    static <T> Flux<T> create(@Nonnull final Scheduler scheduler,
+                              final int maxChunkSize,
+                              @Nonnull final ChunkFetcher<T> fetcher) {
+        return Flux.create(sink -> new ChunkEmitter<>(sink, scheduler.createWorker(), maxChunkSize, fetcher).attach());
+    }
+
+    private static final class ChunkEmitter<T> {
+
+        private final FluxSink<T> sink;
+        private final Scheduler.Worker worker;
+        private final int maxChunkSize;
+        private final ChunkFetcher<T> fetcher;
+
+        private final AtomicLong requested = new AtomicLong();
+
+        // worker 에서만 접근합니다.
+        @Nullable private T last;
+        private long offset;
+
+        private ChunkEmitter(@Nonnull final FluxSink<T> sink,
+                             @Nonnull final Scheduler.Worker worker,
+                             final int maxChunkSize,
+                             @Nonnull final ChunkFetcher<T> fetcher) {
+            this.sink = sink;
+            this.worker = worker;
+            this.maxChunkSize = maxChunkSize;
+            this.fetcher = fetcher;
+        }
+
+        private void attach() {
+            sink.onDispose(worker::dispose);
+            sink.onRequest(this::request);
+        }
+
+        private void request(final long n) {
+            long previous = requested.getAndUpdate(r -> (r + n < 0) ? Long.MAX_VALUE : r + n);
+            // 요청이 0 에서 늘어날 때만 drain 을 시작합니다. 그 외에는 실행 중인 drain 이 늘어난 요청을 처리합니다.
+            if (previous == 0) {
+                worker.schedule(this::drain);
+            }
+        }
+
+        private void drain() {
+            long remains = requested.get();
+            while (remains > 0 && !sink.isCancelled()) {
+                final int limit = (int) Math.min(remains, maxChunkSize);
+
+                List<T> chunk;
+                try {
+                    chunk = fetcher.fetch(last, offset, limit);
+                } catch (Throwable e) {
+                    sink.error(e);
+                    return;
+                }
+                for (T row : chunk) {
+                    sink.next(row);
+                }
+                if (chunk.size() < limit) {
+                    sink.complete();
+                    return;
+                }
+                last = chunk.get(chunk.size() - 1);
+                offset += chunk.size();
+
+                final int emitted = chunk.size();
+                remains = requested.updateAndGet(r -> (r == Long.MAX_VALUE) ? r : r - emitted);
+            }
+        }
+    }
+}
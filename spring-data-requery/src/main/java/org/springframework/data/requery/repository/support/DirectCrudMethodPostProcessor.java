@@ -0,0 +1,239 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.repository.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.aop.Advice;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.dao.support.PersistenceExceptionTranslationInterceptor;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.core.support.RepositoryProxyPostProcessor;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 이미 transaction 이 진행 중일 때 읽기 전용 CRUD 메소드({@code findById}, {@code existsById}, {@code count} 등)를
+ * repository 구현체에 직접 호출하도록 하는 {@link RepositoryProxyPostProcessor} 입니다.
+ * <p>
+ * 진행 중인 transaction 에 참여만 하는 {@link TransactionInterceptor}, 예외 변환, query method 조회 등의 interceptor 를
+ * 매 호출마다 거치지 않습니다. 직접 호출할 수 있는지는 메소드별로 처음 한 번만 판단합니다.
+ * 예외가 발생하면 건너뛴 interceptor 들을 다시 거치게 하여 rollback 표시와 예외 변환은 기존과 같게 처리합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+public class DirectCrudMethodPostProcessor implements RepositoryProxyPostProcessor {
+
+    /**
+     * 직접 호출 경로에서 건너뛰어도 되는 interceptor 들. 이 외의 advice 가 뒤에 있으면 직접 호출하지 않습니다.
+     */
+    private static final Set<String> SKIPPABLE_ADVICES = new HashSet<>(Arrays.asList(
+        "org.springframework.dao.support.PersistenceExceptionTranslationInterceptor",
+        "org.springframework.transaction.interceptor.TransactionInterceptor",
+        "org.springframework.data.repository.core.support.EventPublishingRepositoryProxyPostProcessor$EventPublishingMethodInterceptor",
+        "org.springframework.data.projection.DefaultMethodInvokingMethodInterceptor",
+        "org.springframework.data.repository.core.support.RepositoryFactorySupport$QueryExecutorMethodInterceptor",
+        "org.springframework.data.repository.core.support.RepositoryFactorySupport$ImplementationMethodExecutionInterceptor"
+    ));
+
+    @Override
+    public void postProcess(@Nonnull final ProxyFactory factory,
+                            @Nonnull final RepositoryInformation repositoryInformation) {
+        factory.addAdvice(new DirectCrudMethodInterceptor());
+    }
+
+    static class DirectCrudMethodInterceptor implements MethodInterceptor {
+
+        private final ConcurrentHashMap<Method, DispatchPlan> plans = new ConcurrentHashMap<>();
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+
+            if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+                return invocation.proceed();
+            }
+
+            Method method = invocation.getMethod();
+            DispatchPlan plan = plans.get(method);
+            if (plan == null) {
+                plan = resolvePlan(invocation);
+                plans.putIfAbsent(method, plan);
+            }
+            if (plan.targetMethod == null) {
+                return invocation.proceed();
+            }
+
+            try {
+                return plan.targetMethod.invoke(invocation.getThis(), invocation.getArguments());
+            } catch (InvocationTargetException e) {
+                return new FailedInvocation(invocation, plan.skippedInterceptors, 0, e.getTargetException()).proceed();
+            }
+        }
+
+        @Nonnull
+        private DispatchPlan resolvePlan(@Nonnull final MethodInvocation invocation) {
+            Method method = invocation.getMethod();
+            Object target = invocation.getThis();
+
+            if (target == null || !method.getDeclaringClass().isInstance(target) ||
+                !(invocation instanceof ProxyMethodInvocation) ||
+                !(((ProxyMethodInvocation) invocation).getProxy() instanceof Advised)) {
+                return DispatchPlan.PROCEED;
+            }
+
+            List<MethodInterceptor> skipped = new ArrayList<>();
+            TransactionInterceptor transactionInterceptor = null;
+            boolean afterThis = false;
+
+            for (Advisor advisor : ((Advised) ((ProxyMethodInvocation) invocation).getProxy()).getAdvisors()) {
+                Advice advice = advisor.getAdvice();
+                if (advice == this) {
+                    afterThis = true;
+                    continue;
+                }
+                if (!afterThis) {
+                    continue;
+                }
+                if (!SKIPPABLE_ADVICES.contains(advice.getClass().getName())) {
+                    log.debug("Not skippable advice. method={}, advice={}", method, advice);
+                    return DispatchPlan.PROCEED;
+                }
+                if (advice instanceof TransactionInterceptor) {
+                    transactionInterceptor = (TransactionInterceptor) advice;
+                }
+                // 예외가 발생했을 때 다시 거쳐야 하는 interceptor 입니다.
+                if (advice instanceof TransactionInterceptor || advice instanceof PersistenceExceptionTranslationInterceptor) {
+                    skipped.add((MethodInterceptor) advice);
+                }
+            }
+
+            if (transactionInterceptor == null || !isJoiningReadOnly(transactionInterceptor, method, target.getClass())) {
+                return DispatchPlan.PROCEED;
+            }
+
+            Method targetMethod = ClassUtils.getMostSpecificMethod(method, target.getClass());
+            if (targetMethod.getDeclaringClass().isInterface()) {
+                return DispatchPlan.PROCEED;
+            }
+            ReflectionUtils.makeAccessible(targetMethod);
+
+            log.debug("Dispatch directly to repository when transaction is active. method={}", method);
+            return new DispatchPlan(targetMethod, Collections.unmodifiableList(skipped));
+        }
+
+        private static boolean isJoiningReadOnly(@Nonnull final TransactionInterceptor transactionInterceptor,
+                                                 @Nonnull final Method method,
+                                                 @Nonnull final Class<?> targetClass) {
+            TransactionAttributeSource source = transactionInterceptor.getTransactionAttributeSource();
+            TransactionAttribute attribute = (source != null) ? source.getTransactionAttribute(method, targetClass) : null;
+            if (attribute == null || !attribute.isReadOnly()) {
+                return false;
+            }
+            int propagation = attribute.getPropagationBehavior();
+            return propagation == TransactionDefinition.PROPAGATION_REQUIRED ||
+                   propagation == TransactionDefinition.PROPAGATION_SUPPORTS ||
+                   propagation == TransactionDefinition.PROPAGATION_MANDATORY;
+        }
+    }
+
+    private static class DispatchPlan {
+
+        static final DispatchPlan PROCEED = new DispatchPlan(null, Collections.emptyList());
+
+        @Nullable final Method targetMethod;
+        @Nonnull final List<MethodInterceptor> skippedInterceptors;
+
+        DispatchPlan(@Nullable final Method targetMethod, @Nonnull final List<MethodInterceptor> skippedInterceptors) {
+            this.targetMethod = targetMethod;
+            this.skippedInterceptors = skippedInterceptors;
+        }
+    }
+
+    /**
+     * 직접 호출이 실패했을 때 건너뛴 interceptor 들을 순서대로 다시 거치고, 마지막에 원래 예외를 던지는 {@link MethodInvocation}
+     */
+    private static class FailedInvocation implements MethodInvocation {
+
+        private final MethodInvocation invocation;
+        private final List<MethodInterceptor> interceptors;
+        private final int index;
+        private final Throwable failure;
+
+        FailedInvocation(@Nonnull final MethodInvocation invocation,
+                         @Nonnull final List<MethodInterceptor> interceptors,
+                         final int index,
+                         @Nonnull final Throwable failure) {
+            this.invocation = invocation;
+            this.interceptors = interceptors;
+            this.index = index;
+            this.failure = failure;
+        }
+
+        @Override
+        public Method getMethod() {
+            return invocation.getMethod();
+        }
+
+        @Override
+        public Object[] getArguments() {
+            return invocation.getArguments();
+        }
+
+        @Override
+        public Object proceed() throws Throwable {
+            if (index < interceptors.size()) {
+                return interceptors.get(index).invoke(new FailedInvocation(invocation, interceptors, index + 1, failure));
+            }
+            throw failure;
+        }
+
+        @Override
+        public Object getThis() {
+            return invocation.getThis();
+        }
+
+        @Override
+        public AccessibleObject getStaticPart() {
+            return invocation.getStaticPart();
+        }
+    }
+}
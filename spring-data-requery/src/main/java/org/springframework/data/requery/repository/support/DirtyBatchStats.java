@@ -0,0 +1,58 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.repository.support;
+
+import lombok.Getter;
+
+/**
+ * {@link DirtyTrackingBatchWriter}가 엔티티들을 어떻게 저장했는지를 나타냅니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Getter
+class DirtyBatchStats {
+
+    private final int inserted;
+    private final int updated;
+    private final int updateStatements;
+    private final int upserted;
+    private final int skipped;
+
+    DirtyBatchStats(final int inserted,
+                    final int updated,
+                    final int updateStatements,
+                    final int upserted,
+                    final int skipped) {
+        this.inserted = inserted;
+        this.updated = updated;
+        this.updateStatements = updateStatements;
+        this.upserted = upserted;
+        this.skipped = skipped;
+    }
+
+    @Override
+    public String toString() {
+        return "DirtyBatchStats{" +
+               "inserted=" + inserted +
+               ", updated=" + updated +
+               ", updateStatements=" + updateStatements +
+               ", upserted=" + upserted +
+               ", skipped=" + skipped +
+               '}';
+    }
+}
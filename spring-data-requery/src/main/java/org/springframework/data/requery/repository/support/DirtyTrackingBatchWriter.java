@@ -0,0 +1,455 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.repository.support;
+
+import io.requery.EntityCache;
+import io.requery.meta.Attribute;
+import io.requery.meta.QueryAttribute;
+import io.requery.meta.Type;
+import io.requery.proxy.EntityProxy;
+import io.requery.proxy.PropertyState;
+import io.requery.query.Expression;
+import io.requery.query.Scalar;
+import io.requery.query.element.QueryElement;
+import io.requery.query.element.QueryType;
+import io.requery.sql.EntityContext;
+import io.requery.sql.Mapping;
+import io.requery.sql.StatementListener;
+import io.requery.sql.VersionColumnDefinition;
+import io.requery.sql.gen.DefaultOutput;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.requery.RequeryExecutionException;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.utils.Iterables;
+import org.springframework.data.requery.utils.RequeryUtils;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code saveAll} 시에 requery {@link EntityProxy}의 속성 상태를 보고 변경된 컬럼만 batch 로 UPDATE 합니다.
+ * <p>
+ * 엔티티들을 다음과 같이 나누어 처리합니다.
+ * <ul>
+ * <li>신규 (key 가 생성되지 않은 엔티티) : requery 의 batch insert</li>
+ * <li>변경된 엔티티 : 변경된 컬럼 조합별로 하나의 {@link PreparedStatement}를 만들어 {@code batchUpdateSize} 단위로 실행</li>
+ * <li>변경되지 않은 엔티티 : 아무 SQL 도 실행하지 않음</li>
+ * </ul>
+ * 연관관계 속성이 변경되었거나, key 는 있지만 아직 조회/저장되지 않은 엔티티는 기존처럼 requery 의 upsert 에 위임합니다.
+ * 전역 {@code EntityStateListener}가 있거나 복합 key, 지원하지 않는 version 타입을 가진 엔티티는 모두 upsert 로 처리합니다.
+ * {@code @PreUpdate} callback 은 batch update 할 엔티티에만 한 번 호출하며, upsert 로 위임하는 엔티티는 requery 가 호출합니다.
+ * batch update 할 엔티티의 callback 이 key, version, 연관관계 속성을 바꾸면 다시 upsert 로 위임할 수 없으므로 {@link IllegalStateException}을 던집니다.
+ * <p>
+ * batch update 한 엔티티의 속성 상태, version 값, cache 와 {@code @PostUpdate}는 transaction 이 commit 된 후에 반영하므로,
+ * 중간에 {@link OptimisticLockingFailureException} 등으로 rollback 되면 엔티티는 저장 전 상태를 유지합니다.
+ * 이미 진행 중인 transaction 에 참여한 경우에는 그 transaction 의 commit 이 아니라 이 작업이 끝난 후에 반영합니다.
+ * <p>
+ * Oracle 처럼 batch 실행 결과로 {@link Statement#SUCCESS_NO_INFO}를 반환하는 driver 에서는 version 충돌을 알 수 없으므로,
+ * 해당 행들을 같은 transaction 에서 다시 조회하여 확인하고 이후의 update 는 한 건씩 실행합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+class DirtyTrackingBatchWriter<T> {
+
+    private final RequeryOperations operations;
+    private final Class<T> domainClass;
+
+    @Nullable private volatile Type<T> type;
+    @Nullable private volatile Attribute<T, ?> keyAttribute;
+    @Nullable private volatile Attribute<T, ?> versionAttribute;
+    private volatile Boolean batchWritable;
+    /**
+     * JDBC driver 가 batch 실행 결과로 행별 갱신 건수를 알려주는지 여부.
+     * {@link Statement#SUCCESS_NO_INFO}를 반환하는 driver 면 false 로 바꾸고, 이후에는 건수가 필요한 update 를 한 건씩 실행합니다.
+     */
+    private volatile boolean batchCountsReported = true;
+
+    DirtyTrackingBatchWriter(@Nonnull final RequeryOperations operations,
+                             @Nonnull final Class<T> domainClass) {
+        this.operations = operations;
+        this.domainClass = domainClass;
+    }
+
+    /**
+     * @param entities 저장할 엔티티들
+     * @return 저장된 엔티티들 (요청 순서와 같음)
+     */
+    @Nonnull
+    <S extends T> List<S> saveAll(@Nonnull final Iterable<S> entities) {
+        List<S> list = Iterables.toList(entities);
+        if (list.isEmpty()) {
+            return list;
+        }
+        if (!isBatchWritable()) {
+            return operations.upsertAll(list);
+        }
+        List<Runnable> onCommit = new ArrayList<>();
+        operations.runInTransaction(() -> write(list, onCommit));
+        onCommit.forEach(Runnable::run);
+        return list;
+    }
+
+    /**
+     * 엔티티들을 insert / update / 위임 / 생략 으로 나누어 저장합니다. transaction 안에서 호출되어야 합니다.
+     *
+     * @param onCommit batch update 한 엔티티에 반영할 작업을 추가합니다. transaction 이 commit 된 후에 실행해야 합니다.
+     */
+    DirtyBatchStats write(@Nonnull final List<? extends T> entities, @Nonnull final List<Runnable> onCommit) {
+        final Type<T> type = this.type;
+        final Attribute<T, ?> keyAttribute = this.keyAttribute;
+
+        final List<T> inserts = new ArrayList<>();
+        final List<T> upserts = new ArrayList<>();
+        final Map<List<Attribute<T, ?>>, List<T>> updateGroups = new LinkedHashMap<>();
+        int skipped = 0;
+
+        for (T entity : entities) {
+            EntityProxy<T> proxy = type.getProxyProvider().apply(entity);
+
+            if (!proxy.isLinked()) {
+                if (keyAttribute.isGenerated() && proxy.get(keyAttribute, false) == null) {
+                    inserts.add(entity);
+                } else {
+                    upserts.add(entity);
+                }
+                continue;
+            }
+            if (!hasModifiedAttribute(type, proxy)) {
+                skipped++;
+                continue;
+            }
+            if (getModifiedAttributes(type, proxy) == null) {
+                upserts.add(entity);
+                continue;
+            }
+
+            // upsert 로 위임할 엔티티는 requery 가 callback 을 호출하므로, batch update 할 엔티티에만 호출합니다.
+            // @PreUpdate 에서 속성을 변경할 수 있으므로, 변경된 속성은 callback 호출 후에 다시 수집합니다.
+            proxy.preUpdate();
+            List<Attribute<T, ?>> modified = getModifiedAttributes(type, proxy);
+            Assert.state(modified != null, () -> "@PreUpdate must not modify key, version or association attributes. entity=" + entity);
+            updateGroups.computeIfAbsent(modified, k -> new ArrayList<>()).add(entity);
+        }
+
+        int updated = 0;
+        for (Map.Entry<List<Attribute<T, ?>>, List<T>> group : updateGroups.entrySet()) {
+            List<T> missing = executeUpdate(group.getKey(), group.getValue(), onCommit);
+            updated += group.getValue().size() - missing.size();
+
+            // key 를 직접 지정하는 엔티티는 requery 의 upsert 와 같이 행이 없으면 새로 저장합니다.
+            if (!keyAttribute.isGenerated()) {
+                upserts.addAll(missing);
+            }
+        }
+
+        if (!inserts.isEmpty()) {
+            operations.insertAll(inserts);
+        }
+        for (T entity : upserts) {
+            operations.upsert(entity);
+        }
+
+        DirtyBatchStats stats = new DirtyBatchStats(inserts.size(), updated, updateGroups.size(), upserts.size(), skipped);
+        log.debug("Save {} entities. {}", domainClass.getSimpleName(), stats);
+        return stats;
+    }
+
+    /**
+     * 같은 컬럼 조합을 변경한 엔티티들을 하나의 {@link PreparedStatement}로 batch update 합니다.
+     * 갱신된 엔티티의 상태는 바로 바꾸지 않고 {@code onCommit}에 추가합니다.
+     *
+     * @return 갱신된 행이 없는 엔티티들 (version 속성이 없는 경우)
+     */
+    @SuppressWarnings("unchecked")
+    private List<T> executeUpdate(@Nonnull final List<Attribute<T, ?>> columns,
+                                  @Nonnull final List<T> entities,
+                                  @Nonnull final List<Runnable> onCommit) {
+        final Type<T> type = this.type;
+        final Attribute<T, ?> keyAttribute = this.keyAttribute;
+        final Attribute<T, ?> versionAttribute = this.versionAttribute;
+
+        final EntityContext<T> context = RequeryUtils.getEntityContext(operations.getDataStore());
+        final Mapping mapping = context.getMapping();
+        final StatementListener statementListener = context.getStatementListener();
+        final EntityCache cache = type.isCacheable() ? context.getCache() : null;
+        final String sql = buildUpdateSql(context, columns);
+        final int batchSize = Math.max(1, context.getBatchUpdateSize());
+
+        // version 충돌이나 없는 행을 판단해야 하면 행별 갱신 건수가 필요합니다.
+        final boolean countsRequired = versionAttribute != null || !keyAttribute.isGenerated();
+        final List<T> missing = new ArrayList<>();
+
+        try (Connection connection = context.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+
+            for (List<T> chunk : Iterables.partition(entities, batchSize)) {
+                final boolean updateOneByOne = countsRequired && !batchCountsReported;
+                final Object[] versions = new Object[chunk.size()];
+                int[] counts = new int[chunk.size()];
+
+                for (int i = 0; i < chunk.size(); i++) {
+                    EntityProxy<T> proxy = type.getProxyProvider().apply(chunk.get(i));
+                    int index = 1;
+                    for (Attribute<T, ?> column : columns) {
+                        mapping.write((Expression) column, statement, index++, proxy.get(column, false));
+                    }
+                    Object version = null;
+                    if (versionAttribute != null) {
+                        version = proxy.get(versionAttribute, false);
+                        if (version == null) {
+                            throw new OptimisticLockingFailureException("Missing version value. entity=" + chunk.get(i));
+                        }
+                        versions[i] = nextVersion(version);
+                        mapping.write((Expression) versionAttribute, statement, index++, versions[i]);
+                    }
+                    mapping.write((Expression) keyAttribute, statement, index++, proxy.get(keyAttribute, false));
+                    if (versionAttribute != null) {
+                        mapping.write((Expression) versionAttribute, statement, index, version);
+                    }
+                    if (updateOneByOne) {
+                        statementListener.beforeExecuteUpdate(statement, sql, null);
+                        counts[i] = statement.executeUpdate();
+                        statementListener.afterExecuteUpdate(statement, counts[i]);
+                    } else {
+                        statement.addBatch();
+                    }
+                }
+
+                if (!updateOneByOne) {
+                    statementListener.beforeExecuteBatchUpdate(statement, sql);
+                    counts = statement.executeBatch();
+                    statementListener.afterExecuteBatchUpdate(statement, counts);
+
+                    if (countsRequired && hasNoInfo(counts)) {
+                        log.info("JDBC driver does not report batch update counts. Update {} one by one from now on.",
+                                 domainClass.getSimpleName());
+                        batchCountsReported = false;
+                        confirmUpdates(context, connection, chunk, versions, counts);
+                    }
+                }
+
+                for (int i = 0; i < chunk.size(); i++) {
+                    T entity = chunk.get(i);
+                    if (counts[i] == 0) {
+                        if (versionAttribute != null) {
+                            throw new OptimisticLockingFailureException("Entity was changed by another transaction. entity=" + entity);
+                        }
+                        missing.add(entity);
+                        continue;
+                    }
+                    final Object nextVersion = versions[i];
+                    onCommit.add(() -> {
+                        EntityProxy<T> proxy = type.getProxyProvider().apply(entity);
+                        for (Attribute<T, ?> column : columns) {
+                            proxy.setState(column, PropertyState.LOADED);
+                        }
+                        if (versionAttribute != null) {
+                            proxy.setObject(versionAttribute, nextVersion, PropertyState.LOADED);
+                        }
+                        if (cache != null) {
+                            cache.put(domainClass, proxy.key(), entity);
+                        }
+                        proxy.postUpdate();
+                    });
+                }
+            }
+        } catch (SQLException e) {
+            throw new RequeryExecutionException("Fail to execute batch update. sql=" + sql, e);
+        }
+        return missing;
+    }
+
+    private static boolean hasNoInfo(@Nonnull final int[] counts) {
+        for (int count : counts) {
+            if (count == Statement.SUCCESS_NO_INFO) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 갱신 건수를 알 수 없는 ({@link Statement#SUCCESS_NO_INFO}) 행을 같은 transaction 에서 다시 조회하여 건수를 채웁니다.
+     * version 속성이 있으면 행의 version 이 이번에 저장한 값일 때, 없으면 행이 있을 때 갱신된 것으로 봅니다.
+     */
+    @SuppressWarnings("unchecked")
+    private void confirmUpdates(@Nonnull final EntityContext<T> context,
+                                @Nonnull final Connection connection,
+                                @Nonnull final List<T> chunk,
+                                @Nonnull final Object[] versions,
+                                @Nonnull final int[] counts) throws SQLException {
+        final Attribute<T, ?> keyAttribute = this.keyAttribute;
+        final Attribute<T, ?> versionAttribute = this.versionAttribute;
+        final Attribute<T, ?> selection = (versionAttribute != null) ? versionAttribute : keyAttribute;
+        final Mapping mapping = context.getMapping();
+
+        QueryElement<Object> query = new QueryElement<>(QueryType.SELECT, context.getModel(), null);
+        query.select((Expression<?>) selection)
+             .from(domainClass)
+             .where(((QueryAttribute<T, Object>) keyAttribute).equal("?"));
+        final String sql = new DefaultOutput(context, query).toSql();
+
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < chunk.size(); i++) {
+                if (counts[i] != Statement.SUCCESS_NO_INFO) {
+                    continue;
+                }
+                EntityProxy<T> proxy = type.getProxyProvider().apply(chunk.get(i));
+                mapping.write((Expression) keyAttribute, statement, 1, proxy.get(keyAttribute, false));
+                try (ResultSet rs = statement.executeQuery()) {
+                    if (!rs.next()) {
+                        counts[i] = 0;
+                    } else if (versionAttribute != null) {
+                        Object version = mapping.read((Expression) versionAttribute, rs, 1);
+                        counts[i] = (version != null && ((Number) version).longValue() == ((Number) versions[i]).longValue()) ? 1 : 0;
+                    } else {
+                        counts[i] = 1;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * {@code UPDATE table SET col1 = ?, ... [, version = ?] WHERE key = ? [AND version = ?]}
+     */
+    @SuppressWarnings("unchecked")
+    private String buildUpdateSql(@Nonnull final EntityContext<T> context,
+                                  @Nonnull final List<Attribute<T, ?>> columns) {
+        QueryElement<Scalar<Integer>> query = new QueryElement<>(QueryType.UPDATE, context.getModel(), null);
+        query.from(domainClass);
+        for (Attribute<T, ?> column : columns) {
+            query.set((Expression<Object>) column, null);
+        }
+        if (versionAttribute != null) {
+            query.set((Expression<Object>) versionAttribute, null);
+            query.where(((QueryAttribute<T, Object>) keyAttribute).equal("?"))
+                .and(((QueryAttribute<T, Object>) versionAttribute).equal("?"));
+        } else {
+            query.where(((QueryAttribute<T, Object>) keyAttribute).equal("?"));
+        }
+        return new DefaultOutput(context, query).toSql();
+    }
+
+    private static Object nextVersion(@Nonnull final Object version) {
+        if (version instanceof Long) {
+            return (Long) version + 1L;
+        }
+        if (version instanceof Integer) {
+            return (Integer) version + 1;
+        }
+        return (short) ((Short) version + 1);
+    }
+
+    private boolean hasModifiedAttribute(@Nonnull final Type<T> type, @Nonnull final EntityProxy<T> proxy) {
+        for (Attribute<T, ?> attribute : type.getAttributes()) {
+            if (proxy.getState(attribute) == PropertyState.MODIFIED) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 변경된 속성 목록을 반환합니다. upsert 로 처리해야 하는 속성이 변경되었다면 null 을 반환합니다.
+     */
+    @Nullable
+    private List<Attribute<T, ?>> getModifiedAttributes(@Nonnull final Type<T> type, @Nonnull final EntityProxy<T> proxy) {
+        List<Attribute<T, ?>> modified = new ArrayList<>();
+        for (Attribute<T, ?> attribute : type.getAttributes()) {
+            if (proxy.getState(attribute) != PropertyState.MODIFIED) {
+                continue;
+            }
+            if (attribute.isAssociation() || attribute.isKey() || attribute.isVersion() ||
+                attribute.isGenerated() || attribute.isReadOnly()) {
+                return null;
+            }
+            modified.add(attribute);
+        }
+        return modified;
+    }
+
+    boolean isBatchCountsReported() {
+        return batchCountsReported;
+    }
+
+    boolean isBatchWritable() {
+        Boolean writable = batchWritable;
+        if (writable == null) {
+            Type<T> type = RequeryUtils.getType(operations.getDataStore(), domainClass);
+            this.type = type;
+            writable = (type != null) &&
+                       isBatchWritable(type) &&
+                       !RequeryUtils.hasEntityStateListeners(operations.getDataStore());
+            batchWritable = writable;
+
+            log.debug("Dirty tracking batch write for {} is {}.", domainClass.getSimpleName(), writable ? "enabled" : "disabled");
+        }
+        return writable;
+    }
+
+    /**
+     * 단일 key 이고, version 속성이 숫자 타입이며 DB 가 관리하는 version 컬럼을 쓰지 않는 엔티티만 batch update 할 수 있습니다.
+     */
+    private boolean isBatchWritable(@Nonnull final Type<T> type) {
+        if (type.isStateless() || type.isImmutable() || type.isReadOnly() || type.getKeyAttributes().size() != 1) {
+            return false;
+        }
+        Attribute<T, ?> key = type.getSingleKeyAttribute();
+        if (key.isAssociation()) {
+            return false;
+        }
+        Attribute<T, ?> version = null;
+        for (Attribute<T, ?> attribute : type.getAttributes()) {
+            if (attribute.isVersion()) {
+                version = attribute;
+                break;
+            }
+        }
+        if (version != null) {
+            Class<?> versionType = version.getClassType();
+            boolean numeric = versionType == Long.class || versionType == long.class ||
+                              versionType == Integer.class || versionType == int.class ||
+                              versionType == Short.class || versionType == short.class;
+            if (!numeric || hasSystemVersionColumn()) {
+                return false;
+            }
+        }
+        this.keyAttribute = key;
+        this.versionAttribute = version;
+        return true;
+    }
+
+    private boolean hasSystemVersionColumn() {
+        VersionColumnDefinition definition =
+            RequeryUtils.getEntityContext(operations.getDataStore()).getPlatform().versionColumnDefinition();
+        return !definition.createColumn() && definition.columnName() != null;
+    }
+}
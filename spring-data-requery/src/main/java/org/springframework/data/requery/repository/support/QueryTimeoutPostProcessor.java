@@ -0,0 +1,112 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.repository.support;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.core.support.RepositoryProxyPostProcessor;
+import org.springframework.data.requery.annotation.QueryTimeout;
+import org.springframework.data.requery.core.timeout.QueryDeadline;
+import org.springframework.util.ReflectionUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link QueryTimeout}이 지정된 repository method 를 {@link QueryDeadline}을 지정해서 실행하는 {@link RepositoryProxyPostProcessor} 입니다.
+ * Method 에 지정한 값이 repository interface 에 지정한 값보다 우선하며, {@link QueryTimeout}이 없는 method 는 그대로 실행합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+public class QueryTimeoutPostProcessor implements RepositoryProxyPostProcessor {
+
+    @Override
+    public void postProcess(@Nonnull final ProxyFactory factory,
+                            @Nonnull final RepositoryInformation repositoryInformation) {
+        Class<?> repositoryInterface = repositoryInformation.getRepositoryInterface();
+        QueryTimeout typeTimeout = AnnotatedElementUtils.findMergedAnnotation(repositoryInterface, QueryTimeout.class);
+
+        factory.addAdvice(0, new QueryTimeoutInterceptor(repositoryInterface, typeTimeout));
+    }
+
+    static class QueryTimeoutInterceptor implements MethodInterceptor {
+
+        /**
+         * timeout 을 적용하지 않는 method 의 timeout
+         */
+        private static final long NO_TIMEOUT = 0L;
+
+        private final Class<?> repositoryInterface;
+        private final long typeTimeoutNanos;
+        private final ConcurrentHashMap<Method, Long> timeouts = new ConcurrentHashMap<>();
+
+        QueryTimeoutInterceptor(@Nonnull final Class<?> repositoryInterface, @Nullable final QueryTimeout typeTimeout) {
+            this.repositoryInterface = repositoryInterface;
+            this.typeTimeoutNanos = (typeTimeout != null) ? typeTimeout.unit().toNanos(typeTimeout.value()) : NO_TIMEOUT;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            long timeoutNanos = timeouts.computeIfAbsent(invocation.getMethod(), this::resolveTimeoutNanos);
+            if (timeoutNanos <= NO_TIMEOUT) {
+                return invocation.proceed();
+            }
+
+            try {
+                return QueryDeadline.withDeadline(System.nanoTime() + timeoutNanos, () -> {
+                    try {
+                        return invocation.proceed();
+                    } catch (RuntimeException e) {
+                        throw e;
+                    } catch (Throwable t) {
+                        throw new ProceedError(t);
+                    }
+                });
+            } catch (ProceedError e) {
+                throw e.getCause();
+            }
+        }
+
+        private long resolveTimeoutNanos(@Nonnull final Method method) {
+            if (ReflectionUtils.isObjectMethod(method)) {
+                return NO_TIMEOUT;
+            }
+            Method interfaceMethod = ReflectionUtils.findMethod(repositoryInterface, method.getName(), method.getParameterTypes());
+            QueryTimeout timeout = AnnotatedElementUtils.findMergedAnnotation(interfaceMethod != null ? interfaceMethod : method, QueryTimeout.class);
+
+            return (timeout != null) ? timeout.unit().toNanos(timeout.value()) : typeTimeoutNanos;
+        }
+    }
+
+    /**
+     * {@link MethodInvocation#proceed()}에서 발생한 checked 예외와 {@link Error}를 그대로 다시 던지기 위해 감쌉니다.
+     */
+    private static final class ProceedError extends RuntimeException {
+        private static final long serialVersionUID = -7679656731506748162L;
+
+        private ProceedError(Throwable cause) {
+            super(null, cause, false, false);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.repository.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.core.RepositoryMetadata;
+import org.springframework.data.repository.core.support.ReactiveRepositoryFactorySupport;
+import org.springframework.data.repository.query.EvaluationContextProvider;
+import org.springframework.data.repository.query.QueryLookupStrategy;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.core.RequerySchedulers;
+import org.springframework.data.requery.repository.query.ReactiveRequeryQuery;
+import org.springframework.data.requery.repository.query.RequeryQueryLookupStrategy;
+import org.springframework.util.Assert;
+import reactor.core.scheduler.Scheduler;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Optional;
+
+/**
+ * {@link org.springframework.data.requery.repository.ReactiveRequeryRepository}를 생성하는 factory 입니다.
+ * <p>
+ * query method 는 {@link RequeryQueryLookupStrategy}로 생성하고 {@link ReactiveRequeryQuery}로 감싸서 {@link Scheduler}에서 실행합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+public class ReactiveRequeryRepositoryFactory extends ReactiveRepositoryFactorySupport {
+
+    @Nonnull private final RequeryOperations operations;
+    @Nonnull private final Scheduler scheduler;
+
+    public ReactiveRequeryRepositoryFactory(@Nonnull final RequeryOperations operations) {
+        this(operations, RequerySchedulers.getDefault());
+    }
+
+    public ReactiveRequeryRepositoryFactory(@Nonnull final RequeryOperations operations,
+                                            @Nonnull final Scheduler scheduler) {
+        Assert.notNull(operations, "operations must not be null!");
+        Assert.notNull(scheduler, "scheduler must not be null!");
+        log.info("Create ReactiveRequeryRepositoryFactory with operations={}", operations);
+
+        this.operations = operations;
+        this.scheduler = scheduler;
+    }
+
+    @Nonnull
+    @Override
+    protected Object getTargetRepository(@Nonnull final RepositoryInformation information) {
+        RequeryEntityInformation<?, ?> entityInformation = getEntityInformation(information.getDomainType());
+        return getTargetRepositoryViaReflection(information, entityInformation, operations, scheduler);
+    }
+
+    @Nonnull
+    @Override
+    protected Class<?> getRepositoryBaseClass(@Nonnull final RepositoryMetadata metadata) {
+        return SimpleReactiveRequeryRepository.class;
+    }
+
+    @Nonnull
+    @Override
+    protected Optional<QueryLookupStrategy> getQueryLookupStrategy(@Nullable final QueryLookupStrategy.Key key,
+                                                                   @Nonnull final EvaluationContextProvider evaluationContextProvider) {
+        log.debug("Create reactive QueryLookupStrategy by key={}", key);
+        QueryLookupStrategy strategy = RequeryQueryLookupStrategy.create(operations, key, evaluationContextProvider);
+        return Optional.of(ReactiveRequeryQuery.lookupStrategy(strategy, scheduler));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    public <T, ID> RequeryEntityInformation<T, ID> getEntityInformation(@Nonnull final Class<T> domainClass) {
+        return (RequeryEntityInformation<T, ID>) RequeryEntityInformationSupport.getEntityInformation(domainClass, operations);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.repository.support;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.data.repository.core.support.RepositoryFactorySupport;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.core.RequerySchedulers;
+import org.springframework.util.Assert;
+import reactor.core.scheduler.Scheduler;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * {@link ReactiveRequeryRepositoryFactory}로 reactive repository 를 생성하는 factory bean 입니다.
+ * <p>
+ * {@code @EnableRequeryRepositories(repositoryFactoryBeanClass = ReactiveRequeryRepositoryFactoryBean.class)}로 지정합니다.
+ * {@link Scheduler} bean 을 지정하지 않으면 {@link RequerySchedulers#getDefault()}를 사용합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+public class ReactiveRequeryRepositoryFactoryBean<T extends Repository<S, ID>, S, ID>
+    extends RepositoryFactoryBeanSupport<T, S, ID> {
+
+    @Nullable
+    private RequeryOperations operations;
+
+    @Nullable
+    private Scheduler scheduler;
+
+    public ReactiveRequeryRepositoryFactoryBean(@Nonnull final Class<? extends T> repositoryInterface) {
+        super(repositoryInterface);
+    }
+
+    @Autowired(required = false)
+    public void setOperations(@Nullable final RequeryOperations operations) {
+        this.operations = operations;
+    }
+
+    /**
+     * JDBC 작업을 실행할 {@link Scheduler}. connection pool 크기에 맞게 크기가 제한된 scheduler 를 지정해야 합니다.
+     */
+    public void setScheduler(@Nullable final Scheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @Nonnull
+    @Override
+    protected RepositoryFactorySupport createRepositoryFactory() {
+        Assert.state(operations != null, "RequeryOperations must not be null!");
+        return new ReactiveRequeryRepositoryFactory(operations, (scheduler != null) ? scheduler : RequerySchedulers.getDefault());
+    }
+}
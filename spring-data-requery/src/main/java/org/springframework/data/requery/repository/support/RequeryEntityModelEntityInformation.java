@@ -19,23 +19,29 @@ package org.springframework.data.requery.repository.support;
 import io.requery.meta.Attribute;
 import io.requery.meta.EntityModel;
 import io.requery.meta.Type;
+import io.requery.proxy.CompositeKey;
+import io.requery.proxy.EntityProxy;
+import io.requery.proxy.Property;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.BeanWrapper;
-import org.springframework.beans.BeanWrapperImpl;
-import org.springframework.data.requery.utils.RequeryMetamodel;
 import org.springframework.data.util.DirectFieldAccessFallbackBeanWrapper;
 import org.springframework.util.Assert;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * RequeryEntityModelEntityInformation
+ * <p>
+ * Id, version 값은 생성 시 한 번 만든 requery {@link Property} 로 읽어, 호출마다 {@link DirectFieldAccessFallbackBeanWrapper} 를 만들지 않습니다.
+ * Composite Id 는 key attribute 별로 미리 만든 {@link KeyAccessor} 로 값을 읽어 {@link CompositeKey} 로 반환합니다.
  *
  * @author debop
  * @since 18. 6. 7
@@ -52,7 +58,15 @@ public class RequeryEntityModelEntityInformation<T, ID> extends RequeryEntityInf
     @Nonnull private final EntityModel entityModel;
     @Nullable private final String entityName;
 
+    @Nonnull private final Type<T> type;
+    @Nullable private final Property<T, ?> simpleIdProperty;
+    @Nullable private final Property<?, ?> versionProperty;
+    @Nullable private final Class<?> versionDeclaringClass;
+    @Nonnull private final List<String> idAttributeNames;
+    @Nonnull private final List<KeyAccessor<T>> keyAccessors;
 
+
+    @SuppressWarnings("unchecked")
     public RequeryEntityModelEntityInformation(@Nonnull final Class<T> domainClass, @Nonnull final EntityModel entityModel) {
         super(domainClass);
 
@@ -65,6 +79,7 @@ public class RequeryEntityModelEntityInformation<T, ID> extends RequeryEntityInf
             throw new IllegalArgumentException("The given domain class can not be found in the given EntityModel!");
         }
 
+        this.type = type;
         this.entityName = type.getName();
 
         if (type.getKeyAttributes().isEmpty()) {
@@ -73,8 +88,26 @@ public class RequeryEntityModelEntityInformation<T, ID> extends RequeryEntityInf
 
         this.idMetadata = new IdMetadata<>(type);
         this.versionAttribute = findVersionAttribute(type, entityModel);
-    }
 
+        List<String> names = new ArrayList<>(type.getKeyAttributes().size());
+        List<KeyAccessor<T>> accessors = new ArrayList<>(type.getKeyAttributes().size());
+        for (Attribute<T, ?> attr : type.getKeyAttributes()) {
+            names.add(attr.getName());
+            accessors.add(new KeyAccessor<>(attr, entityModel));
+        }
+        this.idAttributeNames = Collections.unmodifiableList(names);
+        this.keyAccessors = Collections.unmodifiableList(accessors);
+
+        this.simpleIdProperty = idMetadata.hasSimpleId()
+                                ? ((Attribute<T, ?>) idMetadata.getSimpleIdAttribute()).getProperty()
+                                : null;
+
+        Attribute<? super T, ?> version = versionAttribute
+            .filter(it -> !it.getClassType().isPrimitive())
+            .orElse(null);
+        this.versionProperty = (version != null) ? version.getProperty() : null;
+        this.versionDeclaringClass = (version != null) ? version.getDeclaringType().getClassType() : null;
+    }
     @SuppressWarnings("unchecked")
     @Nonnull
     private static <T> Optional<Attribute<? super T, ?>> findVersionAttribute(Type<T> type, EntityModel entityModel) {
@@ -109,35 +142,49 @@ public class RequeryEntityModelEntityInformation<T, ID> extends RequeryEntityInf
     @SuppressWarnings("unchecked")
     @Override
     public ID getId(@Nonnull final T entity) {
-        log.debug("Get id value. entity={}", entity);
+        log.trace("Get id value. entity={}", entity);
 
-        BeanWrapper entityWrapper = new DirectFieldAccessFallbackBeanWrapper(entity);
-        if (idMetadata.hasSimpleId()) {
-            return (ID) entityWrapper.getPropertyValue(idMetadata.getSimpleIdAttribute().getName());
+        if (!type.getClassType().isInstance(entity)) {
+            return getIdByBeanWrapper(entity);
         }
 
-        BeanWrapper idWrapper = new IdentifierDerivingDirectFieldAccessFallbackBeanWrapper(idMetadata.getType(), entityModel);
-        boolean partialValueFound = false;
+        if (simpleIdProperty != null) {
+            return (ID) ((Property<T, Object>) simpleIdProperty).get(entity);
+        }
 
-        for (Attribute<? super T, ?> attribute : idMetadata) {
-            Object propertyValue = entityWrapper.getPropertyValue(attribute.getName());
+        Map<Attribute<T, ?>, Object> keys = new LinkedHashMap<>(keyAccessors.size());
+        boolean partialValueFound = false;
 
-            if (propertyValue != null) {
+        for (KeyAccessor<T> accessor : keyAccessors) {
+            Object value = accessor.read(entity);
+            if (value != null) {
                 partialValueFound = true;
             }
-            idWrapper.setPropertyValue(attribute.getName(), propertyValue);
+            keys.put(accessor.attribute, value);
         }
 
-        log.debug("partialValueFound={}", partialValueFound);
-        return partialValueFound ? (ID) idWrapper.getWrappedInstance() : null;
+        return partialValueFound ? (ID) new CompositeKey<>(keys) : null;
+    }
 
+    /**
+     * 생성된 엔티티 클래스가 아닌 인스턴스가 들어온 경우에만 사용하는 느린 경로입니다.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private ID getIdByBeanWrapper(@Nonnull final T entity) {
+        if (simpleIdProperty == null) {
+            throw new IllegalArgumentException("Composite id must be extracted from requery entity. entity class=" + entity.getClass());
+        }
+        return (ID) new DirectFieldAccessFallbackBeanWrapper(entity).getPropertyValue(idMetadata.getSimpleIdAttribute().getName());
     }
 
     @SuppressWarnings("unchecked")
     @Nonnull
     @Override
     public Class<ID> getIdType() {
-        return (Class<ID>) idMetadata.getType();
+        return idMetadata.hasSimpleId()
+               ? (Class<ID>) idMetadata.getType()
+               : (Class<ID>) CompositeKey.class;
     }
 
     @Nullable
@@ -153,10 +200,7 @@ public class RequeryEntityModelEntityInformation<T, ID> extends RequeryEntityInf
 
     @Override
     public Iterable<String> getIdAttributeNames() {
-        return idMetadata.attributes
-            .stream()
-            .map(Attribute::getName)
-            .collect(Collectors.toList());
+        return idAttributeNames;
     }
 
     @Nullable
@@ -164,22 +208,27 @@ public class RequeryEntityModelEntityInformation<T, ID> extends RequeryEntityInf
     public Object getCompositeIdAttributeValue(final Object id, final String idAttribute) {
         Assert.isTrue(hasCompositeId(), "Model must have a composite Id!");
 
+        // 연관 엔티티 key 는 참조 엔티티의 id 값을 가지므로, attribute 타입으로 cast 하지 않도록 이름으로 조회합니다.
+        if (id instanceof CompositeKey) {
+            return ((CompositeKey<?>) id).get(idAttribute);
+        }
         return new DirectFieldAccessFallbackBeanWrapper(id).getPropertyValue(idAttribute);
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public boolean isNew(@Nonnull final T entity) {
         log.trace("is new entity? ... entity={}", entity);
 
-        if (!versionAttribute.isPresent() ||
-            versionAttribute.map(Attribute::getClassType).map(Class::isPrimitive).orElse(false)) {
+        if (versionProperty == null) {
             return super.isNew(entity);
         }
 
-        BeanWrapper wrapper = new DirectFieldAccessFallbackBeanWrapper(entity);
-        return versionAttribute
-            .map(it -> wrapper.getPropertyValue(it.getName()) == null)
-            .orElse(true);
+        if (versionDeclaringClass != null && versionDeclaringClass.isInstance(entity)) {
+            return ((Property<Object, ?>) versionProperty).get(entity) == null;
+        }
+
+        return new DirectFieldAccessFallbackBeanWrapper(entity).getPropertyValue(versionAttribute.get().getName()) == null;
     }
 
     @Slf4j
@@ -238,85 +287,53 @@ public class RequeryEntityModelEntityInformation<T, ID> extends RequeryEntityInf
 
     }
 
-    @Slf4j
-    private static class IdentifierDerivingDirectFieldAccessFallbackBeanWrapper extends DirectFieldAccessFallbackBeanWrapper {
+    /**
+     * Composite key 를 구성하는 attribute 하나의 값을 읽습니다.
+     * 연관 엔티티인 경우 참조 엔티티의 key 값으로 대체하며, 참조 attribute 는 생성 시 한 번만 찾습니다.
+     */
+    private static final class KeyAccessor<T> {
 
-        private final EntityModel entityModel;
-        private final RequeryMetamodel requeryMetamodel;
+        private final Attribute<T, ?> attribute;
+        private final Property<T, ?> property;
+        @Nullable private final Property<Object, ?> referencedProperty;
+        @Nullable private final Type<Object> referencedType;
 
-        IdentifierDerivingDirectFieldAccessFallbackBeanWrapper(Class<?> domainType, EntityModel entityModel) {
-            super(domainType);
-            this.entityModel = entityModel;
-            this.requeryMetamodel = new RequeryMetamodel(entityModel);
-        }
-
-        /**
-         * In addition to the functionality described in {@link BeanWrapperImpl} it is checked whether we have a nested
-         * entity that is part of the id key. If this is the case, we need to derive the identifier of the nested entity.
-         */
         @SuppressWarnings("unchecked")
-        @Override
-        public void setPropertyValue(@Nonnull final String propertyName, final Object value) {
-            if (!isIdentifierDerivationNecessary(value)) {
-                super.setPropertyValue(propertyName, value);
-                return;
-            }
-
-            // Derive the identifier from the nested entity that is part of the composite key.
-            RequeryEntityModelEntityInformation nestedEntityInformation =
-                new RequeryEntityModelEntityInformation(value.getClass(), this.entityModel);
-
-            Object nestedIdPropertyValue = new DirectFieldAccessFallbackBeanWrapper(value)
-                .getPropertyValue(nestedEntityInformation.getRequiredIdAttribute().getName());
-
-            super.setPropertyValue(propertyName, nestedIdPropertyValue);
-        }
-
-
-        @Nullable
-        private Object extractActualIdPropertyValue(@Nonnull final BeanWrapper sourceIdValueWrapper,
-                                                    @Nonnull final String idAttributeName) {
-
-            Object idPropertyValue = sourceIdValueWrapper.getPropertyValue(idAttributeName);
-
-            if (idPropertyValue != null) {
-                Class<?> idPropertyValueClass = idPropertyValue.getClass();
-
-                if (requeryMetamodel.isRequeryManaged(idPropertyValueClass)) {
-                    return idPropertyValue;
+        KeyAccessor(@Nonnull final Attribute<T, ?> attribute, @Nonnull final EntityModel entityModel) {
+            this.attribute = attribute;
+            this.property = attribute.getProperty();
+
+            Attribute<?, ?> referenced = null;
+            Type<?> refType = null;
+            if (attribute.isAssociation()) {
+                if (attribute.getReferencedAttribute() != null) {
+                    referenced = attribute.getReferencedAttribute().get();
                 }
-
-                return new DirectFieldAccessFallbackBeanWrapper(idPropertyValueClass)
-                    .getPropertyValue(tryFindSingularIdAttributeNameOrUseFallback(idPropertyValueClass, idAttributeName));
-            }
-
-            return null;
-        }
-
-        private String tryFindSingularIdAttributeNameOrUseFallback(@Nonnull final Class<?> idPropertyValueType,
-                                                                   @Nonnull final String fallbackIdTypePropertyName) {
-            log.debug("idPropertyValueType={}, fallbackIdTypePropertyName={}", idPropertyValueType, fallbackIdTypePropertyName);
-            Type<?> idPropertyType = entityModel.typeOf(idPropertyValueType);
-            for (Attribute<?, ?> attr : idPropertyType.getAttributes()) {
-                if (attr.isKey()) {
-                    log.debug("Found attribute. attr name={}, propertyName={}", attr.getName(), attr.getPropertyName());
-                    return attr.getName();
+                if (referenced == null) {
+                    Class<?> referencedClass = attribute.getReferencedClass() != null
+                                               ? attribute.getReferencedClass()
+                                               : attribute.getClassType();
+                    refType = entityModel.typeOf(referencedClass);
                 }
             }
-            return fallbackIdTypePropertyName;
+            this.referencedProperty = (referenced != null) ? (Property<Object, ?>) referenced.getProperty() : null;
+            this.referencedType = (Type<Object>) refType;
         }
 
-        private boolean isIdentifierDerivationNecessary(@Nullable Object value) {
-            if (value == null) {
-                return false;
+        @Nullable
+        Object read(@Nonnull final T entity) {
+            Object value = property.get(entity);
+            if (value == null || !attribute.isAssociation()) {
+                return value;
             }
-
-            try {
-                Type<?> entityType = this.entityModel.typeOf(value.getClass());
-                return entityType != null && !entityType.getKeyAttributes().isEmpty();
-            } catch (IllegalArgumentException e) {
-                return false;
+            if (referencedProperty != null) {
+                return referencedProperty.get(value);
+            }
+            if (referencedType != null) {
+                EntityProxy<Object> proxy = referencedType.getProxyProvider().apply(value);
+                return (proxy != null) ? proxy.key() : null;
             }
+            return value;
         }
     }
 }
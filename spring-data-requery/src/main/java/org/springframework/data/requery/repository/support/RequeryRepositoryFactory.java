@@ -19,16 +19,32 @@ package org.springframework.data.requery.repository.support;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.repository.core.RepositoryInformation;
 import org.springframework.data.repository.core.RepositoryMetadata;
+import org.springframework.data.repository.core.support.QueryCreationListener;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
 import org.springframework.data.repository.core.support.RepositoryFactorySupport;
+import org.springframework.data.repository.core.support.RepositoryFragment;
 import org.springframework.data.repository.query.EvaluationContextProvider;
 import org.springframework.data.repository.query.QueryLookupStrategy;
+import org.springframework.data.repository.query.RepositoryQuery;
 import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.core.admission.AdmissionController;
+import org.springframework.data.requery.repository.TreeQueryExecutor;
+import org.springframework.data.requery.repository.TreeRequeryRepository;
+import org.springframework.data.requery.repository.query.LazyRepositoryQuery;
+import org.springframework.data.requery.repository.query.QueryBootstrapMode;
 import org.springframework.data.requery.repository.query.RequeryQueryLookupStrategy;
 import org.springframework.util.Assert;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * Requery specific generic repository factory.
@@ -41,6 +57,9 @@ public class RequeryRepositoryFactory extends RepositoryFactorySupport {
 
     @Nonnull private final RequeryOperations operations;
     @Nonnull private final CrudMethodMetadataPostProcessor crudMethodMetadataPostProcessor;
+    @Nonnull private final Queue<LazyRepositoryQuery> pendingQueries = new ConcurrentLinkedQueue<>();
+    @Nonnull private final Queue<RepositoryQuery> queries = new ConcurrentLinkedQueue<>();
+    @Nonnull private QueryBootstrapMode bootstrapMode = QueryBootstrapMode.DEFAULT;
 
     public RequeryRepositoryFactory(@Nonnull final RequeryOperations operations) {
         Assert.notNull(operations, "operations must not be null!");
@@ -48,6 +67,63 @@ public class RequeryRepositoryFactory extends RepositoryFactorySupport {
 
         this.operations = operations;
         this.crudMethodMetadataPostProcessor = new CrudMethodMetadataPostProcessor();
+
+        addRepositoryProxyPostProcessor(new DirectCrudMethodPostProcessor());
+        addRepositoryProxyPostProcessor(new QueryTimeoutPostProcessor());
+        addQueryCreationListener(new PendingQueryCollector());
+        addQueryCreationListener(new QueryCollector());
+    }
+
+    /**
+     * Query method 를 생성하는 시점을 지정합니다. Repository 를 생성하기 전에 호출해야 합니다.
+     */
+    public void setBootstrapMode(@Nonnull final QueryBootstrapMode bootstrapMode) {
+        Assert.notNull(bootstrapMode, "bootstrapMode must not be null!");
+        this.bootstrapMode = bootstrapMode;
+    }
+
+    @Nonnull
+    public QueryBootstrapMode getBootstrapMode() {
+        return bootstrapMode;
+    }
+
+    /**
+     * Repository method 호출에 {@link AdmissionController}의 동시 실행 제한을 적용합니다. Repository 를 생성하기 전에 호출해야 합니다.
+     */
+    public void setAdmissionController(@Nullable final AdmissionController admissionController) {
+        if (admissionController != null) {
+            addRepositoryProxyPostProcessor(new AdmissionControlPostProcessor(admissionController));
+        }
+    }
+
+    /**
+     * 이 factory 로 생성한 repository 들의 query method 목록. {@link LazyRepositoryQuery}는 아직 생성되지 않았을 수 있습니다.
+     */
+    @Nonnull
+    public Collection<RepositoryQuery> getQueries() {
+        return Collections.unmodifiableCollection(queries);
+    }
+
+    /**
+     * {@link QueryBootstrapMode#PARALLEL}로 생성을 시작한 query method 들의 생성이 끝나기를 기다립니다.
+     *
+     * @throws IllegalStateException 생성에 실패한 query method 가 있는 경우
+     */
+    public void awaitQueryBootstrap() {
+        List<Throwable> failures = new ArrayList<>();
+        LazyRepositoryQuery query;
+        while ((query = pendingQueries.poll()) != null) {
+            try {
+                query.getQuery().join();
+            } catch (CompletionException e) {
+                failures.add(e.getCause() != null ? e.getCause() : e);
+            }
+        }
+        if (!failures.isEmpty()) {
+            IllegalStateException error = new IllegalStateException("Fail to create " + failures.size() + " query method(s)", failures.get(0));
+            failures.stream().skip(1).forEach(error::addSuppressed);
+            throw error;
+        }
     }
 
     @Override
@@ -82,12 +158,27 @@ public class RequeryRepositoryFactory extends RepositoryFactorySupport {
         return SimpleRequeryRepository.class;
     }
 
+    /**
+     * {@link TreeRequeryRepository}를 상속한 repository 에만 tree 조회 fragment 를 추가합니다.
+     */
+    @Nonnull
+    @Override
+    protected RepositoryFragments getRepositoryFragments(@Nonnull final RepositoryMetadata metadata) {
+        RepositoryFragments fragments = super.getRepositoryFragments(metadata);
+
+        if (TreeQueryExecutor.class.isAssignableFrom(metadata.getRepositoryInterface())) {
+            TreeRequeryRepositoryImpl<?, ?> treeRepository = new TreeRequeryRepositoryImpl<>(operations, metadata.getDomainType());
+            fragments = fragments.append(RepositoryFragment.implemented(TreeQueryExecutor.class, treeRepository));
+        }
+        return fragments;
+    }
+
     @Nonnull
     @Override
     protected Optional<QueryLookupStrategy> getQueryLookupStrategy(@Nullable final QueryLookupStrategy.Key key,
                                                                    @Nonnull final EvaluationContextProvider evaluationContextProvider) {
         log.debug("Create QueryLookupStrategy by key={}", key);
-        return Optional.of(RequeryQueryLookupStrategy.create(operations, key, evaluationContextProvider));
+        return Optional.of(RequeryQueryLookupStrategy.create(operations, key, evaluationContextProvider, bootstrapMode));
     }
 
     @Override
@@ -96,4 +187,25 @@ public class RequeryRepositoryFactory extends RepositoryFactorySupport {
     public <T, ID> RequeryEntityInformation<T, ID> getEntityInformation(@Nonnull final Class<T> domainClass) {
         return (RequeryEntityInformation<T, ID>) RequeryEntityInformationSupport.getEntityInformation(domainClass, operations);
     }
+
+    /**
+     * 병렬로 생성 중인 {@link LazyRepositoryQuery}를 {@link #awaitQueryBootstrap()}에서 기다릴 수 있도록 모아둡니다.
+     */
+    private class PendingQueryCollector implements QueryCreationListener<LazyRepositoryQuery> {
+
+        @Override
+        public void onCreation(@Nonnull final LazyRepositoryQuery query) {
+            if (bootstrapMode == QueryBootstrapMode.PARALLEL) {
+                pendingQueries.add(query);
+            }
+        }
+    }
+
+    private class QueryCollector implements QueryCreationListener<RepositoryQuery> {
+
+        @Override
+        public void onCreation(@Nonnull final RepositoryQuery query) {
+            queries.add(query);
+        }
+    }
 }
@@ -17,16 +17,24 @@
 package org.springframework.data.requery.repository.support;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
 import org.springframework.data.mapping.context.MappingContext;
 import org.springframework.data.repository.Repository;
 import org.springframework.data.repository.core.support.RepositoryFactorySupport;
 import org.springframework.data.repository.core.support.TransactionalRepositoryFactoryBeanSupport;
+import org.springframework.data.repository.query.RepositoryQuery;
 import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.core.admission.AdmissionController;
+import org.springframework.data.requery.repository.query.QueryBootstrapMode;
 import org.springframework.util.Assert;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Collections;
 
 /**
  * Special adapter for Springs {@link org.springframework.beans.factory.FactoryBean} interface to allow easy setup of
@@ -37,11 +45,24 @@ import javax.annotation.Nullable;
  */
 @Slf4j
 public class RequeryRepositoryFactoryBean<T extends Repository<S, ID>, S, ID>
-    extends TransactionalRepositoryFactoryBeanSupport<T, S, ID> {
+    extends TransactionalRepositoryFactoryBeanSupport<T, S, ID>
+    implements EnvironmentAware, SmartInitializingSingleton {
 
     @Nullable
     private RequeryOperations operations;
 
+    @Nonnull
+    private QueryBootstrapMode bootstrapMode = QueryBootstrapMode.DEFAULT;
+
+    @Nullable
+    private AdmissionController admissionController;
+
+    @Nullable
+    private Environment environment;
+
+    @Nullable
+    private RepositoryFactorySupport repositoryFactory;
+
     public RequeryRepositoryFactoryBean(@Nonnull final Class<? extends T> repositoryInterface) {
         super(repositoryInterface);
     }
@@ -51,6 +72,27 @@ public class RequeryRepositoryFactoryBean<T extends Repository<S, ID>, S, ID>
         this.operations = operations;
     }
 
+    /**
+     * Repository method 호출의 동시 실행을 제한할 {@link AdmissionController}를 지정합니다.
+     */
+    @Autowired(required = false)
+    public void setAdmissionController(@Nullable final AdmissionController admissionController) {
+        this.admissionController = admissionController;
+    }
+
+    /**
+     * Query method 생성 시점을 지정합니다. {@link QueryBootstrapMode#DEFAULT}이면
+     * {@link QueryBootstrapMode#PROPERTY_NAME} 환경설정 값을 따릅니다.
+     */
+    public void setBootstrapMode(@Nullable final QueryBootstrapMode bootstrapMode) {
+        this.bootstrapMode = bootstrapMode != null ? bootstrapMode : QueryBootstrapMode.DEFAULT;
+    }
+
+    @Override
+    public void setEnvironment(@Nonnull final Environment environment) {
+        this.environment = environment;
+    }
+
     @Override
     protected void setMappingContext(@Nullable final MappingContext<?, ?> mappingContext) {
         super.setMappingContext(mappingContext);
@@ -60,7 +102,31 @@ public class RequeryRepositoryFactoryBean<T extends Repository<S, ID>, S, ID>
     @Override
     protected RepositoryFactorySupport doCreateRepositoryFactory() {
         Assert.state(operations != null, "RequeryOperations must not be null!");
-        return createRepositoryFactory(operations);
+
+        repositoryFactory = createRepositoryFactory(operations);
+        if (repositoryFactory instanceof RequeryRepositoryFactory) {
+            ((RequeryRepositoryFactory) repositoryFactory).setBootstrapMode(resolveBootstrapMode());
+            ((RequeryRepositoryFactory) repositoryFactory).setAdmissionController(admissionController);
+        }
+        return repositoryFactory;
+    }
+
+    /**
+     * 이 factory bean 이 생성한 repository 의 query method 목록
+     */
+    @Nonnull
+    public Collection<RepositoryQuery> getRepositoryQueries() {
+        return (repositoryFactory instanceof RequeryRepositoryFactory)
+               ? ((RequeryRepositoryFactory) repositoryFactory).getQueries()
+               : Collections.emptyList();
+    }
+
+    @Nonnull
+    private QueryBootstrapMode resolveBootstrapMode() {
+        if (bootstrapMode != QueryBootstrapMode.DEFAULT || environment == null) {
+            return bootstrapMode;
+        }
+        return QueryBootstrapMode.of(environment.getProperty(QueryBootstrapMode.PROPERTY_NAME));
     }
 
     @Nonnull
@@ -80,4 +146,15 @@ public class RequeryRepositoryFactoryBean<T extends Repository<S, ID>, S, ID>
         }
         log.debug("After afterPropertiesSet");
     }
+
+    /**
+     * 모든 repository 가 생성된 후, 병렬로 생성한 query method 의 검증 결과를 기다립니다.
+     * 생성에 실패한 query method 가 있으면 context 시작이 실패합니다.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (repositoryFactory instanceof RequeryRepositoryFactory) {
+            ((RequeryRepositoryFactory) repositoryFactory).awaitQueryBootstrap();
+        }
+    }
 }
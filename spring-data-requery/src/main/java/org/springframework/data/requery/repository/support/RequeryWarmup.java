@@ -0,0 +1,226 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.repository.support;
+
+import io.requery.meta.Attribute;
+import io.requery.meta.QueryAttribute;
+import io.requery.meta.Type;
+import io.requery.proxy.EntityProxy;
+import io.requery.query.LogicalCondition;
+import io.requery.query.element.QueryElement;
+import io.requery.sql.ConnectionProvider;
+import io.requery.sql.EntityContext;
+import io.requery.sql.gen.DefaultOutput;
+import io.requery.util.function.Function;
+import io.requery.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.repository.query.RepositoryQuery;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.repository.query.AbstractRequeryQuery;
+import org.springframework.data.requery.repository.query.LazyRepositoryQuery;
+import org.springframework.data.requery.utils.RequeryUtils;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.requery.utils.RequeryUtils.unwrap;
+
+/**
+ * 배포 후 첫 요청이 requery 타입 초기화, SQL 생성, JDBC {@code prepareStatement} 비용을 치르지 않도록 시작 시 미리 수행합니다.
+ * <p>
+ * {@link io.requery.meta.EntityModel}의 모든 엔티티 타입을 초기화하고 key 로 조회하는 SQL 을, 등록된 repository query method 마다
+ * 해당 SQL 을 생성합니다. {@link #prepareStatements(boolean)}가 true 이면 생성한 SQL 을 {@link #connections(int)} 개의
+ * connection 에서 각각 prepare 하여, connection pool 과 JDBC driver 의 statement cache 를 채웁니다.
+ * warmup 중 실패는 시작을 막지 않고 {@link RequeryWarmupResult#getFailures()}에 집계합니다.
+ *
+ * <pre>{@code
+ * RequeryWarmupResult result = new RequeryWarmup(operations)
+ *     .queries(factoryBean.getRepositoryQueries())
+ *     .prepareStatements(true)
+ *     .connections(4)
+ *     .run();
+ * }</pre>
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+public class RequeryWarmup {
+
+    private final RequeryOperations operations;
+    private final List<RepositoryQuery> queries = new ArrayList<>();
+
+    private boolean prepareStatements = false;
+    private int connections = 1;
+
+    public RequeryWarmup(@Nonnull final RequeryOperations operations) {
+        Assert.notNull(operations, "operations must not be null!");
+        this.operations = operations;
+    }
+
+    /**
+     * SQL 을 생성할 repository query method 들을 추가합니다. {@link LazyRepositoryQuery}는 이때 생성됩니다.
+     */
+    public RequeryWarmup queries(@Nonnull final Collection<? extends RepositoryQuery> queries) {
+        Assert.notNull(queries, "queries must not be null!");
+        this.queries.addAll(queries);
+        return this;
+    }
+
+    /**
+     * true 이면 생성한 SQL 을 connection 마다 prepare 합니다. (기본 false)
+     */
+    public RequeryWarmup prepareStatements(final boolean prepareStatements) {
+        this.prepareStatements = prepareStatements;
+        return this;
+    }
+
+    /**
+     * Statement 를 prepare 할 connection 수 (기본 1). 동시에 빌려야 서로 다른 pooled connection 이 사용되므로 pool 크기를 넘지 않아야 합니다.
+     */
+    public RequeryWarmup connections(final int connections) {
+        Assert.isTrue(connections > 0, "connections must be greater than 0.");
+        this.connections = connections;
+        return this;
+    }
+
+    @Nonnull
+    public RequeryWarmupResult run() {
+        @SuppressWarnings("unchecked")
+        final EntityContext<Object> context = RequeryUtils.getEntityContext(operations.getDataStore());
+        final Set<String> statements = new LinkedHashSet<>();
+        final int[] failures = new int[1];
+
+        long start = System.nanoTime();
+        int entityTypes = 0;
+        for (Type<?> type : operations.getEntityModel().getTypes()) {
+            if (warmupType(context, type, statements)) {
+                entityTypes++;
+            } else {
+                failures[0]++;
+            }
+        }
+        long modelNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int queryMethods = 0;
+        for (RepositoryQuery query : queries) {
+            try {
+                RepositoryQuery resolved = (query instanceof LazyRepositoryQuery)
+                                           ? ((LazyRepositoryQuery) query).getQuery().join()
+                                           : query;
+                if (resolved instanceof AbstractRequeryQuery) {
+                    ((AbstractRequeryQuery) resolved).createWarmupSql().ifPresent(statements::add);
+                }
+                queryMethods++;
+            } catch (RuntimeException e) {
+                failures[0]++;
+                log.debug("Fail to generate warmup sql. query={}", query, e);
+            }
+        }
+        long queryNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int prepared = prepareStatements ? prepare(statements, failures) : 0;
+        long prepareNanos = System.nanoTime() - start;
+
+        RequeryWarmupResult result = new RequeryWarmupResult(entityTypes,
+                                                             queryMethods,
+                                                             statements.size(),
+                                                             prepared,
+                                                             failures[0],
+                                                             TimeUnit.NANOSECONDS.toMillis(modelNanos),
+                                                             TimeUnit.NANOSECONDS.toMillis(queryNanos),
+                                                             TimeUnit.NANOSECONDS.toMillis(prepareNanos));
+        log.debug("Requery warmup finished. result={}", result);
+        return result;
+    }
+
+    /**
+     * 엔티티 클래스와 proxy 를 초기화하고, key 로 조회하는 SQL 을 생성합니다.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean warmupType(@Nonnull final EntityContext<Object> context,
+                               @Nonnull final Type<?> type,
+                               @Nonnull final Set<String> statements) {
+        try {
+            Supplier<Object> factory = ((Type<Object>) type).getFactory();
+            Function<Object, EntityProxy<Object>> proxyProvider = ((Type<Object>) type).getProxyProvider();
+            if (factory != null && proxyProvider != null) {
+                proxyProvider.apply(factory.get());
+            }
+
+            LogicalCondition<?, ?> condition = null;
+            for (Attribute<?, ?> key : type.getKeyAttributes()) {
+                LogicalCondition<?, ?> equal = ((QueryAttribute<Object, Object>) key).equal("?");
+                condition = (condition == null) ? equal : condition.and(equal);
+            }
+            if (condition != null) {
+                QueryElement<?> query = unwrap(operations.select(type.getClassType()));
+                query.where(condition);
+                statements.add(new DefaultOutput(context, query).toSql());
+            }
+            return true;
+        } catch (RuntimeException e) {
+            log.debug("Fail to warmup entity type. type={}", type.getName(), e);
+            return false;
+        }
+    }
+
+    private int prepare(@Nonnull final Collection<String> statements, @Nonnull final int[] failures) {
+        final ConnectionProvider connectionProvider = RequeryUtils.getConfiguration(operations.getDataStore()).getConnectionProvider();
+        final List<Connection> borrowed = new ArrayList<>(connections);
+        int prepared = 0;
+        try {
+            // 같은 connection 을 다시 받지 않도록 모두 빌린 후에 prepare 합니다.
+            for (int i = 0; i < connections; i++) {
+                borrowed.add(connectionProvider.getConnection());
+            }
+            for (Connection connection : borrowed) {
+                for (String sql : statements) {
+                    try (PreparedStatement ignored = connection.prepareStatement(sql)) {
+                        prepared++;
+                    } catch (SQLException e) {
+                        failures[0]++;
+                        log.debug("Fail to prepare warmup statement. sql={}", sql, e);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            failures[0]++;
+            log.warn("Fail to get connection for warmup. borrowed={}", borrowed.size(), e);
+        } finally {
+            for (Connection connection : borrowed) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    log.debug("Fail to close warmup connection.", e);
+                }
+            }
+        }
+        return prepared;
+    }
+}
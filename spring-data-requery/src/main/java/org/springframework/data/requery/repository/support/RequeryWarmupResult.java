@@ -0,0 +1,78 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.repository.support;
+
+import lombok.Getter;
+
+/**
+ * {@link RequeryWarmup} 실행 결과
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Getter
+public class RequeryWarmupResult {
+
+    private final int entityTypes;
+    private final int queryMethods;
+    private final int statements;
+    private final int preparedStatements;
+    private final int failures;
+    private final long modelMillis;
+    private final long queryMillis;
+    private final long prepareMillis;
+
+    RequeryWarmupResult(final int entityTypes,
+                        final int queryMethods,
+                        final int statements,
+                        final int preparedStatements,
+                        final int failures,
+                        final long modelMillis,
+                        final long queryMillis,
+                        final long prepareMillis) {
+        this.entityTypes = entityTypes;
+        this.queryMethods = queryMethods;
+        this.statements = statements;
+        this.preparedStatements = preparedStatements;
+        this.failures = failures;
+        this.modelMillis = modelMillis;
+        this.queryMillis = queryMillis;
+        this.prepareMillis = prepareMillis;
+    }
+
+    public boolean hasFailures() {
+        return failures > 0;
+    }
+
+    public long getElapsedMillis() {
+        return modelMillis + queryMillis + prepareMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "RequeryWarmupResult{" +
+               "entityTypes=" + entityTypes +
+               ", queryMethods=" + queryMethods +
+               ", statements=" + statements +
+               ", preparedStatements=" + preparedStatements +
+               ", failures=" + failures +
+               ", modelMillis=" + modelMillis +
+               ", queryMillis=" + queryMillis +
+               ", prepareMillis=" + prepareMillis +
+               '}';
+    }
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.repository.support;
+
+import io.requery.query.Condition;
+import io.requery.query.LogicalCondition;
+import io.requery.query.NamedExpression;
+import io.requery.query.OrderingExpression;
+import io.requery.query.Result;
+import io.requery.query.element.QueryElement;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.core.RequerySchedulers;
+import org.springframework.data.requery.repository.ReactiveRequeryRepository;
+import org.springframework.data.requery.utils.SqlParameterLimits;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.Callable;
+
+import static org.springframework.data.requery.utils.RequeryUtils.UNKNOWN_KEY_EXPRESSION;
+import static org.springframework.data.requery.utils.RequeryUtils.getKeyExpression;
+import static org.springframework.data.requery.utils.RequeryUtils.getOrderingExpressions;
+import static org.springframework.data.requery.utils.RequeryUtils.unwrap;
+
+/**
+ * {@link ReactiveRequeryRepository}의 기본 구현체입니다.
+ * <p>
+ * 모든 JDBC 작업은 {@link SimpleRequeryRepository}에 위임하여 {@link Scheduler}에서 실행합니다.
+ * {@code findAll} 계열은 구독자의 요청 수만큼씩 나누어 조회하며, 정렬하지 않으면 key 순으로 {@code key > 이전 chunk 의 마지막 key} 조건으로,
+ * 정렬하면 OFFSET 으로 다음 chunk 를 읽습니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+public class SimpleReactiveRequeryRepository<T, ID> implements ReactiveRequeryRepository<T, ID> {
+
+    /**
+     * 구독자가 제한 없이 요청할 때({@code request(Long.MAX_VALUE)}) 한 번에 조회하는 최대 행 수
+     */
+    public static final int DEFAULT_MAX_FETCH_SIZE = 256;
+
+    @Getter
+    @Nonnull private final RequeryOperations operations;
+    @Getter
+    @Nonnull private final Scheduler scheduler;
+
+    @Nonnull private final RequeryEntityInformation<T, ID> entityInformation;
+    @Nonnull private final Class<T> domainClass;
+    @Nonnull private final NamedExpression<ID> keyExpression;
+    @Nonnull private final SimpleRequeryRepository<T, ID> delegate;
+
+    private int maxFetchSize = DEFAULT_MAX_FETCH_SIZE;
+
+    public SimpleReactiveRequeryRepository(@Nonnull final RequeryEntityInformation<T, ID> entityInformation,
+                                           @Nonnull final RequeryOperations operations) {
+        this(entityInformation, operations, RequerySchedulers.getDefault());
+    }
+
+    @SuppressWarnings("unchecked")
+    public SimpleReactiveRequeryRepository(@Nonnull final RequeryEntityInformation<T, ID> entityInformation,
+                                           @Nonnull final RequeryOperations operations,
+                                           @Nonnull final Scheduler scheduler) {
+        Assert.notNull(entityInformation, "entityInformation must not be null!");
+        Assert.notNull(operations, "operations must not be null!");
+        Assert.notNull(scheduler, "scheduler must not be null!");
+        log.debug("Create SimpleReactiveRequeryRepository. domainClass={}", entityInformation.getJavaType());
+
+        this.entityInformation = entityInformation;
+        this.domainClass = entityInformation.getJavaType();
+        this.keyExpression = (NamedExpression<ID>) getKeyExpression(domainClass);
+        this.operations = operations;
+        this.scheduler = scheduler;
+        this.delegate = new SimpleRequeryRepository<>(entityInformation, operations);
+    }
+
+    /**
+     * 구독자가 제한 없이 요청할 때 한 번에 조회하는 최대 행 수 (기본 {@link #DEFAULT_MAX_FETCH_SIZE})
+     */
+    public void setMaxFetchSize(final int maxFetchSize) {
+        Assert.isTrue(maxFetchSize > 0, "maxFetchSize must be greater than 0.");
+        this.maxFetchSize = maxFetchSize;
+    }
+
+    @Nonnull
+    @Override
+    public <S extends T> Mono<S> save(@Nonnull final S entity) {
+        Assert.notNull(entity, "entity must not be null!");
+        return fromCallable(() -> delegate.save(entity));
+    }
+
+    @Nonnull
+    @Override
+    public <S extends T> Flux<S> saveAll(@Nonnull final Iterable<S> entities) {
+        Assert.notNull(entities, "entities must not be null!");
+        return saveAll(Flux.fromIterable(entities));
+    }
+
+    /**
+     * {@code entityStream}을 requery 의 {@code batchUpdateSize} 만큼씩 모아서 chunk 마다 하나의 transaction 으로 저장합니다.
+     * chunk 는 순서대로 저장되므로, 저장된 엔티티도 입력 순서대로 발행됩니다.
+     */
+    @Nonnull
+    @Override
+    public <S extends T> Flux<S> saveAll(@Nonnull final Publisher<S> entityStream) {
+        Assert.notNull(entityStream, "entityStream must not be null!");
+
+        final int batchSize = Math.max(1, operations.getEntityContext().getBatchUpdateSize());
+        return Flux.from(entityStream)
+            .buffer(batchSize)
+            .concatMap(batch -> fromCallable(() -> delegate.saveAll(batch)))
+            .concatMapIterable(saved -> saved);
+    }
+
+    @Nonnull
+    @Override
+    public Mono<T> findById(@Nonnull final ID id) {
+        Assert.notNull(id, "id must not be null!");
+        return fromCallable(() -> delegate.findById(id).orElse(null));
+    }
+
+    @Nonnull
+    @Override
+    public Mono<T> findById(@Nonnull final Publisher<ID> id) {
+        Assert.notNull(id, "id must not be null!");
+        return Mono.from(id).flatMap(this::findById);
+    }
+
+    @Nonnull
+    @Override
+    public Mono<Boolean> existsById(@Nonnull final ID id) {
+        Assert.notNull(id, "id must not be null!");
+        return fromCallable(() -> delegate.existsById(id));
+    }
+
+    @Nonnull
+    @Override
+    public Mono<Boolean> existsById(@Nonnull final Publisher<ID> id) {
+        Assert.notNull(id, "id must not be null!");
+        return Mono.from(id).flatMap(this::existsById);
+    }
+
+    @Nonnull
+    @Override
+    public Flux<T> findAll() {
+        return findAllOnDemand(null, Sort.unsorted());
+    }
+
+    @Nonnull
+    @Override
+    public Flux<T> findAll(@Nonnull final Sort sort) {
+        Assert.notNull(sort, "sort must not be null!");
+        return findAllOnDemand(null, sort);
+    }
+
+    @Nonnull
+    @Override
+    public Flux<T> findAll(@Nonnull final Condition<?, ?> condition) {
+        Assert.notNull(condition, "condition must not be null!");
+        return findAllOnDemand(condition, Sort.unsorted());
+    }
+
+    @Nonnull
+    @Override
+    public Flux<T> findAllById(@Nonnull final Iterable<ID> ids) {
+        Assert.notNull(ids, "ids must not be null!");
+        return findAllById(Flux.fromIterable(ids));
+    }
+
+    /**
+     * id 들을 IN 절 하나에 넣을 수 있는 크기만큼씩 모아서 조회합니다.
+     */
+    @Nonnull
+    @Override
+    public Flux<T> findAllById(@Nonnull final Publisher<ID> idStream) {
+        Assert.notNull(idStream, "idStream must not be null!");
+
+        final int maxInListSize = SqlParameterLimits.getMaxInListSize(operations.getDataStore());
+        return Flux.from(idStream)
+            .buffer(maxInListSize)
+            .concatMap(ids -> fromCallable(() -> delegate.findAllById(ids)))
+            .concatMapIterable(entities -> entities);
+    }
+
+    @Nonnull
+    @Override
+    public Mono<Long> count() {
+        return fromCallable(delegate::count);
+    }
+
+    @Nonnull
+    @Override
+    public Mono<Long> count(@Nonnull final Condition<?, ?> condition) {
+        Assert.notNull(condition, "condition must not be null!");
+        return fromCallable(() -> operations.count(domainClass).where(condition).get().value().longValue());
+    }
+
+    @Nonnull
+    @Override
+    public Mono<Void> deleteById(@Nonnull final ID id) {
+        Assert.notNull(id, "id must not be null!");
+        return fromRunnable(() -> delegate.deleteById(id));
+    }
+
+    @Nonnull
+    @Override
+    public Mono<Void> deleteById(@Nonnull final Publisher<ID> id) {
+        Assert.notNull(id, "id must not be null!");
+        return Mono.from(id).flatMap(this::deleteById);
+    }
+
+    @Nonnull
+    @Override
+    public Mono<Void> delete(@Nonnull final T entity) {
+        Assert.notNull(entity, "entity must not be null!");
+        return fromRunnable(() -> delegate.delete(entity));
+    }
+
+    @Nonnull
+    @Override
+    public Mono<Void> deleteAll(@Nonnull final Iterable<? extends T> entities) {
+        Assert.notNull(entities, "entities must not be null!");
+        return fromRunnable(() -> delegate.deleteAll(entities));
+    }
+
+    @Nonnull
+    @Override
+    public Mono<Void> deleteAll(@Nonnull final Publisher<? extends T> entityStream) {
+        Assert.notNull(entityStream, "entityStream must not be null!");
+
+        final int batchSize = Math.max(1, operations.getEntityContext().getBatchUpdateSize());
+        return Flux.from(entityStream)
+            .buffer(batchSize)
+            .concatMap(batch -> fromRunnable(() -> delegate.deleteAll(batch)))
+            .then();
+    }
+
+    @Nonnull
+    @Override
+    public Mono<Void> deleteAll() {
+        return fromRunnable(delegate::deleteAll);
+    }
+
+    @Nonnull
+    private <R> Mono<R> fromCallable(@Nonnull final Callable<R> callable) {
+        return Mono.fromCallable(callable).subscribeOn(scheduler);
+    }
+
+    @Nonnull
+    private Mono<Void> fromRunnable(@Nonnull final Runnable runnable) {
+        return Mono.<Void>fromRunnable(runnable).subscribeOn(scheduler);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    private Flux<T> findAllOnDemand(@Nullable final Condition<?, ?> condition, @Nonnull final Sort sort) {
+        final OrderingExpression<?>[] orderings = sort.isSorted()
+                                                  ? getOrderingExpressions(domainClass, sort)
+                                                  : new OrderingExpression<?>[0];
+        final boolean keyset = orderings.length == 0 && keyExpression != UNKNOWN_KEY_EXPRESSION;
+
+        return DemandChunkedFlux.create(scheduler, maxFetchSize, (last, offset, limit) -> {
+            Condition<?, ?> where = condition;
+            if (keyset && last != null) {
+                // 사용자 조건을 오른쪽에 두어야 괄호로 묶입니다.
+                LogicalCondition<?, ?> range = keyExpression.gt(entityInformation.getId(last));
+                where = (condition != null) ? range.and(condition) : range;
+            }
+
+            QueryElement<? extends Result<T>> query = (QueryElement<? extends Result<T>>) unwrap(operations.select(domainClass));
+            if (where != null) {
+                query.where(where);
+            }
+            if (keyset) {
+                query.orderBy(keyExpression.asc()).limit(limit);
+            } else {
+                if (orderings.length > 0) {
+                    query.orderBy(orderings);
+                }
+                query.limit(limit).offset((int) offset);
+            }
+            return query.get().toList();
+        });
+    }
+}
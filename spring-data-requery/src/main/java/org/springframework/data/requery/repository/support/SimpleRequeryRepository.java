@@ -23,9 +23,7 @@ import io.requery.query.NamedExpression;
 import io.requery.query.OrderingExpression;
 import io.requery.query.Result;
 import io.requery.query.Return;
-import io.requery.query.Tuple;
 import io.requery.query.element.QueryElement;
-import io.requery.query.function.Count;
 import io.requery.sql.EntityDataStore;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -35,16 +33,23 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.requery.core.ExistenceQueries;
 import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.core.export.RowWriter;
 import org.springframework.data.requery.repository.query.QueryByExampleBuilder;
+import org.springframework.data.requery.utils.IdBatches;
+import org.springframework.data.requery.utils.SqlParameterLimits;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.HashSet;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.springframework.data.requery.utils.RequeryUtils.applyPageable;
 import static org.springframework.data.requery.utils.RequeryUtils.applySort;
@@ -52,6 +57,7 @@ import static org.springframework.data.requery.utils.RequeryUtils.foldConditions
 import static org.springframework.data.requery.utils.RequeryUtils.getKeyExpression;
 import static org.springframework.data.requery.utils.RequeryUtils.getOrderingExpressions;
 import static org.springframework.data.requery.utils.RequeryUtils.unwrap;
+import static org.springframework.data.requery.utils.RequeryUtils.UNKNOWN_KEY_EXPRESSION;
 
 /**
  * Default implementation of the {@link org.springframework.data.repository.CrudRepository} interface.
@@ -72,9 +78,14 @@ public class SimpleRequeryRepository<T, ID> implements RequeryRepositoryImplemen
 
     @Nullable private final Class<T> domainClass;
     @Nonnull private final String domainClassName;
+    @Nonnull private final NamedExpression<ID> keyExpression;
 
     @Nullable private CrudMethodMetadata crudMethodMetadata;
 
+    @Nonnull private final BulkDeleteExecutor<T, ID> bulkDeleteExecutor;
+    @Nonnull private final DirtyTrackingBatchWriter<T> batchWriter;
+
+    @SuppressWarnings("unchecked")
     public SimpleRequeryRepository(@Nonnull final RequeryEntityInformation<T, ID> entityInformation,
                                    @Nonnull final RequeryOperations operations) {
         log.debug("Create SimpleRequeryRepository. domainClass={}", entityInformation.getJavaType());
@@ -82,7 +93,10 @@ public class SimpleRequeryRepository<T, ID> implements RequeryRepositoryImplemen
         this.entityInformation = entityInformation;
         this.domainClass = entityInformation.getJavaType();
         this.domainClassName = (domainClass != null) ? domainClass.getSimpleName() : "Unknown";
+        this.keyExpression = (domainClass != null) ? (NamedExpression<ID>) getKeyExpression(domainClass) : (NamedExpression<ID>) UNKNOWN_KEY_EXPRESSION;
         this.operations = operations;
+        this.bulkDeleteExecutor = new BulkDeleteExecutor<>(operations, entityInformation);
+        this.batchWriter = new DirtyTrackingBatchWriter<>(operations, entityInformation.getJavaType());
     }
 
     @Override
@@ -129,7 +143,7 @@ public class SimpleRequeryRepository<T, ID> implements RequeryRepositoryImplemen
     @Override
     @Nonnull
     public <S extends T> List<S> upsertAll(@Nonnull final Iterable<S> entities) {
-        return operations.upsertAll(entities);
+        return batchWriter.saveAll(entities);
     }
 
     @Nonnull
@@ -148,10 +162,25 @@ public class SimpleRequeryRepository<T, ID> implements RequeryRepositoryImplemen
         return operations.refreshAllProperties(entity);
     }
 
+    /**
+     * 엔티티마다 별도의 transaction 으로 저장하므로 repository 수준의 transaction 을 시작하지 않습니다.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    @Override
+    public T updateWithRetry(@Nonnull final ID id, @Nonnull final Consumer<? super T> mutator) {
+        return operations.optimisticRetry().update(domainClass, id, mutator);
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    @Override
+    public List<T> updateAllWithRetry(@Nonnull final Iterable<ID> ids, @Nonnull final Consumer<? super T> mutator) {
+        return operations.optimisticRetry().updateAll(domainClass, ids, mutator);
+    }
+
     @Transactional
     @Override
     public void deleteInBatch(@Nonnull final Iterable<T> entities) {
-        operations.deleteAll(entities);
+        bulkDeleteExecutor.deleteAll(entities);
     }
 
     @Transactional
@@ -169,7 +198,9 @@ public class SimpleRequeryRepository<T, ID> implements RequeryRepositoryImplemen
     @Override
     public List<T> findAll(@Nonnull final Sort sort) {
 
-        log.debug("Find all {} with sort, sort={}", domainClassName, sort);
+        if (log.isDebugEnabled()) {
+            log.debug("Find all {} with sort, sort={}", domainClassName, sort);
+        }
 
         if (sort.isSorted()) {
             OrderingExpression<?>[] orderingExprs = getOrderingExpressions(domainClass, sort);
@@ -194,7 +225,9 @@ public class SimpleRequeryRepository<T, ID> implements RequeryRepositoryImplemen
     @Override
     public Page<T> findAll(@Nonnull final Pageable pageable) {
 
-        log.debug("Find all {} with paging, pageable={}", domainClassName, pageable);
+        if (log.isDebugEnabled()) {
+            log.debug("Find all {} with paging, pageable={}", domainClassName, pageable);
+        }
 
         if (pageable.isPaged()) {
             QueryElement<? extends Result<T>> query = (QueryElement<? extends Result<T>>)
@@ -225,7 +258,7 @@ public class SimpleRequeryRepository<T, ID> implements RequeryRepositoryImplemen
     @Nonnull
     @Override
     public <S extends T> List<S> saveAll(@Nonnull final Iterable<S> entities) {
-        return operations.upsertAll(entities);
+        return batchWriter.saveAll(entities);
     }
 
     @Nonnull
@@ -234,18 +267,9 @@ public class SimpleRequeryRepository<T, ID> implements RequeryRepositoryImplemen
         return Optional.ofNullable(operations.findById(domainClass, id));
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public boolean existsById(@Nonnull final ID id) {
-        NamedExpression<ID> keyExpr = (NamedExpression<ID>) getKeyExpression(domainClass);
-
-        Tuple result = operations
-            .select(Count.count(domainClass))
-            .where(keyExpr.eq(id))
-            .get()
-            .first();
-
-        return result.<Integer>get(0) > 0;
+        return operations.existsById(domainClass, id);
     }
 
     @Nonnull
@@ -258,17 +282,21 @@ public class SimpleRequeryRepository<T, ID> implements RequeryRepositoryImplemen
     @Nonnull
     @Override
     public List<T> findAllById(@Nonnull final Iterable<ID> ids) {
-        HashSet<ID> idSet = new HashSet<>();
-        for (ID id : ids) {
-            idSet.add(id);
+        List<ID> distinctIds = (List<ID>) IdBatches.distinct(ids);
+        if (distinctIds.isEmpty()) {
+            return new ArrayList<>();
         }
-        NamedExpression<ID> keyExpr = (NamedExpression<ID>) getKeyExpression(domainClass);
-
-        return operations
-            .select(domainClass)
-            .where(keyExpr.in(idSet))
-            .get()
-            .toList();
+        int maxInListSize = SqlParameterLimits.getMaxInListSize(operations.getDataStore());
+
+        List<T> entities = new ArrayList<>(distinctIds.size());
+        for (List<ID> chunk : IdBatches.partition(distinctIds, maxInListSize)) {
+            entities.addAll(operations
+                                .select(domainClass)
+                                .where(keyExpression.in(chunk))
+                                .get()
+                                .toList());
+        }
+        return entities;
     }
 
     @Override
@@ -280,21 +308,22 @@ public class SimpleRequeryRepository<T, ID> implements RequeryRepositoryImplemen
             .longValue();
     }
 
-    @SuppressWarnings("unchecked")
     @Transactional
     @Override
     public void deleteById(@Nonnull final ID id) {
-        log.debug("Delete {} entity by id. id={}", domainClassName, id);
-
-        NamedExpression<ID> keyExpr = (NamedExpression<ID>) getKeyExpression(domainClass);
+        if (log.isDebugEnabled()) {
+            log.debug("Delete {} entity by id. id={}", domainClassName, id);
+        }
 
         Integer deletedCount = operations
             .delete(domainClass)
-            .where(keyExpr.eq(id))
+            .where(keyExpression.eq(id))
             .get()
             .value();
 
-        log.debug("Deleted entity={}, count={}", domainClassName, deletedCount);
+        if (log.isDebugEnabled()) {
+            log.debug("Deleted entity={}, count={}", domainClassName, deletedCount);
+        }
     }
 
     @Transactional
@@ -306,7 +335,7 @@ public class SimpleRequeryRepository<T, ID> implements RequeryRepositoryImplemen
     @Transactional
     @Override
     public void deleteAll(@Nonnull final Iterable<? extends T> entities) {
-        operations.deleteAll(entities);
+        bulkDeleteExecutor.deleteAll(entities);
     }
 
     @Transactional
@@ -367,7 +396,7 @@ public class SimpleRequeryRepository<T, ID> implements RequeryRepositoryImplemen
     @SuppressWarnings("unchecked")
     @Override
     public <S extends T> boolean exists(@Nonnull Example<S> example) {
-        return buildQueryByExample(example).limit(1).get().firstOrNull() != null;
+        return ExistenceQueries.exists(operations, domainClass, buildQueryByExample(example));
     }
 
     @SuppressWarnings("unchecked")
@@ -439,4 +468,16 @@ public class SimpleRequeryRepository<T, ID> implements RequeryRepositoryImplemen
     public boolean exists(@Nonnull final QueryElement<? extends Result<T>> whereClause) {
         return getOperations().exists(domainClass, whereClause);
     }
+
+    @Override
+    public long export(@Nonnull final Return<? extends Result<T>> whereClause,
+                       @Nonnull final RowWriter<? super T> rowWriter,
+                       @Nonnull final OutputStream out) {
+        return operations.export(whereClause, rowWriter, out);
+    }
+
+    @Override
+    public long exportAll(@Nonnull final RowWriter<? super T> rowWriter, @Nonnull final OutputStream out) {
+        return operations.export(operations.select(domainClass), rowWriter, out);
+    }
 }
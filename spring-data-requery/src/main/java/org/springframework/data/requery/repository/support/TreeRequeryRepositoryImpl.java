@@ -0,0 +1,90 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.repository.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.core.tree.EntityTree;
+import org.springframework.data.requery.core.tree.TreeQuery;
+import org.springframework.data.requery.repository.TreeQueryExecutor;
+import org.springframework.data.requery.repository.TreeRequeryRepository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * {@link TreeRequeryRepository}를 상속한 repository 에 {@link RequeryRepositoryFactory}가 추가하는 {@link TreeQueryExecutor} fragment 구현체입니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+@Transactional(readOnly = true)
+public class TreeRequeryRepositoryImpl<T, ID> implements TreeQueryExecutor<T, ID> {
+
+    @Nonnull private final RequeryOperations operations;
+    @Nonnull private final Class<T> domainClass;
+    @Nullable private volatile TreeQuery<T> treeQuery;
+
+    public TreeRequeryRepositoryImpl(@Nonnull final RequeryOperations operations, @Nonnull final Class<T> domainClass) {
+        Assert.notNull(operations, "operations must not be null!");
+        Assert.notNull(domainClass, "domainClass must not be null!");
+
+        this.operations = operations;
+        this.domainClass = domainClass;
+    }
+
+    @Nonnull
+    @Override
+    public List<T> findDescendants(@Nonnull final ID id, final int maxDepth) {
+        return getTreeQuery().findDescendants(id, maxDepth);
+    }
+
+    @Nonnull
+    @Override
+    public List<T> findAncestors(@Nonnull final ID id) {
+        return getTreeQuery().findAncestors(id);
+    }
+
+    @Nonnull
+    @Override
+    public EntityTree<T> findTree(@Nonnull final ID id, final int maxDepth) {
+        return getTreeQuery().findTree(id, maxDepth);
+    }
+
+    /**
+     * self reference 속성은 tree 조회 메소드를 처음 호출할 때 찾습니다.
+     */
+    @Nonnull
+    private TreeQuery<T> getTreeQuery() {
+        TreeQuery<T> query = treeQuery;
+        if (query == null) {
+            query = operations.treeQuery(domainClass);
+            treeQuery = query;
+        }
+        return query;
+    }
+
+    @Override
+    public String toString() {
+        return "TreeRequeryRepositoryImpl{domainClass=" + domainClass.getName() + '}';
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.utils;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * {@code WHERE id IN (...)} 조회를 위해 id 목록을 중복 제거하고, 같은 SQL 문장이 재사용되도록 묶어줍니다.
+ * <p>
+ * IN 절의 크기는 2의 거듭제곱 (1, 2, 4, ... , 최대 크기) 으로 맞추고 모자라는 자리는 마지막 id 로 채웁니다.
+ * 이렇게 하면 id 수가 달라도 만들어지는 SQL 문장의 종류가 log2(최대 크기) 개 정도로 줄어들어
+ * driver 의 statement cache 와 DB 의 실행 계획 cache 를 재사용할 수 있습니다.
+ * {@link Long}, {@link Integer} id 는 primitive 배열로 중복을 제거하므로 {@code HashSet}의 entry 할당이 없습니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@UtilityClass
+public class IdBatches {
+
+    /**
+     * 중복을 제거한 id 목록을 반환합니다. {@link Long}, {@link Integer} id 는 정렬된 primitive 배열 기반의 목록을 반환합니다.
+     *
+     * @param ids id 목록 (null 은 무시합니다)
+     * @return 중복이 제거된 id 목록
+     */
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    public static List<?> distinct(@Nonnull final Iterable<?> source) {
+        Assert.notNull(source, "ids must not be null!");
+
+        // 한번만 순회할 수 있는 Iterable 일 수 있으므로 Collection 이 아니면 복사합니다.
+        final Iterable<?> ids = (source instanceof Collection) ? source : Iterables.toList((Iterable<Object>) source);
+
+        Iterator<?> iter = ids.iterator();
+        Object first = null;
+        while (first == null && iter.hasNext()) {
+            first = iter.next();
+        }
+        if (first == null) {
+            return Collections.emptyList();
+        }
+        if (first instanceof Long) {
+            List<?> longs = distinctLongs(ids);
+            if (longs != null) {
+                return longs;
+            }
+        } else if (first instanceof Integer) {
+            List<?> ints = distinctInts(ids);
+            if (ints != null) {
+                return ints;
+            }
+        }
+
+        LinkedHashSet<Object> set = new LinkedHashSet<>();
+        for (Object id : ids) {
+            if (id != null) {
+                set.add(id);
+            }
+        }
+        return new ArrayList<>(set);
+    }
+
+    /**
+     * IN 절에 사용할 크기. {@code size} 이상인 가장 작은 2의 거듭제곱이며 {@code maxSize} 를 넘지 않습니다.
+     */
+    public static int bucketSize(final int size, final int maxSize) {
+        Assert.isTrue(size > 0, "size must be greater than 0.");
+        Assert.isTrue(maxSize > 0, "maxSize must be greater than 0.");
+
+        if (size >= maxSize) {
+            return maxSize;
+        }
+        int bucket = Integer.highestOneBit(size);
+        if (bucket < size) {
+            bucket <<= 1;
+        }
+        return Math.min(bucket, maxSize);
+    }
+
+    /**
+     * id 목록을 {@code maxSize} 이하의 chunk 로 나누고, 각 chunk 를 {@link #bucketSize(int, int)} 크기로 채웁니다.
+     * 반환하는 chunk 는 원본 목록의 view 이므로 복사가 일어나지 않습니다.
+     */
+    @Nonnull
+    public static <E> List<List<E>> partition(@Nonnull final List<E> ids, final int maxSize) {
+        Assert.notNull(ids, "ids must not be null!");
+        Assert.isTrue(maxSize > 0, "maxSize must be greater than 0.");
+
+        int size = ids.size();
+        if (size == 0) {
+            return Collections.emptyList();
+        }
+        List<List<E>> chunks = new ArrayList<>((size + maxSize - 1) / maxSize);
+        for (int from = 0; from < size; from += maxSize) {
+            int to = Math.min(from + maxSize, size);
+            chunks.add(new PaddedList<>(ids, from, to, bucketSize(to - from, maxSize)));
+        }
+        return chunks;
+    }
+
+    private static List<Long> distinctLongs(@Nonnull final Iterable<?> ids) {
+        long[] values = new long[16];
+        int size = 0;
+        for (Object id : ids) {
+            if (id == null) {
+                continue;
+            }
+            if (!(id instanceof Long)) {
+                return null;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size << 1);
+            }
+            values[size++] = (Long) id;
+        }
+        Arrays.sort(values, 0, size);
+
+        int unique = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || values[i] != values[unique - 1]) {
+                values[unique++] = values[i];
+            }
+        }
+        return new LongArrayList(values, unique);
+    }
+
+    private static List<Integer> distinctInts(@Nonnull final Iterable<?> ids) {
+        int[] values = new int[16];
+        int size = 0;
+        for (Object id : ids) {
+            if (id == null) {
+                continue;
+            }
+            if (!(id instanceof Integer)) {
+                return null;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size << 1);
+            }
+            values[size++] = (Integer) id;
+        }
+        Arrays.sort(values, 0, size);
+
+        int unique = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || values[i] != values[unique - 1]) {
+                values[unique++] = values[i];
+            }
+        }
+        return new IntArrayList(values, unique);
+    }
+
+    /**
+     * {@code long[]}의 읽기 전용 view. 요소를 읽을 때만 boxing 합니다.
+     */
+    static final class LongArrayList extends AbstractList<Long> implements RandomAccess {
+
+        private final long[] values;
+        private final int size;
+
+        LongArrayList(final long[] values, final int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        public Long get(final int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("index=" + index + ", size=" + size);
+            }
+            return values[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * {@code int[]}의 읽기 전용 view. 요소를 읽을 때만 boxing 합니다.
+     */
+    static final class IntArrayList extends AbstractList<Integer> implements RandomAccess {
+
+        private final int[] values;
+        private final int size;
+
+        IntArrayList(final int[] values, final int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        public Integer get(final int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("index=" + index + ", size=" + size);
+            }
+            return values[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * 원본 목록의 {@code [from, to)} 구간을 {@code size} 크기로 보여주며, 모자라는 자리는 마지막 요소를 반복합니다.
+     */
+    static final class PaddedList<E> extends AbstractList<E> implements RandomAccess {
+
+        private final List<E> source;
+        private final int from;
+        private final int last;
+        private final int size;
+
+        PaddedList(final List<E> source, final int from, final int to, final int size) {
+            this.source = source;
+            this.from = from;
+            this.last = to - 1;
+            this.size = size;
+        }
+
+        @Override
+        public E get(final int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("index=" + index + ", size=" + size);
+            }
+            return source.get(Math.min(from + index, last));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
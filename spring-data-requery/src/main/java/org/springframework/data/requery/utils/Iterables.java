@@ -17,9 +17,11 @@
 package org.springframework.data.requery.utils;
 
 import lombok.experimental.UtilityClass;
+import org.springframework.util.Assert;
 
 import javax.annotation.Nonnull;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -59,4 +61,22 @@ public class Iterables {
             return set;
         }
     }
+
+    /**
+     * list 를 {@code size} 크기의 연속된 sub list 들로 나눕니다. 마지막 sub list 는 {@code size} 보다 작을 수 있습니다.
+     */
+    @Nonnull
+    public static <T> List<List<T>> partition(@Nonnull final List<T> list, final int size) {
+        Assert.isTrue(size > 0, "size must be greater than 0.");
+
+        if (list.size() <= size) {
+            return list.isEmpty() ? Collections.emptyList() : Collections.singletonList(list);
+        }
+
+        List<List<T>> partitions = new ArrayList<>((list.size() + size - 1) / size);
+        for (int from = 0; from < list.size(); from += size) {
+            partitions.add(list.subList(from, Math.min(from + size, list.size())));
+        }
+        return partitions;
+    }
 }
@@ -37,6 +37,8 @@ import io.requery.query.element.LogicalOperator;
 import io.requery.query.element.QueryElement;
 import io.requery.query.element.QueryWrapper;
 import io.requery.query.element.WhereConditionElement;
+import io.requery.sql.BoundParameters;
+import io.requery.sql.Configuration;
 import io.requery.sql.EntityContext;
 import io.requery.sql.EntityDataStore;
 import lombok.experimental.UtilityClass;
@@ -79,8 +81,14 @@ public class RequeryUtils {
     @Nonnull
     public static NamedExpression<?> getKeyExpression(@Nonnull final Class<?> domainClass) {
         Assert.notNull(domainClass, "domainClass must not be null!");
-        log.trace("Retrieve Key property. domainClass={}", domainClass.getSimpleName());
+        if (log.isTraceEnabled()) {
+            log.trace("Retrieve Key property. domainClass={}", domainClass.getSimpleName());
+        }
 
+        NamedExpression<?> keyExpression = classKeys.get(domainClass);
+        if (keyExpression != null) {
+            return keyExpression;
+        }
         return classKeys
             .computeIfAbsent(domainClass, (clazz) -> {
                 Field field = RequeryUtils.findFirstField(clazz, it -> it.getAnnotation(Key.class) != null);
@@ -106,6 +114,63 @@ public class RequeryUtils {
         }
     }
 
+    /**
+     * {@link BoundParameters}에 바인딩된 값 목록 (requery 는 package 내부에서만 접근할 수 있도록 합니다)
+     */
+    @Nonnull
+    public static List<Object> getBoundValues(@Nonnull final BoundParameters parameters) {
+        return getBoundParameterList(parameters, "values");
+    }
+
+    /**
+     * {@link BoundParameters}의 값마다 바인딩에 사용할 {@link Expression} 목록
+     */
+    @Nonnull
+    public static List<Expression<?>> getBoundExpressions(@Nonnull final BoundParameters parameters) {
+        return getBoundParameterList(parameters, "expressions");
+    }
+
+    @SuppressWarnings({ "unchecked", "ConstantConditions" })
+    @Nonnull
+    private static <T> List<T> getBoundParameterList(@Nonnull final BoundParameters parameters, @Nonnull final String fieldName) {
+        Assert.notNull(parameters, "parameters must not be null!");
+
+        try {
+            Field field = ReflectionUtils.findField(BoundParameters.class, fieldName);
+            Assert.notNull(field, fieldName + " field must not be null!");
+            field.setAccessible(true);
+
+            return (List<T>) ReflectionUtils.getField(field, parameters);
+        } catch (Exception e) {
+            throw new IllegalStateException("Fail to retrieve bound " + fieldName + ".", e);
+        }
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    @Nonnull
+    public static Configuration getConfiguration(@Nonnull final EntityDataStore entityDataStore) {
+        Assert.notNull(entityDataStore, "entityDataStore must not be null!");
+
+        try {
+            Field field = ReflectionUtils.findField(entityDataStore.getClass(), "configuration");
+            Assert.notNull(field, "configuration field must not be null!");
+            field.setAccessible(true);
+
+            return (Configuration) ReflectionUtils.getField(field, entityDataStore);
+        } catch (Exception e) {
+            throw new IllegalStateException("Fail to retrieve configuration.", e);
+        }
+    }
+
+    /**
+     * {@link EntityDataStore}에 전역 {@link io.requery.sql.EntityStateListener}가 등록되어 있는지 여부
+     * (엔티티마다 listener 를 호출해야 하므로 requery 를 우회하는 일괄 처리를 할 수 없습니다)
+     */
+    public static boolean hasEntityStateListeners(@Nonnull final EntityDataStore entityDataStore) {
+        Configuration configuration = getConfiguration(entityDataStore);
+        return configuration.getUseDefaultLogging() || !configuration.getEntityStateListeners().isEmpty();
+    }
+
     @SuppressWarnings("ConstantConditions")
     @Nonnull
     public static EntityModel getEntityModel(@Nonnull final EntityDataStore entityDataStore) {
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.utils;
+
+import io.requery.sql.EntityDataStore;
+import io.requery.sql.Platform;
+import lombok.experimental.UtilityClass;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+
+/**
+ * DB 종류별 SQL 문장의 bind parameter 제한을 제공합니다.
+ * <p>
+ * {@code WHERE id IN (...)} 처럼 parameter 수가 가변적인 문장을 chunk 로 나눌 때 사용합니다.
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@UtilityClass
+public class SqlParameterLimits {
+
+    /**
+     * DB 를 알 수 없을 때 사용하는 bind parameter 최대 수
+     */
+    public static final int DEFAULT_MAX_PARAMETERS = 1000;
+
+    /**
+     * DB 가 허용하더라도 한 IN 절에 넣을 최대 parameter 수 (parsing, plan 비용을 고려한 상한)
+     */
+    public static final int MAX_IN_LIST_SIZE = 1000;
+
+    /**
+     * H2, HSQL, Derby 는 IN 절의 값을 행마다 순차 비교하므로 더 작은 상한을 사용합니다.
+     */
+    public static final int EMBEDDED_MAX_IN_LIST_SIZE = 256;
+
+    /**
+     * 지정한 {@link Platform}에서 한 문장에 사용할 수 있는 bind parameter 의 최대 수
+     *
+     * @param platform requery {@link Platform} (e.g. {@code EntityContext#getPlatform()})
+     * @return bind parameter 최대 수
+     */
+    public static int getMaxParameters(@Nonnull final Platform platform) {
+        Assert.notNull(platform, "platform must not be null!");
+
+        switch (platform.toString()) {
+            case "Oracle":
+                // ORA-01795: maximum number of expressions in a list is 1000
+                return 1000;
+            case "SQLite":
+                return 999;
+            case "SQLServer":
+                return 2100;
+            case "PostgresSQL":
+                return 32767;
+            case "MySQL":
+                return 65535;
+            case "H2":
+            case "HSQL":
+                return Integer.MAX_VALUE;
+            default:
+                return DEFAULT_MAX_PARAMETERS;
+        }
+    }
+
+    /**
+     * 다른 parameter 가 {@code reserved} 개 있을 때, 한 IN 절에 넣을 수 있는 최대 parameter 수
+     */
+    public static int getMaxInListSize(@Nonnull final Platform platform, final int reserved) {
+        int available = getMaxParameters(platform) - Math.max(reserved, 0);
+        Assert.isTrue(available > 0, "No parameters available for IN list. reserved=" + reserved);
+
+        return Math.min(available, getPreferredInListSize(platform));
+    }
+
+    private static int getPreferredInListSize(@Nonnull final Platform platform) {
+        switch (platform.toString()) {
+            case "H2":
+            case "HSQL":
+            case "Derby":
+                return EMBEDDED_MAX_IN_LIST_SIZE;
+            default:
+                return MAX_IN_LIST_SIZE;
+        }
+    }
+
+    public static int getMaxInListSize(@Nonnull final EntityDataStore<?> dataStore) {
+        return getMaxInListSize(RequeryUtils.getEntityContext(dataStore).getPlatform(), 0);
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.core;
+
+import io.requery.query.Result;
+import io.requery.query.Tuple;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.requery.RequeryExecutionException;
+import org.springframework.data.requery.configs.RequeryTestConfiguration;
+import org.springframework.data.requery.core.NamedPreparedQueryOperation.ParsedSql;
+import org.springframework.data.requery.domain.sample.User;
+import org.springframework.data.requery.utils.SqlParameterLimits;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * NamedPreparedQueryOperationTest
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = { RequeryTestConfiguration.class })
+public class NamedPreparedQueryOperationTest {
+
+    @Autowired RequeryOperations operations;
+
+    private User manager;
+    private User debop;
+    private User diego;
+
+    @Before
+    public void setup() {
+        operations.deleteAll(User.class);
+
+        manager = operations.insert(createUser("Jinie", "Park", 40, null));
+        debop = operations.insert(createUser("Debop", "Bae", 51, manager));
+        diego = operations.insert(createUser("Diego", "Ahn", 30, manager));
+    }
+
+    @After
+    public void cleanup() {
+        NamedPreparedQueryOperation.setCacheSize(NamedPreparedQueryOperation.DEFAULT_CACHE_SIZE);
+    }
+
+    @Test
+    public void parse_named_and_positional_parameters() {
+        ParsedSql parsed = NamedPreparedQueryOperation.parse(
+            "select * from SD_User -- :ignored ?\n" +
+            "where firstname = :firstname /* :ignored */ and lastname = ? and age > ?2 and email = ':ignored' and x = '1'::int");
+
+        assertThat(parsed.getParameterNames()).containsExactly("firstname", null, null);
+        assertThat(parsed.getJdbcSql()).contains("firstname = ? /* :ignored */ and lastname = ? and age > ?");
+        assertThat(parsed.getJdbcSql()).contains("':ignored'").contains("'1'::int");
+        assertThat(parsed.hasNamedParameters()).isTrue();
+        assertThat(parsed.isSelect()).isTrue();
+
+        assertThat(NamedPreparedQueryOperation.parse("update SD_User set age = :age").isSelect()).isFalse();
+    }
+
+    @Test
+    public void parse_once_per_sql_text() {
+        String sql = "select * from SD_User where id = :id";
+        ParsedSql parsed = NamedPreparedQueryOperation.parse(sql);
+        long hits = NamedPreparedQueryOperation.getCacheHits();
+
+        assertThat(NamedPreparedQueryOperation.parse(new String(sql.toCharArray()))).isSameAs(parsed);
+        assertThat(NamedPreparedQueryOperation.getCacheHits()).isEqualTo(hits + 1);
+    }
+
+    @Test
+    public void evict_least_recently_used_sql() {
+        NamedPreparedQueryOperation.setCacheSize(2);
+
+        ParsedSql first = NamedPreparedQueryOperation.parse("select 1 from SD_User where id = :first");
+        NamedPreparedQueryOperation.parse("select 1 from SD_User where id = :second");
+        // 최근에 사용했으므로 남아있어야 한다
+        NamedPreparedQueryOperation.parse("select 1 from SD_User where id = :first");
+        NamedPreparedQueryOperation.parse("select 1 from SD_User where id = :third");
+
+        assertThat(NamedPreparedQueryOperation.getCachedSqlCount()).isEqualTo(2);
+        assertThat(NamedPreparedQueryOperation.parse("select 1 from SD_User where id = :first")).isSameAs(first);
+    }
+
+    @Test
+    public void bucket_in_list_sizes_within_platform_limit() {
+        String sql = "select * from SD_User where id in :ids and lastname = :lastname";
+        int maxInListSize = SqlParameterLimits.getMaxInListSize(operations.getEntityContext().getPlatform(), 1);
+
+        assertThat(placeholders(bind(sql, Collections.emptyList()).sql)).isEqualTo(2);
+        assertThat(placeholders(bind(sql, Collections.nCopies(5, 1)).sql)).isEqualTo(8 + 1);
+        assertThat(placeholders(bind(sql, Collections.nCopies(maxInListSize - 1, 1)).sql)).isEqualTo(maxInListSize + 1);
+
+        // DB 의 IN 목록 최대 크기를 넘는 목록은 채우지 않습니다.
+        assertThat(placeholders(bind(sql, Collections.nCopies(maxInListSize + 1, 1)).sql)).isEqualTo(maxInListSize + 2);
+    }
+
+    @Test
+    public void expand_collection_parameter_to_bucketed_in_list() {
+        String sql = "select * from SD_User where id in :ids and lastname = :lastname";
+
+        NamedPreparedQueryOperation.BoundSql three = bind(sql, Arrays.asList(1, 2, 3));
+        NamedPreparedQueryOperation.BoundSql four = bind(sql, new int[] { 1, 2, 3, 4 });
+
+        assertThat(three.sql).isEqualTo("select * from SD_User where id in (?, ?, ?, ?) and lastname = ?");
+        assertThat(four.sql).isEqualTo(three.sql);
+        assertThat(three.values).containsExactly(1, 2, 3, 3, "Bae");
+        assertThat(four.values).containsExactly(1, 2, 3, 4, "Bae");
+    }
+
+    @Test
+    public void load_entities_with_named_parameters() {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("ids", Arrays.asList(debop.getId(), diego.getId(), manager.getId()));
+        parameters.put("minAge", 35);
+
+        // 엔티티에 없는 컬럼이 앞에 있어도 컬럼 순번으로 매핑한다
+        Result<User> result = operations.rawNamed(User.class,
+                                                  "select 'extra' as extra_column, u.* from SD_User u " +
+                                                  "where u.id in :ids and u.age >= :minAge order by u.age",
+                                                  parameters);
+        List<User> users = result.toList();
+        result.close();
+
+        assertThat(users).extracting(User::getFirstname).containsExactly("Jinie", "Debop");
+        assertThat(users.get(1).getAge()).isEqualTo(51);
+        assertThat(users.get(1).getEmailAddress()).isEqualTo("debop@example.com");
+        assertThat(users.get(1).getManager().getId()).isEqualTo(manager.getId());
+        assertThat(users.get(1).getManager().getFirstname()).isEqualTo("Jinie");
+    }
+
+    @Test
+    public void load_tuples_with_named_parameters() {
+        Result<Tuple> result = operations.rawNamed("select u.firstname, u.age from SD_User u where u.lastname in :lastnames order by u.age",
+                                                   Collections.singletonMap("lastnames", new String[] { "Bae", "Ahn" }));
+        List<Tuple> tuples = result.toList();
+        result.close();
+
+        assertThat(tuples).hasSize(2);
+        assertThat(tuples.get(0).<String>get(0)).isEqualTo("Diego");
+        assertThat(tuples.get(1).<String>get("firstname")).isEqualTo("Debop");
+        assertThat(tuples.get(1).<Integer>get(1)).isEqualTo(51);
+    }
+
+    @Test
+    public void execute_update_with_named_parameters() {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("age", 20);
+        parameters.put("manager", manager);
+
+        Result<Tuple> result = operations.rawNamed("update SD_User set age = :age where manager = :manager", parameters);
+
+        assertThat(result.first().<Integer>get(0)).isEqualTo(2);
+        assertThat(operations.refresh(debop).getAge()).isEqualTo(20);
+    }
+
+    @Test
+    public void named_queries_participate_in_committed_transaction() {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("age", 60);
+        parameters.put("id", debop.getId());
+
+        List<User> users = operations.runInTransaction(() -> {
+            operations.rawNamed("update SD_User set age = :age where id = :id", parameters).first();
+            return operations.rawNamed(User.class, "select * from SD_User where id = :id", parameters).toList();
+        });
+
+        assertThat(users).extracting(User::getAge).containsExactly(60);
+        assertThat(selectAge(debop)).isEqualTo(60);
+    }
+
+    @Test
+    public void named_queries_participate_in_rolled_back_transaction() {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("age", 70);
+        parameters.put("id", debop.getId());
+
+        assertThatThrownBy(() -> operations.runInTransaction(() -> {
+            operations.rawNamed("update SD_User set age = :age where id = :id", parameters).first();
+            assertThat(operations.rawNamed(User.class, "select * from SD_User where id = :id", parameters).toList())
+                .extracting(User::getAge).containsExactly(70);
+            throw new IllegalStateException("rollback");
+        })).hasMessageContaining("rollback");
+
+        assertThat(selectAge(debop)).isEqualTo(51);
+    }
+
+    @Test
+    public void select_is_executed_when_result_is_iterated() {
+        Result<Tuple> result = operations.rawNamed("select * from Not_Exists_Table where id = :id",
+                                                   Collections.singletonMap("id", 1));
+
+        assertThatThrownBy(result::toList).isInstanceOf(RequeryExecutionException.class);
+        result.close();
+    }
+
+    @Test
+    public void fail_when_named_parameter_is_missing() {
+        assertThatThrownBy(() -> operations.rawNamed("select * from SD_User where id = :id", Collections.emptyMap()))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining(":id");
+    }
+
+    private NamedPreparedQueryOperation.BoundSql bind(String sql, Object ids) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("ids", ids);
+        parameters.put("lastname", "Bae");
+        return new RawTupleNamedParameteredQuery(operations, sql, parameters).bind();
+    }
+
+    private Integer selectAge(User user) {
+        try (Result<Tuple> result = operations.rawNamed("select age from SD_User where id = :id",
+                                                        Collections.singletonMap("id", user.getId()))) {
+            return result.first().get(0);
+        }
+    }
+
+    private static int placeholders(String sql) {
+        return sql.length() - sql.replace("?", "").length();
+    }
+
+    private static User createUser(String firstname, String lastname, int age, User manager) {
+        User user = new User();
+        user.setFirstname(firstname);
+        user.setLastname(lastname);
+        user.setAge(age);
+        user.setEmailAddress(firstname.toLowerCase() + "@example.com");
+        user.setActive(true);
+        user.setCreatedAt(Timestamp.valueOf(LocalDateTime.now()));
+        user.setManager(manager);
+        return user;
+    }
+}
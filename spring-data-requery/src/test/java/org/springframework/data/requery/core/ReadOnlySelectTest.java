@@ -0,0 +1,150 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core;
+
+import io.requery.proxy.EntityProxy;
+import io.requery.proxy.PropertyState;
+import io.requery.query.Result;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.requery.configs.RequeryTestConfiguration;
+import org.springframework.data.requery.domain.sample.User;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * ReadOnlySelectTest
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = { RequeryTestConfiguration.class })
+public class ReadOnlySelectTest {
+
+    @Autowired RequeryOperations operations;
+
+    private User manager;
+    private User debop;
+    private User diego;
+
+    @Before
+    public void setup() {
+        operations.deleteAll(User.class);
+
+        manager = operations.insert(createUser("Jinie", "Park", 40, null));
+        debop = operations.insert(createUser("Debop", "Bae", 51, manager));
+        diego = operations.insert(createUser("Diego", "Ahn", 30, manager));
+    }
+
+    @Test
+    public void select_same_values_as_tracked_select() {
+        List<User> tracked = operations.select(User.class).orderBy(User.ID).get().toList();
+        List<User> readOnly = operations.selectReadOnly(User.class).orderBy(User.ID).get().toList();
+
+        assertThat(readOnly).hasSameSizeAs(tracked);
+        for (int i = 0; i < tracked.size(); i++) {
+            assertThat(readOnly.get(i)).isNotSameAs(tracked.get(i));
+            assertThat(readOnly.get(i).getId()).isEqualTo(tracked.get(i).getId());
+            assertThat(readOnly.get(i).getFirstname()).isEqualTo(tracked.get(i).getFirstname());
+            assertThat(readOnly.get(i).getAge()).isEqualTo(tracked.get(i).getAge());
+            assertThat(readOnly.get(i).getEmailAddress()).isEqualTo(tracked.get(i).getEmailAddress());
+            assertThat(readOnly.get(i).isActive()).isEqualTo(tracked.get(i).isActive());
+        }
+    }
+
+    @Test
+    public void read_only_entity_has_no_tracked_state() {
+        User user = operations.selectReadOnly(User.class).where(User.ID.eq(debop.getId())).get().first();
+
+        EntityProxy<User> proxy = User.$TYPE.getProxyProvider().apply(user);
+        assertThat(proxy.isLinked()).isFalse();
+        assertThat(proxy.getState(User.FIRSTNAME)).isNotEqualTo(PropertyState.LOADED);
+
+        // 엔티티 캐시에 등록하지 않는다
+        assertThat(operations.findById(User.class, debop.getId())).isNotSameAs(user);
+    }
+
+    @Test
+    public void reference_has_only_key() {
+        User user = operations.selectReadOnly(User.class).where(User.ID.eq(debop.getId())).get().first();
+
+        assertThat(user.getManager()).isNotNull();
+        assertThat(user.getManager().getId()).isEqualTo(manager.getId());
+        assertThat(user.getManager().getFirstname()).isNull();
+    }
+
+    @Test
+    public void select_with_conditions_and_selected_attributes() {
+        Result<User> result = operations.selectReadOnly(User.class, User.ID, User.FIRSTNAME)
+            .where(User.LASTNAME.in(Arrays.asList("Bae", "Ahn")))
+            .orderBy(User.AGE.desc())
+            .limit(1)
+            .get();
+        List<User> users = result.toList();
+        result.close();
+
+        assertThat(users).hasSize(1);
+        assertThat(users.get(0).getId()).isEqualTo(debop.getId());
+        assertThat(users.get(0).getFirstname()).isEqualTo("Debop");
+        assertThat(users.get(0).getEmailAddress()).isNull();
+    }
+
+    @Test
+    public void select_read_only_inside_transaction() {
+        List<User> users = operations.runInTransaction(() -> {
+            operations.update(User.class).set(User.AGE, 20).where(User.ID.eq(diego.getId())).get().value();
+            return operations.selectReadOnly(User.class).where(User.ID.eq(diego.getId())).get().toList();
+        });
+        assertThat(users).extracting(User::getAge).containsExactly(20);
+
+        assertThatThrownBy(() -> operations.runInTransaction(() -> {
+            operations.update(User.class).set(User.AGE, 99).where(User.ID.eq(diego.getId())).get().value();
+            assertThat(operations.selectReadOnly(User.class).where(User.ID.eq(diego.getId())).get().first().getAge())
+                .isEqualTo(99);
+            throw new IllegalStateException("rollback");
+        })).hasMessageContaining("rollback");
+
+        assertThat(operations.selectReadOnly(User.class).where(User.ID.eq(diego.getId())).get().first().getAge())
+            .isEqualTo(20);
+    }
+
+    private static User createUser(String firstname, String lastname, int age, User manager) {
+        User user = new User();
+        user.setFirstname(firstname);
+        user.setLastname(lastname);
+        user.setAge(age);
+        user.setEmailAddress(firstname.toLowerCase() + "@example.com");
+        user.setActive(true);
+        user.setCreatedAt(Timestamp.valueOf(LocalDateTime.now()));
+        user.setManager(manager);
+        return user;
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core;
+
+import io.requery.sql.BoundParameters;
+import io.requery.sql.ConfigurationBuilder;
+import io.requery.sql.EntityDataStore;
+import io.requery.sql.StatementListener;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.requery.configs.RequeryTestConfiguration;
+import org.springframework.data.requery.domain.Models;
+import org.springframework.data.requery.domain.RandomData;
+import org.springframework.data.requery.domain.basic.BasicUser;
+import org.springframework.data.requery.domain.hierarchy.NodeAttribute;
+import org.springframework.data.requery.domain.hierarchy.TreeNode;
+import org.springframework.data.requery.mapping.RequeryMappingContext;
+import org.springframework.data.requery.utils.SqlParameterLimits;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.sql.DataSource;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * RefreshQueriesTest
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = { RequeryTestConfiguration.class })
+public class RefreshQueriesTest {
+
+    @Autowired DataSource dataSource;
+    @Autowired RequeryMappingContext mappingContext;
+
+    private EntityDataStore<Object> dataStore;
+    private RequeryOperations operations;
+
+    private final List<String> queries = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setup() {
+        dataStore = new EntityDataStore<>(new ConfigurationBuilder(dataSource, Models.DEFAULT)
+                                              .addStatementListener(new QueryCollector())
+                                              .build());
+        operations = new RequeryTemplate(dataStore, mappingContext);
+        deleteAll();
+    }
+
+    @After
+    public void cleanup() {
+        deleteAll();
+        dataStore.close();
+    }
+
+    private void deleteAll() {
+        operations.deleteAll(BasicUser.class);
+        operations.deleteAll(NodeAttribute.class);
+        operations.deleteAll(TreeNode.class);
+    }
+
+    @Test
+    public void refresh_entities_with_single_query() {
+        List<BasicUser> users = insertUsers(20);
+
+        operations.update(BasicUser.class).set(BasicUser.AGE, 42).get().value();
+        operations.update(BasicUser.class).set(BasicUser.NAME, "renamed").get().value();
+
+        queries.clear();
+        List<BasicUser> refreshed = operations.refresh(users, BasicUser.AGE, BasicUser.NAME);
+
+        assertThat(queries).hasSize(1);
+        assertThat(queries.get(0)).containsIgnoringCase(" in (");
+        assertThat(refreshed).containsExactlyElementsOf(users);
+        assertThat(users).allMatch(user -> user.getAge() == 42 && "renamed".equals(user.getName()));
+    }
+
+    @Test
+    public void refresh_only_requested_attributes() {
+        List<BasicUser> users = insertUsers(3);
+        List<String> emails = users.stream().map(BasicUser::getEmail).collect(Collectors.toList());
+
+        operations.update(BasicUser.class).set(BasicUser.AGE, 7).set(BasicUser.EMAIL, "changed@example.com").get().value();
+
+        operations.refresh(users, BasicUser.AGE);
+
+        assertThat(users).extracting(BasicUser::getAge).containsOnly(7);
+        assertThat(users).extracting(BasicUser::getEmail).containsExactlyElementsOf(emails);
+    }
+
+    @Test
+    public void refresh_all_column_attributes_without_attributes() {
+        List<BasicUser> users = insertUsers(5);
+        BasicUser user = users.get(2);
+        user.setName("modified locally");
+
+        operations.update(BasicUser.class).set(BasicUser.EMAIL, "changed@example.com").get().value();
+
+        queries.clear();
+        RefreshQueries.refresh(operations, users);
+
+        assertThat(queries).hasSize(1);
+        assertThat(users).extracting(BasicUser::getEmail).containsOnly("changed@example.com");
+        assertThat(user.getName()).isEqualTo(operations.findById(BasicUser.class, user.getId()).getName());
+        assertThat(user.getHomepage()).isNotNull();
+        assertThat(user.getUuid()).isNotNull();
+    }
+
+    @Test
+    public void split_large_key_list_into_chunks() {
+        int size = 600;
+        List<BasicUser> users = insertUsers(size);
+        operations.update(BasicUser.class).set(BasicUser.AGE, 3).get().value();
+
+        queries.clear();
+        operations.refresh(users, BasicUser.AGE);
+
+        int maxInListSize = SqlParameterLimits.getMaxInListSize(dataStore);
+        assertThat(queries).hasSize((size + maxInListSize - 1) / maxInListSize);
+        assertThat(users).extracting(BasicUser::getAge).containsOnly(3);
+    }
+
+    @Test
+    public void refresh_foreign_key_without_loading_references() {
+        TreeNode parent1 = treeNodeOf("parent1", null);
+        TreeNode parent2 = treeNodeOf("parent2", null);
+        operations.insertAll(Arrays.asList(parent1, parent2));
+
+        List<TreeNode> children = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            children.add(treeNodeOf("child" + i, parent1));
+        }
+        operations.insertAll(children);
+
+        operations.update(TreeNode.class).set(TreeNode.PARENT_ID, parent2.getId()).where(TreeNode.PARENT_ID.eq(parent1.getId())).get().value();
+
+        queries.clear();
+        operations.refresh(children, TreeNode.PARENT);
+
+        assertThat(queries).hasSize(1);
+        assertThat(children).allMatch(child -> parent2.getId().equals(child.getParent().getId()));
+    }
+
+    @Test
+    public void ignore_deleted_entities_and_empty_input() {
+        List<BasicUser> users = insertUsers(2);
+        String name = users.get(0).getName();
+        operations.delete(BasicUser.class).where(BasicUser.ID.eq(users.get(0).getId())).get().value();
+
+        operations.refresh(users, BasicUser.NAME);
+        assertThat(users.get(0).getName()).isEqualTo(name);
+
+        queries.clear();
+        assertThat(operations.refresh(Collections.<BasicUser>emptyList(), BasicUser.NAME)).isEmpty();
+        assertThat(queries).isEmpty();
+    }
+
+    @Test
+    public void refresh_entities_inside_transaction() {
+        List<BasicUser> users = insertUsers(10);
+
+        operations.runInTransaction(() -> {
+            operations.update(BasicUser.class).set(BasicUser.AGE, 11).get().value();
+            return operations.refresh(users, BasicUser.AGE);
+        });
+        assertThat(users).extracting(BasicUser::getAge).containsOnly(11);
+
+        assertThatThrownBy(() -> operations.runInTransaction(() -> {
+            operations.update(BasicUser.class).set(BasicUser.AGE, 22).get().value();
+            operations.refresh(users, BasicUser.AGE);
+            assertThat(users).extracting(BasicUser::getAge).containsOnly(22);
+            throw new IllegalStateException("rollback");
+        })).hasMessageContaining("rollback");
+
+        operations.refresh(users, BasicUser.AGE);
+        assertThat(users).extracting(BasicUser::getAge).containsOnly(11);
+    }
+
+    private List<BasicUser> insertUsers(int count) {
+        List<BasicUser> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            BasicUser user = RandomData.randomUser();
+            user.setEmail("refresh-" + i + "@example.com");
+            users.add(user);
+        }
+        return operations.insertAll(users);
+    }
+
+    private static TreeNode treeNodeOf(String name, TreeNode parent) {
+        TreeNode node = new TreeNode();
+        node.setName(name);
+        node.setParent(parent);
+        return node;
+    }
+
+    private class QueryCollector implements StatementListener {
+
+        @Override
+        public void beforeExecuteQuery(Statement statement, String sql, BoundParameters parameters) {
+            queries.add(sql);
+        }
+
+        @Override
+        public void afterExecuteQuery(Statement statement) {
+        }
+
+        @Override
+        public void beforeExecuteUpdate(Statement statement, String sql, BoundParameters parameters) {
+        }
+
+        @Override
+        public void afterExecuteUpdate(Statement statement, int count) {
+        }
+
+        @Override
+        public void beforeExecuteBatchUpdate(Statement statement, String sql) {
+        }
+
+        @Override
+        public void afterExecuteBatchUpdate(Statement statement, int[] count) {
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.requery.domain.AbstractDomainTest;
+import org.springframework.data.requery.domain.RandomData;
+import org.springframework.data.requery.domain.basic.BasicUser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * RequeryExecutorsTest
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+public class RequeryExecutorsTest extends AbstractDomainTest {
+
+    private static final int CONCURRENT_CALLS = 2_000;
+
+    @Before
+    public void setup() {
+        requeryOperations.deleteAll(BasicUser.class);
+    }
+
+    @Test
+    public void virtual_thread_support_follows_jdk_version() {
+        boolean expected;
+        try {
+            Thread.class.getMethod("ofVirtual");
+            expected = true;
+        } catch (NoSuchMethodException e) {
+            expected = false;
+        }
+        assertThat(RequeryExecutors.isVirtualThreadSupported()).isEqualTo(expected);
+    }
+
+    @Test
+    public void run_in_transaction_async() throws Exception {
+        BasicUser user = RandomData.randomUser();
+        Thread caller = Thread.currentThread();
+
+        CompletableFuture<Thread> future = requeryOperations.runInTransactionAsync(() -> {
+            requeryOperations.insert(user);
+            return Thread.currentThread();
+        });
+
+        assertThat(future.get(10, TimeUnit.SECONDS)).isNotSameAs(caller);
+        assertThat(requeryOperations.findById(BasicUser.class, user.getId())).isNotNull();
+    }
+
+    @Test
+    public void concurrent_repository_calls() throws Exception {
+        BasicUser user = RandomData.randomUser();
+        requeryOperations.insert(user);
+        Long id = user.getId();
+
+        long start = System.nanoTime();
+
+        List<CompletableFuture<BasicUser>> futures = new ArrayList<>(CONCURRENT_CALLS);
+        for (int i = 0; i < CONCURRENT_CALLS; i++) {
+            futures.add(requeryOperations.runInTransactionAsync(() -> requeryOperations.findById(BasicUser.class, id)));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(60, TimeUnit.SECONDS);
+
+        long elapsedMillis = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        log.info("{} concurrent calls in {} ms ({} calls/sec), virtualThread={}",
+                 CONCURRENT_CALLS, elapsedMillis, CONCURRENT_CALLS * 1000L / elapsedMillis,
+                 RequeryExecutors.isVirtualThreadSupported());
+
+        for (CompletableFuture<BasicUser> future : futures) {
+            assertThat(future.join().getId()).isEqualTo(id);
+        }
+    }
+}
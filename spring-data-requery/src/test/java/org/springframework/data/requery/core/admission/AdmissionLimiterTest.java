@@ -0,0 +1,328 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core.admission;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.requery.core.admission.AdmissionRejectedException.Reason;
+
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * AdmissionLimiterTest
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+public class AdmissionLimiterTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void cleanup() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void fail_fast_when_limit_exceeded() throws Exception {
+        AdmissionLimiter limiter = new AdmissionLimiter("fail-fast", new AdmissionPolicy().fixed(2));
+        CountDownLatch running = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            futures.add(executor.submit(() -> limiter.call(() -> {
+                running.countDown();
+                release.await();
+                return 1;
+            })));
+        }
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> limiter.call(() -> 1))
+            .isInstanceOf(AdmissionRejectedException.class)
+            .satisfies(e -> assertThat(((AdmissionRejectedException) e).getReason()).isEqualTo(Reason.LIMIT_EXCEEDED));
+
+        release.countDown();
+        for (Future<Integer> future : futures) {
+            assertThat(future.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        }
+
+        AdmissionMetrics metrics = limiter.getMetrics();
+        log.debug("metrics={}", metrics);
+        assertThat(metrics.getAccepted()).isEqualTo(2L);
+        assertThat(metrics.getRejected()).isEqualTo(1L);
+        assertThat(metrics.getCompleted()).isEqualTo(2L);
+        assertThat(metrics.getInflight()).isZero();
+    }
+
+    @Test
+    public void queued_call_runs_when_permit_released() throws Exception {
+        AdmissionLimiter limiter = new AdmissionLimiter("queue", new AdmissionPolicy().fixed(1).maxWait(5, TimeUnit.SECONDS));
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Integer> first = executor.submit(() -> limiter.call(() -> {
+            running.countDown();
+            release.await();
+            return 1;
+        }));
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Future<Integer> second = executor.submit(() -> limiter.call(() -> 2));
+        awaitQueued(limiter, 1);
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(2);
+        assertThat(limiter.getMetrics().getQueued()).isZero();
+    }
+
+    @Test
+    public void queued_call_times_out() throws Exception {
+        AdmissionLimiter limiter = new AdmissionLimiter("timeout", new AdmissionPolicy().fixed(1).maxWait(50, TimeUnit.MILLISECONDS));
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Integer> first = executor.submit(() -> limiter.call(() -> {
+            running.countDown();
+            release.await();
+            return 1;
+        }));
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> limiter.call(() -> 2))
+            .isInstanceOf(AdmissionRejectedException.class)
+            .satisfies(e -> assertThat(((AdmissionRejectedException) e).getReason()).isEqualTo(Reason.TIMEOUT));
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(limiter.getMetrics().getTimedOut()).isEqualTo(1L);
+    }
+
+    @Test
+    public void notify_rejection_without_holding_lock() throws Exception {
+        AdmissionLimiter limiter = new AdmissionLimiter("listener", new AdmissionPolicy().fixed(1).maxWait(20, TimeUnit.MILLISECONDS));
+        List<Boolean> readable = new ArrayList<>();
+        limiter.addListener(new AdmissionListener() {
+            @Override
+            public void onRejected(String name, Reason reason) {
+                // 다른 thread 에서 lock 이 필요한 상태 조회가 끝나야 합니다.
+                Future<AdmissionMetrics> metrics = executor.submit(limiter::getMetrics);
+                try {
+                    readable.add(metrics.get(1, TimeUnit.SECONDS) != null);
+                } catch (Exception e) {
+                    readable.add(false);
+                }
+            }
+        });
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Integer> first = executor.submit(() -> limiter.call(() -> {
+            running.countDown();
+            release.await();
+            return 1;
+        }));
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> limiter.call(() -> 2)).isInstanceOf(AdmissionRejectedException.class);
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(readable).containsExactly(true);
+    }
+
+    @Test
+    public void waiters_are_not_stranded_when_others_time_out() throws Exception {
+        AdmissionLimiter limiter = new AdmissionLimiter("churn", new AdmissionPolicy().fixed(2).maxWait(2, TimeUnit.MILLISECONDS));
+        int threads = 8;
+        int calls = 200;
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < calls; i++) {
+                    try {
+                        limiter.call(() -> {
+                            Thread.sleep(0, 500_000);
+                            return 1;
+                        });
+                        succeeded.incrementAndGet();
+                    } catch (AdmissionRejectedException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+
+        AdmissionMetrics metrics = limiter.getMetrics();
+        log.debug("metrics={}", metrics);
+        assertThat(succeeded.get() + rejected.get()).isEqualTo(threads * calls);
+        assertThat(metrics.getInflight()).isZero();
+        assertThat(metrics.getQueued()).isZero();
+        assertThat(metrics.getAccepted()).isEqualTo(succeeded.get());
+
+        // 대기열이 비었으면 허가가 남아 있어 바로 실행됩니다.
+        assertThat(limiter.call(() -> 3)).isEqualTo(3);
+    }
+
+    @Test
+    public void reject_when_queue_is_full() throws Exception {
+        AdmissionPolicy policy = new AdmissionPolicy().fixed(1).maxWait(5, TimeUnit.SECONDS).maxQueueSize(1);
+        AdmissionLimiter limiter = new AdmissionLimiter("queue-full", policy);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Integer> first = executor.submit(() -> limiter.call(() -> {
+            running.countDown();
+            release.await();
+            return 1;
+        }));
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<Integer> queued = executor.submit(() -> limiter.call(() -> 2));
+        awaitQueued(limiter, 1);
+
+        assertThatThrownBy(() -> limiter.call(() -> 3))
+            .isInstanceOf(AdmissionRejectedException.class)
+            .satisfies(e -> assertThat(((AdmissionRejectedException) e).getReason()).isEqualTo(Reason.QUEUE_FULL));
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo(2);
+    }
+
+    @Test
+    public void application_error_does_not_shrink_limit() {
+        AdmissionLimiter limiter = new AdmissionLimiter("error", new AdmissionPolicy().limits(10, 1, 20));
+
+        assertThatThrownBy(() -> limiter.call(() -> { throw new IllegalArgumentException("boom"); }))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+        assertThat(limiter.getMetrics().getDropped()).isZero();
+        assertThat(limiter.getMetrics().getCompleted()).isEqualTo(1L);
+    }
+
+    @Test
+    public void timeout_error_shrinks_aimd_limit() {
+        AdmissionLimiter limiter = new AdmissionLimiter("aimd", new AdmissionPolicy().limits(10, 1, 20));
+        AtomicInteger changes = new AtomicInteger();
+        limiter.addListener(new AdmissionListener() {
+            @Override
+            public void onLimitChanged(String name, int oldLimit, int newLimit) {
+                changes.incrementAndGet();
+            }
+        });
+
+        assertThatThrownBy(() -> limiter.call(() -> { throw new QueryTimeoutException("slow"); }))
+            .isInstanceOf(QueryTimeoutException.class);
+
+        assertThat(limiter.getLimit()).isEqualTo(9);
+        assertThat(limiter.getMetrics().getDropped()).isEqualTo(1L);
+        assertThat(changes.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void aimd_limit_grows_and_backs_off() {
+        AimdConcurrencyLimit limit = new AimdConcurrencyLimit(4, 2, 6, 100, TimeUnit.MILLISECONDS);
+
+        limit.onSample(TimeUnit.MILLISECONDS.toNanos(10), 1, false);
+        assertThat(limit.getLimit()).as("limit 을 절반 이상 쓰지 않으면 늘리지 않습니다").isEqualTo(4);
+
+        for (int i = 0; i < 5; i++) {
+            limit.onSample(TimeUnit.MILLISECONDS.toNanos(10), limit.getLimit(), false);
+        }
+        assertThat(limit.getLimit()).isEqualTo(6);
+
+        limit.onSample(TimeUnit.MILLISECONDS.toNanos(200), 6, false);
+        assertThat(limit.getLimit()).isEqualTo(5);
+
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(0, 1, true);
+        }
+        assertThat(limit.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    public void vegas_limit_follows_queueing_delay() {
+        VegasConcurrencyLimit limit = new VegasConcurrencyLimit(20, 2, 40);
+
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(TimeUnit.MILLISECONDS.toNanos(10), limit.getLimit(), false);
+        }
+        int grown = limit.getLimit();
+        assertThat(grown).isGreaterThan(20);
+
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(TimeUnit.MILLISECONDS.toNanos(50), limit.getLimit(), false);
+        }
+        assertThat(limit.getLimit()).isLessThan(grown);
+
+        int beforeDrop = limit.getLimit();
+        limit.onSample(0, beforeDrop, true);
+        assertThat(limit.getLimit()).isEqualTo(Math.max(2, beforeDrop / 2));
+    }
+
+    @Test
+    public void detect_overload_errors() {
+        assertThat(AdmissionLimiter.isOverloaded(new SQLTimeoutException())).isTrue();
+        assertThat(AdmissionLimiter.isOverloaded(new RuntimeException(new SQLTimeoutException()))).isTrue();
+        assertThat(AdmissionLimiter.isOverloaded(new IllegalStateException())).isFalse();
+    }
+
+    @Test
+    public void controller_uses_method_policy_over_repository_policy() {
+        AdmissionController controller = new AdmissionController(new AdmissionPolicy().fixed(5))
+            .policy("UserRepository.findAll", new AdmissionPolicy().fixed(2));
+
+        assertThat(controller.call("UserRepository", () -> 1)).isEqualTo(1);
+        assertThat(controller.call("UserRepository.findAll", () -> 2)).isEqualTo(2);
+
+        assertThat(controller.getLimiter("UserRepository").getLimit()).isEqualTo(5);
+        assertThat(controller.getLimiter("UserRepository.findAll").getLimit()).isEqualTo(2);
+        assertThat(controller.getMetrics()).containsOnlyKeys("UserRepository", "UserRepository.findAll");
+    }
+
+    private static void awaitQueued(AdmissionLimiter limiter, int queued) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (limiter.getMetrics().getQueued() < queued && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(limiter.getMetrics().getQueued()).isEqualTo(queued);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.core.bulk;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.requery.RequeryExecutionException;
+import org.springframework.data.requery.domain.AbstractDomainTest;
+import org.springframework.data.requery.domain.RandomData;
+import org.springframework.data.requery.domain.basic.BasicUser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * BulkLoaderTest
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+public class BulkLoaderTest extends AbstractDomainTest {
+
+    @Before
+    public void setup() {
+        requeryOperations.deleteAll(BasicUser.class);
+    }
+
+    @Test
+    public void load_stream_in_chunks() {
+        BulkLoadResult result = requeryOperations.bulkLoader()
+            .chunkSize(100)
+            .load(IntStream.range(0, 250).mapToObj(i -> RandomData.randomUser()));
+
+        log.debug("result={}", result);
+        assertThat(result.getLoadedRows()).isEqualTo(250);
+        assertThat(result.getChunks()).isEqualTo(3);
+        assertThat(result.hasFailures()).isFalse();
+        assertThat(requeryOperations.count(BasicUser.class).get().value()).isEqualTo(250);
+    }
+
+    @Test
+    public void load_with_parallel_workers() {
+        AtomicLong loadedChunks = new AtomicLong();
+
+        BulkLoadResult result = requeryOperations.bulkLoader()
+            .chunkSize(100)
+            .parallelism(4)
+            .listener(new BulkLoadListener() {
+                @Override
+                public void onChunkLoaded(long chunkIndex, int chunkRows, long loadedRows) {
+                    loadedChunks.incrementAndGet();
+                }
+            })
+            .load(IntStream.range(0, 1000).mapToObj(i -> RandomData.randomUser()));
+
+        assertThat(result.getLoadedRows()).isEqualTo(1000);
+        assertThat(result.getChunks()).isEqualTo(10);
+        assertThat(loadedChunks.get()).isEqualTo(10);
+        assertThat(requeryOperations.count(BasicUser.class).get().value()).isEqualTo(1000);
+    }
+
+    @Test
+    public void skip_failed_chunk_when_continue_on_error() {
+        List<BasicUser> users = usersWithDuplicateInSecondChunk();
+
+        BulkLoadResult result = requeryOperations.bulkLoader()
+            .chunkSize(10)
+            .maxRetries(1)
+            .retryBackoff(0, TimeUnit.MILLISECONDS)
+            .continueOnError(true)
+            .load(users);
+
+        log.debug("result={}", result);
+        assertThat(result.getChunks()).isEqualTo(3);
+        assertThat(result.getFailedChunks()).isEqualTo(1);
+        assertThat(result.getFailedRows()).isEqualTo(10);
+        assertThat(result.getRetries()).isEqualTo(1);
+        assertThat(result.getLoadedRows()).isEqualTo(20);
+        assertThat(requeryOperations.count(BasicUser.class).get().value()).isEqualTo(20);
+    }
+
+    @Test
+    public void stop_on_failed_chunk() {
+        List<BasicUser> users = usersWithDuplicateInSecondChunk();
+
+        assertThatThrownBy(() -> requeryOperations.bulkLoader().chunkSize(10).load(users))
+            .isInstanceOf(RequeryExecutionException.class);
+
+        // 첫번째 chunk 는 이미 commit 되었고, 실패한 chunk 이후는 저장하지 않습니다.
+        assertThat(requeryOperations.count(BasicUser.class).get().value()).isEqualTo(10);
+    }
+
+    private List<BasicUser> usersWithDuplicateInSecondChunk() {
+        List<BasicUser> users = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            users.add(RandomData.randomUser());
+        }
+        // unique 제약 조건 위반
+        users.get(15).setUuid(users.get(12).getUuid());
+        return users;
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.core.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.requery.cache.EmptyEntityCache;
+import io.requery.sql.BoundParameters;
+import io.requery.sql.Configuration;
+import io.requery.sql.ConfigurationBuilder;
+import io.requery.sql.EntityDataStore;
+import io.requery.sql.StatementListener;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.core.RequeryTemplate;
+import org.springframework.data.requery.domain.AbstractDomainTest;
+import org.springframework.data.requery.domain.Models;
+import org.springframework.data.requery.domain.RandomData;
+import org.springframework.data.requery.domain.basic.BasicUser;
+import org.springframework.data.requery.mapping.RequeryMappingContext;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ResultExporterTest
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+public class ResultExporterTest extends AbstractDomainTest {
+
+    private static final int USER_COUNT = 100;
+
+    @Autowired DataSource dataSource;
+
+    @Before
+    public void setup() {
+        requeryOperations.deleteAll(BasicUser.class);
+
+        Set<BasicUser> users = RandomData.randomUsers(USER_COUNT);
+        requeryOperations.insertAll(users);
+    }
+
+    @Test
+    public void export_entities_as_csv() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = requeryOperations.export(requeryOperations.select(BasicUser.class).orderBy(BasicUser.ID),
+                                              CsvRowWriter.of(BasicUser.$TYPE),
+                                              out);
+        assertThat(count).isEqualTo(USER_COUNT);
+
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\r\n");
+        assertThat(lines).hasSize(USER_COUNT + 1);
+        assertThat(lines[0]).contains("id").contains("name").contains("email");
+    }
+
+    @Test
+    public void export_tuples_as_csv_with_quoting() {
+        BasicUser user = RandomData.randomUser();
+        user.setName("Bae, \"debop\"");
+        requeryOperations.insert(user);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = requeryOperations.export(requeryOperations.select(BasicUser.ID, BasicUser.NAME).where(BasicUser.ID.eq(user.getId())),
+                                              CsvRowWriter.ofTuple("id", "name"),
+                                              out);
+        assertThat(count).isEqualTo(1);
+
+        String csv = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        assertThat(csv).isEqualTo("id,name\r\n" + user.getId() + ",\"Bae, \"\"debop\"\"\"\r\n");
+    }
+
+    @Test
+    public void export_entities_as_json_lines() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = requeryOperations.export(requeryOperations.select(BasicUser.class),
+                                              JsonLinesRowWriter.of(BasicUser.$TYPE, mapper),
+                                              Channels.newChannel(out));
+        assertThat(count).isEqualTo(USER_COUNT);
+
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(USER_COUNT);
+
+        JsonNode node = mapper.readTree(lines[0]);
+        assertThat(node.get("id").isNumber()).isTrue();
+        assertThat(node.has("name")).isTrue();
+    }
+
+    @Test
+    public void export_empty_result() {
+        requeryOperations.deleteAll(BasicUser.class);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = requeryOperations.export(requeryOperations.select(BasicUser.ID, BasicUser.NAME),
+                                              CsvRowWriter.ofTuple(),
+                                              out);
+
+        assertThat(count).isZero();
+        assertThat(out.size()).isZero();
+    }
+
+    @Test
+    public void apply_fetch_size_while_exporting() {
+        FetchSizeRecorder recorder = new FetchSizeRecorder();
+        Configuration configuration = new ConfigurationBuilder(dataSource, Models.DEFAULT)
+            .setEntityCache(new EmptyEntityCache())
+            .addStatementListener(new FetchSizeListener())
+            .addStatementListener(recorder)
+            .build();
+        RequeryOperations operations = new RequeryTemplate(new EntityDataStore<>(configuration), new RequeryMappingContext());
+
+        operations.export(operations.select(BasicUser.class), CsvRowWriter.of(BasicUser.$TYPE), new ByteArrayOutputStream());
+        assertThat(recorder.fetchSizes).containsExactly(ResultExporter.DEFAULT_FETCH_SIZE);
+        assertThat(FetchSizeListener.getFetchSize()).isNull();
+
+        // export 밖의 조회에는 적용하지 않습니다.
+        operations.select(BasicUser.class).get().toList();
+        assertThat(recorder.fetchSizes).hasSize(2);
+        assertThat(recorder.fetchSizes.get(1)).isNotEqualTo(ResultExporter.DEFAULT_FETCH_SIZE);
+    }
+
+    private static class FetchSizeRecorder implements StatementListener {
+
+        private final List<Integer> fetchSizes = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void beforeExecuteUpdate(Statement statement, String sql, BoundParameters parameters) {
+        }
+
+        @Override
+        public void afterExecuteUpdate(Statement statement, int count) {
+        }
+
+        @Override
+        public void beforeExecuteBatchUpdate(Statement statement, String sql) {
+        }
+
+        @Override
+        public void afterExecuteBatchUpdate(Statement statement, int[] count) {
+        }
+
+        @Override
+        public void beforeExecuteQuery(Statement statement, String sql, BoundParameters parameters) {
+        }
+
+        @Override
+        public void afterExecuteQuery(Statement statement) {
+            // requery 는 listener 호출 순서를 보장하지 않으므로 실행 후에 확인합니다.
+            try {
+                fetchSizes.add(statement.getFetchSize());
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
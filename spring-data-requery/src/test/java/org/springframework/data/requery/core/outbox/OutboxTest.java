@@ -0,0 +1,170 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.requery.domain.AbstractDomainTest;
+import org.springframework.data.requery.domain.RandomData;
+import org.springframework.data.requery.domain.basic.BasicUser;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * OutboxTest
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+public class OutboxTest extends AbstractDomainTest {
+
+    private Outbox outbox;
+
+    @Before
+    public void setup() {
+        outbox = requeryOperations.outbox();
+        outbox.createTableIfNotExists();
+        outbox.relay(messages -> { }).relayAll();
+    }
+
+    @After
+    public void cleanup() {
+        outbox.relay(messages -> { }).maxAttempts(0).relayAll();
+        requeryOperations.deleteAll(BasicUser.class);
+    }
+
+    @Test
+    public void create_table_is_idempotent() {
+        outbox.createTableIfNotExists();
+        assertThat(outbox.countPending()).isZero();
+    }
+
+    @Test
+    public void enqueue_commits_with_entity() {
+        BasicUser user = RandomData.randomUser();
+
+        requeryOperations.runInTransaction(() -> {
+            requeryOperations.insert(user);
+            return requeryOperations.enqueueOutbox("User", user.getId(), "UserCreated", "{\"name\":\"" + user.getName() + "\"}");
+        });
+
+        assertThat(outbox.countPending()).isEqualTo(1L);
+
+        InMemoryOutboxPublisher publisher = new InMemoryOutboxPublisher();
+        assertThat(outbox.relay(publisher).relayAll()).isEqualTo(1L);
+
+        OutboxMessage message = publisher.getMessages().get(0);
+        assertThat(message.getAggregateType()).isEqualTo("User");
+        assertThat(message.getAggregateId()).isEqualTo(String.valueOf(user.getId()));
+        assertThat(message.getEventType()).isEqualTo("UserCreated");
+        assertThat(message.getPayload()).contains(user.getName());
+        assertThat(message.getCreatedAt()).isNotNull();
+        assertThat(outbox.countPending()).isZero();
+    }
+
+    @Test
+    public void enqueue_rolls_back_with_entity() {
+        BasicUser user = RandomData.randomUser();
+
+        assertThatThrownBy(() -> requeryOperations.runInTransaction(() -> {
+            requeryOperations.insert(user);
+            outbox.enqueue("User", user.getId(), "UserCreated", null);
+            throw new IllegalStateException("rollback");
+        })).isNotNull();
+
+        assertThat(outbox.countPending()).isZero();
+        assertThat(requeryOperations.count(BasicUser.class).get().value()).isZero();
+    }
+
+    @Test
+    public void relay_publishes_in_batches_ordered_by_id() {
+        IntStream.range(0, 25).forEach(i -> outbox.enqueue("Order", i, "OrderCreated", "order-" + i));
+
+        InMemoryOutboxPublisher publisher = new InMemoryOutboxPublisher();
+        OutboxRelay relay = outbox.relay(publisher).batchSize(10);
+
+        assertThat(relay.relayOnce()).isEqualTo(10);
+        assertThat(relay.relayAll()).isEqualTo(15L);
+        assertThat(relay.getBatches()).isEqualTo(3L);
+
+        List<String> aggregateIds = publisher.getMessages().stream().map(OutboxMessage::getAggregateId).collect(Collectors.toList());
+        assertThat(aggregateIds).containsExactlyElementsOf(IntStream.range(0, 25).mapToObj(String::valueOf).collect(Collectors.toList()));
+        assertThat(outbox.countPending()).isZero();
+    }
+
+    @Test
+    public void failed_batch_is_retried() {
+        outbox.enqueue("Order", 1L, "OrderCreated", null);
+
+        InMemoryOutboxPublisher publisher = new InMemoryOutboxPublisher().failNext(2);
+        OutboxRelay relay = outbox.relay(publisher);
+
+        assertThat(relay.relayOnce()).isZero();
+        assertThat(relay.relayOnce()).isZero();
+        assertThat(relay.getFailedBatches()).isEqualTo(2L);
+        assertThat(outbox.countPending()).isEqualTo(1L);
+
+        assertThat(relay.relayOnce()).isEqualTo(1);
+        assertThat(publisher.getMessages()).hasSize(1);
+        assertThat(publisher.getMessages().get(0).getAttempts()).isEqualTo(2);
+    }
+
+    @Test
+    public void messages_over_max_attempts_are_skipped() {
+        outbox.enqueue("Order", 1L, "OrderCreated", null);
+
+        OutboxRelay relay = outbox.relay(new InMemoryOutboxPublisher().failNext(Integer.MAX_VALUE)).maxAttempts(1);
+        assertThat(relay.relayOnce()).isZero();
+        assertThat(relay.relayOnce()).isZero();
+
+        assertThat(relay.getBatches()).isEqualTo(1L);
+        assertThat(outbox.countPending()).isEqualTo(1L);
+    }
+
+    @Test
+    public void parallel_workers_publish_each_message_once() throws Exception {
+        final int count = 200;
+        IntStream.range(0, count).forEach(i -> outbox.enqueue("Order", i, "OrderCreated", null));
+
+        InMemoryOutboxPublisher publisher = new InMemoryOutboxPublisher();
+        try (OutboxRelay relay = outbox.relay(publisher)
+            .batchSize(20)
+            .parallelism(4)
+            .pollInterval(20, TimeUnit.MILLISECONDS)
+            .start()) {
+
+            assertThat(publisher.await(count, 30, TimeUnit.SECONDS)).isTrue();
+            assertThat(relay.isRunning()).isTrue();
+        }
+
+        Set<Long> ids = publisher.getMessages().stream().map(OutboxMessage::getId).collect(Collectors.toSet());
+        assertThat(publisher.getMessages()).hasSize(count);
+        assertThat(ids).hasSize(count);
+        assertThat(outbox.countPending()).isZero();
+    }
+}
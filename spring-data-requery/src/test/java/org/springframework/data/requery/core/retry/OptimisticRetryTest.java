@@ -0,0 +1,217 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.core.retry;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.requery.configs.RequeryTestConfiguration;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.domain.sample.VersionedUser;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * OptimisticRetryTest
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = { RequeryTestConfiguration.class })
+public class OptimisticRetryTest {
+
+    @Autowired RequeryOperations operations;
+
+    @Before
+    public void setup() {
+        operations.deleteAll(VersionedUser.class);
+        ContentionMetrics.reset();
+    }
+
+    @Test
+    public void update_without_conflict() {
+        VersionedUser user = insertUser("retry-0");
+        Long version = user.getVersion();
+
+        VersionedUser updated = operations.updateWithRetry(VersionedUser.class, user.getId(), it -> it.setName("renamed"));
+
+        assertThat(updated.getName()).isEqualTo("renamed");
+        assertThat(updated.getVersion()).isEqualTo(version + 1);
+
+        ContentionStats stats = ContentionMetrics.of(VersionedUser.class);
+        assertThat(stats.getAttempts()).isEqualTo(1);
+        assertThat(stats.getConflicts()).isEqualTo(0);
+    }
+
+    @Test
+    public void retry_after_version_conflict() {
+        VersionedUser user = insertUser("retry-1");
+        AtomicInteger calls = new AtomicInteger();
+
+        VersionedUser updated = operations.optimisticRetry()
+            .initialBackoff(1, TimeUnit.MILLISECONDS)
+            .update(VersionedUser.class, user.getId(), (VersionedUser it) -> {
+                if (calls.getAndIncrement() == 0) {
+                    // requery transaction 은 thread 에 묶여 있으므로 다른 thread 에서 먼저 수정합니다.
+                    CompletableFuture.runAsync(() -> bumpVersion(it.getId())).join();
+                }
+                it.setEmail("retried@example.com");
+            });
+
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(updated.getEmail()).isEqualTo("retried@example.com");
+        assertThat(operations.count(VersionedUser.class)
+                       .where(VersionedUser.EMAIL.eq("retried@example.com"))
+                       .get()
+                       .value()).isEqualTo(1);
+
+        ContentionStats stats = ContentionMetrics.of(VersionedUser.class);
+        log.debug("stats={}", stats);
+        assertThat(stats.getAttempts()).isEqualTo(2);
+        assertThat(stats.getConflicts()).isEqualTo(1);
+        assertThat(stats.getRetries()).isEqualTo(1);
+        assertThat(stats.getExhausted()).isEqualTo(0);
+    }
+
+    @Test
+    public void throw_when_attempts_exhausted() {
+        VersionedUser user = insertUser("retry-2");
+
+        assertThatThrownBy(() -> operations.optimisticRetry()
+            .maxAttempts(3)
+            .initialBackoff(1, TimeUnit.MILLISECONDS)
+            .update(VersionedUser.class, user.getId(), (VersionedUser it) -> {
+                CompletableFuture.runAsync(() -> bumpVersion(it.getId())).join();
+                it.setEmail("never@example.com");
+            }))
+            .isInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(operations.count(VersionedUser.class)
+                       .where(VersionedUser.EMAIL.eq("never@example.com"))
+                       .get()
+                       .value()).isEqualTo(0);
+
+        ContentionStats stats = ContentionMetrics.of(VersionedUser.class);
+        assertThat(stats.getAttempts()).isEqualTo(3);
+        assertThat(stats.getConflicts()).isEqualTo(3);
+        assertThat(stats.getRetries()).isEqualTo(2);
+        assertThat(stats.getExhausted()).isEqualTo(1);
+        assertThat(stats.getConflictRatio()).isEqualTo(1.0);
+    }
+
+    @Test
+    public void update_all_retries_only_conflicted_entities() {
+        List<VersionedUser> users = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            users.add(insertUser("retry-all-" + i));
+        }
+        Long conflictId = users.get(2).getId();
+        AtomicInteger conflictCalls = new AtomicInteger();
+        AtomicInteger calls = new AtomicInteger();
+
+        List<Long> ids = users.stream().map(VersionedUser::getId).collect(Collectors.toList());
+        List<VersionedUser> updated = operations.optimisticRetry()
+            .initialBackoff(1, TimeUnit.MILLISECONDS)
+            .updateAll(VersionedUser.class, ids, (VersionedUser it) -> {
+                calls.incrementAndGet();
+                if (it.getId().equals(conflictId) && conflictCalls.getAndIncrement() == 0) {
+                    CompletableFuture.runAsync(() -> bumpVersion(it.getId())).join();
+                }
+                it.setEmail("all@example.com");
+            });
+
+        assertThat(updated).hasSize(5);
+        assertThat(updated.stream().map(VersionedUser::getId).collect(Collectors.toList())).isEqualTo(ids);
+        assertThat(calls.get()).isEqualTo(6);
+        assertThat(operations.count(VersionedUser.class)
+                       .where(VersionedUser.EMAIL.eq("all@example.com"))
+                       .get()
+                       .value()).isEqualTo(5);
+
+        ContentionStats stats = ContentionMetrics.of(VersionedUser.class);
+        assertThat(stats.getAttempts()).isEqualTo(6);
+        assertThat(stats.getConflicts()).isEqualTo(1);
+    }
+
+    @Test
+    public void update_all_ignores_missing_ids() {
+        VersionedUser user = insertUser("retry-3");
+
+        List<VersionedUser> updated = operations.optimisticRetry()
+            .updateAll(VersionedUser.class, Arrays.asList(user.getId(), -1L, user.getId()), (VersionedUser it) -> it.setName("renamed"));
+
+        assertThat(updated).hasSize(1);
+        assertThat(updated.get(0).getName()).isEqualTo("renamed");
+    }
+
+    @Test
+    public void update_missing_entity() {
+        assertThatThrownBy(() -> operations.updateWithRetry(VersionedUser.class, -1L, (VersionedUser it) -> it.setName("none")))
+            .isInstanceOf(EmptyResultDataAccessException.class);
+    }
+
+    @Test
+    public void backoff_grows_exponentially_up_to_max() {
+        OptimisticRetry retry = operations.optimisticRetry()
+            .initialBackoff(10, TimeUnit.MILLISECONDS)
+            .maxBackoff(50, TimeUnit.MILLISECONDS)
+            .multiplier(2.0)
+            .jitter(0.0);
+
+        assertThat(retry.backoffMillis(1)).isEqualTo(10);
+        assertThat(retry.backoffMillis(2)).isEqualTo(20);
+        assertThat(retry.backoffMillis(3)).isEqualTo(40);
+        assertThat(retry.backoffMillis(4)).isEqualTo(50);
+        assertThat(retry.backoffMillis(10)).isEqualTo(50);
+
+        retry.jitter(0.5);
+        for (int i = 0; i < 100; i++) {
+            assertThat(retry.backoffMillis(3)).isBetween(20L, 40L);
+        }
+    }
+
+    private VersionedUser insertUser(String name) {
+        return operations.insert(new VersionedUser(name, name + "@example.com", new Date()));
+    }
+
+    private void bumpVersion(Long id) {
+        VersionedUser current = operations.select(VersionedUser.class).where(VersionedUser.ID.eq(id)).get().first();
+        operations.update(VersionedUser.class)
+            .set(VersionedUser.VERSION, current.getVersion() + 1)
+            .where(VersionedUser.ID.eq(id))
+            .get()
+            .value();
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core.scan;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.requery.RequeryExecutionException;
+import org.springframework.data.requery.domain.AbstractDomainTest;
+import org.springframework.data.requery.domain.RandomData;
+import org.springframework.data.requery.domain.basic.BasicUser;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * ParallelScannerTest
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+public class ParallelScannerTest extends AbstractDomainTest {
+
+    private static final int USER_COUNT = 1000;
+
+    private Set<Long> userIds;
+
+    @Before
+    public void setup() {
+        requeryOperations.deleteAll(BasicUser.class);
+        requeryOperations.bulkLoader()
+            .chunkSize(200)
+            .load(IntStream.range(0, USER_COUNT).mapToObj(i -> {
+                BasicUser user = RandomData.randomUser();
+                user.setAge(i % 100);
+                return user;
+            }));
+
+        userIds = requeryOperations.select(BasicUser.ID).from(BasicUser.class).get().stream()
+            .map(tuple -> tuple.<Long>get(0))
+            .collect(Collectors.toSet());
+    }
+
+    @After
+    public void cleanup() {
+        requeryOperations.deleteAll(BasicUser.class);
+    }
+
+    @Test
+    public void scan_all_rows_once() {
+        Set<Long> scanned = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicated = new AtomicInteger();
+
+        ParallelScanResult result = requeryOperations.parallelScan(BasicUser.class, null, 50, 4, users -> {
+            for (BasicUser user : users) {
+                if (!scanned.add(user.getId())) {
+                    duplicated.incrementAndGet();
+                }
+            }
+        });
+
+        log.debug("result={}", result);
+        assertThat(result.getScannedRows()).isEqualTo(USER_COUNT);
+        assertThat(result.getPartitions()).isEqualTo(4 * ParallelScanner.PARTITIONS_PER_WORKER);
+        assertThat(duplicated.get()).isZero();
+        assertThat(scanned).isEqualTo(userIds);
+    }
+
+    @Test
+    public void scan_with_condition() {
+        Set<Long> scanned = ConcurrentHashMap.newKeySet();
+
+        ParallelScanResult result = requeryOperations.parallelScanner(BasicUser.class)
+            .condition(BasicUser.AGE.lt(10).or(BasicUser.AGE.gte(90)))
+            .chunkSize(30)
+            .parallelism(3)
+            .readOnly(true)
+            .scan(users -> users.forEach(user -> {
+                assertThat(user.getAge() < 10 || user.getAge() >= 90).isTrue();
+                scanned.add(user.getId());
+            }));
+
+        assertThat(result.getScannedRows()).isEqualTo(200);
+        assertThat(scanned).hasSize(200);
+    }
+
+    @Test
+    public void resume_from_checkpoint() {
+        InMemoryScanCheckpointStore store = new InMemoryScanCheckpointStore();
+        Set<Long> scanned = ConcurrentHashMap.newKeySet();
+        AtomicInteger chunks = new AtomicInteger();
+
+        assertThatThrownBy(() -> requeryOperations.parallelScanner(BasicUser.class)
+            .chunkSize(20)
+            .parallelism(2)
+            .partitions(4)
+            .checkpoint(store, "resume")
+            .scan(users -> {
+                if (chunks.incrementAndGet() == 10) {
+                    throw new IllegalStateException("Stop scanning");
+                }
+                users.forEach(user -> scanned.add(user.getId()));
+            }))
+            .isInstanceOf(RequeryExecutionException.class)
+            .hasRootCauseInstanceOf(IllegalStateException.class);
+
+        List<ScanCheckpoint> checkpoints = store.load("resume");
+        assertThat(checkpoints).hasSize(4);
+        int scannedBeforeFailure = scanned.size();
+        assertThat(scannedBeforeFailure).isLessThan(USER_COUNT);
+
+        AtomicInteger rescanned = new AtomicInteger();
+        ParallelScanResult result = requeryOperations.parallelScanner(BasicUser.class)
+            .chunkSize(20)
+            .parallelism(2)
+            .checkpoint(store, "resume")
+            .scan(users -> users.forEach(user -> {
+                if (!scanned.add(user.getId())) {
+                    rescanned.incrementAndGet();
+                }
+            }));
+
+        assertThat(result.getResumedPartitions()).isEqualTo(4);
+        assertThat(scanned).isEqualTo(userIds);
+        assertThat(rescanned.get()).isZero();
+        assertThat(result.getScannedRows()).isEqualTo(USER_COUNT - scannedBeforeFailure);
+        assertThat(store.load("resume")).isEmpty();
+    }
+
+    @Test
+    public void update_in_transactional_chunks() {
+        requeryOperations.parallelScanner(BasicUser.class)
+            .condition(BasicUser.AGE.lt(50))
+            .chunkSize(40)
+            .parallelism(4)
+            .transactional(true)
+            .scan(users -> {
+                users.forEach(user -> user.setAge(user.getAge() + 100));
+                requeryOperations.updateAll(users);
+            });
+
+        assertThat(requeryOperations.count(BasicUser.class).where(BasicUser.AGE.lt(50)).get().value()).isZero();
+        assertThat(requeryOperations.count(BasicUser.class).where(BasicUser.AGE.gte(100)).get().value()).isEqualTo(USER_COUNT / 2);
+    }
+
+    @Test
+    public void read_only_scan_in_transactional_chunks() {
+        ParallelScanResult result = requeryOperations.parallelScanner(BasicUser.class)
+            .condition(BasicUser.AGE.lt(50))
+            .chunkSize(40)
+            .parallelism(4)
+            .readOnly(true)
+            .transactional(true)
+            .scan(users -> users.forEach(user -> requeryOperations
+                .update(BasicUser.class)
+                .set(BasicUser.AGE, user.getAge() + 100)
+                .where(BasicUser.ID.eq(user.getId()))
+                .get()
+                .value()));
+
+        assertThat(result.getScannedRows()).isEqualTo(USER_COUNT / 2);
+        assertThat(requeryOperations.count(BasicUser.class).where(BasicUser.AGE.lt(50)).get().value()).isZero();
+        assertThat(requeryOperations.count(BasicUser.class).where(BasicUser.AGE.gte(100)).get().value()).isEqualTo(USER_COUNT / 2);
+    }
+}
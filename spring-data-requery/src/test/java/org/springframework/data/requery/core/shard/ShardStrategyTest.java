@@ -0,0 +1,59 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.core.shard;
+
+import org.junit.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * ShardStrategyTest
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+public class ShardStrategyTest {
+
+    @Test
+    public void hash_strategy_distributes_sequential_keys() {
+        int[] counts = new int[4];
+        IntStream.range(0, 4000).forEach(i -> counts[HashShardStrategy.INSTANCE.shardOf((long) i, 4)]++);
+
+        for (int count : counts) {
+            assertThat(count).isBetween(800, 1200);
+        }
+        assertThat(HashShardStrategy.INSTANCE.shardOf("tenant", 4)).isEqualTo(HashShardStrategy.INSTANCE.shardOf("tenant", 4));
+    }
+
+    @Test
+    public void range_strategy() {
+        RangeShardStrategy strategy = RangeShardStrategy.of(1000L, 2000L);
+
+        assertThat(strategy.shardOf(-1L, 3)).isEqualTo(0);
+        assertThat(strategy.shardOf(999L, 3)).isEqualTo(0);
+        assertThat(strategy.shardOf(1000L, 3)).isEqualTo(1);
+        assertThat(strategy.shardOf(1999L, 3)).isEqualTo(1);
+        assertThat(strategy.shardOf(2000L, 3)).isEqualTo(2);
+        assertThat(strategy.shardOf(Long.MAX_VALUE, 3)).isEqualTo(2);
+
+        assertThatThrownBy(() -> strategy.shardOf(1L, 4)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RangeShardStrategy.of(2000L, 1000L)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
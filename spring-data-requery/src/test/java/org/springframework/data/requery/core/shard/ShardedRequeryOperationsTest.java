@@ -0,0 +1,292 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.core.shard;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.requery.cache.EmptyEntityCache;
+import io.requery.sql.Configuration;
+import io.requery.sql.ConfigurationBuilder;
+import io.requery.sql.EntityDataStore;
+import io.requery.sql.SchemaModifier;
+import io.requery.sql.TableCreationMode;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.core.RequeryTemplate;
+import org.springframework.data.requery.domain.Models;
+import org.springframework.data.requery.domain.shard.ShardedAccount;
+import org.springframework.data.requery.domain.shard.ShardedOrder;
+import org.springframework.data.requery.mapping.RequeryMappingContext;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * ShardedRequeryOperationsTest
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+public class ShardedRequeryOperationsTest {
+
+    private static final int SHARD_COUNT = 3;
+
+    private static final List<EntityDataStore<Object>> dataStores = new ArrayList<>();
+    private static final List<HikariDataSource> dataSources = new ArrayList<>();
+    private static ShardedRequeryOperations operations;
+
+    @BeforeClass
+    public static void setupShards() {
+        RequeryMappingContext mappingContext = new RequeryMappingContext();
+        List<RequeryOperations> shards = new ArrayList<>();
+
+        for (int i = 0; i < SHARD_COUNT; i++) {
+            HikariConfig config = new HikariConfig();
+            config.setDriverClassName("org.h2.Driver");
+            config.setJdbcUrl("jdbc:h2:mem:shard_" + i + ";DB_CLOSE_DELAY=-1");
+            config.setUsername("sa");
+            HikariDataSource dataSource = new HikariDataSource(config);
+
+            Configuration configuration = new ConfigurationBuilder(dataSource, Models.DEFAULT)
+                .setEntityCache(new EmptyEntityCache())
+                .build();
+            new SchemaModifier(configuration).createTables(TableCreationMode.CREATE_NOT_EXISTS);
+
+            EntityDataStore<Object> dataStore = new EntityDataStore<>(configuration);
+            dataSources.add(dataSource);
+            dataStores.add(dataStore);
+            shards.add(new RequeryTemplate(dataStore, mappingContext));
+        }
+        operations = new ShardedRequeryOperations(shards);
+    }
+
+    @AfterClass
+    public static void closeShards() {
+        dataStores.forEach(EntityDataStore::close);
+        dataSources.forEach(HikariDataSource::close);
+    }
+
+    @Before
+    public void setup() {
+        operations.deleteAll(ShardedAccount.class);
+        operations.deleteAll(ShardedOrder.class);
+    }
+
+    @Test
+    public void route_by_key() {
+        List<ShardedAccount> accounts = new ArrayList<>();
+        for (long id = 1; id <= 30; id++) {
+            accounts.add(newAccount(id, (int) (id * 7 % 11)));
+        }
+        operations.saveAll(accounts);
+
+        for (ShardedAccount account : accounts) {
+            int index = operations.shardIndexOf(account.getId());
+            assertThat(operations.getShard(index).findById(ShardedAccount.class, account.getId())).isNotNull();
+            assertThat(operations.findById(ShardedAccount.class, account.getId()).getName()).isEqualTo(account.getName());
+        }
+        assertThat(operations.count(ShardedAccount.class)).isEqualTo(30L);
+
+        // 모든 shard 에 고르게 나누어 저장됩니다.
+        for (RequeryOperations shard : operations.getShards()) {
+            assertThat(shard.count(ShardedAccount.class).get().value()).isGreaterThan(0);
+        }
+    }
+
+    @Test
+    public void save_and_delete_single_entity() {
+        ShardedAccount account = operations.save(newAccount(100L, 10));
+        RequeryOperations shard = operations.shardOf(account);
+        assertThat(shard.count(ShardedAccount.class).get().value()).isEqualTo(1);
+
+        account.setBalance(20);
+        operations.save(account);
+        assertThat(operations.findById(ShardedAccount.class, 100L).getBalance()).isEqualTo(20);
+
+        operations.delete(account);
+        assertThat(operations.findById(ShardedAccount.class, 100L)).isNull();
+    }
+
+    @Test
+    public void route_by_shard_key_attribute() {
+        List<ShardedOrder> orders = new ArrayList<>();
+        for (long id = 1; id <= 12; id++) {
+            orders.add(newOrder(id, id % 4, (int) id));
+        }
+        operations.saveAll(orders);
+
+        ShardedOrder order = orders.get(5);
+        assertThat(operations.shardKeyOf(order)).isEqualTo(order.getCustomerId());
+
+        RequeryOperations shard = operations.shardFor(order.getCustomerId());
+        List<ShardedOrder> stored = shard.select(ShardedOrder.class)
+            .where(ShardedOrder.CUSTOMER_ID.eq(order.getCustomerId()))
+            .get()
+            .toList();
+        assertThat(stored).hasSize(3);
+
+        assertThat(operations.findById(ShardedOrder.class, order.getCustomerId(), order.getId())).isNotNull();
+        // shard key 를 모르면 모든 shard 에서 찾습니다.
+        assertThat(operations.findById(ShardedOrder.class, order.getId())).isNotNull();
+
+        assertThat(operations.deleteById(ShardedOrder.class, order.getId())).isEqualTo(1);
+        assertThat(operations.count(ShardedOrder.class)).isEqualTo(11L);
+    }
+
+    @Test
+    public void scatter_gather_with_ordering() {
+        List<ShardedAccount> accounts = new ArrayList<>();
+        for (long id = 1; id <= 50; id++) {
+            accounts.add(newAccount(id, (int) (id * 37 % 17)));
+        }
+        operations.saveAll(accounts);
+
+        List<ShardedAccount> sorted = operations.findAll(ShardedAccount.class,
+                                                         ShardedAccount.BALANCE.greaterThanOrEqual(5),
+                                                         Sort.by(Sort.Order.desc("balance")));
+
+        List<Long> expected = accounts.stream()
+            .filter(it -> it.getBalance() >= 5)
+            .sorted(Comparator.comparing(ShardedAccount::getBalance).reversed().thenComparing(ShardedAccount::getId))
+            .map(ShardedAccount::getId)
+            .collect(Collectors.toList());
+
+        assertThat(sorted.stream().map(ShardedAccount::getId).collect(Collectors.toList())).isEqualTo(expected);
+        assertThat(operations.count(ShardedAccount.class, ShardedAccount.BALANCE.greaterThanOrEqual(5))).isEqualTo(expected.size());
+    }
+
+    @Test
+    public void scatter_gather_paging() {
+        List<ShardedAccount> accounts = new ArrayList<>();
+        for (long id = 1; id <= 47; id++) {
+            accounts.add(newAccount(id, (int) (id * 13 % 23)));
+        }
+        operations.saveAll(accounts);
+
+        List<Long> expected = accounts.stream()
+            .sorted(Comparator.comparing(ShardedAccount::getBalance).thenComparing(ShardedAccount::getId))
+            .map(ShardedAccount::getId)
+            .collect(Collectors.toList());
+
+        List<Long> paged = new ArrayList<>();
+        for (int page = 0; page < 5; page++) {
+            Page<ShardedAccount> result = operations.findAll(ShardedAccount.class, null, PageRequest.of(page, 10, Sort.by("balance")));
+
+            assertThat(result.getTotalElements()).isEqualTo(47L);
+            assertThat(result.getTotalPages()).isEqualTo(5);
+            paged.addAll(result.getContent().stream().map(ShardedAccount::getId).collect(Collectors.toList()));
+        }
+        assertThat(paged).isEqualTo(expected);
+    }
+
+    @Test
+    public void scatter_gather_with_null_handling() {
+        List<ShardedAccount> accounts = new ArrayList<>();
+        for (long id = 1; id <= 30; id++) {
+            accounts.add(newAccount(id, (id % 4 == 0) ? null : (int) (id * 7 % 5)));
+        }
+        operations.saveAll(accounts);
+
+        Comparator<ShardedAccount> byId = Comparator.comparing(ShardedAccount::getId);
+
+        assertThat(idsOf(operations.findAll(ShardedAccount.class, null, Sort.by(Sort.Order.asc("balance").nullsLast()))))
+            .isEqualTo(sortedIds(accounts, Comparator.comparing(ShardedAccount::getBalance,
+                                                                Comparator.nullsLast(Comparator.<Integer>naturalOrder()))
+                                                     .thenComparing(byId)));
+
+        assertThat(idsOf(operations.findAll(ShardedAccount.class, null, Sort.by(Sort.Order.desc("balance").nullsFirst()))))
+            .isEqualTo(sortedIds(accounts, Comparator.comparing(ShardedAccount::getBalance,
+                                                                Comparator.nullsFirst(Comparator.<Integer>reverseOrder()))
+                                                     .thenComparing(byId)));
+
+        // NATIVE 는 null 을 가장 작은 값으로 봅니다.
+        assertThat(idsOf(operations.findAll(ShardedAccount.class, null, Sort.by(Sort.Order.desc("balance")))))
+            .isEqualTo(sortedIds(accounts, Comparator.comparing(ShardedAccount::getBalance,
+                                                                Comparator.nullsLast(Comparator.<Integer>reverseOrder()))
+                                                     .thenComparing(byId)));
+    }
+
+    @Test
+    public void scatter_gather_ignore_case() {
+        List<ShardedAccount> accounts = new ArrayList<>();
+        String[] names = { "apple", "Banana", "cherry", "Apple", "banana", "CHERRY", "date", "Elder" };
+        for (int i = 0; i < names.length; i++) {
+            ShardedAccount account = newAccount(i + 1L, i);
+            account.setName(names[i]);
+            accounts.add(account);
+        }
+        operations.saveAll(accounts);
+
+        List<ShardedAccount> sorted = operations.findAll(ShardedAccount.class, null, Sort.by(Sort.Order.asc("name").ignoreCase()));
+
+        assertThat(idsOf(sorted))
+            .isEqualTo(sortedIds(accounts, Comparator.comparing((ShardedAccount it) -> it.getName().toUpperCase())
+                                                     .thenComparing(ShardedAccount::getId)));
+    }
+
+    @Test
+    public void reject_sort_which_can_not_be_merged() {
+        assertThatThrownBy(() -> operations.findAll(ShardedAccount.class, null, Sort.by("unknown")))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> operations.findAll(ShardedAccount.class, null, Sort.by(Sort.Order.asc("balance").ignoreCase())))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void null_shard_key() {
+        assertThatThrownBy(() -> operations.save(new ShardedAccount()))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<Long> idsOf(List<ShardedAccount> accounts) {
+        return accounts.stream().map(ShardedAccount::getId).collect(Collectors.toList());
+    }
+
+    private static List<Long> sortedIds(List<ShardedAccount> accounts, Comparator<ShardedAccount> comparator) {
+        return accounts.stream().sorted(comparator).map(ShardedAccount::getId).collect(Collectors.toList());
+    }
+
+    private static ShardedAccount newAccount(long id, Integer balance) {
+        ShardedAccount account = new ShardedAccount();
+        account.setId(id);
+        account.setName("account-" + id);
+        account.setBalance(balance);
+        return account;
+    }
+
+    private static ShardedOrder newOrder(long id, long customerId, int amount) {
+        ShardedOrder order = new ShardedOrder();
+        order.setId(id);
+        order.setCustomerId(customerId);
+        order.setItem("item-" + id);
+        order.setAmount(amount);
+        return order;
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.core.tenant;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.requery.sql.EntityDataStore;
+import io.requery.sql.TableCreationMode;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.requery.configs.RequeryTestConfiguration;
+import org.springframework.data.requery.domain.RandomData;
+import org.springframework.data.requery.domain.basic.BasicUser;
+import org.springframework.data.requery.mapping.RequeryMappingContext;
+import org.springframework.data.requery.repository.sample.basic.BasicUserRepository;
+import org.springframework.data.requery.repository.support.RequeryRepositoryFactory;
+import org.springframework.data.requery.utils.RequeryUtils;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.annotation.Nonnull;
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * TenantRoutingRequeryOperationsTest
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = { RequeryTestConfiguration.class })
+public class TenantRoutingRequeryOperationsTest {
+
+    @Autowired EntityDataStore<Object> dataStore;
+    @Autowired RequeryMappingContext mappingContext;
+
+    private H2TenantDataSourceProvider dataSourceProvider;
+    private TenantRoutingRequeryOperations operations;
+
+    @Before
+    public void setup() {
+        try (TenantRoutingRequeryOperations cleaner = createOperations(new H2TenantDataSourceProvider())) {
+            for (String tenant : H2TenantDataSourceProvider.TENANTS) {
+                cleaner.getDataStore(tenant).delete(BasicUser.class).get().value();
+            }
+        }
+
+        dataSourceProvider = new H2TenantDataSourceProvider();
+        operations = createOperations(dataSourceProvider);
+    }
+
+    @After
+    public void cleanup() {
+        TenantContextHolder.clear();
+        operations.close();
+    }
+
+    @Test
+    public void route_by_current_tenant() {
+        int defaultCount = dataStore.count(BasicUser.class).get().value();
+
+        TenantContextHolder.runAs("tenant-a", () -> operations.insertAll(RandomData.randomUsers(2)));
+        TenantContextHolder.runAs("tenant-b", () -> operations.insertAll(RandomData.randomUsers(3)));
+
+        assertThat(countOf("tenant-a")).isEqualTo(2);
+        assertThat(countOf("tenant-b")).isEqualTo(3);
+        assertThat(dataStore.count(BasicUser.class).get().value()).isEqualTo(defaultCount);
+        assertThat(operations.getActiveTenants()).containsOnly("tenant-a", "tenant-b");
+    }
+
+    @Test
+    public void use_default_store_without_tenant() {
+        assertThat(operations.getCurrentTenant()).isNull();
+        assertThat(operations.getDataStore()).isSameAs(dataStore);
+        assertThat(operations.getActiveTenants()).isEmpty();
+    }
+
+    @Test
+    public void share_entity_model_and_platform() {
+        EntityDataStore<Object> tenantStore = operations.getDataStore("tenant-a");
+
+        assertThat(tenantStore).isNotSameAs(dataStore);
+        assertThat(RequeryUtils.getEntityModel(tenantStore)).isSameAs(RequeryUtils.getEntityModel(dataStore));
+        assertThat(RequeryUtils.getEntityContext(tenantStore).getPlatform())
+            .isSameAs(RequeryUtils.getEntityContext(dataStore).getPlatform());
+        assertThat(operations.getDataStore("tenant-a")).isSameAs(tenantStore);
+    }
+
+    @Test
+    public void transaction_keeps_tenant_of_start() {
+        TenantContextHolder.runAs("tenant-a", () -> operations.runInTransaction(() -> {
+            // transaction 안에서 tenant 를 바꾸어도 transaction 을 시작한 tenant 에 저장합니다.
+            TenantContextHolder.setTenant("tenant-b");
+            return operations.insert(RandomData.randomUser());
+        }));
+
+        assertThat(countOf("tenant-a")).isEqualTo(1);
+        assertThat(countOf("tenant-b")).isEqualTo(0);
+        assertThat(operations.getTenantStats("tenant-a").getTransactions()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    public void share_repository_between_tenants() {
+        BasicUserRepository repository = new RequeryRepositoryFactory(operations).getRepository(BasicUserRepository.class);
+
+        BasicUser user = RandomData.randomUser();
+        TenantContextHolder.runAs("tenant-a", () -> repository.save(user));
+
+        assertThat(TenantContextHolder.callAs("tenant-a", () -> repository.findByAnnotatedQuery(user.getEmail()))).isNotNull();
+        assertThat(TenantContextHolder.callAs("tenant-b", () -> repository.findByAnnotatedQuery(user.getEmail()))).isNull();
+        long count = TenantContextHolder.callAs("tenant-b", repository::count);
+        assertThat(count).isEqualTo(0L);
+    }
+
+    @Test
+    public void evict_idle_tenant_stores() throws Exception {
+        operations.idleTimeout(50, TimeUnit.MILLISECONDS);
+        TenantContextHolder.runAs("tenant-a", () -> operations.insert(RandomData.randomUser()));
+
+        Thread.sleep(100);
+        assertThat(operations.evictIdle()).isEqualTo(1);
+        assertThat(operations.getActiveTenants()).isEmpty();
+        assertThat(dataSourceProvider.released).containsExactly("tenant-a");
+
+        // 다시 사용하면 store 를 새로 생성합니다.
+        assertThat(countOf("tenant-a")).isEqualTo(1);
+
+        TenantStats stats = operations.getTenantStats("tenant-a");
+        log.debug("stats={}", stats);
+        assertThat(stats.getStoreCreations()).isEqualTo(2);
+        assertThat(stats.getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    public void evict_least_recently_used_tenant_over_max() throws Exception {
+        operations.maxTenants(2).evictionGrace(1, TimeUnit.MILLISECONDS);
+
+        countOf("tenant-a");
+        Thread.sleep(5);
+        countOf("tenant-b");
+        Thread.sleep(5);
+        countOf("tenant-c");
+
+        assertThat(operations.getActiveTenants()).containsOnly("tenant-b", "tenant-c");
+        assertThat(operations.getTenantStats("tenant-a").getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    public void keep_recently_acquired_store_over_max() {
+        operations.maxTenants(1);
+
+        countOf("tenant-a");
+        countOf("tenant-b");
+
+        // 방금 조회한 store 는 connection 을 열기 전이라도 정리하지 않습니다.
+        assertThat(operations.getActiveTenants()).containsOnly("tenant-a", "tenant-b");
+        assertThat(operations.evict("tenant-a")).isFalse();
+    }
+
+    @Test
+    public void keep_store_in_transaction_while_evicting() throws Exception {
+        operations.maxTenants(1).evictionGrace(1, TimeUnit.MILLISECONDS);
+
+        TenantContextHolder.runAs("tenant-a", () -> operations.runInTransaction(() -> {
+            operations.insert(RandomData.randomUser());
+            Thread.sleep(10);
+
+            // 다른 tenant 가 maxTenants 를 넘겨도 transaction 이 진행 중인 store 는 정리하지 않습니다.
+            operations.getDataStore("tenant-b").count(BasicUser.class).get().value();
+            assertThat(operations.evict("tenant-a")).isFalse();
+            return operations.insert(RandomData.randomUser());
+        }));
+
+        assertThat(countOf("tenant-a")).isEqualTo(2);
+        assertThat(operations.getTenantStats("tenant-a").getEvictions()).isEqualTo(0);
+    }
+
+    @Test
+    public void evict_concurrently_with_tenant_operations() throws Exception {
+        operations.maxTenants(1)
+                  .idleTimeout(100, TimeUnit.MILLISECONDS)
+                  .evictionGrace(100, TimeUnit.MILLISECONDS);
+
+        String[] tenants = H2TenantDataSourceProvider.TENANTS;
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+        long startMillis = System.currentTimeMillis();
+        long endMillis = startMillis + 1200;
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int t = 0; t < 4; t++) {
+                executor.submit(() -> {
+                    try {
+                        while (System.currentTimeMillis() < endMillis) {
+                            // 200ms 마다 사용하는 tenant 를 바꾸어, 이전 tenant 의 store 가 정리되도록 합니다.
+                            String tenant = tenants[(int) ((System.currentTimeMillis() - startMillis) / 200) % tenants.length];
+                            if (ThreadLocalRandom.current().nextBoolean()) {
+                                countOf(tenant);
+                            } else {
+                                TenantContextHolder.runAs(tenant, () -> operations.runInTransaction(() -> {
+                                    operations.count(BasicUser.class).get().value();
+                                    Thread.sleep(150);
+                                    return operations.count(BasicUser.class).get().value();
+                                }));
+                            }
+                        }
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(errors).isEmpty();
+        long evictions = operations.getAllTenantStats().values().stream().mapToLong(TenantStats::getEvictions).sum();
+        assertThat(evictions).isGreaterThan(0);
+    }
+
+    @Test
+    public void unknown_tenant() {
+        assertThatThrownBy(() -> operations.getDataStore("unknown"))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    private TenantRoutingRequeryOperations createOperations(TenantDataSourceProvider provider) {
+        return new TenantRoutingRequeryOperations(dataStore, mappingContext, provider)
+            .tableCreationMode(TableCreationMode.CREATE_NOT_EXISTS);
+    }
+
+    private int countOf(String tenant) {
+        return TenantContextHolder.callAs(tenant, () -> operations.count(BasicUser.class).get().value());
+    }
+
+    static class H2TenantDataSourceProvider implements TenantDataSourceProvider {
+
+        static final String[] TENANTS = { "tenant-a", "tenant-b", "tenant-c" };
+
+        final List<String> released = new CopyOnWriteArrayList<>();
+
+        @Override
+        public DataSource getDataSource(@Nonnull String tenant) {
+            if (!tenant.startsWith("tenant-")) {
+                return null;
+            }
+            HikariConfig config = new HikariConfig();
+            config.setDriverClassName("org.h2.Driver");
+            config.setJdbcUrl("jdbc:h2:mem:" + tenant.replace('-', '_') + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=false");
+            config.setUsername("sa");
+            config.setMaximumPoolSize(4);
+            return new HikariDataSource(config);
+        }
+
+        @Override
+        public void release(@Nonnull String tenant, @Nonnull DataSource dataSource) {
+            released.add(tenant);
+            ((HikariDataSource) dataSource).close();
+        }
+    }
+}
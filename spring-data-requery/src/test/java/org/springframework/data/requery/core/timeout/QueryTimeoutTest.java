@@ -0,0 +1,189 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core.timeout;
+
+import io.requery.query.Tuple;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.requery.annotation.Query;
+import org.springframework.data.requery.annotation.QueryTimeout;
+import org.springframework.data.requery.domain.AbstractDomainTest;
+import org.springframework.data.requery.domain.RandomData;
+import org.springframework.data.requery.domain.basic.BasicUser;
+import org.springframework.data.requery.repository.RequeryRepository;
+import org.springframework.data.requery.repository.support.RequeryRepositoryFactory;
+
+import java.lang.reflect.Proxy;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * QueryTimeoutTest
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+public class QueryTimeoutTest extends AbstractDomainTest {
+
+    /**
+     * H2 에서 수 분이 걸리는 query
+     */
+    private static final String SLOW_QUERY = "select sum(x) from system_range(1, 100000000000)";
+
+    @After
+    public void cleanup() {
+        requeryOperations.deleteAll(BasicUser.class);
+    }
+
+    @Test
+    public void deadline_stops_slow_query() {
+        long start = System.currentTimeMillis();
+
+        assertThatThrownBy(() -> requeryOperations.withQueryTimeout(1, TimeUnit.SECONDS,
+                                                                   () -> requeryOperations.raw(SLOW_QUERY).toList()))
+            .isInstanceOf(RuntimeException.class);
+
+        long elapsed = System.currentTimeMillis() - start;
+        log.debug("elapsed={} msec", elapsed);
+        assertThat(elapsed).isLessThan(10_000L);
+    }
+
+    @Test
+    public void expired_deadline_does_not_execute_statement() {
+        assertThatThrownBy(() -> QueryDeadline.withTimeout(1, TimeUnit.MILLISECONDS, () -> {
+            Thread.sleep(10);
+            return requeryOperations.count(BasicUser.class).get().value();
+        })).hasRootCauseInstanceOf(QueryTimeoutException.class);
+    }
+
+    @Test
+    public void expired_deadline_does_not_register_statement() {
+        AtomicInteger cancelled = new AtomicInteger();
+        Statement statement = (Statement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                                                                 new Class<?>[] { Statement.class },
+                                                                 (proxy, method, args) -> {
+                                                                     if ("cancel".equals(method.getName())) {
+                                                                         cancelled.incrementAndGet();
+                                                                     }
+                                                                     return null;
+                                                                 });
+        QueryTimeoutListener listener = new QueryTimeoutListener();
+        QueryCancellation cancellation = new QueryCancellation();
+
+        cancellation.run(() -> {
+            assertThatThrownBy(() -> QueryDeadline.withTimeout(1, TimeUnit.MILLISECONDS, () -> {
+                Thread.sleep(10);
+                listener.beforeExecuteQuery(statement, "select 1", null);
+                return null;
+            })).isInstanceOf(QueryTimeoutException.class);
+
+            cancellation.cancel();
+            return null;
+        });
+
+        assertThat(cancelled.get()).as("실행하지 않은 statement 는 취소 대상이 아닙니다").isZero();
+    }
+
+    @Test
+    public void nested_deadline_keeps_earliest() {
+        QueryDeadline.withTimeout(1, TimeUnit.SECONDS, () -> {
+            long outer = QueryDeadline.getDeadlineNanos();
+            QueryDeadline.withTimeout(1, TimeUnit.HOURS, () -> {
+                assertThat(QueryDeadline.getDeadlineNanos()).isEqualTo(outer);
+                return null;
+            });
+            QueryDeadline.withTimeout(10, TimeUnit.MILLISECONDS, () -> {
+                assertThat(QueryDeadline.getDeadlineNanos()).isLessThan(outer);
+                return null;
+            });
+            assertThat(QueryDeadline.getDeadlineNanos()).isEqualTo(outer);
+            return null;
+        });
+        assertThat(QueryDeadline.getDeadlineNanos()).isNull();
+        assertThat(QueryDeadline.remainingNanos()).isEqualTo(QueryDeadline.NO_DEADLINE);
+    }
+
+    @Test
+    public void cancel_future_cancels_running_statement() throws Exception {
+        CountDownLatch finished = new CountDownLatch(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        CompletableFuture<List<Tuple>> future = requeryOperations.runInTransactionAsync(() -> {
+            try {
+                return requeryOperations.raw(SLOW_QUERY).toList();
+            } catch (RuntimeException e) {
+                failure.set(e);
+                throw e;
+            } finally {
+                finished.countDown();
+            }
+        });
+
+        Thread.sleep(500);
+        assertThat(future.cancel(true)).isTrue();
+        assertThatThrownBy(future::join).isInstanceOf(CancellationException.class);
+
+        assertThat(finished.await(10, TimeUnit.SECONDS)).as("취소한 query 는 바로 중단되어야 합니다").isTrue();
+        log.debug("failure of cancelled query", failure.get());
+        assertThat(failure.get()).isNotNull();
+
+        // connection 을 정상적으로 반환했는지 확인
+        assertThat(requeryOperations.count(BasicUser.class).get().value()).isZero();
+    }
+
+    @Test
+    public void async_call_follows_caller_deadline() {
+        CompletableFuture<Long> future = QueryDeadline.withTimeout(1, TimeUnit.SECONDS, () ->
+            requeryOperations.runInTransactionAsync(() -> QueryDeadline.getDeadlineNanos()));
+
+        assertThat(future.join()).isNotNull();
+        assertThat(requeryOperations.runInTransactionAsync(() -> QueryDeadline.getDeadlineNanos()).join()).isNull();
+    }
+
+    @Test
+    public void repository_method_timeout() {
+        BasicUser user = requeryOperations.insert(RandomData.randomUser());
+        TimeoutUserRepository repository = new RequeryRepositoryFactory(requeryOperations).getRepository(TimeoutUserRepository.class);
+
+        assertThat(repository.findById(user.getId())).isPresent();
+
+        long start = System.currentTimeMillis();
+        assertThatThrownBy(repository::slowSum).isInstanceOf(RuntimeException.class);
+        assertThat(System.currentTimeMillis() - start).isLessThan(10_000L);
+    }
+
+    @QueryTimeout(30)
+    interface TimeoutUserRepository extends RequeryRepository<BasicUser, Long> {
+
+        @QueryTimeout(value = 500, unit = TimeUnit.MILLISECONDS)
+        @Query(SLOW_QUERY)
+        Long slowSum();
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.core.tree;
+
+import io.requery.sql.BoundParameters;
+import io.requery.sql.Configuration;
+import io.requery.sql.ConfigurationBuilder;
+import io.requery.sql.EntityDataStore;
+import io.requery.sql.SchemaModifier;
+import io.requery.sql.StatementListener;
+import io.requery.sql.TableCreationMode;
+import lombok.extern.slf4j.Slf4j;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.requery.configs.RequeryTestConfiguration;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.core.RequeryTemplate;
+import org.springframework.data.requery.domain.Models;
+import org.springframework.data.requery.domain.hierarchy.NodeAttribute;
+import org.springframework.data.requery.domain.hierarchy.TreeNode;
+import org.springframework.data.requery.mapping.RequeryMappingContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * TreeQueryTest
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = { RequeryTestConfiguration.class })
+public class TreeQueryTest {
+
+    @Autowired RequeryOperations operations;
+    @Autowired RequeryMappingContext mappingContext;
+
+    private TreeNode root;
+    private TreeNode child1;
+    private TreeNode child2;
+    private TreeNode grandChild11;
+    private TreeNode grandChild12;
+    private TreeNode greatGrandChild111;
+
+    private static TreeNode treeNodeOf(@Nonnull String name, @Nullable TreeNode parent) {
+        TreeNode node = new TreeNode();
+        node.setName(name);
+        node.getNodePosition().setNodeLevel(0);
+        node.getNodePosition().setNodeOrder(0);
+
+        if (parent != null) {
+            parent.getChildren().add(node);
+            node.setParent(parent);
+            node.getNodePosition().setNodeLevel(parent.getNodePosition().getNodeLevel() + 1);
+        }
+        return node;
+    }
+
+    @Before
+    public void setup() {
+        cleanup();
+
+        root = treeNodeOf("root", null);
+        child1 = treeNodeOf("child1", root);
+        child2 = treeNodeOf("child2", root);
+        grandChild11 = treeNodeOf("grandChild11", child1);
+        grandChild12 = treeNodeOf("grandChild12", child1);
+        greatGrandChild111 = treeNodeOf("greatGrandChild111", grandChild11);
+
+        operations.insert(root);
+    }
+
+    @After
+    public void cleanup() {
+        operations.deleteAll(NodeAttribute.class);
+        operations.deleteAll(TreeNode.class);
+    }
+
+    @Test
+    public void detect_self_referencing_parent_attribute() {
+        assertThat(operations.treeQuery(TreeNode.class).getParentAttribute().getName()).isEqualTo("parent");
+    }
+
+    @Test
+    public void find_all_descendants_ordered_by_depth() {
+        List<TreeNode> descendants = operations.treeQuery(TreeNode.class).findDescendants(root.getId());
+
+        assertThat(names(descendants))
+            .containsExactly("child1", "child2", "grandChild11", "grandChild12", "greatGrandChild111");
+    }
+
+    @Test
+    public void find_descendants_with_max_depth() {
+        TreeQuery<TreeNode> treeQuery = operations.treeQuery(TreeNode.class);
+
+        assertThat(names(treeQuery.findDescendants(root.getId(), 1))).containsExactly("child1", "child2");
+        assertThat(names(treeQuery.findDescendants(child1.getId(), 2)))
+            .containsExactly("grandChild11", "grandChild12", "greatGrandChild111");
+        assertThat(treeQuery.findDescendants(greatGrandChild111.getId())).isEmpty();
+    }
+
+    @Test
+    public void find_ancestors_nearest_first() {
+        TreeQuery<TreeNode> treeQuery = operations.treeQuery(TreeNode.class);
+
+        assertThat(names(treeQuery.findAncestors(greatGrandChild111.getId())))
+            .containsExactly("grandChild11", "child1", "root");
+        assertThat(treeQuery.findAncestors(root.getId())).isEmpty();
+    }
+
+    @Test
+    public void find_tree() {
+        EntityTree<TreeNode> tree = operations.treeQuery(TreeNode.class).findTree(root.getId());
+
+        assertThat(tree.size()).isEqualTo(6);
+        assertThat(tree.getRoots()).hasSize(1);
+
+        EntityTree.Node<TreeNode> rootNode = tree.getRoot();
+        assertThat(rootNode.getEntity().getName()).isEqualTo("root");
+        assertThat(rootNode.getDepth()).isEqualTo(0);
+        assertThat(rootNode.getChildren()).hasSize(2);
+
+        EntityTree.Node<TreeNode> node = tree.getNode(greatGrandChild111.getId());
+        assertThat(node.getDepth()).isEqualTo(3);
+        assertThat(node.isLeaf()).isTrue();
+        assertThat(node.getParent().getEntity().getName()).isEqualTo("grandChild11");
+
+        assertThat(names(tree.flatten()))
+            .containsExactly("root", "child1", "grandChild11", "greatGrandChild111", "grandChild12", "child2");
+    }
+
+    @Test
+    public void find_tree_with_max_depth() {
+        EntityTree<TreeNode> tree = operations.treeQuery(TreeNode.class).findTree(child1.getId(), 1);
+
+        assertThat(names(tree.flatten())).containsExactly("child1", "grandChild11", "grandChild12");
+        assertThat(tree.getNode(greatGrandChild111.getId())).isNull();
+    }
+
+    @Test
+    public void find_tree_of_unknown_node() {
+        EntityTree<TreeNode> tree = operations.treeQuery(TreeNode.class).findTree(-1L);
+
+        assertThat(tree.isEmpty()).isTrue();
+        assertThat(tree.getRoot()).isNull();
+    }
+
+    @Test
+    public void find_descendants_inside_transaction() {
+        TreeQuery<TreeNode> treeQuery = operations.treeQuery(TreeNode.class);
+
+        assertThatThrownBy(() -> operations.runInTransaction(() -> {
+            operations.update(TreeNode.class).set(TreeNode.NAME, "renamed").where(TreeNode.ID.eq(child2.getId())).get().value();
+
+            assertThat(names(treeQuery.findDescendants(root.getId(), 1))).containsExactly("child1", "renamed");
+            assertThat(treeQuery.findTree(root.getId()).size()).isEqualTo(6);
+            throw new IllegalStateException("rollback");
+        })).hasMessageContaining("rollback");
+
+        assertThat(names(treeQuery.findDescendants(root.getId(), 1))).containsExactly("child1", "child2");
+
+        EntityTree<TreeNode> tree = operations.runInTransaction(() -> treeQuery.findTree(child1.getId()));
+        assertThat(names(tree.flatten())).containsExactly("child1", "grandChild11", "greatGrandChild111", "grandChild12");
+    }
+
+    @Test
+    public void quote_identifiers_when_data_store_quotes_names() throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:tree_query_quoted;DB_CLOSE_DELAY=-1");
+
+        List<String> queries = new CopyOnWriteArrayList<>();
+        Configuration configuration = new ConfigurationBuilder(dataSource, Models.DEFAULT)
+            .setQuoteTableNames(true)
+            .setQuoteColumnNames(true)
+            .addStatementListener(new QueryCollector(queries))
+            .build();
+        new SchemaModifier(configuration).createTables(TableCreationMode.CREATE_NOT_EXISTS);
+
+        EntityDataStore<Object> dataStore = new EntityDataStore<>(configuration);
+        try {
+            RequeryOperations quoted = new RequeryTemplate(dataStore, mappingContext);
+            TreeNode quotedRoot = treeNodeOf("root", null);
+            treeNodeOf("grandChild", treeNodeOf("child", quotedRoot));
+            quoted.insert(quotedRoot);
+
+            queries.clear();
+            assertThat(names(quoted.treeQuery(TreeNode.class).findDescendants(quotedRoot.getId())))
+                .containsExactly("child", "grandChild");
+            assertThat(queries).hasSize(1);
+            assertThat(queries.get(0)).contains("\"tree_node\"", "\"nodeId\"");
+        } finally {
+            dataStore.close();
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("DROP ALL OBJECTS");
+            }
+        }
+    }
+
+    @Test
+    public void build_entity_tree_in_memory() {
+        // {id, parentId}. 목록에 없는 parent 를 참조하면 root 가 되고, 순환하는 node 는 tree 에 포함되지 않습니다.
+        List<long[]> rows = Arrays.asList(new long[] { 4, 2 },
+                                          new long[] { 2, 1 },
+                                          new long[] { 1, 0 },
+                                          new long[] { 3, 1 },
+                                          new long[] { 9, 99 },
+                                          new long[] { 7, 8 },
+                                          new long[] { 8, 7 });
+
+        EntityTree<long[]> tree = EntityTree.of(rows, row -> row[0], row -> row[1]);
+
+        assertThat(tree.getRoots()).extracting(EntityTree.Node::getKey).containsExactly(1L, 9L);
+        assertThat(tree.getNode(4L).getDepth()).isEqualTo(2);
+        assertThat(tree.getNode(1L).getChildren()).extracting(EntityTree.Node::getKey).containsExactly(2L, 3L);
+        assertThat(tree.flatten()).extracting(row -> row[0]).containsExactly(1L, 2L, 4L, 3L, 9L);
+        assertThat(tree.size()).isEqualTo(5);
+        assertThat(tree.getNode(7L)).isNull();
+
+        assertThat(EntityTree.of(Collections.<long[]>emptyList(), row -> row[0], row -> row[1]).isEmpty()).isTrue();
+    }
+
+    private static List<String> names(List<TreeNode> nodes) {
+        return nodes.stream().map(TreeNode::getName).collect(Collectors.toList());
+    }
+
+    private static class QueryCollector implements StatementListener {
+
+        private final List<String> queries;
+
+        QueryCollector(List<String> queries) {
+            this.queries = queries;
+        }
+
+        @Override
+        public void beforeExecuteQuery(Statement statement, String sql, BoundParameters parameters) {
+            queries.add(sql);
+        }
+
+        @Override
+        public void afterExecuteQuery(Statement statement) {
+        }
+
+        @Override
+        public void beforeExecuteUpdate(Statement statement, String sql, BoundParameters parameters) {
+        }
+
+        @Override
+        public void afterExecuteUpdate(Statement statement, int count) {
+        }
+
+        @Override
+        public void beforeExecuteBatchUpdate(Statement statement, String sql) {
+        }
+
+        @Override
+        public void afterExecuteBatchUpdate(Statement statement, int[] count) {
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.domain.shard;
+
+import io.requery.Entity;
+import io.requery.Key;
+import org.springframework.data.requery.annotation.ShardKey;
+import org.springframework.data.requery.domain.AbstractPersistable;
+
+/**
+ * 주문한 고객으로 shard 를 결정하는 엔티티
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Entity
+public abstract class AbstractShardedOrder extends AbstractPersistable<Long> {
+
+    @Key
+    protected Long id;
+
+    @ShardKey
+    protected Long customerId;
+
+    protected String item;
+
+    protected Integer amount;
+
+    private static final long serialVersionUID = 4480367215096683390L;
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.listeners.feed;
+
+import io.requery.sql.ConfigurationBuilder;
+import io.requery.sql.EntityDataStore;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.requery.configs.RequeryTestConfiguration;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.core.RequeryTemplate;
+import org.springframework.data.requery.domain.Models;
+import org.springframework.data.requery.domain.RandomData;
+import org.springframework.data.requery.domain.basic.BasicGroup;
+import org.springframework.data.requery.domain.basic.BasicUser;
+import org.springframework.data.requery.mapping.RequeryMappingContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.annotation.Nonnull;
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * EntityChangeFeedTest
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = { RequeryTestConfiguration.class })
+public class EntityChangeFeedTest {
+
+    @Autowired DataSource dataSource;
+    @Autowired RequeryMappingContext mappingContext;
+
+    private EntityChangeFeed feed;
+    private EntityDataStore<Object> dataStore;
+    private RequeryOperations operations;
+
+    private final List<EntityChange> received = new CopyOnWriteArrayList<>();
+    private final Set<Thread> subscriberThreads = ConcurrentHashMap.newKeySet();
+
+    @Before
+    public void setup() {
+        createFeed(EntityChangeFeed.DEFAULT_CAPACITY);
+        operations.deleteAll(BasicUser.class);
+    }
+
+    @After
+    public void cleanup() {
+        operations.deleteAll(BasicUser.class);
+        feed.close();
+        dataStore.close();
+    }
+
+    private void createFeed(int capacity) {
+        feed = new EntityChangeFeed(Models.DEFAULT, capacity);
+        dataStore = new EntityDataStore<>(feed.install(new ConfigurationBuilder(dataSource, Models.DEFAULT)).build());
+        operations = new RequeryTemplate(dataStore, mappingContext);
+    }
+
+    private void subscribeAll() {
+        feed.subscribe(changes -> {
+            subscriberThreads.add(Thread.currentThread());
+            received.addAll(changes);
+        });
+    }
+
+    @Test
+    public void deliver_committed_changes_asynchronously() {
+        subscribeAll();
+
+        BasicUser user = operations.insert(RandomData.randomUser());
+        user.setAge(42);
+        operations.update(user);
+        operations.delete(user);
+
+        assertThat(feed.flush(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(received).extracting(EntityChange::getChangeType)
+            .containsExactly(EntityChangeType.INSERT, EntityChangeType.UPDATE, EntityChangeType.DELETE);
+        assertThat(received).extracting(EntityChange::getKey).containsOnly(user.getId());
+        assertThat(received).extracting(EntityChange::getEntityType).containsOnly(BasicUser.class);
+        assertThat(received.get(1).getChangedAttributes()).containsExactly("age");
+
+        assertThat(subscriberThreads).doesNotContain(Thread.currentThread());
+        assertThat(feed.getPublishedCount()).isEqualTo(3);
+        assertThat(feed.getDroppedCount()).isZero();
+    }
+
+    @Test
+    public void publish_all_changes_of_transaction_after_commit() {
+        subscribeAll();
+
+        operations.runInTransaction(() -> {
+            operations.insertAll(IntStream.range(0, 5).mapToObj(i -> RandomData.randomUser()).collect(Collectors.toList()));
+            // commit 전에는 전달하지 않는다
+            assertThat(feed.getPublishedCount()).isZero();
+            return null;
+        });
+
+        assertThat(feed.flush(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(received).hasSize(5).extracting(EntityChange::getChangeType).containsOnly(EntityChangeType.INSERT);
+    }
+
+    @Test
+    public void discard_changes_of_rolled_back_transaction() {
+        subscribeAll();
+
+        assertThatThrownBy(() -> operations.runInTransaction(() -> {
+            operations.insert(RandomData.randomUser());
+            throw new IllegalStateException("rollback");
+        })).isInstanceOf(RuntimeException.class);
+
+        operations.insert(RandomData.randomUser());
+
+        assertThat(feed.flush(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(received).hasSize(1);
+        assertThat(operations.count(BasicUser.class).get().value()).isEqualTo(1);
+    }
+
+    @Test
+    public void deliver_only_supported_entity_types() {
+        feed.subscribe(new EntityChangeSubscriber() {
+            @Override
+            public void onChanges(@Nonnull List<EntityChange> changes) {
+                received.addAll(changes);
+            }
+
+            @Override
+            public boolean supports(@Nonnull Class<?> entityType) {
+                return BasicGroup.class.equals(entityType);
+            }
+        });
+
+        operations.insert(RandomData.randomUser());
+        BasicGroup group = new BasicGroup();
+        group.setName("group");
+        operations.insert(group);
+
+        assertThat(feed.flush(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(received).hasSize(1);
+        assertThat(received.get(0).getEntityType()).isEqualTo(BasicGroup.class);
+
+        operations.delete(group);
+    }
+
+    @Test
+    public void drop_changes_when_buffer_is_full() throws Exception {
+        feed.close();
+        dataStore.close();
+        createFeed(2);
+
+        CountDownLatch release = new CountDownLatch(1);
+        feed.subscribe(changes -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.addAll(changes);
+        });
+
+        operations.insertAll(IntStream.range(0, 10).mapToObj(i -> RandomData.randomUser()).collect(Collectors.toList()));
+        release.countDown();
+
+        assertThat(feed.flush(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(feed.getDroppedCount()).isGreaterThan(0);
+        assertThat(feed.getPublishedCount() + feed.getDroppedCount()).isEqualTo(10);
+        assertThat(received).hasSize((int) feed.getPublishedCount());
+    }
+
+    @Test
+    public void skip_capture_without_subscribers() {
+        operations.insert(RandomData.randomUser());
+
+        assertThat(feed.getPublishedCount()).isZero();
+        assertThat(feed.getDroppedCount()).isZero();
+    }
+}
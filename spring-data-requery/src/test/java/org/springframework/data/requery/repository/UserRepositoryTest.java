@@ -19,7 +19,6 @@ package org.springframework.data.requery.repository;
 import io.requery.query.Result;
 import io.requery.query.Tuple;
 import io.requery.query.element.QueryElement;
-import io.requery.sql.StatementExecutionException;
 import lombok.extern.slf4j.Slf4j;
 import org.assertj.core.api.SoftAssertions;
 import org.junit.Before;
@@ -907,8 +906,7 @@ public class UserRepositoryTest {
         assertThat(result2).hasSize(1);
     }
 
-    // NOTE: Not supported Named parameter
-    @Test(expected = StatementExecutionException.class)
+    @Test
     public void executesManualQueryWithNamedLikeExpressionCorrectly() {
 
         flushTestUsers();
@@ -917,6 +915,34 @@ public class UserRepositoryTest {
         assertThat(result).containsOnly(fourthUser);
     }
 
+    @Test
+    public void executesManualQueryWithNamedCollectionParameter() {
+
+        flushTestUsers();
+
+        List<User> result = repository.findByLastnameAndIdInNamed(Arrays.asList(firstUser.getId(), secondUser.getId(), thirdUser.getId()),
+                                                                   firstUser.getLastname());
+        assertThat(result).containsOnly(firstUser);
+    }
+
+    @Test
+    public void executesReadOnlyFetchQueries() {
+
+        flushTestUsers();
+
+        List<User> derived = repository.findReadOnlyByLastname(firstUser.getLastname());
+        List<User> declared = repository.findReadOnlyByLastnameNamed(firstUser.getLastname());
+
+        assertThat(derived).hasSize(1);
+        assertThat(derived.get(0).getId()).isEqualTo(firstUser.getId());
+        assertThat(derived.get(0).getFirstname()).isEqualTo(firstUser.getFirstname());
+        assertThat(declared).hasSize(1);
+        assertThat(declared.get(0).getEmailAddress()).isEqualTo(firstUser.getEmailAddress());
+
+        assertThat(User.$TYPE.getProxyProvider().apply(derived.get(0)).isLinked()).isFalse();
+        assertThat(User.$TYPE.getProxyProvider().apply(declared.get(0)).isLinked()).isFalse();
+    }
+
     @Test
     public void executesDerivedCountQueryToLong() {
 
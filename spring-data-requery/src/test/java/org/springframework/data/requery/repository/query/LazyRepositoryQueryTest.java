@@ -0,0 +1,129 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.repository.query;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.data.mapping.PropertyReferenceException;
+import org.springframework.data.requery.configs.RequeryTestConfiguration;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.domain.RandomData;
+import org.springframework.data.requery.domain.basic.BasicUser;
+import org.springframework.data.requery.repository.RequeryRepository;
+import org.springframework.data.requery.repository.support.RequeryRepositoryFactory;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.inject.Inject;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link QueryBootstrapMode} 별 query method 생성 시점 테스트
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = { RequeryTestConfiguration.class })
+@Transactional
+public class LazyRepositoryQueryTest {
+
+    @Inject RequeryOperations operations;
+
+    @Test
+    public void parseBootstrapMode() {
+        assertThat(QueryBootstrapMode.of(null)).isEqualTo(QueryBootstrapMode.DEFAULT);
+        assertThat(QueryBootstrapMode.of(" ")).isEqualTo(QueryBootstrapMode.DEFAULT);
+        assertThat(QueryBootstrapMode.of("lazy")).isEqualTo(QueryBootstrapMode.LAZY);
+        assertThat(QueryBootstrapMode.of("Parallel")).isEqualTo(QueryBootstrapMode.PARALLEL);
+    }
+
+    @Test
+    public void defaultModeValidatesQueriesEagerly() {
+        assertThatThrownBy(() -> createRepository(QueryBootstrapMode.DEFAULT, InvalidQueryRepository.class))
+            .hasRootCauseInstanceOf(PropertyReferenceException.class);
+    }
+
+    @Test
+    public void lazyModeCreatesQueryOnFirstInvocation() {
+        InvalidQueryRepository repository = createRepository(QueryBootstrapMode.LAZY, InvalidQueryRepository.class);
+
+        BasicUser user = RandomData.randomUser();
+        repository.save(user);
+
+        List<BasicUser> loaded = repository.findByName(user.getName());
+        assertThat(loaded).containsExactly(user);
+
+        assertThatThrownBy(() -> repository.findByNoSuchProperty("x"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasRootCauseInstanceOf(PropertyReferenceException.class);
+    }
+
+    @Test
+    public void parallelModeValidatesQueriesInBackground() {
+        RequeryRepositoryFactory factory = new RequeryRepositoryFactory(operations);
+        factory.setBootstrapMode(QueryBootstrapMode.PARALLEL);
+
+        ValidQueryRepository repository = factory.getRepository(ValidQueryRepository.class);
+        factory.awaitQueryBootstrap();
+
+        BasicUser user = RandomData.randomUser();
+        repository.save(user);
+
+        assertThat(repository.findByName(user.getName())).containsExactly(user);
+        assertThat(repository.findByEmail(user.getEmail())).containsExactly(user);
+    }
+
+    @Test
+    public void parallelModeReportsInvalidQueries() {
+        RequeryRepositoryFactory factory = new RequeryRepositoryFactory(operations);
+        factory.setBootstrapMode(QueryBootstrapMode.PARALLEL);
+
+        factory.getRepository(InvalidQueryRepository.class);
+
+        assertThatThrownBy(factory::awaitQueryBootstrap)
+            .isInstanceOf(IllegalStateException.class)
+            .hasCauseInstanceOf(IllegalArgumentException.class)
+            .hasRootCauseInstanceOf(PropertyReferenceException.class);
+    }
+
+    private <R> R createRepository(QueryBootstrapMode bootstrapMode, Class<R> repositoryInterface) {
+        RequeryRepositoryFactory factory = new RequeryRepositoryFactory(operations);
+        factory.setBootstrapMode(bootstrapMode);
+        return factory.getRepository(repositoryInterface);
+    }
+
+    interface ValidQueryRepository extends RequeryRepository<BasicUser, Long> {
+
+        List<BasicUser> findByName(String name);
+
+        List<BasicUser> findByEmail(String email);
+    }
+
+    interface InvalidQueryRepository extends RequeryRepository<BasicUser, Long> {
+
+        List<BasicUser> findByName(String name);
+
+        List<BasicUser> findByNoSuchProperty(String value);
+    }
+}
@@ -23,6 +23,7 @@ import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.requery.annotation.Query;
+import org.springframework.data.requery.annotation.ReadOnlyFetch;
 import org.springframework.data.requery.domain.sample.AbstractRole;
 import org.springframework.data.requery.domain.sample.Role;
 import org.springframework.data.requery.domain.sample.SpecialUser;
@@ -89,10 +90,19 @@ public interface UserRepository extends RequeryRepository<User, Integer>, UserRe
     @Query("select * from SD_User u where u.firstname like ?")
     List<User> findByFirstnameLike(String firstname);
 
-    // NOTE: Not supported Named Parameter
-    @Query("select * from SD_User u where u.firstname like :firstname%")
+    @Query("select * from SD_User u where u.firstname like :firstname")
     List<User> findByFirstnameLikeNamed(@Param("firstname") String firstname);
 
+    @Query("select * from SD_User u where u.lastname = :lastname and u.id in :ids")
+    List<User> findByLastnameAndIdInNamed(@Param("ids") Collection<Integer> ids, @Param("lastname") String lastname);
+
+    @ReadOnlyFetch
+    List<User> findReadOnlyByLastname(String lastname);
+
+    @ReadOnlyFetch
+    @Query("select * from SD_User u where u.lastname = :lastname")
+    List<User> findReadOnlyByLastnameNamed(@Param("lastname") String lastname);
+
     /**
      * Manipulating query to set all {@link User}'s names to the given one.
      */
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.repository.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.data.requery.configs.RequeryTestConfiguration;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.core.admission.AdmissionController;
+import org.springframework.data.requery.core.admission.AdmissionMetrics;
+import org.springframework.data.requery.core.admission.AdmissionPolicy;
+import org.springframework.data.requery.core.admission.AdmissionRejectedException;
+import org.springframework.data.requery.domain.RandomData;
+import org.springframework.data.requery.domain.basic.BasicUser;
+import org.springframework.data.requery.repository.RequeryRepository;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.inject.Inject;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * AdmissionControlPostProcessorTest
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = { RequeryTestConfiguration.class })
+public class AdmissionControlPostProcessorTest {
+
+    @Inject RequeryOperations operations;
+
+    private AdmissionController controller;
+    private AdmissionUserRepository repository;
+
+    @Before
+    public void setup() {
+        // 다른 test 가 남긴 사용자가 있으면 findAll 결과가 달라지므로 먼저 비웁니다.
+        operations.deleteAll(BasicUser.class);
+
+        controller = new AdmissionController(new AdmissionPolicy().fixed(4))
+            .policy("AdmissionUserRepository.findByName", new AdmissionPolicy().fixed(1));
+
+        RequeryRepositoryFactory factory = new RequeryRepositoryFactory(operations);
+        factory.setAdmissionController(controller);
+        repository = factory.getRepository(AdmissionUserRepository.class);
+    }
+
+    @After
+    public void cleanup() {
+        operations.deleteAll(BasicUser.class);
+    }
+
+    @Test
+    public void repository_calls_pass_through_limiter() {
+        BasicUser user = repository.save(RandomData.randomUser());
+
+        assertThat(repository.findById(user.getId())).isPresent();
+        assertThat(repository.findByName(user.getName())).hasSize(1);
+        assertThat(repository.toString()).isNotEmpty();
+
+        AdmissionMetrics repositoryMetrics = controller.getMetrics("AdmissionUserRepository");
+        AdmissionMetrics methodMetrics = controller.getMetrics("AdmissionUserRepository.findByName");
+        log.debug("repository={}, method={}", repositoryMetrics, methodMetrics);
+
+        assertThat(repositoryMetrics.getCompleted()).isEqualTo(2L);
+        assertThat(methodMetrics.getCompleted()).isEqualTo(1L);
+        assertThat(methodMetrics.getLimit()).isEqualTo(1);
+    }
+
+    @Test
+    public void method_limit_rejects_excess_calls() throws Exception {
+        BasicUser user = repository.save(RandomData.randomUser());
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<BasicUser>> blocked = executor.submit(() -> controller.getLimiter("AdmissionUserRepository.findByName").call(() -> {
+                running.countDown();
+                release.await();
+                return repository.findAll();
+            }));
+            assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThatThrownBy(() -> repository.findByName(user.getName()))
+                .isInstanceOf(AdmissionRejectedException.class);
+            assertThat(repository.findById(user.getId())).as("다른 limiter 를 쓰는 method 는 영향을 받지 않습니다").isPresent();
+
+            release.countDown();
+            assertThat(blocked.get(5, TimeUnit.SECONDS)).hasSize(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    interface AdmissionUserRepository extends RequeryRepository<BasicUser, Long> {
+
+        List<BasicUser> findByName(String name);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.repository.support;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * DemandChunkedFluxTest
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+public class DemandChunkedFluxTest {
+
+    private static final List<Integer> ROWS = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+
+    private Scheduler scheduler;
+    private final List<Integer> limits = new CopyOnWriteArrayList<>();
+    private final List<String> threads = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setup() {
+        scheduler = Schedulers.newSingle("chunk-test");
+    }
+
+    @After
+    public void cleanup() {
+        scheduler.dispose();
+    }
+
+    private Flux<Integer> rows(final int maxChunkSize) {
+        return DemandChunkedFlux.create(scheduler, maxChunkSize, (last, offset, limit) -> {
+            limits.add(limit);
+            threads.add(Thread.currentThread().getName());
+            if (last != null) {
+                assertThat(last).isEqualTo((int) offset - 1);
+            }
+            return ROWS.subList((int) Math.min(offset, ROWS.size()), (int) Math.min(offset + limit, ROWS.size()));
+        });
+    }
+
+    @Test
+    public void unbounded_request_fetches_max_chunk_size() {
+        List<Integer> result = rows(30).collectList().block();
+
+        assertThat(result).containsExactlyElementsOf(ROWS);
+        assertThat(limits).containsExactly(30, 30, 30, 30);
+        assertThat(threads).allMatch(name -> name.startsWith("chunk-test"));
+    }
+
+    @Test
+    public void fetches_rows_as_requested() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        List<Integer> received = new CopyOnWriteArrayList<>();
+
+        rows(1000).subscribe(new BaseSubscriber<Integer>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                request(7);
+            }
+
+            @Override
+            protected void hookOnNext(Integer value) {
+                received.add(value);
+                if (received.size() % 7 == 0) {
+                    request(7);
+                }
+            }
+
+            @Override
+            protected void hookFinally(SignalType type) {
+                done.countDown();
+            }
+        });
+
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(received).containsExactlyElementsOf(ROWS);
+        assertThat(limits).allMatch(limit -> limit == 7);
+        assertThat(limits).hasSize(ROWS.size() / 7 + 1);
+    }
+
+    @Test
+    public void stops_fetching_when_cancelled() {
+        List<Integer> first = rows(10).take(15).collectList().block();
+
+        assertThat(first).containsExactlyElementsOf(ROWS.subList(0, 15));
+        assertThat(limits.size()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    public void propagates_fetch_error() {
+        Flux<Integer> failing = DemandChunkedFlux.create(scheduler, 10, (last, offset, limit) -> {
+            throw new IllegalStateException("boom");
+        });
+
+        assertThatThrownBy(() -> failing.collectList().block()).hasMessageContaining("boom");
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.repository.support;
+
+import io.requery.proxy.CompositeKey;
+import org.junit.Test;
+import org.springframework.data.requery.domain.Models;
+import org.springframework.data.requery.domain.basic.BasicUser;
+import org.springframework.data.requery.domain.sample.Item;
+import org.springframework.data.requery.domain.sample.ItemSite;
+import org.springframework.data.requery.domain.sample.SampleWithPrimitiveId;
+import org.springframework.data.requery.domain.sample.SimpleEntity;
+import org.springframework.data.requery.domain.sample.Site;
+import org.springframework.data.requery.domain.sample.VersionedUser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * RequeryEntityModelEntityInformationTest
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+public class RequeryEntityModelEntityInformationTest {
+
+    @Test
+    public void getSimpleIdAndIsNew() {
+        RequeryEntityModelEntityInformation<BasicUser, Long> information =
+            new RequeryEntityModelEntityInformation<>(BasicUser.class, Models.DEFAULT);
+
+        BasicUser user = new BasicUser();
+        assertThat(information.getId(user)).isNull();
+        assertThat(information.isNew(user)).isTrue();
+        assertThat(information.getIdType()).isEqualTo(Long.class);
+        assertThat(information.hasCompositeId()).isFalse();
+
+        BasicUser.ID.getProperty().set(user, 42L);
+        assertThat(information.getId(user)).isEqualTo(42L);
+        assertThat(information.isNew(user)).isFalse();
+    }
+
+    @Test
+    public void primitiveIdIsNewWhenZero() {
+        RequeryEntityModelEntityInformation<SampleWithPrimitiveId, Long> information =
+            new RequeryEntityModelEntityInformation<>(SampleWithPrimitiveId.class, Models.DEFAULT);
+
+        SampleWithPrimitiveId sample = new SampleWithPrimitiveId();
+        assertThat(information.isNew(sample)).isTrue();
+
+        sample.setId(7L);
+        assertThat(information.getId(sample)).isEqualTo(7L);
+        assertThat(information.isNew(sample)).isFalse();
+    }
+
+    @Test
+    public void isNewUsesVersionAttribute() {
+        RequeryEntityModelEntityInformation<VersionedUser, Long> information =
+            new RequeryEntityModelEntityInformation<>(VersionedUser.class, Models.DEFAULT);
+
+        VersionedUser user = new VersionedUser();
+        VersionedUser.ID.getProperty().set(user, 1L);
+        assertThat(information.isNew(user)).isTrue();
+
+        user.setVersion(0L);
+        assertThat(information.isNew(user)).isFalse();
+    }
+
+    @Test
+    public void getCompositeId() {
+        RequeryEntityModelEntityInformation<SimpleEntity, CompositeKey<SimpleEntity>> information =
+            new RequeryEntityModelEntityInformation<>(SimpleEntity.class, Models.DEFAULT);
+
+        assertThat(information.hasCompositeId()).isTrue();
+        assertThat(information.getIdType()).isEqualTo(CompositeKey.class);
+        assertThat(information.getIdAttributeNames()).containsExactlyInAnyOrder("first_key", "second_key");
+
+        SimpleEntity empty = new SimpleEntity();
+        assertThat(information.getId(empty)).isNull();
+
+        SimpleEntity entity = new SimpleEntity("a", "b");
+        CompositeKey<SimpleEntity> id = information.getId(entity);
+
+        assertThat(id).isNotNull();
+        assertThat(information.getCompositeIdAttributeValue(id, "first_key")).isEqualTo("a");
+        assertThat(information.getCompositeIdAttributeValue(id, "second_key")).isEqualTo("b");
+    }
+
+    @Test
+    public void getCompositeIdDerivesAssociationKeys() {
+        RequeryEntityModelEntityInformation<ItemSite, CompositeKey<ItemSite>> information =
+            new RequeryEntityModelEntityInformation<>(ItemSite.class, Models.DEFAULT);
+
+        Item item = new Item();
+        item.setId(1);
+        item.setManufacturerId(2);
+
+        Site site = new Site();
+        Site.ID.getProperty().set(site, 3);
+
+        CompositeKey<ItemSite> id = information.getId(new ItemSite(item, site));
+
+        assertThat(id).isNotNull();
+        assertThat(information.getCompositeIdAttributeValue(id, ItemSite.SITE.getName())).isEqualTo(3);
+        assertThat(information.getCompositeIdAttributeValue(id, ItemSite.ITEM.getName())).isInstanceOf(CompositeKey.class);
+    }
+}
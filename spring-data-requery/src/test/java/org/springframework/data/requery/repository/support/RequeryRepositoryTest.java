@@ -16,28 +16,60 @@
 
 package org.springframework.data.requery.repository.support;
 
+import io.requery.cache.EmptyEntityCache;
+import io.requery.proxy.PreUpdateListener;
+import io.requery.proxy.PropertyState;
+import io.requery.query.Result;
+import io.requery.query.Return;
+import io.requery.query.element.QueryElement;
+import io.requery.sql.Configuration;
+import io.requery.sql.ConfigurationBuilder;
+import io.requery.sql.EntityDataStore;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.requery.annotation.Query;
 import org.springframework.data.requery.configs.RequeryTestConfiguration;
 import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.core.RequeryTemplate;
+import org.springframework.data.requery.core.tree.EntityTree;
+import org.springframework.data.requery.domain.Models;
 import org.springframework.data.requery.domain.RandomData;
 import org.springframework.data.requery.domain.basic.BasicGroup;
 import org.springframework.data.requery.domain.basic.BasicUser;
+import org.springframework.data.requery.domain.functional.FuncChild;
+import org.springframework.data.requery.domain.hierarchy.NodeAttribute;
+import org.springframework.data.requery.domain.hierarchy.TreeNode;
+import org.springframework.data.requery.domain.sample.VersionedUser;
+import org.springframework.data.requery.mapping.RequeryMappingContext;
 import org.springframework.data.requery.repository.RequeryRepository;
+import org.springframework.data.requery.repository.TreeQueryExecutor;
+import org.springframework.data.requery.repository.TreeRequeryRepository;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.data.requery.utils.RequeryUtils.unwrap;
 
 @Slf4j
 @RunWith(SpringRunner.class)
@@ -45,9 +77,11 @@ import static org.assertj.core.api.Assertions.assertThat;
 public class RequeryRepositoryTest {
 
     @Autowired RequeryOperations operations;
+    @Autowired DataSource dataSource;
 
     SampleEntityRepository repository;
     GroupEntityRepository groupRepository;
+    FuncChildRepository childRepository;
 
     @Before
     public void setup() {
@@ -55,12 +89,14 @@ public class RequeryRepositoryTest {
 
         repository = new RequeryRepositoryFactory(operations).getRepository(SampleEntityRepository.class);
         groupRepository = new RequeryRepositoryFactory(operations).getRepository(GroupEntityRepository.class);
+        childRepository = new RequeryRepositoryFactory(operations).getRepository(FuncChildRepository.class);
 
         assertThat(repository).isNotNull();
         assertThat(groupRepository).isNotNull();
 
         repository.deleteAll();
         groupRepository.deleteAll();
+        childRepository.deleteAll();
     }
 
     @Test
@@ -123,6 +159,308 @@ public class RequeryRepositoryTest {
         assertThat(repository.count()).isEqualTo(0L);
     }
 
+    @Test
+    public void deleteInBatchBySetBasedDelete() {
+        List<FuncChild> children = new ArrayList<>();
+        for (long i = 1; i <= 100; i++) {
+            FuncChild child = new FuncChild();
+            child.setId(i);
+            child.setName("child-" + i);
+            children.add(child);
+        }
+        childRepository.saveAll(children);
+        assertThat(childRepository.count()).isEqualTo(100L);
+
+        // 저장되지 않은 엔티티는 무시합니다.
+        List<FuncChild> toDelete = new ArrayList<>(children.subList(0, 60));
+        toDelete.add(new FuncChild());
+
+        childRepository.deleteInBatch(toDelete);
+
+        assertThat(childRepository.count()).isEqualTo(40L);
+        assertThat(childRepository.existsById(1L)).isFalse();
+        assertThat(childRepository.existsById(61L)).isTrue();
+
+        childRepository.deleteAll(children.subList(60, 100));
+        assertThat(childRepository.count()).isEqualTo(0L);
+    }
+
+    @Test
+    public void findAllByIdInPaddedChunks() {
+        List<FuncChild> children = new ArrayList<>();
+        for (long i = 1; i <= 300; i++) {
+            FuncChild child = new FuncChild();
+            child.setId(i);
+            child.setName("child-" + i);
+            children.add(child);
+        }
+        childRepository.saveAll(children);
+
+        List<Long> ids = new ArrayList<>();
+        for (long i = 300; i >= 1; i--) {
+            ids.add(i);
+        }
+        ids.add(1L);
+        ids.add(1_000L);
+
+        List<FuncChild> loaded = childRepository.findAllById(ids);
+
+        assertThat(loaded).hasSize(300);
+        assertThat(loaded).extracting(FuncChild::getId).doesNotHaveDuplicates();
+        assertThat(childRepository.findAllById(Collections.emptyList())).isEmpty();
+    }
+
+    @Test
+    public void deleteInBatchWithAssociations() {
+        Set<BasicUser> users = RandomData.randomUsers(10);
+        repository.saveAll(users);
+
+        repository.deleteInBatch(users);
+        assertThat(repository.count()).isEqualTo(0L);
+    }
+
+    @Test
+    public void saveAllUpdatesOnlyModifiedEntities() {
+        List<BasicUser> users = new ArrayList<>(RandomData.randomUsers(10));
+        repository.saveAll(users);
+        assertThat(repository.count()).isEqualTo(10L);
+
+        for (int i = 0; i < 3; i++) {
+            users.get(i).setName("renamed-" + i);
+        }
+        for (int i = 3; i < 5; i++) {
+            users.get(i).setEmail("changed-" + i + "@example.com");
+        }
+        BasicUser newUser = RandomData.randomUser();
+        users.add(newUser);
+
+        DirtyTrackingBatchWriter<BasicUser> writer = new DirtyTrackingBatchWriter<>(operations, BasicUser.class);
+        assertThat(writer.isBatchWritable()).isTrue();
+
+        List<Runnable> onCommit = new ArrayList<>();
+        DirtyBatchStats stats = operations.runInTransaction(() -> writer.write(users, onCommit));
+        onCommit.forEach(Runnable::run);
+
+        assertThat(stats.getInserted()).isEqualTo(1);
+        assertThat(stats.getUpdated()).isEqualTo(5);
+        assertThat(stats.getUpdateStatements()).isEqualTo(2);
+        assertThat(stats.getUpserted()).isEqualTo(0);
+        assertThat(stats.getSkipped()).isEqualTo(5);
+
+        assertThat(newUser.getId()).isNotNull();
+        assertThat(repository.count()).isEqualTo(11L);
+        assertThat(operations.count(BasicUser.class).where(BasicUser.NAME.like("renamed-%")).get().value()).isEqualTo(3);
+        assertThat(operations.count(BasicUser.class).where(BasicUser.EMAIL.like("changed-%")).get().value()).isEqualTo(2);
+
+        // 저장 후에는 변경된 속성이 없으므로 다시 저장해도 SQL 을 실행하지 않습니다.
+        DirtyBatchStats again = operations.runInTransaction(() -> writer.write(users, new ArrayList<>()));
+        assertThat(again.getSkipped()).isEqualTo(11);
+        assertThat(again.getUpdated()).isEqualTo(0);
+    }
+
+    @Test
+    public void saveAllInvokesPreUpdateOnce() {
+        List<BasicUser> users = new ArrayList<>(RandomData.randomUsers(4));
+        repository.saveAll(users);
+
+        CountingPreUpdate counter = new CountingPreUpdate();
+        for (BasicUser user : users) {
+            BasicUser.$TYPE.getProxyProvider().apply(user).modifyListeners().addPreUpdateListener(counter);
+        }
+
+        // batch update 할 엔티티와 upsert 로 위임할 엔티티 (연관관계 변경) 모두 callback 을 한 번씩만 호출합니다.
+        users.get(0).setName("callback-0");
+        users.get(1).setName("callback-1");
+        users.get(2).setName("callback-2");
+        BasicUser.$TYPE.getProxyProvider().apply(users.get(2))
+            .setObject(BasicUser.GROUPS, users.get(2).getGroups(), PropertyState.MODIFIED);
+        repository.saveAll(users);
+
+        assertThat(counter.calls).isEqualTo(3);
+        assertThat(users.get(0).getLastModifiedDate()).isNotNull();
+        assertThat(operations.count(BasicUser.class).where(BasicUser.NAME.like("callback-%")).get().value()).isEqualTo(3);
+    }
+
+    @Test
+    public void saveAllWithVersionConflict() {
+        VersionedUserRepository versionedRepository =
+            new RequeryRepositoryFactory(operations).getRepository(VersionedUserRepository.class);
+        versionedRepository.deleteAll();
+
+        List<VersionedUser> users = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            users.add(new VersionedUser("versioned-" + i, "versioned-" + i + "@example.com", new Date()));
+        }
+        versionedRepository.saveAll(users);
+        Long version = users.get(0).getVersion();
+
+        users.forEach(user -> user.setName(user.getName() + "-updated"));
+        versionedRepository.saveAll(users);
+
+        assertThat(users.get(0).getVersion()).isEqualTo(version + 1);
+        assertThat(operations.count(VersionedUser.class).where(VersionedUser.NAME.like("%-updated")).get().value()).isEqualTo(3);
+
+        // 다른 transaction 에서 version 을 올린 것처럼 만듭니다.
+        operations.update(VersionedUser.class)
+            .set(VersionedUser.VERSION, version + 10)
+            .where(VersionedUser.ID.eq(users.get(1).getId()))
+            .get()
+            .value();
+
+        users.forEach(user -> user.setEmail("conflict@example.com"));
+
+        // requery transaction 이 rollback 하면서 RollbackException 으로 감싸서 던집니다.
+        assertThatThrownBy(() -> versionedRepository.saveAll(users))
+            .hasCauseInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(operations.count(VersionedUser.class).where(VersionedUser.EMAIL.eq("conflict@example.com")).get().value()).isEqualTo(0);
+
+        // rollback 되었으므로 충돌 전에 갱신된 엔티티도 저장 전 상태를 유지하고, 다시 저장할 수 있습니다.
+        assertThat(users.get(0).getVersion()).isEqualTo(version + 1);
+        versionedRepository.saveAll(Collections.singletonList(users.get(0)));
+        assertThat(users.get(0).getVersion()).isEqualTo(version + 2);
+        assertThat(operations.count(VersionedUser.class).where(VersionedUser.EMAIL.eq("conflict@example.com")).get().value()).isEqualTo(1);
+
+        versionedRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void saveAllWithoutBatchUpdateCounts() {
+        VersionedUserRepository versionedRepository =
+            new RequeryRepositoryFactory(operations).getRepository(VersionedUserRepository.class);
+        versionedRepository.deleteAll();
+
+        List<VersionedUser> users = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            users.add(new VersionedUser("no-info-" + i, "no-info-" + i + "@example.com", new Date()));
+        }
+        versionedRepository.saveAll(users);
+        Long version = users.get(0).getVersion();
+
+        // Oracle 처럼 batch 실행 결과로 SUCCESS_NO_INFO 를 반환하는 driver
+        Configuration configuration = new ConfigurationBuilder(noBatchCountDataSource(dataSource), Models.DEFAULT)
+            .setEntityCache(new EmptyEntityCache())
+            .build();
+        RequeryOperations noInfoOperations = new RequeryTemplate(new EntityDataStore<>(configuration), new RequeryMappingContext());
+
+        DirtyTrackingBatchWriter<VersionedUser> writer = new DirtyTrackingBatchWriter<>(noInfoOperations, VersionedUser.class);
+        users.forEach(user -> user.setName(user.getName() + "-updated"));
+        writer.saveAll(users);
+
+        assertThat(writer.isBatchCountsReported()).isFalse();
+        assertThat(users.get(0).getVersion()).isEqualTo(version + 1);
+        assertThat(operations.count(VersionedUser.class).where(VersionedUser.NAME.like("%-updated")).get().value()).isEqualTo(3);
+
+        // 다른 transaction 에서 version 을 올린 것처럼 만듭니다.
+        operations.update(VersionedUser.class)
+            .set(VersionedUser.VERSION, version + 10)
+            .where(VersionedUser.ID.eq(users.get(1).getId()))
+            .get()
+            .value();
+        users.forEach(user -> user.setEmail("no-info-conflict@example.com"));
+
+        // 갱신 건수를 모르는 batch 결과를 다시 조회하여 충돌을 찾습니다.
+        DirtyTrackingBatchWriter<VersionedUser> newWriter = new DirtyTrackingBatchWriter<>(noInfoOperations, VersionedUser.class);
+        assertThatThrownBy(() -> newWriter.saveAll(users))
+            .hasCauseInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(newWriter.isBatchCountsReported()).isFalse();
+
+        // 이후에는 한 건씩 update 하여 충돌을 찾습니다.
+        assertThatThrownBy(() -> writer.saveAll(users))
+            .hasCauseInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(operations.count(VersionedUser.class).where(VersionedUser.EMAIL.eq("no-info-conflict@example.com")).get().value()).isEqualTo(0);
+        assertThat(users.get(0).getVersion()).isEqualTo(version + 1);
+
+        versionedRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void updateWithRetry() {
+        VersionedUserRepository versionedRepository =
+            new RequeryRepositoryFactory(operations).getRepository(VersionedUserRepository.class);
+        versionedRepository.deleteAll();
+
+        List<VersionedUser> users = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            users.add(new VersionedUser("retry-" + i, "retry-" + i + "@example.com", new Date()));
+        }
+        versionedRepository.saveAll(users);
+        Long version = users.get(0).getVersion();
+
+        VersionedUser updated = versionedRepository.updateWithRetry(users.get(0).getId(), user -> user.setName("retried"));
+        assertThat(updated.getName()).isEqualTo("retried");
+        assertThat(updated.getVersion()).isEqualTo(version + 1);
+
+        List<Long> ids = Arrays.asList(users.get(1).getId(), users.get(2).getId());
+        List<VersionedUser> updatedAll = versionedRepository.updateAllWithRetry(ids, user -> user.setEmail("retried@example.com"));
+        assertThat(updatedAll).hasSize(2);
+        assertThat(operations.count(VersionedUser.class).where(VersionedUser.EMAIL.eq("retried@example.com")).get().value()).isEqualTo(2);
+
+        versionedRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void existsChecksWithKeyOnlyQuery() {
+        List<BasicUser> users = new ArrayList<>(RandomData.randomUsers(5));
+        repository.saveAll(users);
+        BasicUser user = users.get(0);
+
+        assertThat(repository.existsById(user.getId())).isTrue();
+        assertThat(repository.existsById(-1L)).isFalse();
+
+        assertThat(operations.existsBy(BasicUser.class, BasicUser.EMAIL.eq(user.getEmail()))).isTrue();
+        assertThat(operations.existsBy(BasicUser.class, BasicUser.EMAIL.eq("not-exists@example.com"))).isFalse();
+
+        assertThat(repository.exists(whereOf(operations.select(BasicUser.class)
+                                                .where(BasicUser.NAME.eq(user.getName()))
+                                                .and(BasicUser.EMAIL.eq(user.getEmail()))))).isTrue();
+        assertThat(repository.exists(whereOf(operations.select(BasicUser.class)
+                                                .where(BasicUser.NAME.eq(user.getName()))
+                                                .and(BasicUser.EMAIL.eq("not-exists@example.com"))))).isFalse();
+
+        // group by 가 있는 쿼리는 원래 쿼리로 확인합니다.
+        assertThat(repository.exists(whereOf(operations.select(BasicUser.class)
+                                                .where(BasicUser.NAME.eq(user.getName()))
+                                                .groupBy(BasicUser.ID)))).isTrue();
+    }
+
+    @Test
+    public void tree_repository_finds_descendants_and_ancestors() {
+        TreeNodeRepository treeRepository = new RequeryRepositoryFactory(operations).getRepository(TreeNodeRepository.class);
+        assertThat(repository).as("tree fragment 는 TreeRequeryRepository 에만 추가합니다").isNotInstanceOf(TreeQueryExecutor.class);
+        operations.deleteAll(NodeAttribute.class);
+        treeRepository.deleteAll();
+
+        TreeNode root = new TreeNode();
+        root.setName("root");
+        TreeNode child = new TreeNode();
+        child.setName("child");
+        child.setParent(root);
+        root.getChildren().add(child);
+        TreeNode grandChild = new TreeNode();
+        grandChild.setName("grandChild");
+        grandChild.setParent(child);
+        child.getChildren().add(grandChild);
+        treeRepository.insert(root);
+
+        try {
+            assertThat(treeRepository.findDescendants(root.getId(), 1)).containsExactly(child);
+            assertThat(treeRepository.findDescendants(root.getId(), 2)).containsExactly(child, grandChild);
+            assertThat(treeRepository.findAncestors(grandChild.getId())).containsExactly(child, root);
+
+            EntityTree<TreeNode> tree = treeRepository.findTree(root.getId(), 2);
+            assertThat(tree.getRoot().getEntity()).isEqualTo(root);
+            assertThat(tree.getNode(grandChild.getId()).getDepth()).isEqualTo(2);
+        } finally {
+            treeRepository.deleteAll();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static QueryElement<? extends Result<BasicUser>> whereOf(Return<? extends Result<BasicUser>> query) {
+        return (QueryElement<? extends Result<BasicUser>>) unwrap(query);
+    }
+
     private interface SampleEntityRepository extends RequeryRepository<BasicUser, Long> {
 
         @Query("select * from basic_user u where u.email = ?")
@@ -131,6 +469,15 @@ public class RequeryRepositoryTest {
 
     }
 
+    private interface VersionedUserRepository extends RequeryRepository<VersionedUser, Long> {
+    }
+
+    private interface FuncChildRepository extends RequeryRepository<FuncChild, Long> {
+    }
+
+    private interface TreeNodeRepository extends TreeRequeryRepository<TreeNode, Long> {
+    }
+
     private interface GroupEntityRepository extends RequeryRepository<BasicGroup, Integer> {
 
         default List<BasicGroup> findAllByName(String name) {
@@ -141,4 +488,59 @@ public class RequeryRepositoryTest {
         }
     }
 
+
+    /**
+     * batch 를 실행한 후 행별 갱신 건수 대신 {@link Statement#SUCCESS_NO_INFO}를 반환하는 {@link DataSource}
+     */
+    private static DataSource noBatchCountDataSource(DataSource dataSource) {
+        return (DataSource) Proxy.newProxyInstance(RequeryRepositoryTest.class.getClassLoader(),
+                                                   new Class<?>[] { DataSource.class },
+                                                   (proxy, method, args) -> {
+                                                       Object result = invoke(dataSource, method, args);
+                                                       return (result instanceof Connection) ? noBatchCountConnection((Connection) result) : result;
+                                                   });
+    }
+
+    private static Connection noBatchCountConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(RequeryRepositoryTest.class.getClassLoader(),
+                                                   new Class<?>[] { Connection.class },
+                                                   (proxy, method, args) -> {
+                                                       Object result = invoke(connection, method, args);
+                                                       if (result instanceof PreparedStatement) {
+                                                           return noBatchCountStatement((PreparedStatement) result);
+                                                       }
+                                                       return result;
+                                                   });
+    }
+
+    private static PreparedStatement noBatchCountStatement(PreparedStatement statement) {
+        return (PreparedStatement) Proxy.newProxyInstance(RequeryRepositoryTest.class.getClassLoader(),
+                                                          new Class<?>[] { PreparedStatement.class },
+                                                          (proxy, method, args) -> {
+                                                              Object result = invoke(statement, method, args);
+                                                              if ("executeBatch".equals(method.getName())) {
+                                                                  int[] counts = new int[((int[]) result).length];
+                                                                  Arrays.fill(counts, Statement.SUCCESS_NO_INFO);
+                                                                  return counts;
+                                                              }
+                                                              return result;
+                                                          });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static class CountingPreUpdate implements PreUpdateListener<BasicUser> {
+        private int calls;
+
+        @Override
+        public void preUpdate(BasicUser entity) {
+            calls++;
+        }
+    }
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.repository.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.requery.annotation.Query;
+import org.springframework.data.requery.configs.RequeryTestConfiguration;
+import org.springframework.data.requery.core.RequeryOperations;
+import org.springframework.data.requery.domain.basic.BasicUser;
+import org.springframework.data.requery.repository.RequeryRepository;
+import org.springframework.data.requery.repository.query.QueryBootstrapMode;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.inject.Inject;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = { RequeryTestConfiguration.class })
+public class RequeryWarmupTest {
+
+    @Inject RequeryOperations operations;
+
+    @Test
+    public void warmupEntityModelAndQueryMethods() {
+        RequeryRepositoryFactory factory = new RequeryRepositoryFactory(operations);
+        factory.getRepository(WarmupRepository.class);
+
+        RequeryWarmupResult result = new RequeryWarmup(operations)
+            .queries(factory.getQueries())
+            .run();
+
+        log.debug("warmup result={}", result);
+        assertThat(result.getEntityTypes()).isEqualTo(operations.getEntityModel().getTypes().size());
+        assertThat(result.getQueryMethods()).isEqualTo(4);
+        assertThat(result.getStatements()).isGreaterThan(result.getQueryMethods());
+        assertThat(result.getPreparedStatements()).isZero();
+        assertThat(result.hasFailures()).isFalse();
+    }
+
+    @Test
+    public void prepareStatementsOnEachConnection() {
+        RequeryRepositoryFactory factory = new RequeryRepositoryFactory(operations);
+        factory.setBootstrapMode(QueryBootstrapMode.LAZY);
+        factory.getRepository(WarmupRepository.class);
+
+        RequeryWarmupResult result = new RequeryWarmup(operations)
+            .queries(factory.getQueries())
+            .prepareStatements(true)
+            .connections(2)
+            .run();
+
+        log.debug("warmup result={}", result);
+        assertThat(result.getQueryMethods()).isEqualTo(4);
+        assertThat(result.getPreparedStatements()).isEqualTo(result.getStatements() * 2);
+        assertThat(result.hasFailures()).isFalse();
+    }
+
+    interface WarmupRepository extends RequeryRepository<BasicUser, Long> {
+
+        List<BasicUser> findByNameAndEmail(String name, String email);
+
+        List<BasicUser> findTop3ByEmailContainingOrderByNameDesc(String email);
+
+        Page<BasicUser> findByName(String name, Pageable pageable);
+
+        @Query("select * from basic_user u where u.email = ?")
+        BasicUser findByAnnotatedQuery(String email);
+    }
+}
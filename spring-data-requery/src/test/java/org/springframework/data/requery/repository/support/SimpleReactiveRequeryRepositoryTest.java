@@ -0,0 +1,176 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.repository.support;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.requery.core.RequerySchedulers;
+import org.springframework.data.requery.domain.AbstractDomainTest;
+import org.springframework.data.requery.domain.RandomData;
+import org.springframework.data.requery.domain.basic.BasicUser;
+import org.springframework.data.requery.repository.ReactiveRequeryRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * SimpleReactiveRequeryRepositoryTest
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+@Slf4j
+public class SimpleReactiveRequeryRepositoryTest extends AbstractDomainTest {
+
+    interface ReactiveBasicUserRepository extends ReactiveRequeryRepository<BasicUser, Long> {
+
+        Flux<BasicUser> findByAge(Integer age);
+
+        Mono<BasicUser> findFirstByEmail(String email);
+
+        Mono<Long> countByAge(Integer age);
+    }
+
+    private static final int USER_COUNT = 100;
+
+    private Scheduler scheduler;
+    private ReactiveBasicUserRepository repository;
+
+    @Before
+    public void setup() {
+        requeryOperations.deleteAll(BasicUser.class);
+
+        scheduler = RequerySchedulers.newBounded(2);
+        repository = new ReactiveRequeryRepositoryFactory(requeryOperations, scheduler).getRepository(ReactiveBasicUserRepository.class);
+    }
+
+    @After
+    public void cleanup() {
+        requeryOperations.deleteAll(BasicUser.class);
+        scheduler.dispose();
+    }
+
+    private List<BasicUser> saveUsers(final int count) {
+        return repository
+            .saveAll(Flux.range(0, count).map(i -> {
+                BasicUser user = RandomData.randomUser();
+                user.setName("user-" + i);
+                user.setEmail("user-" + i + "@example.com");
+                user.setAge(i % 10);
+                return user;
+            }))
+            .collectList()
+            .block();
+    }
+
+    @Test
+    public void save_and_find_by_id() {
+        BasicUser user = repository.save(RandomData.randomUser()).block();
+        assertThat(user.getId()).isNotNull();
+
+        assertThat(repository.findById(user.getId()).block()).isEqualTo(user);
+        assertThat(repository.findById(Mono.just(user.getId())).block()).isEqualTo(user);
+        assertThat(repository.existsById(user.getId()).block()).isTrue();
+        assertThat(repository.findById(-1L).blockOptional()).isEmpty();
+
+        repository.deleteById(user.getId()).block();
+        assertThat(repository.existsById(user.getId()).block()).isFalse();
+    }
+
+    @Test
+    public void save_all_from_publisher_keeps_order() {
+        List<BasicUser> saved = saveUsers(USER_COUNT);
+
+        assertThat(saved).hasSize(USER_COUNT);
+        assertThat(saved).allMatch(user -> user.getId() != null);
+        assertThat(saved.stream().map(BasicUser::getName).collect(Collectors.toList()))
+            .containsExactlyElementsOf(IntStream.range(0, USER_COUNT).mapToObj(i -> "user-" + i).collect(Collectors.toList()));
+        assertThat(repository.count().block()).isEqualTo((long) USER_COUNT);
+    }
+
+    @Test
+    public void find_all_runs_on_scheduler_in_requested_chunks() {
+        saveUsers(USER_COUNT);
+
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        List<BasicUser> users = repository.findAll()
+            .doOnNext(user -> threads.add(Thread.currentThread().getName()))
+            .limitRate(15)
+            .collectList()
+            .block();
+
+        assertThat(users).hasSize(USER_COUNT);
+        assertThat(users.stream().map(BasicUser::getId).distinct().count()).isEqualTo(USER_COUNT);
+        assertThat(users).isSortedAccordingTo((a, b) -> a.getId().compareTo(b.getId()));
+        assertThat(threads).allMatch(name -> name.startsWith("requery-jdbc-"));
+    }
+
+    @Test
+    public void find_all_with_sort_and_condition() {
+        saveUsers(USER_COUNT);
+
+        List<BasicUser> sorted = repository.findAll(Sort.by(Sort.Direction.DESC, "name")).limitRate(7).collectList().block();
+        assertThat(sorted).hasSize(USER_COUNT);
+        assertThat(sorted).isSortedAccordingTo((a, b) -> b.getName().compareTo(a.getName()));
+
+        List<BasicUser> filtered = repository.findAll(BasicUser.AGE.eq(3).or(BasicUser.AGE.eq(4))).limitRate(4).collectList().block();
+        assertThat(filtered).hasSize(USER_COUNT / 5);
+        assertThat(filtered).allMatch(user -> user.getAge() == 3 || user.getAge() == 4);
+        assertThat(repository.count(BasicUser.AGE.eq(3)).block()).isEqualTo((long) USER_COUNT / 10);
+    }
+
+    @Test
+    public void find_all_by_id_from_publisher() {
+        List<Long> ids = saveUsers(20).stream().map(BasicUser::getId).collect(Collectors.toList());
+
+        assertThat(repository.findAllById(Flux.fromIterable(ids)).collectList().block()).hasSize(20);
+        assertThat(repository.findAllById(ids.subList(0, 5)).collectList().block()).hasSize(5);
+    }
+
+    @Test
+    public void query_methods_return_reactive_types() {
+        saveUsers(USER_COUNT);
+
+        assertThat(repository.findByAge(5).collectList().block()).hasSize(USER_COUNT / 10);
+        assertThat(repository.findFirstByEmail("user-7@example.com").block().getName()).isEqualTo("user-7");
+        assertThat(repository.findFirstByEmail("nobody@example.com").blockOptional()).isEmpty();
+        assertThat(repository.countByAge(1).block()).isEqualTo((long) USER_COUNT / 10);
+    }
+
+    @Test
+    public void delete_all_from_publisher() {
+        List<BasicUser> saved = saveUsers(30);
+
+        repository.deleteAll(Flux.fromIterable(saved.subList(0, 10))).block();
+        assertThat(repository.count().block()).isEqualTo(20L);
+
+        repository.deleteAll().block();
+        assertThat(repository.count().block()).isZero();
+    }
+}
@@ -40,6 +40,7 @@ import javax.annotation.Nonnull;
 import javax.sql.DataSource;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @Slf4j
 @RunWith(SpringRunner.class)
@@ -95,6 +96,20 @@ public class TransactionalRepositoryTest {
         assertThat(transactionManager.getDefinition().isReadOnly()).isTrue();
     }
 
+    @Test
+    public void readOnlyCrudMethodJoinsActiveTransactionDirectly() {
+        repository.count();
+        repository.existsById(1L);
+        repository.findAll();
+        assertThat(transactionManager.getTransactionRequests()).isEqualTo(0);
+    }
+
+    @Test
+    public void failedDirectCallGoesThroughTransactionInterceptor() {
+        assertThatThrownBy(() -> repository.existsById(null)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(transactionManager.getTransactionRequests()).isEqualTo(1);
+    }
+
     @Getter
     @Slf4j
     public static class DelegatingTransactionManager implements PlatformTransactionManager {
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.springframework.data.requery.utils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * IdBatchesTest
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+public class IdBatchesTest {
+
+    @Test
+    public void bucketSizeIsPowerOfTwo() {
+        assertThat(IdBatches.bucketSize(1, 256)).isEqualTo(1);
+        assertThat(IdBatches.bucketSize(3, 256)).isEqualTo(4);
+        assertThat(IdBatches.bucketSize(64, 256)).isEqualTo(64);
+        assertThat(IdBatches.bucketSize(65, 256)).isEqualTo(128);
+        assertThat(IdBatches.bucketSize(300, 256)).isEqualTo(256);
+        assertThat(IdBatches.bucketSize(600, 999)).isEqualTo(999);
+    }
+
+    @Test
+    public void distinctLongIds() {
+        List<?> ids = IdBatches.distinct(Arrays.asList(3L, 1L, null, 3L, 2L, 1L));
+
+        assertThat(ids).isInstanceOf(IdBatches.LongArrayList.class);
+        assertThat(ids).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    public void distinctIntIds() {
+        List<?> ids = IdBatches.distinct(Arrays.asList(5, 5, 4));
+
+        assertThat(ids).isInstanceOf(IdBatches.IntArrayList.class);
+        assertThat(ids).containsExactly(4, 5);
+    }
+
+    @Test
+    public void distinctOtherIds() {
+        UUID id1 = UUID.randomUUID();
+        UUID id2 = UUID.randomUUID();
+
+        assertThat(IdBatches.distinct(Arrays.asList(id1, id2, id1))).containsExactly(id1, id2);
+        assertThat(IdBatches.distinct(Arrays.asList(1L, 2))).containsExactly(1L, 2);
+        assertThat(IdBatches.distinct(Arrays.asList(null, null))).isEmpty();
+    }
+
+    @Test
+    public void partitionPadsWithLastId() {
+        List<Long> ids = Arrays.asList(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L, 11L);
+
+        List<List<Long>> chunks = IdBatches.partition(ids, 8);
+
+        assertThat(chunks).hasSize(2);
+        assertThat(chunks.get(0)).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L);
+        assertThat(chunks.get(1)).containsExactly(9L, 10L, 11L, 11L);
+    }
+}
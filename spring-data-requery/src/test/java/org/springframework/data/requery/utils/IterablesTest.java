@@ -20,6 +20,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.junit.Test;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
@@ -50,4 +51,13 @@ public class IterablesTest {
         Set<Integer> set = Iterables.toSet(numbers);
         assertThat(set).hasSize(5).containsAll(numbers);
     }
+
+    @Test
+    public void partitionList() {
+        List<Integer> numbers = Arrays.asList(1, 2, 3, 4, 5);
+
+        assertThat(Iterables.partition(numbers, 2)).containsExactly(Arrays.asList(1, 2), Arrays.asList(3, 4), Arrays.asList(5));
+        assertThat(Iterables.partition(numbers, 5)).containsExactly(numbers);
+        assertThat(Iterables.partition(Collections.emptyList(), 5)).isEmpty();
+    }
 }
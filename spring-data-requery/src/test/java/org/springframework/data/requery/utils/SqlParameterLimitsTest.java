@@ -0,0 +1,53 @@
+/*
+ * Copyright 2018 Coupang Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.requery.utils;
+
+import io.requery.sql.platform.H2;
+import io.requery.sql.platform.Oracle;
+import io.requery.sql.platform.PostgresSQL;
+import io.requery.sql.platform.SQLServer;
+import io.requery.sql.platform.SQLite;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * SqlParameterLimitsTest
+ *
+ * @author debop
+ * @since 26. 10. 19
+ */
+public class SqlParameterLimitsTest {
+
+    @Test
+    public void maxInListSizeByPlatform() {
+        assertThat(SqlParameterLimits.getMaxInListSize(new Oracle(), 0)).isEqualTo(1000);
+        assertThat(SqlParameterLimits.getMaxInListSize(new SQLite(), 0)).isEqualTo(999);
+        assertThat(SqlParameterLimits.getMaxInListSize(new PostgresSQL(), 0)).isEqualTo(SqlParameterLimits.MAX_IN_LIST_SIZE);
+        assertThat(SqlParameterLimits.getMaxInListSize(new H2(), 0)).isEqualTo(SqlParameterLimits.EMBEDDED_MAX_IN_LIST_SIZE);
+    }
+
+    @Test
+    public void reserveParameters() {
+        assertThat(SqlParameterLimits.getMaxInListSize(new SQLServer(), 2000)).isEqualTo(100);
+        assertThat(SqlParameterLimits.getMaxInListSize(new Oracle(), 10)).isEqualTo(990);
+
+        assertThatThrownBy(() -> SqlParameterLimits.getMaxInListSize(new SQLite(), 999))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}